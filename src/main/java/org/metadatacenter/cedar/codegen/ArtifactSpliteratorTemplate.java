@@ -0,0 +1,360 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * This class represents a template for generating a sized, splittable spliterator over the artifacts of an instance.
+ * The spliterator visits the artifacts of an instance tree in pre-order, and splits at element and list item
+ * boundaries so that the halves have about the same number of artifacts.  The children and the number of artifacts
+ * of each element are computed by generated methods that call record accessors directly.
+ */
+public class ArtifactSpliteratorTemplate {
+
+    private static final String ARTIFACT_SPLITERATOR_DECL = """
+            /**
+             * A spliterator over an element and all of its descendant artifacts, or over the items of an artifact
+             * list and all of their descendant artifacts, in pre-order.  The children of an element are its fields
+             * and elements in the order of the template, with lists replaced by their items, followed by its
+             * attribute values.  {@code null} children are left out.
+             * <p>
+             * The spliterator is sized and splits at element and list item boundaries, so that the two parts have
+             * about the same number of artifacts.  This makes parallel streams of the artifacts of large instances
+             * balanced.  Elements whose types were not generated with this spliterator, such as lazy elements, are
+             * split into the artifacts that {@link Element#getArtifacts()} returns.
+             */
+            public static final class ArtifactSpliterator implements Spliterator<Artifact> {
+
+                private static final int CHARACTERISTICS = ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+
+                private static final Map<Class<?>, Function<Object, List<Artifact>>> CHILDREN = getChildFunctions();
+
+                private static final Map<Class<?>, ToLongFunction<Object>> COUNTS = getCountFunctions();
+
+                /**
+                 * The artifacts that remain to be visited, each with all of its descendants, unless it is wrapped in
+                 * a {@link Visited}.
+                 */
+                private final ArrayDeque<Object> pending;
+
+                private long size;
+
+                private ArtifactSpliterator(ArrayDeque<Object> pending, long size) {
+                    this.pending = pending;
+                    this.size = size;
+                }
+
+                /**
+                 * Gets a spliterator over the specified element and its descendant artifacts.
+                 */
+                public static ArtifactSpliterator of(@Nonnull Element element) {
+                    var pending = new ArrayDeque<Object>();
+                    pending.add(Objects.requireNonNull(element));
+                    return new ArtifactSpliterator(pending, count(element));
+                }
+
+                /**
+                 * Gets a spliterator over the items of the specified list and their descendant artifacts.
+                 */
+                public static ArtifactSpliterator of(@Nonnull ArtifactList list) {
+                    var pending = new ArrayDeque<Object>();
+                    var size = 0L;
+                    for (var item : list.getArtifacts()) {
+                        if (item != null) {
+                            pending.add(item);
+                            size += count(item);
+                        }
+                    }
+                    return new ArtifactSpliterator(pending, size);
+                }
+
+                /**
+                 * Gets a stream of the specified element and its descendant artifacts.
+                 */
+                public static Stream<Artifact> stream(@Nonnull Element element, boolean parallel) {
+                    return StreamSupport.stream(of(element), parallel);
+                }
+
+                @Override
+                public boolean tryAdvance(Consumer<? super Artifact> action) {
+                    var next = pending.pollFirst();
+                    if (next == null) {
+                        return false;
+                    }
+                    size--;
+                    if (next instanceof Visited visited) {
+                        action.accept(visited.artifact());
+                        return true;
+                    }
+                    var artifact = (Artifact) next;
+                    var children = children(artifact);
+                    for (int i = children.size() - 1; i >= 0; i--) {
+                        pending.addFirst(children.get(i));
+                    }
+                    action.accept(artifact);
+                    return true;
+                }
+
+                @Override
+                public void forEachRemaining(Consumer<? super Artifact> action) {
+                    Object next;
+                    while ((next = pending.pollFirst()) != null) {
+                        if (next instanceof Visited visited) {
+                            action.accept(visited.artifact());
+                        }
+                        else {
+                            visit((Artifact) next, action);
+                        }
+                    }
+                    size = 0;
+                }
+
+                private static void visit(Artifact artifact, Consumer<? super Artifact> action) {
+                    action.accept(artifact);
+                    for (var child : children(artifact)) {
+                        visit(child, action);
+                    }
+                }
+
+                /**
+                 * Splits off the first part of the remaining artifacts.  If only one artifact remains then it is
+                 * replaced by itself, without its descendants, and its children, which are then split.
+                 */
+                @Override
+                public Spliterator<Artifact> trySplit() {
+                    if (pending.size() == 1 && pending.peekFirst() instanceof Artifact artifact) {
+                        var children = children(artifact);
+                        if (children.isEmpty()) {
+                            return null;
+                        }
+                        pending.clear();
+                        pending.add(new Visited(artifact));
+                        pending.addAll(children);
+                    }
+                    if (pending.size() < 2) {
+                        return null;
+                    }
+                    var prefix = new ArrayDeque<Object>();
+                    var prefixSize = 0L;
+                    while (pending.size() > 1 && prefixSize < size / 2) {
+                        var next = pending.pollFirst();
+                        prefix.add(next);
+                        prefixSize += next instanceof Visited ? 1 : count((Artifact) next);
+                    }
+                    size -= prefixSize;
+                    return new ArtifactSpliterator(prefix, prefixSize);
+                }
+
+                @Override
+                public long estimateSize() {
+                    return size;
+                }
+
+                @Override
+                public int characteristics() {
+                    return CHARACTERISTICS;
+                }
+
+                private static List<Artifact> children(Artifact artifact) {
+                    var childFunction = CHILDREN.get(artifact.getClass());
+                    if (childFunction != null) {
+                        return childFunction.apply(artifact);
+                    }
+                    if (artifact instanceof Element element) {
+                        return element.getArtifacts().filter(Objects::nonNull).toList();
+                    }
+                    return List.of();
+                }
+
+                /**
+                 * Counts the specified artifact and its descendant artifacts.
+                 */
+                private static long count(Artifact artifact) {
+                    var countFunction = COUNTS.get(artifact.getClass());
+                    if (countFunction != null) {
+                        return countFunction.applyAsLong(artifact);
+                    }
+                    var count = 1L;
+                    for (var child : children(artifact)) {
+                        count += count(child);
+                    }
+                    return count;
+                }
+
+                private static Map<Class<?>, Function<Object, List<Artifact>>> getChildFunctions() {
+                    var functions = new HashMap<Class<?>, Function<Object, List<Artifact>>>();
+                    ${childFunctionStatements}
+                    return functions;
+                }
+
+                private static Map<Class<?>, ToLongFunction<Object>> getCountFunctions() {
+                    var functions = new HashMap<Class<?>, ToLongFunction<Object>>();
+                    ${countFunctionStatements}
+                    return functions;
+                }
+
+                ${methods}
+
+                /**
+                 * An artifact whose descendants are visited separately.
+                 */
+                private record Visited(Artifact artifact) {
+
+                }
+            }
+            """;
+
+    private static final String ELEMENT_METHODS_DECL = """
+                private static List<Artifact> children${methodSuffix}(${typeName} value) {
+                    var children = new ArrayList<Artifact>();
+                    ${childStatements}
+                    return children;
+                }
+
+                private static long count${methodSuffix}(${typeName} value) {
+                    var count = 1L;
+                    ${countStatements}
+                    return count;
+                }
+
+            """;
+
+    private static final String CHILDREN_PART_METHOD_DECL = """
+                private static void children${methodSuffix}(${typeName} value, List<Artifact> children) {
+                    ${childStatements}
+                }
+
+            """;
+
+    private static final String COUNT_PART_METHOD_DECL = """
+                private static long count${methodSuffix}(${typeName} value) {
+                    var count = 0L;
+                    ${countStatements}
+                    return count;
+                }
+
+            """;
+
+    private static final String SPLITERATOR_METHOD_DECL = """
+            /**
+             * Gets a sized, splittable spliterator over the artifacts of this value and all of their descendants.
+             * Use {@code StreamSupport.stream(artifactSpliterator(), true)} for a balanced parallel stream.
+             */
+            public Spliterator<Artifact> artifactSpliterator() {
+                return ArtifactSpliterator.of(this);
+            }
+            """;
+
+    /**
+     * Fills the template for the artifact spliterator of the specified root node.
+     *
+     * @param rootNode           The generated root node of the template.
+     * @param hasAttributeValues A predicate that determines whether the record of an element node has an
+     *                           attribute values component.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull GeneratedArtifactNode rootNode,
+                               @Nonnull Predicate<GeneratedArtifactNode> hasAttributeValues) {
+        Objects.requireNonNull(rootNode);
+        Objects.requireNonNull(hasAttributeValues);
+        var methods = new LinkedHashMap<String, String>();
+        var childFunctionStatements = new StringBuilder();
+        var countFunctionStatements = new StringBuilder();
+        collectElementMethods(rootNode, hasAttributeValues, methods, childFunctionStatements, countFunctionStatements);
+        return ARTIFACT_SPLITERATOR_DECL.replace("${childFunctionStatements}", childFunctionStatements)
+                                        .replace("${countFunctionStatements}", countFunctionStatements)
+                                        .replace("${methods}", String.join("", methods.values()));
+    }
+
+    /**
+     * Gets the declaration of the {@code artifactSpliterator} method that is added to each element record and each
+     * artifact list record.
+     */
+    public String getSpliteratorMethodDeclaration() {
+        return SPLITERATOR_METHOD_DECL;
+    }
+
+    private static void collectElementMethods(GeneratedArtifactNode node,
+                                              Predicate<GeneratedArtifactNode> hasAttributeValues,
+                                              Map<String, String> methods,
+                                              StringBuilder childFunctionStatements,
+                                              StringBuilder countFunctionStatements) {
+        if (methods.containsKey(node.qualifiedTypeName())) {
+            return;
+        }
+        var childItemStatements = new ArrayList<String>();
+        var countItemStatements = new ArrayList<String>();
+        var childNodes = node.childNodes();
+        for (int i = 0; i < childNodes.size(); i++) {
+            var childNode = childNodes.get(i);
+            if (childNode.node().isAttributeValueField()) {
+                continue;
+            }
+            var child = "c" + i;
+            var declaration = "var " + child + " = value." + childNode.paramName() + "();\n"
+                    + "if (" + child + " != null) {\n";
+            if (childNode.node().isListType()) {
+                var loop = "for (var item : " + child + "." + childNode.listParamName() + "()) {\n"
+                        + "if (item != null) {\n";
+                childItemStatements.add(declaration + loop + "children.add(item);\n}\n}\n}\n");
+                countItemStatements.add(declaration + loop
+                                                + (childNode.isElement() ? "count += count" + childNode.methodSuffix() + "(item);\n" : "count++;\n")
+                                                + "}\n}\n}\n");
+            }
+            else {
+                childItemStatements.add(declaration + "children.add(" + child + ");\n}\n");
+                countItemStatements.add(declaration
+                                                + (childNode.isElement() ? "count += count" + childNode.methodSuffix() + "(" + child + ");\n" : "count++;\n")
+                                                + "}\n");
+            }
+        }
+        var methodSuffix = node.methodSuffix();
+        var typeName = node.qualifiedTypeName();
+        var partMethods = new StringBuilder();
+        var childStatements = new StringBuilder(PartitionedElementRecordTemplate.splitIntoPartMethods(
+                childItemStatements,
+                methodSuffix,
+                suffix -> "children" + suffix + "(value, children);\n",
+                (suffix, statements) -> CHILDREN_PART_METHOD_DECL.replace("${methodSuffix}", suffix)
+                                                                 .replace("${typeName}", typeName)
+                                                                 .replace("${childStatements}", statements),
+                partMethods));
+        var countStatements = new StringBuilder(PartitionedElementRecordTemplate.splitIntoPartMethods(
+                countItemStatements,
+                methodSuffix,
+                suffix -> "count += count" + suffix + "(value);\n",
+                (suffix, statements) -> COUNT_PART_METHOD_DECL.replace("${methodSuffix}", suffix)
+                                                              .replace("${typeName}", typeName)
+                                                              .replace("${countStatements}", statements),
+                partMethods));
+        if (hasAttributeValues.test(node)) {
+            var attributeValueStatements = """
+                    if (value.attributeValues() != null) {
+                    for (var attributeValue : value.attributeValues().values()) {
+                    if (attributeValue != null) {
+                    ${statement}
+                    }
+                    }
+                    }
+                    """;
+            childStatements.append(attributeValueStatements.replace("${statement}", "children.add(attributeValue);"));
+            countStatements.append(attributeValueStatements.replace("${statement}", "count++;"));
+        }
+        methods.put(typeName, ELEMENT_METHODS_DECL.replace("${methodSuffix}", methodSuffix)
+                                                  .replace("${typeName}", typeName)
+                                                  .replace("${childStatements}", childStatements)
+                                                  .replace("${countStatements}", countStatements)
+                + partMethods);
+        childFunctionStatements.append("functions.put(").append(typeName).append(".class, value -> children")
+                               .append(methodSuffix).append("((").append(typeName).append(") value));\n");
+        countFunctionStatements.append("functions.put(").append(typeName).append(".class, value -> count")
+                               .append(methodSuffix).append("((").append(typeName).append(") value));\n");
+        childNodes.stream()
+                  .filter(GeneratedArtifactNode::isElement)
+                  .forEach(childNode -> collectElementMethods(childNode, hasAttributeValues, methods, childFunctionStatements, countFunctionStatements));
+    }
+}
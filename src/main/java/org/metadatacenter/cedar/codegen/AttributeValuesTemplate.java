@@ -0,0 +1,293 @@
+package org.metadatacenter.cedar.codegen;
+
+/**
+ * This class represents a template for the container that holds the attribute values of elements that have
+ * attribute-value fields.  Attribute names and values are stored in parallel arrays, in insertion order, with an
+ * open-addressing index for larger maps.  The container is written to JSON by a dedicated serializer that does not
+ * go through the {@code Map} view.
+ */
+public class AttributeValuesTemplate {
+
+    private static final String ATTRIBUTE_VALUES_DECL = """
+            /**
+             * A compact, insertion ordered, map of attribute names to attribute values.  Names and lexical values are
+             * stored in parallel arrays and maps with more than a few entries are indexed by an open-addressing hash
+             * table.  Values are stored by their lexical value, so {@link #get(Object)} returns a
+             * {@link LiteralFieldImpl}.  Writes are synchronized and publish an immutable snapshot of the table, so
+             * readers do not need to lock and always see a consistent map.
+             */
+            public static final class AttributeValues extends AbstractMap<String, LiteralField> {
+
+                /**
+                 * Maps with at most this capacity are searched linearly rather than through the index.
+                 */
+                private static final int INDEX_THRESHOLD = 8;
+
+                private static final Table EMPTY_TABLE = new Table(new String[0], new String[0], null, 0);
+
+                private volatile Table table;
+
+                public AttributeValues() {
+                    this.table = EMPTY_TABLE;
+                }
+
+                public AttributeValues(int expectedSize) {
+                    this.table = expectedSize <= 0 ? EMPTY_TABLE : Table.allocate(expectedSize);
+                }
+
+                public AttributeValues(Map<String, ? extends LiteralField> values) {
+                    this(values.size());
+                    values.forEach(this::put);
+                }
+
+                /**
+                 * The arrays of a map.  Entries below {@code size} are never modified, apart from their values, so a
+                 * table can be read while later entries are added.
+                 * @param keys The attribute names.
+                 * @param values The lexical values.
+                 * @param index The index, or {@code null} for small maps.  Slots hold the position of an entry plus
+                 *              one, or zero for an empty slot.
+                 * @param size The number of entries.
+                 */
+                private record Table(String[] keys, String[] values, int[] index, int size) {
+
+                    private static Table allocate(int capacity) {
+                        return new Table(new String[capacity], new String[capacity], newIndex(capacity), 0);
+                    }
+
+                    private static int[] newIndex(int capacity) {
+                        if (capacity <= INDEX_THRESHOLD) {
+                            return null;
+                        }
+                        return new int[Integer.highestOneBit(capacity - 1) << 2];
+                    }
+
+                    private static int slot(String key, int mask) {
+                        var hash = key.hashCode();
+                        return (hash ^ (hash >>> 16)) & mask;
+                    }
+
+                    private int find(String key) {
+                        if (index == null) {
+                            for (int i = 0; i < size; i++) {
+                                if (keys[i].equals(key)) {
+                                    return i;
+                                }
+                            }
+                            return -1;
+                        }
+                        var mask = index.length - 1;
+                        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+                            var entry = index[slot];
+                            // Slots of entries that were added after this table was published are treated as empty
+                            if (entry == 0 || entry > size) {
+                                return -1;
+                            }
+                            if (keys[entry - 1].equals(key)) {
+                                return entry - 1;
+                            }
+                        }
+                    }
+
+                    private void addToIndex(int position) {
+                        if (index != null) {
+                            var mask = index.length - 1;
+                            var slot = slot(keys[position], mask);
+                            while (index[slot] != 0) {
+                                slot = (slot + 1) & mask;
+                            }
+                            index[slot] = position + 1;
+                        }
+                    }
+
+                    private Table withCapacity(int capacity) {
+                        var copy = new Table(Arrays.copyOf(keys, capacity), Arrays.copyOf(values, capacity), newIndex(capacity), size);
+                        for (int i = 0; i < size; i++) {
+                            copy.addToIndex(i);
+                        }
+                        return copy;
+                    }
+                }
+
+                /**
+                 * Gets the lexical value of the specified attribute without creating a {@link LiteralField}.
+                 * @return The lexical value, or {@code null} if there is no such attribute or its value is null.
+                 */
+                public String value(String key) {
+                    var table = this.table;
+                    var position = table.find(key);
+                    return position == -1 ? null : table.values[position];
+                }
+
+                @Override
+                public int size() {
+                    return table.size;
+                }
+
+                @Override
+                public boolean containsKey(Object key) {
+                    return key instanceof String name && table.find(name) != -1;
+                }
+
+                @Override
+                public LiteralField get(Object key) {
+                    if (!(key instanceof String name)) {
+                        return null;
+                    }
+                    var table = this.table;
+                    var position = table.find(name);
+                    return position == -1 ? null : new LiteralFieldImpl(table.values[position]);
+                }
+
+                @Override
+                public synchronized LiteralField put(String key, LiteralField value) {
+                    Objects.requireNonNull(key);
+                    var lexicalValue = value == null ? null : value.value();
+                    var table = this.table;
+                    var position = table.find(key);
+                    if (position != -1) {
+                        var previous = table.values[position];
+                        table.values[position] = lexicalValue;
+                        // Republish so that the new value is visible to readers
+                        this.table = table;
+                        return new LiteralFieldImpl(previous);
+                    }
+                    if (table.size == table.keys.length) {
+                        table = table.withCapacity(Math.max(4, table.size * 2));
+                    }
+                    table.keys[table.size] = key;
+                    table.values[table.size] = lexicalValue;
+                    table.addToIndex(table.size);
+                    this.table = new Table(table.keys, table.values, table.index, table.size + 1);
+                    return null;
+                }
+
+                @Override
+                public synchronized LiteralField remove(Object key) {
+                    if (!(key instanceof String name)) {
+                        return null;
+                    }
+                    var table = this.table;
+                    var position = table.find(name);
+                    if (position == -1) {
+                        return null;
+                    }
+                    var removed = Table.allocate(table.keys.length);
+                    System.arraycopy(table.keys, 0, removed.keys, 0, position);
+                    System.arraycopy(table.values, 0, removed.values, 0, position);
+                    System.arraycopy(table.keys, position + 1, removed.keys, position, table.size - position - 1);
+                    System.arraycopy(table.values, position + 1, removed.values, position, table.size - position - 1);
+                    var size = table.size - 1;
+                    for (int i = 0; i < size; i++) {
+                        removed.addToIndex(i);
+                    }
+                    this.table = new Table(removed.keys, removed.values, removed.index, size);
+                    return new LiteralFieldImpl(table.values[position]);
+                }
+
+                @Override
+                public synchronized void clear() {
+                    this.table = EMPTY_TABLE;
+                }
+
+                @Override
+                public void forEach(BiConsumer<? super String, ? super LiteralField> action) {
+                    var table = this.table;
+                    for (int i = 0; i < table.size; i++) {
+                        action.accept(table.keys[i], new LiteralFieldImpl(table.values[i]));
+                    }
+                }
+
+                @Override
+                public Set<Entry<String, LiteralField>> entrySet() {
+                    return new AbstractSet<>() {
+                        @Override
+                        public Iterator<Entry<String, LiteralField>> iterator() {
+                            var table = AttributeValues.this.table;
+                            return new Iterator<>() {
+
+                                private int next = 0;
+
+                                @Override
+                                public boolean hasNext() {
+                                    return next < table.size;
+                                }
+
+                                @Override
+                                public Entry<String, LiteralField> next() {
+                                    if (!hasNext()) {
+                                        throw new NoSuchElementException();
+                                    }
+                                    var position = next++;
+                                    return new SimpleImmutableEntry<>(table.keys[position], new LiteralFieldImpl(table.values[position]));
+                                }
+
+                                @Override
+                                public void remove() {
+                                    if (next == 0) {
+                                        throw new IllegalStateException();
+                                    }
+                                    AttributeValues.this.remove(table.keys[next - 1]);
+                                }
+                            };
+                        }
+
+                        @Override
+                        public int size() {
+                            return table.size;
+                        }
+                    };
+                }
+            }
+
+            """;
+
+    private static final String ATTRIBUTE_VALUES_SERIALIZER_DECL = """
+            /**
+             * Writes attribute values as fields of the JSON object of their element.  Values held in an
+             * {@link AttributeValues} container are written straight from its arrays.
+             */
+            public static final class AttributeValuesSerializer extends JsonSerializer<Map<String, LiteralField>> {
+
+                @Override
+                public void serialize(Map<String, LiteralField> values,
+                                      JsonGenerator generator,
+                                      SerializerProvider serializers) throws IOException {
+                    if (values instanceof AttributeValues attributeValues) {
+                        var table = attributeValues.table;
+                        for (int i = 0; i < table.size; i++) {
+                            writeAttributeValue(generator, table.keys[i], table.values[i]);
+                        }
+                    }
+                    else {
+                        for (var entry : values.entrySet()) {
+                            writeAttributeValue(generator, entry.getKey(), entry.getValue() == null ? null : entry.getValue().value());
+                        }
+                    }
+                }
+
+                private static void writeAttributeValue(JsonGenerator generator, String key, String value) throws IOException {
+                    generator.writeFieldName(key);
+                    generator.writeStartObject();
+                    generator.writeStringField("@value", value);
+                    generator.writeEndObject();
+                }
+            }
+            """;
+
+    /**
+     * Gets the declaration of the attribute values container.  This should be added to the generated code once, if
+     * the template has any attribute-value fields.
+     */
+    public String getDeclaration() {
+        return ATTRIBUTE_VALUES_DECL;
+    }
+
+    /**
+     * Gets the declaration of the serializer for attribute values.  This should be added to the generated code
+     * along with the container.
+     */
+    public String getSerializerDeclaration() {
+        return ATTRIBUTE_VALUES_SERIALIZER_DECL;
+    }
+}
@@ -0,0 +1,493 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * This class represents a template for generating a compact, schema specific, binary codec for instances of a
+ * template.  Child artifacts are identified by their position in the code generation node tree rather than by name.
+ * The presence of optional children is recorded in bitmaps and lengths are written as varints.  Encoded instances
+ * start with a header containing a format version and a digest of the template structure, so that data encoded with
+ * a different version of a template is rejected rather than misread.
+ */
+public class BinaryCodecTemplate {
+
+    private static final String BINARY_CODEC_DECL = """
+            /**
+             * A compact binary encoding of {@link ${rootType}} instances.  The encoding is specific to the template that
+             * this code was generated from.  Encoded bytes start with a header that contains {@link #MAGIC},
+             * {@link #FORMAT_VERSION} and {@link #TEMPLATE_DIGEST}; decoding fails if any of these do not match.
+             * <p>
+             * List items must not be {@code null}.
+             */
+            public static final class BinaryCodec {
+
+                public static final int MAGIC = 0x43454442;
+
+                public static final int FORMAT_VERSION = 1;
+
+                /**
+                 * A digest of the structure of the template that this codec was generated from.
+                 */
+                public static final long TEMPLATE_DIGEST = ${templateDigest}L;
+
+                private BinaryCodec() {
+                }
+
+                /**
+                 * Encodes the specified instance.
+                 */
+                public static byte[] encode(@Nonnull ${rootType} instance) {
+                    var out = new Encoder();
+                    out.writeFixedInt(MAGIC);
+                    out.writeVarInt(FORMAT_VERSION);
+                    out.writeFixedLong(TEMPLATE_DIGEST);
+                    write${rootMethodSuffix}(out, Objects.requireNonNull(instance));
+                    return out.toByteArray();
+                }
+
+                /**
+                 * Encodes the specified instance to the specified stream.
+                 */
+                public static void encode(@Nonnull ${rootType} instance, @Nonnull OutputStream out) throws IOException {
+                    out.write(encode(instance));
+                }
+
+                /**
+                 * Decodes an instance that was encoded with {@link #encode(${rootType})}.
+                 * @throws IllegalArgumentException if the bytes were not encoded by this codec.
+                 */
+                public static ${rootType} decode(@Nonnull byte[] bytes) {
+                    var in = new Decoder(bytes);
+                    if (in.readFixedInt() != MAGIC) {
+                        throw new IllegalArgumentException("Not a binary encoded instance");
+                    }
+                    var formatVersion = in.readVarInt();
+                    if (formatVersion != FORMAT_VERSION) {
+                        throw new IllegalArgumentException("Unsupported format version: " + formatVersion);
+                    }
+                    var templateDigest = in.readFixedLong();
+                    if (templateDigest != TEMPLATE_DIGEST) {
+                        throw new IllegalArgumentException("Instance was encoded for a different template (digest " + Long.toHexString(templateDigest) + ")");
+                    }
+                    var instance = read${rootMethodSuffix}(in);
+                    if (in.position != bytes.length) {
+                        throw new IllegalArgumentException("Unexpected trailing bytes");
+                    }
+                    return instance;
+                }
+
+                /**
+                 * Decodes an instance from the remaining bytes in the specified stream.
+                 */
+                public static ${rootType} decode(@Nonnull InputStream in) throws IOException {
+                    return decode(in.readAllBytes());
+                }
+
+                ${methods}
+
+                private static final class Encoder {
+
+                    private byte[] buffer = new byte[256];
+
+                    private int position;
+
+                    private void ensureCapacity(int length) {
+                        if (position + length > buffer.length) {
+                            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+                        }
+                    }
+
+                    void writeByte(int b) {
+                        ensureCapacity(1);
+                        buffer[position++] = (byte) b;
+                    }
+
+                    void writeVarInt(int value) {
+                        while ((value & ~0x7F) != 0) {
+                            writeByte((value & 0x7F) | 0x80);
+                            value >>>= 7;
+                        }
+                        writeByte(value);
+                    }
+
+                    void writeVarLong(long value) {
+                        while ((value & ~0x7FL) != 0) {
+                            writeByte((int) ((value & 0x7F) | 0x80));
+                            value >>>= 7;
+                        }
+                        writeByte((int) value);
+                    }
+
+                    void writeFixedInt(int value) {
+                        for (int shift = 24; shift >= 0; shift -= 8) {
+                            writeByte(value >>> shift);
+                        }
+                    }
+
+                    void writeFixedLong(long value) {
+                        writeFixedInt((int) (value >>> 32));
+                        writeFixedInt((int) value);
+                    }
+
+                    /**
+                     * Writes a nullable string as a varint of the UTF-8 length plus one, followed by the UTF-8 bytes.
+                     * {@code null} is written as a zero length.
+                     */
+                    void writeString(String value) {
+                        if (value == null) {
+                            writeVarInt(0);
+                            return;
+                        }
+                        var bytes = value.getBytes(StandardCharsets.UTF_8);
+                        writeVarInt(bytes.length + 1);
+                        ensureCapacity(bytes.length);
+                        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+                        position += bytes.length;
+                    }
+
+                    void writeInstant(Instant value) {
+                        if (value == null) {
+                            writeByte(0);
+                            return;
+                        }
+                        writeByte(1);
+                        var seconds = value.getEpochSecond();
+                        writeVarLong((seconds << 1) ^ (seconds >> 63));
+                        writeVarInt(value.getNano());
+                    }
+
+                    void writeStringList(List<String> values) {
+                        if (values == null) {
+                            writeVarInt(0);
+                            return;
+                        }
+                        writeVarInt(values.size() + 1);
+                        for (var value : values) {
+                            writeString(value);
+                        }
+                    }
+
+                    void writeAttributeValues(Map<String, LiteralField> values) {
+                        if (values == null) {
+                            writeVarInt(0);
+                            return;
+                        }
+                        writeVarInt(values.size() + 1);
+                        for (var entry : values.entrySet()) {
+                            writeString(entry.getKey());
+                            writeString(entry.getValue() == null ? null : entry.getValue().value());
+                        }
+                    }
+
+                    byte[] toByteArray() {
+                        return Arrays.copyOf(buffer, position);
+                    }
+                }
+
+                private static final class Decoder {
+
+                    private final byte[] buffer;
+
+                    private int position;
+
+                    Decoder(byte[] buffer) {
+                        this.buffer = buffer;
+                    }
+
+                    int readByte() {
+                        if (position >= buffer.length) {
+                            throw new IllegalArgumentException("Unexpected end of input");
+                        }
+                        return buffer[position++] & 0xFF;
+                    }
+
+                    int readVarInt() {
+                        int value = 0;
+                        for (int shift = 0; shift < 35; shift += 7) {
+                            var b = readByte();
+                            value |= (b & 0x7F) << shift;
+                            if ((b & 0x80) == 0) {
+                                return value;
+                            }
+                        }
+                        throw new IllegalArgumentException("Malformed varint");
+                    }
+
+                    long readVarLong() {
+                        long value = 0;
+                        for (int shift = 0; shift < 70; shift += 7) {
+                            var b = readByte();
+                            value |= (long) (b & 0x7F) << shift;
+                            if ((b & 0x80) == 0) {
+                                return value;
+                            }
+                        }
+                        throw new IllegalArgumentException("Malformed varint");
+                    }
+
+                    int readFixedInt() {
+                        return readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+                    }
+
+                    long readFixedLong() {
+                        return (long) readFixedInt() << 32 | (readFixedInt() & 0xFFFFFFFFL);
+                    }
+
+                    String readString() {
+                        var length = readVarInt() - 1;
+                        if (length == -1) {
+                            return null;
+                        }
+                        if (length < 0 || length > buffer.length - position) {
+                            throw new IllegalArgumentException("Unexpected end of input");
+                        }
+                        var value = new String(buffer, position, length, StandardCharsets.UTF_8);
+                        position += length;
+                        return value;
+                    }
+
+                    Instant readInstant() {
+                        if (readByte() == 0) {
+                            return null;
+                        }
+                        var zigZagSeconds = readVarLong();
+                        var seconds = (zigZagSeconds >>> 1) ^ -(zigZagSeconds & 1);
+                        return Instant.ofEpochSecond(seconds, readVarInt());
+                    }
+
+                    <T> List<T> readList(Function<Decoder, T> itemReader) {
+                        var size = readVarInt();
+                        var items = new ArrayList<T>(Math.min(size, buffer.length - position));
+                        for (int i = 0; i < size; i++) {
+                            items.add(itemReader.apply(this));
+                        }
+                        return items;
+                    }
+
+                    List<String> readStringList() {
+                        var size = readVarInt() - 1;
+                        if (size == -1) {
+                            return null;
+                        }
+                        var values = new ArrayList<String>(Math.min(size, buffer.length - position));
+                        for (int i = 0; i < size; i++) {
+                            values.add(readString());
+                        }
+                        return values;
+                    }
+
+                    Map<String, LiteralField> readAttributeValues() {
+                        var size = readVarInt() - 1;
+                        if (size == -1) {
+                            return null;
+                        }
+                        var values = ${newAttributeValues};
+                        for (int i = 0; i < size; i++) {
+                            var key = readString();
+                            values.put(key, new LiteralFieldImpl(readString()));
+                        }
+                        return values;
+                    }
+                }
+            }
+            """;
+
+    private static final String WRITE_ELEMENT_METHOD_DECL = """
+                private static void write${methodSuffix}(Encoder out, ${typeName} value) {
+                    out.writeString(value.id());
+                    ${writeStatements}
+                }
+
+            """;
+
+    private static final String READ_ELEMENT_METHOD_DECL = """
+                private static ${typeName} read${methodSuffix}(Decoder in) {
+                    var id = in.readString();
+                    ${readStatements}
+                    return new ${typeName}(${argsList});
+                }
+
+            """;
+
+    /**
+     * Fills the template for the binary codec of the specified root node.
+     *
+     * @param rootNode           The generated root node of the template.
+     * @param rootNodeComponents The types and names of the extra components of the root record, in order.
+     * @param hasAttributeValues A predicate that determines whether the record of an element node has an
+     *                           attribute values component.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull GeneratedArtifactNode rootNode,
+                               @Nonnull List<Map.Entry<String, String>> rootNodeComponents,
+                               @Nonnull Predicate<GeneratedArtifactNode> hasAttributeValues) {
+        Objects.requireNonNull(rootNode);
+        Objects.requireNonNull(rootNodeComponents);
+        Objects.requireNonNull(hasAttributeValues);
+        var methods = new LinkedHashMap<String, String>();
+        collectElementMethods(rootNode, rootNodeComponents, hasAttributeValues, methods);
+        return BINARY_CODEC_DECL.replace("${rootType}", rootNode.qualifiedTypeName())
+                                .replace("${rootMethodSuffix}", rootNode.methodSuffix())
+                                .replace("${templateDigest}", "0x" + Long.toHexString(getTemplateDigest(rootNode.node())))
+                                .replace("${newAttributeValues}", hasAttributeValues(rootNode, hasAttributeValues) ? "new AttributeValues(size)" : "new LinkedHashMap<String, LiteralField>()")
+                                .replace("${methods}", String.join("", methods.values()));
+    }
+
+    private static boolean hasAttributeValues(GeneratedArtifactNode node, Predicate<GeneratedArtifactNode> hasAttributeValues) {
+        return node.isElement() && hasAttributeValues.test(node)
+                || node.childNodes().stream().anyMatch(childNode -> hasAttributeValues(childNode, hasAttributeValues));
+    }
+
+    private static void collectElementMethods(GeneratedArtifactNode node,
+                                              List<Map.Entry<String, String>> rootNodeComponents,
+                                              Predicate<GeneratedArtifactNode> hasAttributeValues,
+                                              Map<String, String> methods) {
+        if (methods.containsKey(node.qualifiedTypeName())) {
+            return;
+        }
+        var writeStatements = new StringBuilder();
+        var readStatements = new StringBuilder();
+        var argsList = new StringBuilder("id");
+        if (node.node().root()) {
+            for (int i = 0; i < rootNodeComponents.size(); i++) {
+                var component = rootNodeComponents.get(i);
+                var suffix = component.getKey().equals("Instant") ? "Instant" : "String";
+                writeStatements.append("out.write").append(suffix).append("(value.").append(component.getValue()).append("());\n");
+                readStatements.append("var e").append(i).append(" = in.read").append(suffix).append("();\n");
+                argsList.append(", e").append(i);
+            }
+        }
+        var childNodes = node.childNodes();
+        for (int word = 0; word * 32 < childNodes.size(); word++) {
+            writeStatements.append("int bits").append(word).append(" = 0;\n");
+            for (int i = word * 32; i < Math.min(childNodes.size(), (word + 1) * 32); i++) {
+                writeStatements.append("if (value.").append(childNodes.get(i).paramName()).append("() != null) {\n")
+                               .append("bits").append(word).append(" |= 1 << ").append(i % 32).append(";\n}\n");
+            }
+            writeStatements.append("out.writeVarInt(bits").append(word).append(");\n");
+            readStatements.append("var bits").append(word).append(" = in.readVarInt();\n");
+        }
+        for (int i = 0; i < childNodes.size(); i++) {
+            var childNode = childNodes.get(i);
+            var accessor = "value." + childNode.paramName() + "()";
+            writeStatements.append("if (").append(accessor).append(" != null) {\n")
+                           .append(getWriteStatement(childNode, accessor))
+                           .append("}\n");
+            readStatements.append("var c").append(i).append(" = (bits").append(i / 32).append(" & (1 << ").append(i % 32)
+                          .append(")) != 0 ? ").append(getReadExpression(childNode)).append(" : null;\n");
+            argsList.append(", c").append(i);
+        }
+        if (hasAttributeValues.test(node)) {
+            writeStatements.append("out.writeAttributeValues(value.attributeValues());\n");
+            readStatements.append("var attributeValues = in.readAttributeValues();\n");
+            argsList.append(", attributeValues");
+        }
+        var methodSuffix = node.methodSuffix();
+        var write = WRITE_ELEMENT_METHOD_DECL.replace("${methodSuffix}", methodSuffix)
+                                             .replace("${typeName}", node.qualifiedTypeName())
+                                             .replace("${writeStatements}", writeStatements);
+        var read = READ_ELEMENT_METHOD_DECL.replace("${methodSuffix}", methodSuffix)
+                                           .replace("${typeName}", node.qualifiedTypeName())
+                                           .replace("${readStatements}", readStatements)
+                                           .replace("${argsList}", argsList);
+        methods.put(node.qualifiedTypeName(), write + read);
+        childNodes.stream()
+                  .filter(GeneratedArtifactNode::isElement)
+                  .forEach(childNode -> collectElementMethods(childNode, rootNodeComponents, hasAttributeValues, methods));
+    }
+
+    private static String getWriteStatement(GeneratedArtifactNode node, String accessor) {
+        if (node.node().isAttributeValueField()) {
+            return "out.writeStringList(" + accessor + ");\n";
+        }
+        if (node.node().isListType()) {
+            var list = accessor + "." + node.listParamName() + "()";
+            return "out.writeVarInt(" + list + ".size());\n"
+                    + "for (var item : " + list + ") {\n"
+                    + getWriteItemStatement(node, "item")
+                    + "}\n";
+        }
+        return getWriteItemStatement(node, accessor);
+    }
+
+    private static String getWriteItemStatement(GeneratedArtifactNode node, String item) {
+        if (node.isElement()) {
+            return "write" + node.methodSuffix() + "(out, " + item + ");\n";
+        }
+        else if (node.isLiteralField()) {
+            return "out.writeString(" + item + ".value());\n";
+        }
+        else if (node.isIriFieldWithLabel()) {
+            return "out.writeString(" + item + ".id());\nout.writeString(" + item + ".label());\n";
+        }
+        else {
+            return "out.writeString(" + item + ".id());\n";
+        }
+    }
+
+    private static String getReadExpression(GeneratedArtifactNode node) {
+        if (node.node().isAttributeValueField()) {
+            return "in.readStringList()";
+        }
+        if (node.node().isListType()) {
+            return node.qualifiedListTypeName() + ".of(in.readList(d -> " + getReadItemExpression(node, "d") + "))";
+        }
+        return getReadItemExpression(node, "in");
+    }
+
+    private static String getReadItemExpression(GeneratedArtifactNode node, String decoder) {
+        if (node.isElement()) {
+            return "read" + node.methodSuffix() + "(" + decoder + ")";
+        }
+        else if (node.isLiteralField()) {
+            return node.qualifiedTypeName() + ".of(" + decoder + ".readString())";
+        }
+        else if (node.isIriFieldWithLabel()) {
+            return node.qualifiedTypeName() + ".of(" + decoder + ".readString(), " + decoder + ".readString())";
+        }
+        else {
+            return node.qualifiedTypeName() + ".of(" + decoder + ".readString())";
+        }
+    }
+
+    /**
+     * Computes a digest of the structure of a template.  The digest covers everything that determines the binary
+     * layout of instances: the artifact type, name, cardinality, datatype and input type of every node, and the
+     * order of child nodes.
+     */
+    public static long getTemplateDigest(@Nonnull CodeGenerationNode rootNode) {
+        var description = new StringBuilder();
+        describe(rootNode, description);
+        try {
+            var digest = MessageDigest.getInstance("SHA-256")
+                                      .digest(description.toString().getBytes(StandardCharsets.UTF_8));
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = value << 8 | (digest[i] & 0xFF);
+            }
+            return value;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void describe(CodeGenerationNode node, StringBuilder description) {
+        description.append('(')
+                   .append(node.artifactType()).append('|')
+                   .append(node.name()).append('|')
+                   .append(node.cardinality().minCardinality()).append('|')
+                   .append(node.cardinality().maxCardinality()).append('|')
+                   .append(node.xsdDatatype()).append('|')
+                   .append(node.fieldInputType());
+        node.childNodes().forEach(childNode -> describe(childNode, description));
+        description.append(')');
+    }
+}
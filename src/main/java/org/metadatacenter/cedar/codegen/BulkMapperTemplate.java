@@ -0,0 +1,749 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * This class represents a template for generating a bulk mapper that reads CSV and TSV tables into instances.  The
+ * columns of a table are mapped to the leaf fields of the template by name, using the same names as the columnar
+ * exporter.  Rows are read with a reader that parses records in place in a character buffer, and instances are
+ * built in parallel chunks by generated methods that call record constructors directly.
+ */
+public class BulkMapperTemplate {
+
+    private static final String BULK_MAPPER_DECL = """
+            /**
+             * Maps the rows of CSV and TSV tables to {@link ${rootType}} instances.  The first row of a table is a
+             * header row.  Columns are mapped to literal and IRI fields by their paths of field names separated by
+             * slashes, or by their field names alone where these are unique, and the labels of IRI fields are mapped
+             * from columns whose names end with {@code /rdfs:label}.  Columns that cannot be mapped are ignored.
+             * <p>
+             * The values of list fields, and of fields in lists of elements, are split at a separator, and a
+             * backslash escapes a separator or a backslash in a value.  The i-th value of each field in a list of
+             * elements is used for the i-th element.  Lists that are nested in lists of elements have at most one item
+             * for each item of the enclosing list.
+             * <p>
+             * Values of fields with XML Schema datatypes are trimmed and checked against the datatype.  Rows that
+             * have invalid values are reported as row errors and do not produce instances.
+             * <p>
+             * Mappers are immutable and may be shared between threads.
+             */
+            public static final class BulkMapper {
+
+                public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+                public static final String DEFAULT_SEPARATOR = "|";
+
+                private static final Leaf[] LEAVES = {
+                        ${leaves}
+                };
+
+                private final Format format;
+
+                private final String separator;
+
+                private final int chunkSize;
+
+                private final Executor executor;
+
+                private final int parallelism;
+
+                private BulkMapper(Format format, String separator, int chunkSize, Executor executor, int parallelism) {
+                    if (chunkSize <= 0) {
+                        throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+                    }
+                    if (separator.isEmpty() || separator.indexOf('\\\\') != -1) {
+                        throw new IllegalArgumentException("Separator must not be empty or contain a backslash: " + separator);
+                    }
+                    this.format = Objects.requireNonNull(format);
+                    this.separator = separator;
+                    this.chunkSize = chunkSize;
+                    this.executor = Objects.requireNonNull(executor);
+                    this.parallelism = parallelism;
+                }
+
+                /**
+                 * Gets a mapper for tables in the specified format that builds instances on the common fork-join
+                 * pool.
+                 */
+                public static BulkMapper of(@Nonnull Format format) {
+                    var pool = ForkJoinPool.commonPool();
+                    return new BulkMapper(format, DEFAULT_SEPARATOR, DEFAULT_CHUNK_SIZE, pool, pool.getParallelism());
+                }
+
+                /**
+                 * Gets a mapper that splits list values at the specified separator.
+                 */
+                public BulkMapper withSeparator(@Nonnull String separator) {
+                    return new BulkMapper(format, separator, chunkSize, executor, parallelism);
+                }
+
+                /**
+                 * Gets a mapper that builds instances in chunks of the specified number of rows.
+                 */
+                public BulkMapper withChunkSize(int chunkSize) {
+                    return new BulkMapper(format, separator, chunkSize, executor, parallelism);
+                }
+
+                /**
+                 * Gets a mapper that builds instances with the specified executor.
+                 * @param parallelism The number of chunks that the executor is expected to build at the same time.
+                 *                    At most twice this number of chunks are held in memory.
+                 */
+                public BulkMapper withExecutor(@Nonnull Executor executor, int parallelism) {
+                    if (parallelism <= 0) {
+                        throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+                    }
+                    return new BulkMapper(format, separator, chunkSize, executor, parallelism);
+                }
+
+                /**
+                 * Gets the names of the columns that can be mapped, with their full paths.
+                 */
+                public static List<String> columnNames() {
+                    return Arrays.stream(LEAVES).map(Leaf::name).toList();
+                }
+
+                /**
+                 * Reads all of the rows of the specified table.  The reader is not closed.
+                 */
+                public Result mapAll(@Nonnull Reader in) throws IOException {
+                    var instances = new ArrayList<${rootType}>();
+                    var errors = new ArrayList<RowError>();
+                    var summary = map(in, instances::add, errors::add);
+                    return new Result(instances, errors, summary.unmappedColumns());
+                }
+
+                /**
+                 * Reads the rows of the specified table and passes the instances and the row errors to the consumers.
+                 * The consumers are called on the calling thread, in row order.  The reader is not closed.
+                 * @throws IOException if the table cannot be read.
+                 * @throws IllegalArgumentException if the header maps two columns to the same field.
+                 */
+                public Summary map(@Nonnull Reader in,
+                                   @Nonnull Consumer<? super ${rootType}> instances,
+                                   @Nonnull Consumer<? super RowError> errors) throws IOException {
+                    var reader = new DelimitedReader(in, format);
+                    if (!reader.next()) {
+                        return new Summary(0, 0, 0, List.of());
+                    }
+                    var unmappedColumns = new ArrayList<String>();
+                    var columnLeaves = mapHeader(reader, unmappedColumns);
+                    var pending = new ArrayDeque<CompletableFuture<Chunk>>();
+                    var counts = new long[3];
+                    var rows = new ArrayList<String[]>(chunkSize);
+                    var firstRow = 1L;
+                    while (reader.next()) {
+                        var cells = new String[LEAVES.length];
+                        for (int column = 0; column < columnLeaves.length && column < reader.fieldCount(); column++) {
+                            if (columnLeaves[column] != -1 && !reader.isEmpty(column)) {
+                                cells[columnLeaves[column]] = reader.field(column);
+                            }
+                        }
+                        rows.add(cells);
+                        if (rows.size() == chunkSize) {
+                            pending.add(submit(rows, firstRow));
+                            firstRow += rows.size();
+                            rows = new ArrayList<>(chunkSize);
+                            if (pending.size() >= 2 * parallelism) {
+                                emit(pending.remove(), instances, errors, counts);
+                            }
+                        }
+                    }
+                    if (!rows.isEmpty()) {
+                        pending.add(submit(rows, firstRow));
+                    }
+                    while (!pending.isEmpty()) {
+                        emit(pending.remove(), instances, errors, counts);
+                    }
+                    return new Summary(counts[0], counts[1], counts[2], unmappedColumns);
+                }
+
+                private static int[] mapHeader(DelimitedReader reader, List<String> unmappedColumns) {
+                    var shortNameCounts = new HashMap<String, Integer>();
+                    for (var leaf : LEAVES) {
+                        shortNameCounts.merge(leaf.shortName(), 1, Integer::sum);
+                    }
+                    var leafIndexes = new HashMap<String, Integer>();
+                    for (int leaf = 0; leaf < LEAVES.length; leaf++) {
+                        if (shortNameCounts.get(LEAVES[leaf].shortName()) == 1) {
+                            leafIndexes.put(LEAVES[leaf].shortName(), leaf);
+                        }
+                    }
+                    // Full names take precedence over short names
+                    for (int leaf = 0; leaf < LEAVES.length; leaf++) {
+                        leafIndexes.put(LEAVES[leaf].name(), leaf);
+                    }
+                    var columnLeaves = new int[reader.fieldCount()];
+                    var mapped = new BitSet();
+                    for (int column = 0; column < columnLeaves.length; column++) {
+                        var name = reader.field(column).strip();
+                        if (column == 0 && name.startsWith("\\uFEFF")) {
+                            name = name.substring(1);
+                        }
+                        var leaf = leafIndexes.get(name);
+                        if (leaf == null) {
+                            columnLeaves[column] = -1;
+                            unmappedColumns.add(name);
+                        }
+                        else if (mapped.get(leaf)) {
+                            throw new IllegalArgumentException("More than one column is mapped to " + LEAVES[leaf].name());
+                        }
+                        else {
+                            mapped.set(leaf);
+                            columnLeaves[column] = leaf;
+                        }
+                    }
+                    return columnLeaves;
+                }
+
+                private CompletableFuture<Chunk> submit(List<String[]> rows, long firstRow) {
+                    return CompletableFuture.supplyAsync(() -> buildChunk(rows, firstRow, separator), executor);
+                }
+
+                private static void emit(CompletableFuture<Chunk> pending,
+                                         Consumer<? super ${rootType}> instances,
+                                         Consumer<? super RowError> errors,
+                                         long[] counts) {
+                    var chunk = pending.join();
+                    for (var instance : chunk.instances()) {
+                        if (instance != null) {
+                            instances.accept(instance);
+                            counts[1]++;
+                        }
+                        counts[0]++;
+                    }
+                    chunk.errors().forEach(errors);
+                    counts[2] += chunk.errors().size();
+                }
+
+                private static Chunk buildChunk(List<String[]> rows, long firstRow, String separator) {
+                    var instances = new ArrayList<${rootType}>(rows.size());
+                    var errors = new ArrayList<RowError>();
+                    for (int i = 0; i < rows.size(); i++) {
+                        var row = firstRow + i;
+                        var errorCount = errors.size();
+                        var values = toValues(rows.get(i), row, separator, errors);
+                        ${rootType} instance = null;
+                        if (errors.size() == errorCount) {
+                            try {
+                                instance = read${rootMethodSuffix}(values, -1);
+                            } catch (RuntimeException e) {
+                                errors.add(new RowError(row, null, null, String.valueOf(e.getMessage())));
+                            }
+                        }
+                        instances.add(instance);
+                    }
+                    return new Chunk(instances, errors);
+                }
+
+                /**
+                 * Splits and checks the cells of a row.
+                 * @return The values of each leaf, or {@code null} for leaves without values.
+                 */
+                private static String[][] toValues(String[] cells, long row, String separator, List<RowError> errors) {
+                    var values = new String[cells.length][];
+                    for (int leaf = 0; leaf < cells.length; leaf++) {
+                        var cell = cells[leaf];
+                        if (cell == null) {
+                            continue;
+                        }
+                        var leafValues = LEAVES[leaf].list() ? split(cell, separator) : new String[]{cell};
+                        var check = LEAVES[leaf].check();
+                        if (check != null) {
+                            for (int i = 0; i < leafValues.length; i++) {
+                                var value = leafValues[i] == null ? null : leafValues[i].strip();
+                                if (value == null || value.isEmpty()) {
+                                    leafValues[i] = null;
+                                }
+                                else if (check.test(value)) {
+                                    leafValues[i] = value;
+                                }
+                                else {
+                                    errors.add(new RowError(row, LEAVES[leaf].name(), value, "Invalid " + LEAVES[leaf].datatype() + " value"));
+                                }
+                            }
+                        }
+                        values[leaf] = leafValues;
+                    }
+                    return values;
+                }
+
+                /**
+                 * Splits a cell at a separator.  Empty values are {@code null}, so that they keep their positions.  A
+                 * backslash before a separator or a backslash is removed and the character or separator is kept.
+                 */
+                private static String[] split(String cell, String separator) {
+                    var parts = new ArrayList<String>();
+                    var part = new StringBuilder();
+                    for (int i = 0; i < cell.length(); i++) {
+                        if (cell.charAt(i) == '\\\\' && cell.startsWith(separator, i + 1)) {
+                            part.append(separator);
+                            i += separator.length();
+                        }
+                        else if (cell.charAt(i) == '\\\\' && i + 1 < cell.length() && cell.charAt(i + 1) == '\\\\') {
+                            part.append('\\\\');
+                            i++;
+                        }
+                        else if (cell.startsWith(separator, i)) {
+                            parts.add(part.length() == 0 ? null : part.toString());
+                            part.setLength(0);
+                            i += separator.length() - 1;
+                        }
+                        else {
+                            part.append(cell.charAt(i));
+                        }
+                    }
+                    parts.add(part.length() == 0 ? null : part.toString());
+                    return parts.toArray(new String[0]);
+                }
+
+                private static String value(String[][] values, int leaf, int item) {
+                    var leafValues = values[leaf];
+                    if (leafValues == null) {
+                        return null;
+                    }
+                    var index = item < 0 ? 0 : item;
+                    return index < leafValues.length ? leafValues[index] : null;
+                }
+
+                private static <T> List<T> values(String[][] values, int leaf, int item, Function<String, T> factory) {
+                    var leafValues = values[leaf];
+                    if (leafValues == null) {
+                        return List.of();
+                    }
+                    var items = new ArrayList<T>();
+                    for (int index = 0; index < leafValues.length; index++) {
+                        if ((item < 0 || item == index) && leafValues[index] != null) {
+                            items.add(factory.apply(leafValues[index]));
+                        }
+                    }
+                    return items;
+                }
+
+                private static <T> List<T> values(String[][] values,
+                                                  int idLeaf,
+                                                  int labelLeaf,
+                                                  int item,
+                                                  BiFunction<String, String, T> factory) {
+                    var count = Math.max(count(values, idLeaf), count(values, labelLeaf));
+                    var items = new ArrayList<T>();
+                    for (int index = 0; index < count; index++) {
+                        if (item < 0 || item == index) {
+                            var id = value(values, idLeaf, index);
+                            var label = value(values, labelLeaf, index);
+                            if (id != null || label != null) {
+                                items.add(factory.apply(id, label));
+                            }
+                        }
+                    }
+                    return items;
+                }
+
+                private static <T> List<T> items(String[][] values,
+                                                 int fromLeaf,
+                                                 int toLeaf,
+                                                 int item,
+                                                 BiFunction<String[][], Integer, T> reader) {
+                    if (item >= 0) {
+                        return hasValues(values, fromLeaf, toLeaf, item) ? List.of(reader.apply(values, item)) : List.of();
+                    }
+                    var count = 0;
+                    for (int leaf = fromLeaf; leaf < toLeaf; leaf++) {
+                        count = Math.max(count, count(values, leaf));
+                    }
+                    var items = new ArrayList<T>(count);
+                    for (int index = 0; index < count; index++) {
+                        if (hasValues(values, fromLeaf, toLeaf, index)) {
+                            items.add(reader.apply(values, index));
+                        }
+                    }
+                    return items;
+                }
+
+                private static int count(String[][] values, int leaf) {
+                    return values[leaf] == null ? 0 : values[leaf].length;
+                }
+
+                private static boolean hasValues(String[][] values, int fromLeaf, int toLeaf, int item) {
+                    for (int leaf = fromLeaf; leaf < toLeaf; leaf++) {
+                        if (value(values, leaf, item) != null) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+
+                ${methods}
+
+                public enum Format {
+                    CSV, TSV
+                }
+
+                /**
+                 * An error in a row of a table.
+                 * @param row The number of the row, where the first row after the header row is row one.
+                 * @param column The name of the field of the value that is in error, or {@code null} if the error
+                 *               is not about a single value.
+                 * @param value The value that is in error, or {@code null}.
+                 * @param message A description of the error.
+                 */
+                public record RowError(long row, String column, String value, String message) {
+                }
+
+                /**
+                 * The outcome of mapping a table.
+                 * @param rows The number of rows, not including the header row.
+                 * @param instances The number of instances that were produced.
+                 * @param errors The number of row errors.
+                 * @param unmappedColumns The names of the columns that were ignored.
+                 */
+                public record Summary(long rows, long instances, long errors, List<String> unmappedColumns) {
+                }
+
+                public record Result(List<${rootType}> instances, List<RowError> errors, List<String> unmappedColumns) {
+                }
+
+                private record Chunk(List<${rootType}> instances, List<RowError> errors) {
+                }
+
+                /**
+                 * A mappable column.
+                 * @param name The full name of the column.
+                 * @param shortName The name of the column without the names of the enclosing elements.
+                 * @param list Whether the values of the column are split.
+                 * @param datatype The datatype of the values, or {@code null}.
+                 * @param check Checks a trimmed value against the datatype, or {@code null} if values are not checked.
+                 */
+                private record Leaf(String name, String shortName, boolean list, String datatype, Predicate<String> check) {
+                }
+
+                /**
+                 * Reads the records of a delimited table.  Records are parsed in place in a character buffer and the
+                 * fields of a record are only copied out of the buffer when they are requested.
+                 */
+                private static final class DelimitedReader {
+
+                    private static final int ESCAPED = 1;
+
+                    private final Reader in;
+
+                    private final boolean csv;
+
+                    private final char delimiter;
+
+                    private char[] buffer = new char[1 << 16];
+
+                    private int limit = 0;
+
+                    private int recordStart = 0;
+
+                    private int recordEnd = 0;
+
+                    private boolean eof = false;
+
+                    private int[] fieldStarts = new int[16];
+
+                    private int[] fieldEnds = new int[16];
+
+                    private int[] fieldFlags = new int[16];
+
+                    private int fieldCount = 0;
+
+                    private DelimitedReader(Reader in, Format format) {
+                        this.in = Objects.requireNonNull(in);
+                        this.csv = format == Format.CSV;
+                        this.delimiter = csv ? ',' : '\\t';
+                    }
+
+                    /**
+                     * Advances to the next record, skipping blank lines.
+                     * @return {@code true} if there is a record, or {@code false} at the end of the table.
+                     */
+                    boolean next() throws IOException {
+                        while (true) {
+                            recordStart = recordEnd;
+                            var end = parseRecord();
+                            while (end == -1) {
+                                fill();
+                                end = parseRecord();
+                            }
+                            if (end == -2) {
+                                return false;
+                            }
+                            recordEnd = end;
+                            if (fieldCount > 1 || fieldEnds[0] > fieldStarts[0] || fieldFlags[0] != 0) {
+                                return true;
+                            }
+                        }
+                    }
+
+                    int fieldCount() {
+                        return fieldCount;
+                    }
+
+                    boolean isEmpty(int field) {
+                        return fieldEnds[field] == fieldStarts[field];
+                    }
+
+                    String field(int field) {
+                        var start = fieldStarts[field];
+                        var value = new String(buffer, start, fieldEnds[field] - start);
+                        if ((fieldFlags[field] & ESCAPED) == 0) {
+                            return value;
+                        }
+                        return csv ? value.replace("\\"\\"", "\\"") : unescapeTsv(value);
+                    }
+
+                    private static String unescapeTsv(String value) {
+                        var sb = new StringBuilder(value.length());
+                        for (int i = 0; i < value.length(); i++) {
+                            var c = value.charAt(i);
+                            if (c == '\\\\' && i + 1 < value.length()) {
+                                var d = value.charAt(++i);
+                                if (d == 't') {
+                                    sb.append('\\t');
+                                }
+                                else if (d == 'n') {
+                                    sb.append('\\n');
+                                }
+                                else if (d == 'r') {
+                                    sb.append('\\r');
+                                }
+                                else {
+                                    sb.append(d);
+                                }
+                            }
+                            else {
+                                sb.append(c);
+                            }
+                        }
+                        return sb.toString();
+                    }
+
+                    /**
+                     * Moves the current record to the start of the buffer, growing the buffer if the record fills it,
+                     * and reads more characters.
+                     */
+                    private void fill() throws IOException {
+                        if (recordStart > 0) {
+                            System.arraycopy(buffer, recordStart, buffer, 0, limit - recordStart);
+                            limit -= recordStart;
+                            recordEnd -= recordStart;
+                            recordStart = 0;
+                        }
+                        if (limit == buffer.length) {
+                            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                        }
+                        var read = in.read(buffer, limit, buffer.length - limit);
+                        if (read == -1) {
+                            eof = true;
+                        }
+                        else {
+                            limit += read;
+                        }
+                    }
+
+                    /**
+                     * Parses the record that starts at the record start.
+                     * @return The position after the end of the record, -1 if more characters are needed, or -2 if
+                     * there are no more records.
+                     */
+                    private int parseRecord() {
+                        var p = recordStart;
+                        if (p >= limit) {
+                            return eof ? -2 : -1;
+                        }
+                        fieldCount = 0;
+                        while (true) {
+                            var start = p;
+                            var end = -1;
+                            var flags = 0;
+                            if (csv && p < limit && buffer[p] == '"') {
+                                start = ++p;
+                                while (end == -1) {
+                                    if (p >= limit) {
+                                        if (!eof) {
+                                            return -1;
+                                        }
+                                        end = p;
+                                    }
+                                    else if (buffer[p] == '"') {
+                                        if (p + 1 >= limit && !eof) {
+                                            return -1;
+                                        }
+                                        if (p + 1 < limit && buffer[p + 1] == '"') {
+                                            flags |= ESCAPED;
+                                            p += 2;
+                                        }
+                                        else {
+                                            end = p++;
+                                        }
+                                    }
+                                    else {
+                                        p++;
+                                    }
+                                }
+                                // Characters between a closing quote and the next delimiter are ignored
+                                while (p < limit && buffer[p] != delimiter && buffer[p] != '\\n' && buffer[p] != '\\r') {
+                                    p++;
+                                }
+                            }
+                            else {
+                                while (p < limit && buffer[p] != delimiter && buffer[p] != '\\n' && buffer[p] != '\\r') {
+                                    if (buffer[p] == '\\\\' && !csv) {
+                                        flags |= ESCAPED;
+                                    }
+                                    p++;
+                                }
+                                end = p;
+                            }
+                            if (p >= limit && !eof) {
+                                return -1;
+                            }
+                            addField(start, end, flags);
+                            if (p >= limit) {
+                                return p;
+                            }
+                            var c = buffer[p];
+                            if (c == delimiter) {
+                                p++;
+                                continue;
+                            }
+                            if (c == '\\r') {
+                                if (p + 1 >= limit && !eof) {
+                                    return -1;
+                                }
+                                if (p + 1 < limit && buffer[p + 1] == '\\n') {
+                                    p++;
+                                }
+                            }
+                            return p + 1;
+                        }
+                    }
+
+                    private void addField(int start, int end, int flags) {
+                        if (fieldCount == fieldStarts.length) {
+                            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+                            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+                            fieldFlags = Arrays.copyOf(fieldFlags, fieldCount * 2);
+                        }
+                        fieldStarts[fieldCount] = start;
+                        fieldEnds[fieldCount] = end;
+                        fieldFlags[fieldCount] = flags;
+                        fieldCount++;
+                    }
+                }
+            }
+            """;
+
+    private static final String READ_ELEMENT_METHOD_DECL = """
+                private static ${typeName} read${methodSuffix}(String[][] values, int item) {
+                    ${readStatements}
+                    return new ${typeName}(${argsList});
+                }
+
+            """;
+
+    /**
+     * Fills the template for the bulk mapper of the specified root node.
+     *
+     * @param rootNode           The generated root node of the template.
+     * @param rootNodeComponents The types and names of the extra components of the root record, in order.
+     * @param hasAttributeValues A predicate that determines whether the record of an element node has an
+     *                           attribute values component.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull GeneratedArtifactNode rootNode,
+                               @Nonnull List<Map.Entry<String, String>> rootNodeComponents,
+                               @Nonnull Predicate<GeneratedArtifactNode> hasAttributeValues) {
+        Objects.requireNonNull(rootNode);
+        Objects.requireNonNull(rootNodeComponents);
+        Objects.requireNonNull(hasAttributeValues);
+        var leaves = new ArrayList<String>();
+        var methods = new LinkedHashMap<String, String>();
+        collectElementMethods(rootNode, List.of(), false, rootNodeComponents, hasAttributeValues, leaves, methods);
+        return BULK_MAPPER_DECL.replace("${rootType}", rootNode.qualifiedTypeName())
+                               .replace("${rootMethodSuffix}", rootNode.methodSuffix())
+                               .replace("${leaves}", String.join(",\n", leaves))
+                               .replace("${methods}", String.join("", methods.values()));
+    }
+
+    private static void collectElementMethods(GeneratedArtifactNode node,
+                                              List<String> path,
+                                              boolean inList,
+                                              List<Map.Entry<String, String>> rootNodeComponents,
+                                              Predicate<GeneratedArtifactNode> hasAttributeValues,
+                                              List<String> leaves,
+                                              Map<String, String> methods) {
+        var readStatements = new StringBuilder();
+        var argsList = new StringBuilder("generateId()");
+        if (node.node().root()) {
+            rootNodeComponents.forEach(component -> argsList.append(", null"));
+        }
+        var childNodes = node.childNodes();
+        for (int i = 0; i < childNodes.size(); i++) {
+            var childNode = childNodes.get(i);
+            var childPath = new ArrayList<>(path);
+            childPath.add(childNode.node().name());
+            var childInList = inList || childNode.node().isListType();
+            final String expression;
+            if (childNode.node().isAttributeValueField()) {
+                expression = "List.<String>of()";
+            }
+            else if (childNode.isElement()) {
+                var fromLeaf = leaves.size();
+                collectElementMethods(childNode, childPath, childInList, rootNodeComponents, hasAttributeValues, leaves, methods);
+                var read = "read" + childNode.methodSuffix();
+                expression = childNode.node().isListType()
+                        ? childNode.qualifiedListTypeName() + ".of(items(values, " + fromLeaf + ", " + leaves.size() + ", item, BulkMapper::" + read + "))"
+                        : read + "(values, item)";
+            }
+            else {
+                var leaf = leaves.size();
+                leaves.add(getLeaf(childNode, childPath, "", childInList));
+                if (childNode.isIriFieldWithLabel()) {
+                    leaves.add(getLeaf(childNode, childPath, "/rdfs:label", childInList));
+                    expression = childNode.node().isListType()
+                            ? childNode.qualifiedListTypeName() + ".of(values(values, " + leaf + ", " + (leaf + 1) + ", item, " + childNode.qualifiedTypeName() + "::of))"
+                            : childNode.qualifiedTypeName() + ".of(value(values, " + leaf + ", item), value(values, " + (leaf + 1) + ", item))";
+                }
+                else {
+                    expression = childNode.node().isListType()
+                            ? childNode.qualifiedListTypeName() + ".of(values(values, " + leaf + ", item, " + childNode.qualifiedTypeName() + "::of))"
+                            : childNode.qualifiedTypeName() + ".of(value(values, " + leaf + ", item))";
+                }
+            }
+            readStatements.append("var c").append(i).append(" = ").append(expression).append(";\n");
+            argsList.append(", c").append(i);
+        }
+        if (hasAttributeValues.test(node)) {
+            argsList.append(", new AttributeValues()");
+        }
+        methods.put(node.qualifiedTypeName(),
+                    READ_ELEMENT_METHOD_DECL.replace("${methodSuffix}", node.methodSuffix())
+                                            .replace("${typeName}", node.qualifiedTypeName())
+                                            .replace("${readStatements}", readStatements)
+                                            .replace("${argsList}", argsList));
+    }
+
+    private static String getLeaf(GeneratedArtifactNode node, List<String> path, String suffix, boolean inList) {
+        var name = String.join("/", path) + suffix;
+        var shortName = node.node().name() + suffix;
+        var datatype = suffix.isEmpty() ? node.node().getXsdDatatype() : Optional.<String>empty();
+        var check = datatype.flatMap(d -> ValidatorTemplate.getLexicalCheck(d, "value"));
+        return "new Leaf(" + toJavaStringLiteral(name) + ", " + toJavaStringLiteral(shortName) + ", " + inList + ", "
+                + datatype.map(d -> "\"" + d + "\"").orElse("null") + ", "
+                + check.map(c -> "value -> " + c).orElse("null") + ")";
+    }
+
+    private static String toJavaStringLiteral(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,220 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * This class represents a template for generating element records whose hash codes are computed once and cached.
+ * Records cannot have fields other than their components, so each element record has an extra component that holds
+ * the cached hash code.  The component is ignored by Jackson, and the canonical constructor always gives an element a
+ * new, empty cache, whatever cache is passed to it, so that elements cannot share a cache.  The generated
+ * {@code equals} methods return early for identical elements and for elements with different cached hash codes, and
+ * only compare components otherwise.
+ */
+public class CachedHashCodeTemplate {
+
+    /**
+     * The name of the record component that holds the cached hash code.
+     */
+    public static final String COMPONENT_NAME = "hashCodeCache";
+
+    /**
+     * The declaration of the record component that holds the cached hash code.
+     */
+    public static final String COMPONENT_DECLARATION = "@JsonIgnore HashCodeCache " + COMPONENT_NAME;
+
+    private static final String HASH_CODE_CACHE_DECL = """
+            /**
+             * Holds the hash code of an element, which is computed when it is first requested.  Like the cached hash
+             * code of a {@link String}, the hash code is not guarded by a lock, because computing it more than once
+             * gives the same value.  An element must not be changed after its hash code is requested.  Caches are
+             * only created by the canonical constructors of elements, which do not share them.
+             */
+            public static final class HashCodeCache {
+
+                private int hashCode;
+
+                private boolean hashCodeIsZero;
+
+                private HashCodeCache() {
+                }
+
+                /**
+                 * Gets the cached hash code, computing it with the specified function if it is not cached.
+                 */
+                public <E> int get(E element, ToIntFunction<? super E> hashFunction) {
+                    var hashCode = this.hashCode;
+                    if (hashCode == 0 && !hashCodeIsZero) {
+                        hashCode = hashFunction.applyAsInt(element);
+                        if (hashCode == 0) {
+                            hashCodeIsZero = true;
+                        }
+                        else {
+                            this.hashCode = hashCode;
+                        }
+                    }
+                    return hashCode;
+                }
+
+                /**
+                 * Determines whether the hash codes in this cache and in another cache are both cached and are
+                 * different.
+                 */
+                public boolean differsFrom(HashCodeCache other) {
+                    var hashCode = this.hashCode;
+                    var otherHashCode = other.hashCode;
+                    return hashCode != 0 && otherHashCode != 0 && hashCode != otherHashCode;
+                }
+
+                @Override
+                public boolean equals(Object o) {
+                    return o instanceof HashCodeCache;
+                }
+
+                @Override
+                public int hashCode() {
+                    return 0;
+                }
+
+                @Override
+                public String toString() {
+                    return "HashCodeCache";
+                }
+            }
+            """;
+
+    private static final String CONSTRUCTOR_DECL = """
+            /**
+             * Creates a {@code ${typeName}} with an empty hash code cache.
+             */
+            ${creatorAnnotation}
+            public ${typeName}(${paramDeclarationsList}) {
+                this(${argsList}, null);
+            }
+            """;
+
+    private static final String CANONICAL_CONSTRUCTOR_DECL = """
+            /**
+             * Creates a {@code ${typeName}} with a new, empty hash code cache.  The specified cache is ignored, so that
+             * an element never shares the cache of another element.
+             */
+            @JsonCreator(mode = JsonCreator.Mode.DISABLED)
+            public ${typeName}(${paramDeclarationsList}, HashCodeCache hashCodeCache) {
+                ${assignments}
+                this.hashCodeCache = new HashCodeCache();
+            }
+            """;
+
+    private static final String HASH_CODE_METHOD_DECL = """
+            /**
+             * Gets the hash code of this element.  The hash code is computed when it is first requested and is then
+             * cached.
+             */
+            @Override
+            public int hashCode() {
+                return hashCodeCache.get(this, ${typeName}::hashComponents);
+            }
+            """;
+
+    private static final String HASH_COMPONENTS_METHOD_DECL = """
+            private static int hashComponents(${typeName} element) {
+                return Objects.hash(${elementComponentsList});
+            }
+            """;
+
+    private static final String EQUALS_METHOD_DECL = """
+            /**
+             * Determines whether this element is equal to another object.  Identical elements are equal, and
+             * elements with different cached hash codes are not equal, without comparing their components.
+             */
+            @Override
+            public boolean equals(Object o) {
+                if (this == o) {
+                    return true;
+                }
+                if (!(o instanceof ${typeName} other) || hashCodeCache.differsFrom(other.hashCodeCache)) {
+                    return false;
+                }
+                return ${componentComparisons};
+            }
+            """;
+
+    /**
+     * Gets the declaration of the class that holds cached hash codes.  This should be added to the generated class
+     * once.
+     */
+    public String getHashCodeCacheDeclaration() {
+        return HASH_CODE_CACHE_DECL;
+    }
+
+    /**
+     * Fills the template for the constructor of an element record that takes the components of the record other than
+     * the hash code cache.
+     *
+     * @param typeName              The name of the element record.
+     * @param paramDeclarationsList The declarations of the components of the element record, other than the hash code
+     *                              cache.
+     * @param componentNames        The names of the components of the element record, other than the hash code cache,
+     *                              in declaration order.
+     * @param creator               Whether the constructor is the creator that Jackson uses to create elements.
+     * @return The constructor declaration.
+     */
+    public String fillConstructorTemplate(@Nonnull String typeName,
+                                          @Nonnull String paramDeclarationsList,
+                                          @Nonnull List<String> componentNames,
+                                          boolean creator) {
+        return CONSTRUCTOR_DECL.replace("${creatorAnnotation}", creator ? "@JsonCreator" : "@JsonCreator(mode = JsonCreator.Mode.DISABLED)")
+                               .replace("${typeName}", Objects.requireNonNull(typeName))
+                               .replace("${paramDeclarationsList}", Objects.requireNonNull(paramDeclarationsList))
+                               .replace("${argsList}", String.join(", ", componentNames));
+    }
+
+    /**
+     * Fills the template for the canonical constructor of an element record, which replaces the specified hash code
+     * cache with a new one.
+     *
+     * @param typeName              The name of the element record.
+     * @param paramDeclarationsList The declarations of the components of the element record, other than the hash code
+     *                              cache.
+     * @param componentNames        The names of the components of the element record, other than the hash code cache,
+     *                              in declaration order.
+     * @return The constructor declaration.
+     */
+    public String fillCanonicalConstructorTemplate(@Nonnull String typeName,
+                                                   @Nonnull String paramDeclarationsList,
+                                                   @Nonnull List<String> componentNames) {
+        var assignments = componentNames.stream()
+                                        .map(componentName -> "this." + componentName + " = " + componentName + ";")
+                                        .collect(Collectors.joining("\n"));
+        return CANONICAL_CONSTRUCTOR_DECL.replace("${typeName}", Objects.requireNonNull(typeName))
+                                         .replace("${paramDeclarationsList}", Objects.requireNonNull(paramDeclarationsList))
+                                         .replace("${assignments}", assignments);
+    }
+
+    /**
+     * Fills the templates for the {@code hashCode} and {@code equals} methods of an element record.
+     *
+     * @param typeName       The name of the element record.
+     * @param componentNames The names of the components of the element record, other than the hash code cache, in
+     *                       declaration order.
+     * @return The method declarations, which should be added to the element record one by one.
+     */
+    public List<String> fillMethodTemplates(@Nonnull String typeName, @Nonnull List<String> componentNames) {
+        Objects.requireNonNull(typeName);
+        Objects.requireNonNull(componentNames);
+        var elementComponentsList = String.join(", ", componentNames.stream()
+                                                                   .map(componentName -> "element." + componentName)
+                                                                   .toList());
+        var componentComparisons = componentNames.isEmpty() ? "true" : String.join("\n&& ",
+                                                                                   componentNames.stream()
+                                                                                                 .map(componentName -> "Objects.equals(" + componentName + ", other." + componentName + ")")
+                                                                                                 .toList());
+        return List.of(HASH_CODE_METHOD_DECL.replace("${typeName}", typeName),
+                       HASH_COMPONENTS_METHOD_DECL.replace("${typeName}", typeName)
+                                                  .replace("${elementComponentsList}", elementComponentsList),
+                       EQUALS_METHOD_DECL.replace("${typeName}", typeName)
+                                         .replace("${componentComparisons}", componentComparisons));
+    }
+}
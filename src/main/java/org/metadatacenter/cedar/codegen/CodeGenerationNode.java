@@ -28,6 +28,21 @@ public interface CodeGenerationNode {
         return new CodeGenerationNodeRecord(id, root, name, childNodes, artifactType, description, xsdDatatype, required, cardinality, propertyIri, fieldInputType);
     }
 
+    static CodeGenerationNode get(@Nullable String id,
+                                  boolean root,
+                                  @Nonnull String name,
+                                  @Nonnull List<CodeGenerationNode> childNodes,
+                                  @Nonnull ArtifactType artifactType,
+                                  @Nullable String description,
+                                  @Nullable String xsdDatatype,
+                                  @Nonnull Required required,
+                                  @Nonnull Cardinality cardinality,
+                                  @Nullable String propertyIri,
+                                  @Nullable FieldInputType fieldInputType,
+                                  @Nonnull List<String> literalOptions) {
+        return new CodeGenerationNodeRecord(id, root, name, childNodes, artifactType, description, xsdDatatype, required, cardinality, propertyIri, fieldInputType, literalOptions);
+    }
+
     Optional<String> getId();
 
     Optional<String> getXsdDatatype();
@@ -62,6 +77,12 @@ public interface CodeGenerationNode {
 
     FieldInputType fieldInputType();
 
+    /**
+     * Gets the literal values that the template lists for a field, in template order.  The list is empty if the
+     * template does not list values for the field.
+     */
+    List<String> literalOptions();
+
     enum ArtifactType {
         ELEMENT, LITERAL_FIELD, IRI_FIELD, TEMPLATE;
 
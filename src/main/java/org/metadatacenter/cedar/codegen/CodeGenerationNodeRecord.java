@@ -26,7 +26,8 @@ public record CodeGenerationNodeRecord(@Nullable String id,
                                        @Nonnull Required required,
                                        @Nonnull Cardinality cardinality,
                                        @Nullable String propertyIri,
-                                       @Nullable FieldInputType fieldInputType) implements CodeGenerationNode {
+                                       @Nullable FieldInputType fieldInputType,
+                                       @Nonnull List<String> literalOptions) implements CodeGenerationNode {
 
     public CodeGenerationNodeRecord(@Nullable String id,
                                     boolean root,
@@ -38,7 +39,8 @@ public record CodeGenerationNodeRecord(@Nullable String id,
                                     Required required,
                                     Cardinality cardinality,
                                     @Nullable String propertyIri,
-                                    FieldInputType fieldInputType) {
+                                    FieldInputType fieldInputType,
+                                    List<String> literalOptions) {
         this.id = id;
         this.root = root;
         this.name = Objects.requireNonNull(name);
@@ -50,6 +52,21 @@ public record CodeGenerationNodeRecord(@Nullable String id,
         this.cardinality = Objects.requireNonNullElse(cardinality, Cardinality.getZeroOrMore());
         this.propertyIri = propertyIri;
         this.fieldInputType = fieldInputType;
+        this.literalOptions = List.copyOf(literalOptions);
+    }
+
+    public CodeGenerationNodeRecord(@Nullable String id,
+                                    boolean root,
+                                    @Nonnull String name,
+                                    List<CodeGenerationNode> childNodes,
+                                    ArtifactType artifactType,
+                                    @Nullable String description,
+                                    @Nullable String xsdDatatype,
+                                    Required required,
+                                    Cardinality cardinality,
+                                    @Nullable String propertyIri,
+                                    FieldInputType fieldInputType) {
+        this(id, root, name, childNodes, artifactType, description, xsdDatatype, required, cardinality, propertyIri, fieldInputType, List.of());
     }
 
     @Override
@@ -0,0 +1,360 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+
+/**
+ * A compact, versioned, binary snapshot of a tree of code generation nodes, so that translated templates can be
+ * loaded without parsing their JSON again.  A snapshot consists of a header, a table of the distinct strings of the
+ * tree, an array of fixed size node records, and an array of the indexes of the children and literal options of the
+ * nodes.  Nodes that are shared in the tree, such as the nodes of elements that are used more than once, are written
+ * once.
+ * <p>
+ * A snapshot can be read with one sequential read, which materializes all nodes, or it can be mapped into memory,
+ * in which case nodes and strings are materialized when they are first reached from the root.
+ */
+public final class CodeGenerationNodeSnapshot {
+
+    /**
+     * The version of the snapshot format.  This must be incremented when the format changes.
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int MAGIC = 0x43474E53;
+
+    private static final int HEADER_SIZE = 32;
+
+    /**
+     * The size of a node record: the string indexes of the id, name, description, XSD datatype, property IRI and
+     * field input type, the cardinality, the positions and numbers of children and literal options, and the flags,
+     * artifact type and required value.
+     */
+    private static final int NODE_SIZE = 6 * 4 + 2 * 4 + 4 * 4 + 4;
+
+    private static final int NO_STRING = -1;
+
+    private CodeGenerationNodeSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of the tree with the specified root to the specified file.
+     */
+    public static void write(@Nonnull CodeGenerationNode root, @Nonnull Path path) throws IOException {
+        try (var outputStream = new BufferedOutputStream(Files.newOutputStream(path))) {
+            write(root, outputStream);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the tree with the specified root to the specified stream.  The stream is not closed.
+     */
+    public static void write(@Nonnull CodeGenerationNode root, @Nonnull OutputStream outputStream) throws IOException {
+        Objects.requireNonNull(root);
+        var writer = new SnapshotWriter();
+        var rootIndex = writer.addNode(root);
+        var out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(writer.strings.size());
+        out.writeInt(writer.stringBytes.size());
+        out.writeInt(writer.nodes.size());
+        out.writeInt(writer.indexes.size());
+        out.writeInt(rootIndex);
+        out.writeInt(0);
+        for (var offset : writer.stringOffsets) {
+            out.writeInt(offset);
+        }
+        writer.stringBytes.writeTo(out);
+        for (var node : writer.nodes) {
+            writer.writeNode(node, out);
+        }
+        for (var index : writer.indexes) {
+            out.writeInt(index);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a snapshot from the specified file with one sequential read and materializes all of its nodes.
+     */
+    @Nonnull
+    public static CodeGenerationNode read(@Nonnull Path path) throws IOException {
+        return read(Files.readAllBytes(path));
+    }
+
+    /**
+     * Reads a snapshot from the specified stream and materializes all of its nodes.  The stream is not closed.
+     */
+    @Nonnull
+    public static CodeGenerationNode read(@Nonnull InputStream inputStream) throws IOException {
+        return read(inputStream.readAllBytes());
+    }
+
+    private static CodeGenerationNode read(byte[] bytes) throws IOException {
+        var reader = new SnapshotReader(ByteBuffer.wrap(bytes));
+        var root = reader.getRoot();
+        reader.materializeAll();
+        return root;
+    }
+
+    /**
+     * Maps a snapshot file into memory.  Nodes and strings are read from the mapped file when they are first reached
+     * from the root.  The mapping stays valid after the file is closed and is released when the nodes are no longer
+     * reachable.
+     */
+    @Nonnull
+    public static CodeGenerationNode map(@Nonnull Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new SnapshotReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())).getRoot();
+        }
+    }
+
+    private static final class SnapshotWriter {
+
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private final List<Integer> stringOffsets = new ArrayList<>();
+
+        private final ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+
+        private final Map<CodeGenerationNode, Integer> nodeIndexes = new IdentityHashMap<>();
+
+        private final List<CodeGenerationNode> nodes = new ArrayList<>();
+
+        private final List<Integer> indexes = new ArrayList<>();
+
+        private final Map<CodeGenerationNode, int[]> childPositions = new IdentityHashMap<>();
+
+        /**
+         * Adds the specified node and its descendants, after its children, and gets the index of the node.
+         */
+        private int addNode(CodeGenerationNode node) {
+            var index = nodeIndexes.get(node);
+            if (index != null) {
+                return index;
+            }
+            var childIndexes = node.childNodes().stream().mapToInt(this::addNode).toArray();
+            var literalIndexes = node.literalOptions().stream().mapToInt(this::addString).toArray();
+            var childStart = indexes.size();
+            for (var childIndex : childIndexes) {
+                indexes.add(childIndex);
+            }
+            var literalStart = indexes.size();
+            for (var literalIndex : literalIndexes) {
+                indexes.add(literalIndex);
+            }
+            childPositions.put(node, new int[]{childStart, childIndexes.length, literalStart, literalIndexes.length});
+            addString(node.id());
+            addString(node.name());
+            addString(node.description());
+            addString(node.xsdDatatype());
+            addString(node.propertyIri());
+            addString(node.fieldInputType() != null ? node.fieldInputType().name() : null);
+            index = nodes.size();
+            nodes.add(node);
+            nodeIndexes.put(node, index);
+            return index;
+        }
+
+        private int addString(@Nullable String string) {
+            if (string == null) {
+                return NO_STRING;
+            }
+            var index = strings.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.put(string, index);
+                stringOffsets.add(stringBytes.size());
+                stringBytes.writeBytes(string.getBytes(StandardCharsets.UTF_8));
+            }
+            return index;
+        }
+
+        private void writeNode(CodeGenerationNode node, DataOutputStream out) throws IOException {
+            out.writeInt(addString(node.id()));
+            out.writeInt(addString(node.name()));
+            out.writeInt(addString(node.description()));
+            out.writeInt(addString(node.xsdDatatype()));
+            out.writeInt(addString(node.propertyIri()));
+            out.writeInt(addString(node.fieldInputType() != null ? node.fieldInputType().name() : null));
+            out.writeInt(node.cardinality().minCardinality());
+            out.writeInt(node.cardinality().maxCardinality());
+            for (var position : childPositions.get(node)) {
+                out.writeInt(position);
+            }
+            out.writeByte(node.root() ? 1 : 0);
+            out.writeByte(node.artifactType().ordinal());
+            out.writeByte(node.required().ordinal());
+            out.writeByte(0);
+        }
+    }
+
+    private static final class SnapshotReader {
+
+        private final ByteBuffer buffer;
+
+        private final int stringCount;
+
+        private final int stringBytesSize;
+
+        private final int rootIndex;
+
+        private final int stringOffsetsStart;
+
+        private final int stringBytesStart;
+
+        private final int nodesStart;
+
+        private final int indexesStart;
+
+        private final String[] strings;
+
+        private final CodeGenerationNode[] nodes;
+
+        private SnapshotReader(ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a code generation node snapshot");
+            }
+            var version = buffer.getInt(4);
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format version " + version + " (expected " + FORMAT_VERSION + ")");
+            }
+            stringCount = buffer.getInt(8);
+            stringBytesSize = buffer.getInt(12);
+            var nodeCount = buffer.getInt(16);
+            var indexCount = buffer.getInt(20);
+            rootIndex = buffer.getInt(24);
+            stringOffsetsStart = HEADER_SIZE;
+            stringBytesStart = stringOffsetsStart + stringCount * 4;
+            nodesStart = stringBytesStart + stringBytesSize;
+            indexesStart = nodesStart + nodeCount * NODE_SIZE;
+            if ((long) indexesStart + (long) indexCount * 4 != buffer.capacity() || rootIndex < 0 || rootIndex >= nodeCount) {
+                throw new IOException("Corrupt code generation node snapshot");
+            }
+            strings = new String[stringCount];
+            nodes = new CodeGenerationNode[nodeCount];
+        }
+
+        private CodeGenerationNode getRoot() {
+            return getNode(rootIndex);
+        }
+
+        /**
+         * Materializes all nodes.  Children are written before their parents, so this materializes each node once.
+         */
+        private void materializeAll() {
+            for (int i = 0; i < nodes.length; i++) {
+                getNode(i).childNodes().forEach(Objects::requireNonNull);
+            }
+        }
+
+        private CodeGenerationNode getNode(int index) {
+            var node = nodes[index];
+            if (node == null) {
+                node = readNode(index);
+                nodes[index] = node;
+            }
+            return node;
+        }
+
+        private CodeGenerationNode readNode(int index) {
+            var position = nodesStart + index * NODE_SIZE;
+            var fieldInputType = getString(buffer.getInt(position + 20));
+            var childStart = buffer.getInt(position + 32);
+            var childCount = buffer.getInt(position + 36);
+            var literalStart = buffer.getInt(position + 40);
+            var literalCount = buffer.getInt(position + 44);
+            var literalOptions = new ArrayList<String>(literalCount);
+            for (int i = 0; i < literalCount; i++) {
+                literalOptions.add(getString(getIndex(literalStart + i)));
+            }
+            return CodeGenerationNode.get(getString(buffer.getInt(position)),
+                                          buffer.get(position + 48) != 0,
+                                          getString(buffer.getInt(position + 4)),
+                                          new ChildNodeList(this, childStart, childCount),
+                                          ArtifactType.values()[buffer.get(position + 49)],
+                                          getString(buffer.getInt(position + 8)),
+                                          getString(buffer.getInt(position + 12)),
+                                          Required.values()[buffer.get(position + 50)],
+                                          new Cardinality(buffer.getInt(position + 24), buffer.getInt(position + 28)),
+                                          getString(buffer.getInt(position + 16)),
+                                          fieldInputType != null ? FieldInputType.valueOf(fieldInputType) : null,
+                                          literalOptions);
+        }
+
+        private int getIndex(int position) {
+            return buffer.getInt(indexesStart + position * 4);
+        }
+
+        @Nullable
+        private String getString(int index) {
+            if (index == NO_STRING) {
+                return null;
+            }
+            var string = strings[index];
+            if (string == null) {
+                var start = buffer.getInt(stringOffsetsStart + index * 4);
+                var end = index + 1 < stringCount ? buffer.getInt(stringOffsetsStart + (index + 1) * 4) : stringBytesSize;
+                var bytes = new byte[end - start];
+                buffer.get(stringBytesStart + start, bytes);
+                string = new String(bytes, StandardCharsets.UTF_8);
+                strings[index] = string;
+            }
+            return string;
+        }
+    }
+
+    /**
+     * The child nodes of a node in a snapshot, which are materialized when they are first accessed.
+     */
+    private static final class ChildNodeList extends AbstractList<CodeGenerationNode> implements RandomAccess {
+
+        private final SnapshotReader reader;
+
+        private final int start;
+
+        private final int size;
+
+        private ChildNodeList(SnapshotReader reader, int start, int size) {
+            this.reader = reader;
+            this.start = start;
+            this.size = size;
+        }
+
+        @Override
+        public CodeGenerationNode get(int index) {
+            Objects.checkIndex(index, size);
+            return reader.getNode(reader.getIndex(start + index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,686 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * This class represents a template for generating a columnar exporter for instances.  The exporter flattens
+ * instances into rows with one column per leaf field path of the template, and appends the rows to typed column
+ * buffers that are handed over in fixed size batches.  The shape of the template is generated as a tree of steps
+ * whose accessors call record accessors directly.
+ */
+public class ColumnarExportTemplate {
+
+    private static final String COLUMNAR_EXPORT_DECL = """
+            /**
+             * Flattens {@link ${rootType}} instances into tables.  There is a column for each literal field and two
+             * columns, for the {@code @id} and the {@code rdfs:label}, for each IRI field that has a label.  Columns
+             * are named by the field names on their path, separated by slashes.  Attribute-value fields are not
+             * exported.
+             * <p>
+             * How the items of a list are flattened is controlled by a {@link ListRule} per list path.  By default the
+             * values of the items of a list are joined into single cells.
+             * <p>
+             * Rows are appended to typed column buffers, which are handed over in batches of a fixed number of rows,
+             * so the memory that is used does not depend on the number of instances.  Columns for fields with integer
+             * and floating point datatypes are typed, unless the values are joined, and values that cannot be parsed
+             * are exported as nulls.
+             * <p>
+             * Exporters are immutable and may be shared between threads.
+             */
+            public static final class ColumnarExport {
+
+                public static final int DEFAULT_BATCH_SIZE = 4096;
+
+                public static final String DEFAULT_JOIN_SEPARATOR = "|";
+
+                private static final Step ROOT = ${rootStep};
+
+                private static final ColumnarExport DEFAULT = new ColumnarExport(Map.of(), DEFAULT_BATCH_SIZE, DEFAULT_JOIN_SEPARATOR);
+
+                private final Map<List<String>, ListRule> listRules;
+
+                private final int batchSize;
+
+                private final String joinSeparator;
+
+                private final List<ColumnDescriptor> columns = new ArrayList<>();
+
+                private final Plan plan;
+
+                private ColumnarExport(Map<List<String>, ListRule> listRules, int batchSize, String joinSeparator) {
+                    if (batchSize <= 0) {
+                        throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+                    }
+                    this.listRules = Map.copyOf(listRules);
+                    this.batchSize = batchSize;
+                    if (joinSeparator.isEmpty() || joinSeparator.indexOf('\\\\') != -1) {
+                        throw new IllegalArgumentException("Join separator must not be empty or contain a backslash: " + joinSeparator);
+                    }
+                    this.joinSeparator = joinSeparator;
+                    this.plan = plan(ROOT, false);
+                }
+
+                /**
+                 * Gets an exporter that joins the values of list items, with the default batch size.
+                 */
+                public static ColumnarExport of() {
+                    return DEFAULT;
+                }
+
+                /**
+                 * Creates a path from the specified {@link FieldNames} constants.
+                 */
+                public static List<String> path(String ... keys) {
+                    return List.of(keys);
+                }
+
+                /**
+                 * Gets an exporter that flattens the list at the specified path with the specified rule.
+                 * @throws IllegalArgumentException if the path is not the path of a list.
+                 */
+                public ColumnarExport withListRule(@Nonnull List<String> path, @Nonnull ListRule rule) {
+                    if (!isListPath(ROOT, path)) {
+                        throw new IllegalArgumentException("Not the path of a list: " + path);
+                    }
+                    var listRules = new HashMap<>(this.listRules);
+                    listRules.put(List.copyOf(path), Objects.requireNonNull(rule));
+                    return new ColumnarExport(listRules, batchSize, joinSeparator);
+                }
+
+                /**
+                 * Gets an exporter that hands over batches with at most the specified number of rows.
+                 */
+                public ColumnarExport withBatchSize(int batchSize) {
+                    return new ColumnarExport(listRules, batchSize, joinSeparator);
+                }
+
+                /**
+                 * Gets an exporter that joins the values of list items with the specified separator.
+                 */
+                public ColumnarExport withJoinSeparator(@Nonnull String joinSeparator) {
+                    return new ColumnarExport(listRules, batchSize, joinSeparator);
+                }
+
+                private static boolean isListPath(Step step, List<String> path) {
+                    if (step.list() && step.path().equals(path)) {
+                        return true;
+                    }
+                    return step.children().stream().anyMatch(child -> isListPath(child, path));
+                }
+
+                /**
+                 * Gets the columns of the tables that this exporter produces, in column order.
+                 */
+                public List<ColumnDescriptor> columns() {
+                    return Collections.unmodifiableList(columns);
+                }
+
+                /**
+                 * Flattens the specified instances and passes the rows to the consumer in batches.  Every batch apart
+                 * from the last one has exactly the batch size number of rows.  A batch is not used by the exporter
+                 * once it has been passed to the consumer.
+                 */
+                public void export(@Nonnull Iterator<? extends ${rootType}> instances, @Nonnull Consumer<ColumnBatch> consumer) {
+                    var batch = newBatch();
+                    while (instances.hasNext()) {
+                        var instance = instances.next();
+                        if (instance == null) {
+                            continue;
+                        }
+                        for (var row : rows(plan, instance)) {
+                            batch.append(row);
+                            if (batch.rowCount == batchSize) {
+                                consumer.accept(batch);
+                                batch = newBatch();
+                            }
+                        }
+                    }
+                    if (batch.rowCount > 0) {
+                        consumer.accept(batch);
+                    }
+                }
+
+                public void export(@Nonnull Iterable<? extends ${rootType}> instances, @Nonnull Consumer<ColumnBatch> consumer) {
+                    export(instances.iterator(), consumer);
+                }
+
+                /**
+                 * Writes the specified instances as a table, with a header row, in the specified format.  The writer
+                 * is not closed.
+                 */
+                public void write(@Nonnull Iterator<? extends ${rootType}> instances,
+                                  @Nonnull Writer out,
+                                  @Nonnull Format format) throws IOException {
+                    var header = new String[columns.size()];
+                    for (int column = 0; column < header.length; column++) {
+                        header[column] = columns.get(column).name();
+                    }
+                    writeRow(out, format, header);
+                    try {
+                        export(instances, batch -> {
+                            var row = new String[columns.size()];
+                            for (int i = 0; i < batch.rowCount(); i++) {
+                                for (int column = 0; column < row.length; column++) {
+                                    row[column] = batch.columns().get(column).getString(i);
+                                }
+                                try {
+                                    writeRow(out, format, row);
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            }
+                        });
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                }
+
+                public void write(@Nonnull Iterable<? extends ${rootType}> instances,
+                                  @Nonnull Writer out,
+                                  @Nonnull Format format) throws IOException {
+                    write(instances.iterator(), out, format);
+                }
+
+                private static void writeRow(Writer out, Format format, String[] row) throws IOException {
+                    for (int column = 0; column < row.length; column++) {
+                        if (column > 0) {
+                            out.write(format == Format.CSV ? ',' : '\\t');
+                        }
+                        if (row[column] != null) {
+                            out.write(format == Format.CSV ? escapeCsv(row[column]) : escapeTsv(row[column]));
+                        }
+                    }
+                    out.write(format == Format.CSV ? "\\r\\n" : "\\n");
+                }
+
+                private static String escapeCsv(String value) {
+                    for (int i = 0; i < value.length(); i++) {
+                        var c = value.charAt(i);
+                        if (c == ',' || c == '"' || c == '\\n' || c == '\\r') {
+                            return "\\"" + value.replace("\\"", "\\"\\"") + "\\"";
+                        }
+                    }
+                    return value;
+                }
+
+                private static String escapeTsv(String value) {
+                    for (int i = 0; i < value.length(); i++) {
+                        var c = value.charAt(i);
+                        if (c == '\\\\' || c == '\\t' || c == '\\n' || c == '\\r') {
+                            var sb = new StringBuilder(value.length() + 8);
+                            for (int j = 0; j < value.length(); j++) {
+                                var d = value.charAt(j);
+                                if (d == '\\\\') {
+                                    sb.append("\\\\\\\\");
+                                }
+                                else if (d == '\\t') {
+                                    sb.append("\\\\t");
+                                }
+                                else if (d == '\\n') {
+                                    sb.append("\\\\n");
+                                }
+                                else if (d == '\\r') {
+                                    sb.append("\\\\r");
+                                }
+                                else {
+                                    sb.append(d);
+                                }
+                            }
+                            return sb.toString();
+                        }
+                    }
+                    return value;
+                }
+
+                private ColumnBatch newBatch() {
+                    var buffers = new ArrayList<Column>(columns.size());
+                    for (var descriptor : columns) {
+                        buffers.add(switch (descriptor.type()) {
+                            case LONG -> new LongColumn(descriptor, batchSize);
+                            case DOUBLE -> new DoubleColumn(descriptor, batchSize);
+                            case STRING -> new StringColumn(descriptor, batchSize);
+                        });
+                    }
+                    return new ColumnBatch(buffers);
+                }
+
+                /**
+                 * Builds the plan for the specified step and adds the columns of its leaves.
+                 * @param joined Whether the values of the step are joined by an enclosing list.
+                 */
+                private Plan plan(Step step, boolean joined) {
+                    var rule = step.list() ? listRules.getOrDefault(step.path(), ListRule.JOIN) : null;
+                    var joinedValues = joined || rule == ListRule.JOIN;
+                    var firstColumn = columns.size();
+                    var name = String.join("/", step.path());
+                    if (step.kind() == StepKind.LITERAL) {
+                        columns.add(new ColumnDescriptor(name, joinedValues ? ColumnType.STRING : step.type()));
+                    }
+                    else if (step.kind() == StepKind.IRI) {
+                        columns.add(new ColumnDescriptor(name, ColumnType.STRING));
+                    }
+                    else if (step.kind() == StepKind.IRI_WITH_LABEL) {
+                        columns.add(new ColumnDescriptor(name, ColumnType.STRING));
+                        columns.add(new ColumnDescriptor(name + "/rdfs:label", ColumnType.STRING));
+                    }
+                    var children = new ArrayList<Plan>();
+                    for (var child : step.children()) {
+                        children.add(plan(child, joinedValues));
+                    }
+                    return new Plan(step, rule, firstColumn, columns.size(), children);
+                }
+
+                /**
+                 * Gets the rows, restricted to the columns of the plan, for the specified record of the plan.
+                 */
+                private List<String[]> itemRows(Plan plan, Object item) {
+                    var step = plan.step();
+                    if (step.kind() == StepKind.ELEMENT) {
+                        return rows(plan, item);
+                    }
+                    var row = new String[columns.size()];
+                    if (step.kind() == StepKind.LITERAL) {
+                        row[plan.firstColumn()] = ((LiteralField) item).value();
+                    }
+                    else {
+                        row[plan.firstColumn()] = ((IriField) item).id();
+                        if (step.kind() == StepKind.IRI_WITH_LABEL) {
+                            row[plan.firstColumn() + 1] = ((IriField) item).label();
+                        }
+                    }
+                    return List.<String[]>of(row);
+                }
+
+                /**
+                 * Gets the rows for the specified element record, as the cross product of the rows of its children.
+                 */
+                private List<String[]> rows(Plan plan, Object element) {
+                    List<String[]> rows = List.<String[]>of(new String[columns.size()]);
+                    for (var child : plan.children()) {
+                        var childRows = childRows(child, child.step().accessor().apply(element));
+                        if (childRows.size() == 1) {
+                            for (var row : rows) {
+                                merge(row, childRows.get(0), child);
+                            }
+                        }
+                        else if (!childRows.isEmpty()) {
+                            var product = new ArrayList<String[]>(rows.size() * childRows.size());
+                            for (var row : rows) {
+                                for (var childRow : childRows) {
+                                    var copy = row.clone();
+                                    merge(copy, childRow, child);
+                                    product.add(copy);
+                                }
+                            }
+                            rows = product;
+                        }
+                    }
+                    return rows;
+                }
+
+                private static void merge(String[] row, String[] childRow, Plan child) {
+                    System.arraycopy(childRow, child.firstColumn(), row, child.firstColumn(), child.endColumn() - child.firstColumn());
+                }
+
+                private List<String[]> childRows(Plan plan, Object value) {
+                    if (value == null) {
+                        return List.of();
+                    }
+                    if (!plan.step().list()) {
+                        return itemRows(plan, value);
+                    }
+                    var items = ((ArtifactList) value).getArtifacts();
+                    if (plan.rule() == ListRule.FIRST) {
+                        for (var item : items) {
+                            if (item != null) {
+                                return itemRows(plan, item);
+                            }
+                        }
+                        return List.of();
+                    }
+                    if (plan.rule() == ListRule.EXPLODE) {
+                        var rows = new ArrayList<String[]>();
+                        for (var item : items) {
+                            if (item != null) {
+                                rows.addAll(itemRows(plan, item));
+                            }
+                        }
+                        return rows;
+                    }
+                    var itemRows = new ArrayList<String[]>();
+                    for (var item : items) {
+                        if (item != null) {
+                            itemRows.addAll(itemRows(plan, item));
+                        }
+                    }
+                    var joined = new String[columns.size()];
+                    for (int column = plan.firstColumn(); column < plan.endColumn(); column++) {
+                        joined[column] = join(itemRows, column);
+                    }
+                    return List.<String[]>of(joined);
+                }
+
+                /**
+                 * Joins the values of the specified item rows in the specified column.  Each item row has a slot,
+                 * which is empty if the item row has no value.
+                 * @return The joined values, or {@code null} if none of the item rows has a value.
+                 */
+                private String join(List<String[]> itemRows, int column) {
+                    var joined = new StringBuilder();
+                    var hasValue = false;
+                    for (int i = 0; i < itemRows.size(); i++) {
+                        if (i > 0) {
+                            joined.append(joinSeparator);
+                        }
+                        var value = itemRows.get(i)[column];
+                        if (value != null) {
+                            hasValue = true;
+                            appendEscaped(joined, value);
+                        }
+                    }
+                    return hasValue ? joined.toString() : null;
+                }
+
+                /**
+                 * Appends the specified value with a backslash before each backslash and each join separator.
+                 */
+                private void appendEscaped(StringBuilder joined, String value) {
+                    for (int i = 0; i < value.length(); i++) {
+                        if (value.startsWith(joinSeparator, i)) {
+                            joined.append('\\\\').append(joinSeparator);
+                            i += joinSeparator.length() - 1;
+                        }
+                        else {
+                            if (value.charAt(i) == '\\\\') {
+                                joined.append('\\\\');
+                            }
+                            joined.append(value.charAt(i));
+                        }
+                    }
+                }
+
+                /**
+                 * How the items of a list are flattened.
+                 */
+                public enum ListRule {
+
+                    /**
+                     * The values of the items are joined, with a separator, into single string cells.  Items without
+                     * a value leave an empty slot, so that the i-th slots of the cells of a list belong to the same
+                     * item.  Separators and backslashes in values are escaped with a backslash.
+                     */
+                    JOIN,
+
+                    /**
+                     * Only the first item is exported.
+                     */
+                    FIRST,
+
+                    /**
+                     * Each item is exported in a row of its own.  Rows are multiplied out over all of the exploded
+                     * lists of an instance.
+                     */
+                    EXPLODE
+                }
+
+                public enum Format {
+                    CSV, TSV
+                }
+
+                public enum ColumnType {
+                    LONG, DOUBLE, STRING
+                }
+
+                public record ColumnDescriptor(String name, ColumnType type) {
+                }
+
+                private enum StepKind {
+                    ELEMENT, LITERAL, IRI, IRI_WITH_LABEL
+                }
+
+                /**
+                 * A node of the template.
+                 * @param path The path of the node.
+                 * @param kind The kind of the node.
+                 * @param list Whether the node is a list.
+                 * @param type The column type for the values of a literal field.
+                 * @param accessor Gets the record of the node, or its list record, from the record of its parent.
+                 * @param children The child nodes of an element.
+                 */
+                private record Step(List<String> path,
+                                    StepKind kind,
+                                    boolean list,
+                                    ColumnType type,
+                                    Function<Object, Object> accessor,
+                                    List<Step> children) {
+                }
+
+                /**
+                 * A step with its list rule and the range of columns of its leaves.
+                 */
+                private record Plan(Step step, ListRule rule, int firstColumn, int endColumn, List<Plan> children) {
+                }
+
+                /**
+                 * A batch of rows, stored in one buffer per column.
+                 */
+                public static final class ColumnBatch {
+
+                    private final List<Column> columns;
+
+                    private int rowCount = 0;
+
+                    private ColumnBatch(List<Column> columns) {
+                        this.columns = columns;
+                    }
+
+                    public int rowCount() {
+                        return rowCount;
+                    }
+
+                    public List<Column> columns() {
+                        return Collections.unmodifiableList(columns);
+                    }
+
+                    private void append(String[] row) {
+                        for (int column = 0; column < row.length; column++) {
+                            columns.get(column).append(rowCount, row[column]);
+                        }
+                        rowCount++;
+                    }
+                }
+
+                /**
+                 * A buffer of the values of one column.
+                 */
+                public abstract static class Column {
+
+                    private final ColumnDescriptor descriptor;
+
+                    protected final BitSet nulls = new BitSet();
+
+                    private Column(ColumnDescriptor descriptor) {
+                        this.descriptor = descriptor;
+                    }
+
+                    public ColumnDescriptor descriptor() {
+                        return descriptor;
+                    }
+
+                    public boolean isNull(int row) {
+                        return nulls.get(row);
+                    }
+
+                    /**
+                     * Gets the value of the specified row as a string, or {@code null} if the value is null.
+                     */
+                    public abstract String getString(int row);
+
+                    abstract void append(int row, String value);
+                }
+
+                public static final class LongColumn extends Column {
+
+                    private final long[] values;
+
+                    private LongColumn(ColumnDescriptor descriptor, int capacity) {
+                        super(descriptor);
+                        this.values = new long[capacity];
+                    }
+
+                    public long getLong(int row) {
+                        return values[row];
+                    }
+
+                    @Override
+                    public String getString(int row) {
+                        return isNull(row) ? null : Long.toString(values[row]);
+                    }
+
+                    @Override
+                    void append(int row, String value) {
+                        try {
+                            if (value != null) {
+                                values[row] = Long.parseLong(value);
+                                return;
+                            }
+                        } catch (NumberFormatException e) {
+                            // Exported as null
+                        }
+                        nulls.set(row);
+                    }
+                }
+
+                public static final class DoubleColumn extends Column {
+
+                    private final double[] values;
+
+                    private DoubleColumn(ColumnDescriptor descriptor, int capacity) {
+                        super(descriptor);
+                        this.values = new double[capacity];
+                    }
+
+                    public double getDouble(int row) {
+                        return values[row];
+                    }
+
+                    @Override
+                    public String getString(int row) {
+                        if (isNull(row)) {
+                            return null;
+                        }
+                        var value = values[row];
+                        if (Double.isInfinite(value)) {
+                            return value > 0 ? "INF" : "-INF";
+                        }
+                        return Double.toString(value);
+                    }
+
+                    @Override
+                    void append(int row, String value) {
+                        if (value == null) {
+                            nulls.set(row);
+                        }
+                        else if (value.equals("INF") || value.equals("+INF")) {
+                            values[row] = Double.POSITIVE_INFINITY;
+                        }
+                        else if (value.equals("-INF")) {
+                            values[row] = Double.NEGATIVE_INFINITY;
+                        }
+                        else {
+                            try {
+                                // Double.parseDouble also accepts NaN
+                                values[row] = Double.parseDouble(value);
+                            } catch (NumberFormatException e) {
+                                nulls.set(row);
+                            }
+                        }
+                    }
+                }
+
+                public static final class StringColumn extends Column {
+
+                    private final String[] values;
+
+                    private StringColumn(ColumnDescriptor descriptor, int capacity) {
+                        super(descriptor);
+                        this.values = new String[capacity];
+                    }
+
+                    @Override
+                    public String getString(int row) {
+                        return values[row];
+                    }
+
+                    @Override
+                    void append(int row, String value) {
+                        values[row] = value;
+                        if (value == null) {
+                            nulls.set(row);
+                        }
+                    }
+                }
+            }
+            """;
+
+    private static final Set<String> LONG_DATATYPES = Set.of("xsd:long", "xsd:int", "xsd:short", "xsd:byte");
+
+    private static final Set<String> DOUBLE_DATATYPES = Set.of("xsd:double", "xsd:float");
+
+    /**
+     * Fills the template for the columnar exporter of the specified root node.
+     *
+     * @param rootNode The generated root node of the template.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull GeneratedArtifactNode rootNode) {
+        Objects.requireNonNull(rootNode);
+        var rootStep = "new Step(List.of(), StepKind.ELEMENT, false, ColumnType.STRING, root -> root, "
+                + getChildSteps(rootNode, List.of()) + ")";
+        return COLUMNAR_EXPORT_DECL.replace("${rootStep}", rootStep)
+                                   .replace("${rootType}", rootNode.qualifiedTypeName());
+    }
+
+    private static String getChildSteps(GeneratedArtifactNode node, List<String> path) {
+        var steps = new ArrayList<String>();
+        node.childNodes()
+            .stream()
+            .filter(childNode -> !childNode.node().isAttributeValueField())
+            .forEach(childNode -> steps.add(getStep(node, childNode, path)));
+        return "List.of(" + String.join(",\n", steps) + ")";
+    }
+
+    private static String getStep(GeneratedArtifactNode parentNode, GeneratedArtifactNode node, List<String> parentPath) {
+        var path = new ArrayList<>(parentPath);
+        path.add("FieldNames." + node.constantSymbol());
+        var datatype = node.node().getXsdDatatype().orElse("");
+        final String kind;
+        if (node.isElement()) {
+            kind = "ELEMENT";
+        }
+        else if (node.node().artifactType().equals(CodeGenerationNode.ArtifactType.IRI_FIELD)) {
+            kind = JavaGenerator.isIriFieldWithLabel(node.node()) ? "IRI_WITH_LABEL" : "IRI";
+        }
+        else {
+            kind = "LITERAL";
+        }
+        final String type;
+        if (LONG_DATATYPES.contains(datatype)) {
+            type = "LONG";
+        }
+        else if (DOUBLE_DATATYPES.contains(datatype)) {
+            type = "DOUBLE";
+        }
+        else {
+            type = "STRING";
+        }
+        var children = node.isElement() ? getChildSteps(node, path) : "List.of()";
+        return "new Step(path(" + String.join(", ", path) + "), StepKind." + kind + ", " + node.node().isListType()
+                + ", ColumnType." + type + ", parent -> ((" + parentNode.qualifiedTypeName() + ") parent)." + node.paramName() + "(), "
+                + children + ")";
+    }
+}
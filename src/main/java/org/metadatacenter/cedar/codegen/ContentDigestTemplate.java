@@ -0,0 +1,365 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+/**
+ * This class represents a template for generating a content digest of instances.  The values of an instance are
+ * written in a canonical binary form straight into a {@link java.security.MessageDigest}, in the order of the code
+ * generation node tree, so instances with the same values have the same digest however they were created or
+ * serialized.  The ids of elements, which are generated, can be left out of the digest.
+ */
+public class ContentDigestTemplate {
+
+    private static final String CONTENT_DIGEST_DECL = """
+            /**
+             * Computes digests of the content of {@link ${rootType}} instances and of their elements.  The values of
+             * an element are written to a {@link MessageDigest} in a canonical form that does not depend upon the
+             * JSON form of the element: children are written in the order of the template, lengths and presence are
+             * written explicitly, strings are written as UTF-8, and attribute values are written in the order of
+             * their names.  The canonical form starts with {@link #FORMAT_VERSION}, {@link #TEMPLATE_DIGEST} and the
+             * type of the element, so elements of different types or templates do not have the same digest.
+             * <p>
+             * The ids of elements are generated, so they can be ignored.  Elements that differ only in their ids then
+             * have the same digest.
+             */
+            public static final class ContentDigest {
+
+                public static final int FORMAT_VERSION = 1;
+
+                /**
+                 * A digest of the structure of the template that this code was generated from.
+                 */
+                public static final long TEMPLATE_DIGEST = ${templateDigest}L;
+
+                private static final int BUFFER_SIZE = 512;
+
+                private final MessageDigest digest;
+
+                private final boolean ignoreIds;
+
+                private final byte[] buffer = new byte[BUFFER_SIZE];
+
+                private int position;
+
+                private ContentDigest(MessageDigest digest, boolean ignoreIds) {
+                    this.digest = Objects.requireNonNull(digest);
+                    this.ignoreIds = ignoreIds;
+                }
+
+                /**
+                 * Computes the SHA-256 digest of the specified instance.
+                 * @param ignoreIds Whether the ids of the instance and of its elements are left out of the digest.
+                 */
+                public static byte[] sha256(@Nonnull ${rootType} instance, boolean ignoreIds) {
+                    try {
+                        var digest = MessageDigest.getInstance("SHA-256");
+                        update(digest, instance, ignoreIds);
+                        return digest.digest();
+                    } catch (NoSuchAlgorithmException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+
+                ${updateMethods}
+
+                private void writeHeader(String type) {
+                    writeVarInt(FORMAT_VERSION);
+                    writeFixedLong(TEMPLATE_DIGEST);
+                    writeString(type);
+                }
+
+                private void writeId(String id) {
+                    if (!ignoreIds) {
+                        writeString(id);
+                    }
+                }
+
+                private void flush() {
+                    digest.update(buffer, 0, position);
+                    position = 0;
+                }
+
+                private void writeByte(int b) {
+                    if (position == BUFFER_SIZE) {
+                        flush();
+                    }
+                    buffer[position++] = (byte) b;
+                }
+
+                private void writeVarInt(int value) {
+                    while ((value & ~0x7F) != 0) {
+                        writeByte((value & 0x7F) | 0x80);
+                        value >>>= 7;
+                    }
+                    writeByte(value);
+                }
+
+                private void writeVarLong(long value) {
+                    while ((value & ~0x7FL) != 0) {
+                        writeByte((int) ((value & 0x7F) | 0x80));
+                        value >>>= 7;
+                    }
+                    writeByte((int) value);
+                }
+
+                private void writeFixedLong(long value) {
+                    for (int shift = 56; shift >= 0; shift -= 8) {
+                        writeByte((int) (value >>> shift));
+                    }
+                }
+
+                /**
+                 * Writes a nullable string as a varint of the UTF-8 length plus one, followed by the UTF-8 bytes.
+                 * {@code null} is written as a zero length.  Unpaired surrogates are written as three byte sequences,
+                 * so that different strings are written differently.
+                 */
+                private void writeString(String value) {
+                    if (value == null) {
+                        writeVarInt(0);
+                        return;
+                    }
+                    var length = value.length();
+                    var utf8Length = 0;
+                    for (int i = 0; i < length; i++) {
+                        var c = value.charAt(i);
+                        if (c < 0x80) {
+                            utf8Length++;
+                        }
+                        else if (c < 0x800) {
+                            utf8Length += 2;
+                        }
+                        else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                            utf8Length += 4;
+                            i++;
+                        }
+                        else {
+                            utf8Length += 3;
+                        }
+                    }
+                    writeVarInt(utf8Length + 1);
+                    for (int i = 0; i < length; i++) {
+                        var c = value.charAt(i);
+                        if (c < 0x80) {
+                            writeByte(c);
+                        }
+                        else if (c < 0x800) {
+                            writeByte(0xC0 | c >> 6);
+                            writeByte(0x80 | c & 0x3F);
+                        }
+                        else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                            var codePoint = Character.toCodePoint(c, value.charAt(++i));
+                            writeByte(0xF0 | codePoint >> 18);
+                            writeByte(0x80 | codePoint >> 12 & 0x3F);
+                            writeByte(0x80 | codePoint >> 6 & 0x3F);
+                            writeByte(0x80 | codePoint & 0x3F);
+                        }
+                        else {
+                            writeByte(0xE0 | c >> 12);
+                            writeByte(0x80 | c >> 6 & 0x3F);
+                            writeByte(0x80 | c & 0x3F);
+                        }
+                    }
+                }
+
+                private void writeInstant(Instant value) {
+                    if (value == null) {
+                        writeByte(0);
+                        return;
+                    }
+                    writeByte(1);
+                    var seconds = value.getEpochSecond();
+                    writeVarLong((seconds << 1) ^ (seconds >> 63));
+                    writeVarInt(value.getNano());
+                }
+
+                private void writeStringList(List<String> values) {
+                    if (values == null) {
+                        writeVarInt(0);
+                        return;
+                    }
+                    writeVarInt(values.size() + 1);
+                    for (var value : values) {
+                        writeString(value);
+                    }
+                }
+
+                private void writeAttributeValues(Map<String, LiteralField> values) {
+                    if (values == null) {
+                        writeVarInt(0);
+                        return;
+                    }
+                    writeVarInt(values.size() + 1);
+                    var names = new ArrayList<>(values.keySet());
+                    Collections.sort(names);
+                    for (var name : names) {
+                        var value = values.get(name);
+                        writeString(name);
+                        writeString(value == null ? null : value.value());
+                    }
+                }
+
+                ${writeMethods}
+            }
+            """;
+
+    private static final String UPDATE_METHOD_DECL = """
+                /**
+                 * Updates the specified digest with the content of the specified {@code ${typeName}}.
+                 * @param ignoreIds Whether the ids of the element and of its descendant elements are left out.
+                 */
+                public static void update(@Nonnull MessageDigest digest, @Nonnull ${typeName} value, boolean ignoreIds) {
+                    var contentDigest = new ContentDigest(digest, ignoreIds);
+                    contentDigest.writeHeader("${methodSuffix}");
+                    contentDigest.write${methodSuffix}(Objects.requireNonNull(value));
+                    contentDigest.flush();
+                }
+
+            """;
+
+    private static final String WRITE_ELEMENT_METHOD_DECL = """
+                private void write${methodSuffix}(${typeName} value) {
+                    ${writeStatements}
+                }
+
+            """;
+
+    private static final String DIGEST_METHOD_DECL = """
+            /**
+             * Updates the specified digest with the content of this element, including the ids of elements.
+             * @see ContentDigest
+             */
+            public void digest(@Nonnull MessageDigest digest) {
+                ContentDigest.update(digest, this, false);
+            }
+            """;
+
+    private static final String DIGEST_IGNORING_IDS_METHOD_DECL = """
+            /**
+             * Updates the specified digest with the content of this element.
+             * @param ignoreIds Whether the ids of this element and of its descendant elements are left out.
+             * @see ContentDigest
+             */
+            public void digest(@Nonnull MessageDigest digest, boolean ignoreIds) {
+                ContentDigest.update(digest, this, ignoreIds);
+            }
+            """;
+
+    /**
+     * Fills the template for the content digest of the specified root node.
+     *
+     * @param rootNode           The generated root node of the template.
+     * @param rootNodeComponents The types and names of the extra components of the root record, in order.
+     * @param hasAttributeValues A predicate that determines whether the record of an element node has an
+     *                           attribute values component.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull GeneratedArtifactNode rootNode,
+                               @Nonnull List<Map.Entry<String, String>> rootNodeComponents,
+                               @Nonnull Predicate<GeneratedArtifactNode> hasAttributeValues) {
+        Objects.requireNonNull(rootNode);
+        Objects.requireNonNull(rootNodeComponents);
+        Objects.requireNonNull(hasAttributeValues);
+        var updateMethods = new LinkedHashMap<String, String>();
+        var writeMethods = new LinkedHashMap<String, String>();
+        collectElementMethods(rootNode, rootNodeComponents, hasAttributeValues, updateMethods, writeMethods);
+        return CONTENT_DIGEST_DECL.replace("${rootType}", rootNode.qualifiedTypeName())
+                                  .replace("${templateDigest}", "0x" + Long.toHexString(BinaryCodecTemplate.getTemplateDigest(rootNode.node())))
+                                  .replace("${updateMethods}", String.join("", updateMethods.values()))
+                                  .replace("${writeMethods}", String.join("", writeMethods.values()));
+    }
+
+    /**
+     * Gets the declarations of the {@code digest} methods that are added to each element record.
+     */
+    public List<String> getDigestMethodDeclarations() {
+        return List.of(DIGEST_METHOD_DECL, DIGEST_IGNORING_IDS_METHOD_DECL);
+    }
+
+    private static void collectElementMethods(GeneratedArtifactNode node,
+                                              List<Map.Entry<String, String>> rootNodeComponents,
+                                              Predicate<GeneratedArtifactNode> hasAttributeValues,
+                                              Map<String, String> updateMethods,
+                                              Map<String, String> writeMethods) {
+        if (writeMethods.containsKey(node.qualifiedTypeName())) {
+            return;
+        }
+        var writeStatements = new StringBuilder("writeId(value.id());\n");
+        if (node.node().root()) {
+            for (var component : rootNodeComponents) {
+                var suffix = component.getKey().equals("Instant") ? "Instant" : "String";
+                writeStatements.append("write").append(suffix).append("(value.").append(component.getValue()).append("());\n");
+            }
+        }
+        var childStatements = new ArrayList<String>();
+        var childNodes = node.childNodes();
+        for (int i = 0; i < childNodes.size(); i++) {
+            var childNode = childNodes.get(i);
+            var accessor = "value." + childNode.paramName() + "()";
+            var child = "c" + i;
+            childStatements.add("var " + child + " = " + accessor + ";\n"
+                                        + "if (" + child + " == null) {\nwriteByte(0);\n}\n"
+                                        + "else {\nwriteByte(1);\n"
+                                        + getWriteStatement(childNode, child)
+                                        + "}\n");
+        }
+        var methodSuffix = node.methodSuffix();
+        BiFunction<String, String, String> method = (suffix, statements) ->
+                WRITE_ELEMENT_METHOD_DECL.replace("${methodSuffix}", suffix)
+                                         .replace("${typeName}", node.qualifiedTypeName())
+                                         .replace("${writeStatements}", statements);
+        var partMethods = new StringBuilder();
+        writeStatements.append(PartitionedElementRecordTemplate.splitIntoPartMethods(childStatements,
+                                                                                     methodSuffix,
+                                                                                     suffix -> "write" + suffix + "(value);\n",
+                                                                                     method,
+                                                                                     partMethods));
+        if (hasAttributeValues.test(node)) {
+            writeStatements.append("writeAttributeValues(value.attributeValues());\n");
+        }
+        updateMethods.put(node.qualifiedTypeName(), UPDATE_METHOD_DECL.replace("${methodSuffix}", methodSuffix)
+                                                                      .replace("${typeName}", node.qualifiedTypeName()));
+        writeMethods.put(node.qualifiedTypeName(), method.apply(methodSuffix, writeStatements.toString()) + partMethods);
+        node.childNodes()
+            .stream()
+            .filter(GeneratedArtifactNode::isElement)
+            .forEach(childNode -> collectElementMethods(childNode, rootNodeComponents, hasAttributeValues, updateMethods, writeMethods));
+    }
+
+    private static String getWriteStatement(GeneratedArtifactNode node, String value) {
+        if (node.node().isAttributeValueField()) {
+            return "writeStringList(" + value + ");\n";
+        }
+        if (node.node().isListType()) {
+            var list = value + "." + node.listParamName() + "()";
+            return "writeVarInt(" + list + ".size());\n"
+                    + "for (var item : " + list + ") {\n"
+                    + "if (item == null) {\nwriteByte(0);\n}\n"
+                    + "else {\nwriteByte(1);\n"
+                    + getWriteItemStatement(node, "item")
+                    + "}\n}\n";
+        }
+        return getWriteItemStatement(node, value);
+    }
+
+    private static String getWriteItemStatement(GeneratedArtifactNode node, String item) {
+        if (node.isElement()) {
+            return "write" + node.methodSuffix() + "(" + item + ");\n";
+        }
+        else if (node.isLiteralField()) {
+            return "writeString(" + item + ".value());\n";
+        }
+        else if (node.isIriFieldWithLabel()) {
+            return "writeString(" + item + ".id());\nwriteString(" + item + ".label());\n";
+        }
+        else {
+            return "writeString(" + item + ".id());\n";
+        }
+    }
+}
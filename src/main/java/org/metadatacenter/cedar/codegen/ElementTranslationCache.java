@@ -0,0 +1,240 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.metadatacenter.artifacts.model.core.ElementSchemaArtifact;
+
+import javax.annotation.Nonnull;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+/**
+ * A size bounded cache of the code generation nodes of translated elements.  Code generation nodes are immutable, so
+ * the node of an element can be shared by every occurrence of the element, whether the element is nested more than
+ * once in a template or is used by several templates.  Entries are keyed by the JSON-LD id of an element and a
+ * 128-bit fingerprint of its content, so changed elements with the same id are translated again.  The least recently
+ * used entry is evicted when the cache is full.  Elements without ids are not cached.
+ * <p>
+ * Fingerprints are built bottom-up: the fingerprint of an element is the SHA-256 digest of its own properties and of
+ * the fingerprints of its translated children, cut to 128 bits.  The children of an element are translated, or found
+ * in the cache, before the element is looked up, so a lookup only digests the properties of the element itself and
+ * one fingerprint per child, however deeply the element is nested.
+ * <p>
+ * The cache does not keep the elements themselves.  An entry holds the id, the fingerprint and the node, so a cached
+ * element and all of its nested schema artifacts can be garbage collected once the translated template is, and the
+ * memory that an entry takes does not grow with the size of the element beyond the size of its node.  In return, a
+ * hit relies on the fingerprint alone, so two different elements with the same id and fingerprint would share a
+ * node; with 128 bits of SHA-256 that is not a practical concern.
+ */
+public class ElementTranslationCache {
+
+    /**
+     * The default maximum number of cached elements.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final int capacity;
+
+    private final LinkedHashMap<Key, CodeGenerationNode> entries;
+
+    private long hits = 0;
+
+    private long misses = 0;
+
+    private long evictions = 0;
+
+    /**
+     * Creates a cache that holds up to the specified number of elements.  A cache with a capacity of zero does not
+     * cache elements.
+     */
+    public ElementTranslationCache(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity < 0 (" + capacity + ")");
+        }
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CodeGenerationNode> eldest) {
+                if (size() > ElementTranslationCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the translation of a field node, whose fingerprint is digested from the properties of the node.
+     */
+    @Nonnull
+    public static Translation getFieldTranslation(@Nonnull CodeGenerationNode fieldNode) {
+        var fingerprint = new FingerprintBuilder().add(fieldNode.id())
+                                                  .add(fieldNode.name())
+                                                  .add(fieldNode.artifactType().name())
+                                                  .add(fieldNode.description())
+                                                  .add(fieldNode.xsdDatatype())
+                                                  .add(fieldNode.required().name())
+                                                  .add(String.valueOf(fieldNode.cardinality().minCardinality()))
+                                                  .add(String.valueOf(fieldNode.cardinality().maxCardinality()))
+                                                  .add(fieldNode.propertyIri())
+                                                  .add(fieldNode.fieldInputType() == null ? null : fieldNode.fieldInputType().name())
+                                                  .add(String.valueOf(fieldNode.literalOptions().size()));
+        fieldNode.literalOptions().forEach(fingerprint::add);
+        return new Translation(fieldNode, fingerprint.build());
+    }
+
+    /**
+     * Gets the cached translation of the specified element, or translates the element with the specified function
+     * from the nodes of its children and caches its node.
+     *
+     * @param element           The element.
+     * @param childTranslations The translations of the children of the element, in order.
+     * @param translation       The function that translates the element from the nodes of its children.
+     */
+    @Nonnull
+    public Translation get(@Nonnull ElementSchemaArtifact element,
+                           @Nonnull List<Translation> childTranslations,
+                           @Nonnull BiFunction<ElementSchemaArtifact, List<CodeGenerationNode>, CodeGenerationNode> translation) {
+        Objects.requireNonNull(element);
+        Objects.requireNonNull(childTranslations);
+        Objects.requireNonNull(translation);
+        var id = element.jsonLdId().map(URI::toString).orElse(null);
+        var fingerprint = new FingerprintBuilder().add(id)
+                                                  .add(element.name())
+                                                  .add(element.description())
+                                                  .add(String.valueOf(element.isMultiple()))
+                                                  .add(element.minItems().map(String::valueOf).orElse(null))
+                                                  .add(element.maxItems().map(String::valueOf).orElse(null))
+                                                  .add(element.propertyUri().map(URI::toString).orElse(null))
+                                                  .add(String.valueOf(childTranslations.size()));
+        childTranslations.forEach(childTranslation -> fingerprint.add(childTranslation.fingerprint()));
+        var key = new Key(id, fingerprint.build());
+        if (id == null || capacity == 0) {
+            return new Translation(translate(element, childTranslations, translation), key.fingerprint());
+        }
+        synchronized (this) {
+            var node = entries.get(key);
+            if (node != null) {
+                hits++;
+                return new Translation(node, key.fingerprint());
+            }
+            misses++;
+        }
+        var node = translate(element, childTranslations, translation);
+        synchronized (this) {
+            entries.put(key, node);
+        }
+        return new Translation(node, key.fingerprint());
+    }
+
+    private static CodeGenerationNode translate(ElementSchemaArtifact element,
+                                                List<Translation> childTranslations,
+                                                BiFunction<ElementSchemaArtifact, List<CodeGenerationNode>, CodeGenerationNode> translation) {
+        return translation.apply(element, childTranslations.stream().map(Translation::node).toList());
+    }
+
+    /**
+     * Removes all cached elements.  The statistics are not reset.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    @Nonnull
+    public synchronized Statistics getStatistics() {
+        return new Statistics(hits, misses, evictions, entries.size());
+    }
+
+    /**
+     * The statistics of a cache.
+     *
+     * @param hits      The number of lookups that returned a cached node.
+     * @param misses    The number of lookups of elements with ids that translated the element.
+     * @param evictions The number of entries that were evicted because the cache was full.
+     * @param size      The number of cached elements.
+     */
+    public record Statistics(long hits, long misses, long evictions, int size) {
+
+        /**
+         * Gets the proportion of lookups that returned a cached node, or zero if there have been no lookups.
+         */
+        public double hitRate() {
+            var lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * A translated node and the fingerprint of the artifact that it was translated from.
+     */
+    public record Translation(@Nonnull CodeGenerationNode node, @Nonnull Fingerprint fingerprint) {
+
+    }
+
+    /**
+     * The first 128 bits of a SHA-256 digest of the content of an artifact.
+     */
+    public record Fingerprint(long high, long low) {
+
+    }
+
+    private record Key(String id, Fingerprint fingerprint) {
+
+    }
+
+    /**
+     * Digests a sequence of strings, each with its length or a marker for {@code null}, and fingerprints, so that
+     * different sequences do not run together.
+     */
+    private static final class FingerprintBuilder {
+
+        private final MessageDigest digest;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * 2);
+
+        private FingerprintBuilder() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private FingerprintBuilder add(String value) {
+            if (value == null) {
+                addInt(-1);
+            }
+            else {
+                var bytes = value.getBytes(StandardCharsets.UTF_8);
+                addInt(bytes.length);
+                digest.update(bytes);
+            }
+            return this;
+        }
+
+        private FingerprintBuilder add(Fingerprint fingerprint) {
+            buffer.clear();
+            buffer.putLong(fingerprint.high()).putLong(fingerprint.low());
+            digest.update(buffer.array());
+            return this;
+        }
+
+        private void addInt(int value) {
+            buffer.clear();
+            buffer.putInt(value);
+            digest.update(buffer.array(), 0, Integer.BYTES);
+        }
+
+        private Fingerprint build() {
+            var bytes = ByteBuffer.wrap(digest.digest());
+            return new Fingerprint(bytes.getLong(), bytes.getLong());
+        }
+    }
+}
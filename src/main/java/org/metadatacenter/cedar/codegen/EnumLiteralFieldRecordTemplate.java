@@ -0,0 +1,235 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * This class represents a template for generating Java record classes that implement the LiteralField interface for
+ * fields whose template lists the values that the field may take.  Each record declares an enum with a constant for
+ * each listed value, and stores the enum constant rather than the string.  Values that are not listed are kept as
+ * strings, so that instances that do not conform to the template can still be read and written.
+ */
+public class EnumLiteralFieldRecordTemplate {
+
+    private static final String ENUM_LITERAL_FIELD_TYPE_DECL = """
+                /**
+                 * ${javadoc}
+                 */
+                public static record ${typeName}(@JsonIgnore ${enumName} option,
+                                                 @JsonIgnore String otherValue) implements LiteralField {
+
+                    /**
+                     * The values that the template lists for the {@code ${typeName}} field.
+                     */
+                    public enum ${enumName} {
+
+                        ${constants};
+
+                        private static final Map<String, ${enumName}> BY_VALUE = new HashMap<>();
+
+                        static {
+                            for (var option : values()) {
+                                BY_VALUE.put(option.value, option);
+                            }
+                        }
+
+                        private final String value;
+
+                        ${enumName}(String value) {
+                            this.value = value;
+                        }
+
+                        /**
+                         * Gets the value that the template lists for this option.
+                         */
+                        public String value() {
+                            return value;
+                        }
+
+                        /**
+                         * Gets the option for the specified value.
+                         * @param value The value.
+                         * @return The option, or {@code null} if the value is not listed.
+                         */
+                        public static ${enumName} fromValue(String value) {
+                            return value == null ? null : BY_VALUE.get(value);
+                        }
+                    }
+
+                    private static final ${typeName} EMPTY = new ${typeName}(null, null);
+
+                    private static final ${typeName}[] INSTANCES = Arrays.stream(${enumName}.values())
+                                                                         .map(option -> new ${typeName}(option, null))
+                                                                         .toArray(${typeName}[]::new);
+
+                    public ${typeName} {
+                        if (option != null && otherValue != null) {
+                            throw new IllegalArgumentException("A ${typeName} cannot have both an option and another value");
+                        }
+                    }
+
+                    /**
+                     * Gets the instance of the {@code ${typeName}} record with a {@code null} value.  This is a shared
+                     * instance that is created when the record class is initialized.
+                     * @return An instance of the {@code ${typeName}} record.
+                     */
+                    public static ${typeName} of() {
+                        return EMPTY;
+                    }
+
+                    /**
+                     * Gets the instance of the {@code ${typeName}} record for the specified option.  There is one
+                     * shared instance per option.
+                     * @param option The option.
+                     * @return An instance of the {@code ${typeName}} record.
+                     */
+                    public static ${typeName} of(${enumName} option) {
+                        return option == null ? EMPTY : INSTANCES[option.ordinal()];
+                    }
+
+                    /**
+                     * Gets an instance of the {@code ${typeName}} record with the specified value.  Listed values
+                     * are mapped to the shared instance of their option.
+                     * @param value The value to set for the record.
+                     * @return An instance of the {@code ${typeName}} record.
+                     */
+                    @JsonCreator
+                    public static ${typeName} of(@JsonProperty("@value") String value) {
+                        if (value == null) {
+                            return EMPTY;
+                        }
+                        var option = ${enumName}.fromValue(value);
+                        return option != null ? INSTANCES[option.ordinal()] : new ${typeName}(null, value);
+                    }
+
+                    /**
+                     * Determines whether the value of this record is one of the values that the template lists.
+                     */
+                    @JsonIgnore
+                    public boolean isListedValue() {
+                        return option != null;
+                    }
+
+                    @Override
+                    public String value() {
+                        return option != null ? option.value() : otherValue;
+                    }
+                }
+            """;
+
+    /**
+     * Names that enum constants are not given, because they are used by the generated enum.
+     */
+    private static final Set<String> RESERVED_CONSTANT_NAMES = Set.of("BY_VALUE");
+
+    /**
+     * Gets the names of the enum constants for the specified values.  Names are upper case, with runs of characters
+     * that cannot be used in identifiers replaced by underscores.  Names that would clash are made unique with a
+     * numeric suffix.
+     *
+     * @param values The listed values, in template order.
+     * @return The constant names, in the order of the distinct values.
+     */
+    @Nonnull
+    public static List<String> getConstantNames(@Nonnull List<String> values) {
+        var usedNames = new HashSet<>(RESERVED_CONSTANT_NAMES);
+        var names = new ArrayList<String>();
+        for (var value : new LinkedHashSet<>(values)) {
+            var baseName = toConstantName(value);
+            var name = baseName;
+            for (int suffix = 2; !usedNames.add(name); suffix++) {
+                name = baseName + "_" + suffix;
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    private static String toConstantName(String value) {
+        var sb = new StringBuilder();
+        value.codePoints().forEach(codePoint -> {
+            if (Character.isLetterOrDigit(codePoint) && Character.isJavaIdentifierPart(codePoint)) {
+                sb.appendCodePoint(Character.toUpperCase(codePoint));
+            }
+            else if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '_') {
+                sb.append('_');
+            }
+        });
+        while (sb.length() > 0 && sb.charAt(sb.length() - 1) == '_') {
+            sb.setLength(sb.length() - 1);
+        }
+        if (sb.length() == 0) {
+            return "OPTION";
+        }
+        if (!Character.isJavaIdentifierStart(sb.codePointAt(0))) {
+            sb.insert(0, '_');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Gets the name of the enum that is declared in the record with the specified name.
+     */
+    @Nonnull
+    public static String getEnumName(@Nonnull String javaRecordName) {
+        return javaRecordName.equals("Option") ? "OptionValue" : "Option";
+    }
+
+    /**
+     * Fills the template for the Java record with the specified values.
+     *
+     * @param javaRecordName The name of the Java record.
+     * @param javaDoc        The Javadoc comment for the generated class.
+     * @param values         The values that the template lists for the field.
+     * @return The filled template as a string.
+     * @throws NullPointerException     if any of the parameters is null.
+     * @throws IllegalArgumentException if there are no values.
+     */
+    public String fillTemplate(@Nonnull String javaRecordName,
+                               @Nonnull String javaDoc,
+                               @Nonnull List<String> values) {
+        Objects.requireNonNull(javaRecordName);
+        Objects.requireNonNull(javaDoc);
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("No listed values for " + javaRecordName);
+        }
+        var distinctValues = List.copyOf(new LinkedHashSet<>(values));
+        var names = getConstantNames(distinctValues);
+        var constants = new ArrayList<String>();
+        for (int i = 0; i < names.size(); i++) {
+            constants.add(names.get(i) + "(" + toJavaStringLiteral(distinctValues.get(i)) + ")");
+        }
+        // The constants are filled in last, because they contain the listed values
+        return ENUM_LITERAL_FIELD_TYPE_DECL.replace("${enumName}", getEnumName(javaRecordName))
+                                           .replace("${typeName}", javaRecordName)
+                                           .replace("${javadoc}", javaDoc)
+                                           .replace("${constants}", String.join(",\n", constants));
+    }
+
+    private static String toJavaStringLiteral(String value) {
+        var sb = new StringBuilder("\"");
+        for (var c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,119 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class represents a template for the parts of an element record whose single valued literal and IRI fields are
+ * stored inline, as string components of the element record, rather than as field records.  An accessor with the
+ * name and JSON annotations of the field component creates the field record on demand, and a constructor that takes
+ * field records is used for deserialization, so the JSON format of the element does not change.
+ */
+public class FlattenedFieldTemplate {
+
+    private static final String FIELD_RECORDS_CONSTRUCTOR_DECL = """
+                /**
+                 * Creates a {@code ${typeName}} from field records.  The values of the inlined fields are copied out of
+                 * their records.
+                 */
+                ${creatorAnnotation}
+                public ${typeName}(${paramDeclarationsList}) {
+                    this(${argsList});
+                }
+
+            """;
+
+    private static final String ACCESSOR_DECL = """
+                /**
+                 * Gets the {@code ${paramName}} field.  The field is stored inline in this record, so the field record
+                 * is created on each call.
+                 */
+                ${annotations}
+                public ${fieldTypeName} ${paramName}() {
+                    return ${fieldTypeName}.of(${componentsList});
+                }
+
+            """;
+
+    /**
+     * Gets the names of the inline components that store a field.
+     *
+     * @param paramName The name of the field component of an element record that is not flattened.
+     * @param iri       Whether the field is an IRI field.
+     * @param withLabel Whether the IRI field has a label.
+     * @return The names of the inline components.
+     */
+    @Nonnull
+    public static List<String> getComponentNames(@Nonnull String paramName, boolean iri, boolean withLabel) {
+        Objects.requireNonNull(paramName);
+        if (!iri) {
+            return List.of(paramName + "Value");
+        }
+        else if (withLabel) {
+            return List.of(paramName + "Id", paramName + "Label");
+        }
+        else {
+            return List.of(paramName + "Id");
+        }
+    }
+
+    /**
+     * Gets the expressions that copy the inline component values out of a field record.
+     *
+     * @param paramName The name of the field record variable.
+     * @param iri       Whether the field is an IRI field.
+     * @param withLabel Whether the IRI field has a label.
+     * @return A comma separated list of expressions, in the order of {@link #getComponentNames(String, boolean, boolean)}.
+     */
+    @Nonnull
+    public static String getComponentValues(@Nonnull String paramName, boolean iri, boolean withLabel) {
+        Objects.requireNonNull(paramName);
+        if (!iri) {
+            return paramName + " != null ? " + paramName + ".value() : null";
+        }
+        var id = paramName + " != null ? " + paramName + ".id() : null";
+        return withLabel ? id + ",\n" + paramName + " != null ? " + paramName + ".label() : null" : id;
+    }
+
+    /**
+     * Fills the template for the accessor of an inlined field.
+     *
+     * @param fieldTypeName The name of the field record.
+     * @param paramName     The name of the accessor.
+     * @param annotations   The annotations of the field component of an element record that is not flattened.
+     * @param componentNames The names of the inline components, as returned by
+     *                       {@link #getComponentNames(String, boolean, boolean)}.
+     * @return The filled template as a string.
+     */
+    public String fillAccessorTemplate(@Nonnull String fieldTypeName,
+                                       @Nonnull String paramName,
+                                       @Nonnull String annotations,
+                                       @Nonnull List<String> componentNames) {
+        return ACCESSOR_DECL.replace("${annotations}", Objects.requireNonNull(annotations))
+                            .replace("${fieldTypeName}", Objects.requireNonNull(fieldTypeName))
+                            .replace("${paramName}", Objects.requireNonNull(paramName))
+                            .replace("${componentsList}", String.join(", ", componentNames));
+    }
+
+    /**
+     * Fills the template for the constructor that takes field records.
+     *
+     * @param typeName              The name of the element record.
+     * @param paramDeclarationsList The parameter declarations of an element record that is not flattened.
+     * @param argsList              The arguments for the canonical constructor.
+     * @param creator               Whether the constructor is the JSON creator of the element record.  If not, the
+     *                              constructor is explicitly disabled as a creator, because its parameters have
+     *                              property annotations.
+     * @return The filled template as a string.
+     */
+    public String fillConstructorTemplate(@Nonnull String typeName,
+                                          @Nonnull String paramDeclarationsList,
+                                          @Nonnull String argsList,
+                                          boolean creator) {
+        return FIELD_RECORDS_CONSTRUCTOR_DECL.replace("${creatorAnnotation}", creator ? "@JsonCreator" : "@JsonCreator(mode = JsonCreator.Mode.DISABLED)")
+                                             .replace("${typeName}", Objects.requireNonNull(typeName))
+                                             .replace("${paramDeclarationsList}", Objects.requireNonNull(paramDeclarationsList))
+                                             .replace("${argsList}", Objects.requireNonNull(argsList));
+    }
+}
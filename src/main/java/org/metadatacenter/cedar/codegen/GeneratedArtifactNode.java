@@ -0,0 +1,91 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A code generation node together with the names of the Java artifacts that were generated for it.  Type names are
+ * qualified relative to the generated root class, so they can be used from any code that is nested in the root
+ * class.
+ *
+ * @param node              The code generation node.
+ * @param typeName          The simple name of the record that was generated for the node.
+ * @param qualifiedTypeName The name of the record, qualified by the names of its enclosing records.
+ * @param paramName         The name of the record component that holds the node in its parent element.
+ * @param constantSymbol    The name of the {@code FieldNames} constant for the node.
+ * @param childNodes        The generated child nodes, in the order of the record components.
+ */
+public record GeneratedArtifactNode(@Nonnull CodeGenerationNode node,
+                                    @Nonnull String typeName,
+                                    @Nonnull String qualifiedTypeName,
+                                    @Nonnull String paramName,
+                                    @Nonnull String constantSymbol,
+                                    @Nonnull List<GeneratedArtifactNode> childNodes) {
+
+    public GeneratedArtifactNode {
+        Objects.requireNonNull(node);
+        Objects.requireNonNull(typeName);
+        Objects.requireNonNull(qualifiedTypeName);
+        Objects.requireNonNull(paramName);
+        Objects.requireNonNull(constantSymbol);
+        childNodes = List.copyOf(childNodes);
+    }
+
+    /**
+     * Gets the qualified name of the list record that was generated for the node.  Only meaningful for nodes that
+     * have a list type.
+     */
+    @Nonnull
+    public String qualifiedListTypeName() {
+        return qualifiedTypeName + "List";
+    }
+
+    /**
+     * Gets the qualified type of the record component that holds the node in its parent element.  This is the list
+     * type for nodes that have multiple cardinality.
+     */
+    @Nonnull
+    public String qualifiedParamType() {
+        return node.isListType() ? qualifiedListTypeName() : qualifiedTypeName;
+    }
+
+    /**
+     * Gets the name of the component of the list record that holds the Java list of items.  Only meaningful for
+     * nodes that have a list type.
+     */
+    @Nonnull
+    public String listParamName() {
+        return paramName + "List";
+    }
+
+    /**
+     * Gets a suffix for the names of generated methods that handle the record of this node.  The suffix is unique
+     * among the records of a template.
+     */
+    @Nonnull
+    public String methodSuffix() {
+        return qualifiedTypeName.replace(".", "_");
+    }
+
+    public boolean isElement() {
+        return !node.artifactType().isField();
+    }
+
+    public boolean isLiteralField() {
+        return node.artifactType().equals(CodeGenerationNode.ArtifactType.LITERAL_FIELD);
+    }
+
+    public boolean isIriField() {
+        return node.artifactType().equals(CodeGenerationNode.ArtifactType.IRI_FIELD);
+    }
+
+    /**
+     * Determines whether the record that was generated for an IRI field has a label component.  Link fields do not.
+     */
+    public boolean isIriFieldWithLabel() {
+        return isIriField() && !FieldInputType.LINK.equals(node.fieldInputType());
+    }
+}
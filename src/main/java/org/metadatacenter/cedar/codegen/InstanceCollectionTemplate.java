@@ -0,0 +1,492 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * This class represents a template for generating an in-memory collection of instances with secondary indexes.
+ * Indexes are built on the values of fields, which are identified by paths of {@code FieldNames} constants.  The
+ * values at each path are read by a generated method that calls record accessors directly, and the same methods are
+ * used to evaluate query conditions on fields that are not indexed.
+ */
+public class InstanceCollectionTemplate {
+
+    private static final String INSTANCE_COLLECTION_DECL = """
+            /**
+             * An in-memory collection of {@link ${rootType}} instances with hash and sorted secondary indexes on
+             * field values.  Fields are identified by paths of {@link FieldNames} constants, from the root of an
+             * instance to a literal or IRI field.  The indexed value of a literal field is its {@code @value} and the
+             * indexed value of an IRI field is its {@code @id}.  Values of fields with numeric datatypes are compared
+             * numerically, and values that are not valid numbers are not indexed.  Other values are compared as
+             * strings.
+             * <p>
+             * A condition on a path that passes through lists is satisfied if any of the values at the path satisfies
+             * it.  Queries return instances in the order in which they were added.
+             * <p>
+             * Indexes are kept up to date as instances are added.  This class is not thread safe.
+             */
+            public static final class InstanceCollection implements Iterable<${rootType}> {
+
+                private static final Map<List<String>, Key> KEYS = Map.ofEntries(
+                        ${keyEntries});
+
+                private final List<${rootType}> instances = new ArrayList<>();
+
+                private final Map<List<String>, Index> indexes = new LinkedHashMap<>();
+
+                public InstanceCollection() {
+                }
+
+                public InstanceCollection(@Nonnull Collection<? extends ${rootType}> instances) {
+                    addAll(instances);
+                }
+
+                /**
+                 * Creates a path from the specified {@link FieldNames} constants.
+                 */
+                public static List<String> path(String ... keys) {
+                    return List.of(keys);
+                }
+
+                /**
+                 * Gets the paths of all fields that can be indexed and queried.
+                 */
+                public static Set<List<String>> paths() {
+                    return KEYS.keySet();
+                }
+
+                private static Key key(List<String> path) {
+                    var key = KEYS.get(path);
+                    if (key == null) {
+                        throw new IllegalArgumentException("Unknown path: " + path);
+                    }
+                    return key;
+                }
+
+                /**
+                 * Adds an instance to this collection and to all of its indexes.
+                 */
+                public void add(@Nonnull ${rootType} instance) {
+                    Objects.requireNonNull(instance);
+                    var position = instances.size();
+                    instances.add(instance);
+                    for (var index : indexes.values()) {
+                        index.add(instance, position);
+                    }
+                }
+
+                public void addAll(@Nonnull Collection<? extends ${rootType}> instances) {
+                    instances.forEach(this::add);
+                }
+
+                public int size() {
+                    return instances.size();
+                }
+
+                public ${rootType} get(int position) {
+                    return instances.get(position);
+                }
+
+                @Override
+                public Iterator<${rootType}> iterator() {
+                    return Collections.unmodifiableList(instances).iterator();
+                }
+
+                public Stream<${rootType}> stream() {
+                    return instances.stream();
+                }
+
+                /**
+                 * Creates a hash index on the values at the specified path.  A hash index is used for equality
+                 * conditions.  Any existing index on the path is replaced.
+                 * @throws IllegalArgumentException if the path is not the path of a field.
+                 */
+                public void createHashIndex(@Nonnull List<String> path) {
+                    createIndex(new Index(key(path), new HashMap<>()));
+                }
+
+                /**
+                 * Creates a sorted index on the values at the specified path.  A sorted index is used for equality
+                 * and range conditions.  Any existing index on the path is replaced.
+                 * @throws IllegalArgumentException if the path is not the path of a field.
+                 */
+                public void createSortedIndex(@Nonnull List<String> path) {
+                    createIndex(new Index(key(path), new TreeMap<>()));
+                }
+
+                private void createIndex(Index index) {
+                    for (int position = 0; position < instances.size(); position++) {
+                        index.add(instances.get(position), position);
+                    }
+                    indexes.put(index.key.path(), index);
+                }
+
+                /**
+                 * Removes the index on the specified path, if there is one.
+                 */
+                public void dropIndex(@Nonnull List<String> path) {
+                    indexes.remove(path);
+                }
+
+                /**
+                 * Determines whether there is an index on the specified path.
+                 */
+                public boolean isIndexed(@Nonnull List<String> path) {
+                    return indexes.containsKey(path);
+                }
+
+                /**
+                 * Creates a condition that is satisfied by instances that have the specified value at the path.
+                 * @throws IllegalArgumentException if the path is not the path of a field.
+                 */
+                public static Condition equalTo(@Nonnull List<String> path, @Nonnull String value) {
+                    return new EqualTo(key(path), Objects.requireNonNull(value));
+                }
+
+                /**
+                 * Creates a condition that is satisfied by instances that have a value at the path that lies in the
+                 * specified range.  Both bounds are inclusive.
+                 * @param from The lower bound, or {@code null} for no lower bound.
+                 * @param to The upper bound, or {@code null} for no upper bound.
+                 * @throws IllegalArgumentException if the path is not the path of a field, or if a bound is not a
+                 * valid value for the field.
+                 */
+                public static Condition between(@Nonnull List<String> path, String from, String to) {
+                    var key = key(path);
+                    return new Between(key, key.toBound(from), key.toBound(to));
+                }
+
+                /**
+                 * Creates a condition that is satisfied by instances that satisfy the specified predicate.  Such
+                 * conditions are never answered from an index.
+                 */
+                public static Condition matching(@Nonnull Predicate<? super ${rootType}> predicate) {
+                    return new Matching(Objects.requireNonNull(predicate));
+                }
+
+                /**
+                 * Selects the instances that satisfy all of the specified conditions.  The conditions that can be
+                 * answered from indexes are used to find candidate instances, and the other conditions are tested
+                 * on the candidates.  If none of the conditions can be answered from an index then every instance
+                 * is tested.
+                 * @return The selected instances, in the order in which they were added.
+                 */
+                public List<${rootType}> select(@Nonnull Condition ... conditions) {
+                    var selected = new ArrayList<${rootType}>();
+                    var positions = selectPositions(conditions);
+                    for (int position = positions.nextSetBit(0); position >= 0; position = positions.nextSetBit(position + 1)) {
+                        selected.add(instances.get(position));
+                    }
+                    return selected;
+                }
+
+                /**
+                 * Counts the instances that satisfy all of the specified conditions.
+                 */
+                public int count(@Nonnull Condition ... conditions) {
+                    return selectPositions(conditions).cardinality();
+                }
+
+                private BitSet selectPositions(Condition ... conditions) {
+                    BitSet candidates = null;
+                    var remaining = new ArrayList<Condition>();
+                    for (var condition : conditions) {
+                        var positions = lookup(condition);
+                        if (positions == null) {
+                            remaining.add(condition);
+                        }
+                        else if (candidates == null) {
+                            candidates = positions;
+                        }
+                        else {
+                            candidates.and(positions);
+                        }
+                    }
+                    if (candidates == null) {
+                        candidates = new BitSet(instances.size());
+                        candidates.set(0, instances.size());
+                    }
+                    if (!remaining.isEmpty()) {
+                        for (int position = candidates.nextSetBit(0); position >= 0; position = candidates.nextSetBit(position + 1)) {
+                            var instance = instances.get(position);
+                            for (var condition : remaining) {
+                                if (!test(condition, instance)) {
+                                    candidates.clear(position);
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                    return candidates;
+                }
+
+                /**
+                 * A query condition.  Conditions are created by the static factory methods of
+                 * {@link InstanceCollection}, and other implementations are not supported.
+                 */
+                public interface Condition {
+                }
+
+                private record EqualTo(Key key, String value) implements Condition {
+                }
+
+                private record Between(Key key, Comparable<Object> from, Comparable<Object> to) implements Condition {
+                }
+
+                private record Matching(Predicate<? super ${rootType}> predicate) implements Condition {
+                }
+
+                /**
+                 * Looks up the positions of the instances that satisfy the specified condition in the index on the
+                 * path of the condition.
+                 * @return The positions, or {@code null} if there is no index that can answer the condition.
+                 */
+                private BitSet lookup(Condition condition) {
+                    if (condition instanceof EqualTo equalTo) {
+                        var index = indexes.get(equalTo.key().path());
+                        if (index == null) {
+                            return null;
+                        }
+                        var positions = new BitSet();
+                        var indexValue = equalTo.key().toIndexValue(equalTo.value());
+                        if (indexValue != null) {
+                            var postings = index.postings.get(indexValue);
+                            if (postings != null) {
+                                postings.addTo(positions);
+                            }
+                        }
+                        return positions;
+                    }
+                    if (condition instanceof Between between) {
+                        var index = indexes.get(between.key().path());
+                        if (index == null || !(index.postings instanceof NavigableMap<Object, Postings> range)) {
+                            return null;
+                        }
+                        if (between.from() != null && between.to() != null && between.from().compareTo(between.to()) > 0) {
+                            // An empty range; the sub map views reject a lower bound above the upper bound
+                            return new BitSet();
+                        }
+                        if (between.from() != null) {
+                            range = range.tailMap(between.from(), true);
+                        }
+                        if (between.to() != null) {
+                            range = range.headMap(between.to(), true);
+                        }
+                        var positions = new BitSet();
+                        range.values().forEach(postings -> postings.addTo(positions));
+                        return positions;
+                    }
+                    return null;
+                }
+
+                private static boolean test(Condition condition, ${rootType} instance) {
+                    if (condition instanceof EqualTo equalTo) {
+                        var key = equalTo.key();
+                        var indexValue = key.toIndexValue(equalTo.value());
+                        return indexValue != null
+                                && key.values().test(instance, candidate -> indexValue.equals(key.toIndexValue(candidate)));
+                    }
+                    if (condition instanceof Between between) {
+                        var key = between.key();
+                        return key.values().test(instance, candidate -> {
+                            var indexValue = key.toIndexValue(candidate);
+                            return indexValue != null
+                                    && (between.from() == null || between.from().compareTo(indexValue) <= 0)
+                                    && (between.to() == null || between.to().compareTo(indexValue) >= 0);
+                        });
+                    }
+                    if (condition instanceof Matching matching) {
+                        return matching.predicate().test(instance);
+                    }
+                    throw new IllegalArgumentException("Unsupported condition: " + condition);
+                }
+
+                /**
+                 * An indexable field.
+                 * @param path The path of the field.
+                 * @param numeric Whether the values of the field are compared numerically.
+                 * @param values Passes each value at the path of an instance to a predicate, until the predicate is
+                 *               satisfied.  Returns {@code true} if the predicate was satisfied.
+                 */
+                private record Key(List<String> path,
+                                   boolean numeric,
+                                   BiPredicate<${rootType}, Predicate<String>> values) {
+
+                    /**
+                     * Converts a lexical value to the value that is stored in indexes.
+                     * @return The index value, or {@code null} if the value cannot be indexed.
+                     */
+                    @SuppressWarnings("unchecked")
+                    Comparable<Object> toIndexValue(String value) {
+                        if (!numeric) {
+                            return (Comparable<Object>) (Comparable<?>) value;
+                        }
+                        try {
+                            // Strip trailing zeros so that equal numbers have equal index values
+                            return (Comparable<Object>) (Comparable<?>) new BigDecimal(value).stripTrailingZeros();
+                        } catch (NumberFormatException e) {
+                            return null;
+                        }
+                    }
+
+                    Comparable<Object> toBound(String value) {
+                        if (value == null) {
+                            return null;
+                        }
+                        var bound = toIndexValue(value);
+                        if (bound == null) {
+                            throw new IllegalArgumentException("Invalid value for " + path + ": " + value);
+                        }
+                        return bound;
+                    }
+                }
+
+                /**
+                 * An index from values to the positions of the instances that have them.
+                 */
+                private static final class Index {
+
+                    private final Key key;
+
+                    private final Map<Object, Postings> postings;
+
+                    private Index(Key key, Map<Object, Postings> postings) {
+                        this.key = key;
+                        this.postings = postings;
+                    }
+
+                    private void add(${rootType} instance, int position) {
+                        key.values().test(instance, value -> {
+                            var indexValue = key.toIndexValue(value);
+                            if (indexValue != null) {
+                                postings.computeIfAbsent(indexValue, v -> new Postings()).add(position);
+                            }
+                            return false;
+                        });
+                    }
+                }
+
+                /**
+                 * A growable, ascending, list of instance positions.
+                 */
+                private static final class Postings {
+
+                    private int[] positions = new int[1];
+
+                    private int size = 0;
+
+                    private void add(int position) {
+                        // Instances with repeated values are added once
+                        if (size > 0 && positions[size - 1] == position) {
+                            return;
+                        }
+                        if (size == positions.length) {
+                            positions = Arrays.copyOf(positions, size * 2);
+                        }
+                        positions[size++] = position;
+                    }
+
+                    private void addTo(BitSet bits) {
+                        for (int i = 0; i < size; i++) {
+                            bits.set(positions[i]);
+                        }
+                    }
+                }
+
+                ${methods}
+            }
+            """;
+
+    private static final String VALUES_METHOD_DECL = """
+                private static boolean ${methodName}(${rootType} v0, Predicate<String> test) {
+                    ${statements}
+                    return false;
+                }
+
+            """;
+
+    private static final Set<String> NUMERIC_DATATYPES = Set.of("xsd:integer",
+                                                                "xsd:long",
+                                                                "xsd:int",
+                                                                "xsd:short",
+                                                                "xsd:byte",
+                                                                "xsd:decimal",
+                                                                "xsd:double",
+                                                                "xsd:float");
+
+    /**
+     * Fills the template for the instance collection of the specified root node.
+     *
+     * @param rootNode The generated root node of the template.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull GeneratedArtifactNode rootNode) {
+        Objects.requireNonNull(rootNode);
+        var keyEntries = new ArrayList<String>();
+        var methods = new StringBuilder();
+        rootNode.childNodes()
+                .forEach(childNode -> collectKeys(rootNode, childNode, List.of(), List.of(), keyEntries, methods));
+        return INSTANCE_COLLECTION_DECL.replace("${keyEntries}", String.join(",\n", keyEntries))
+                                       .replace("${methods}", methods)
+                                       .replace("${rootType}", rootNode.qualifiedTypeName());
+    }
+
+    private static void collectKeys(GeneratedArtifactNode rootNode,
+                                    GeneratedArtifactNode node,
+                                    List<String> parentPath,
+                                    List<GeneratedArtifactNode> parentSteps,
+                                    List<String> keyEntries,
+                                    StringBuilder methods) {
+        if (node.node().isAttributeValueField()) {
+            return;
+        }
+        var path = new ArrayList<>(parentPath);
+        path.add("FieldNames." + node.constantSymbol());
+        var steps = new ArrayList<>(parentSteps);
+        steps.add(node);
+        if (node.isElement()) {
+            node.childNodes()
+                .forEach(childNode -> collectKeys(rootNode, childNode, path, steps, keyEntries, methods));
+            return;
+        }
+        var methodName = "valuesAt" + keyEntries.size();
+        var numeric = node.node().getXsdDatatype().map(NUMERIC_DATATYPES::contains).orElse(false);
+        keyEntries.add("Map.entry(path(" + String.join(", ", path) + "), new Key(path(" + String.join(", ", path) + "), "
+                               + numeric + ", InstanceCollection::" + methodName + "))");
+        methods.append(VALUES_METHOD_DECL.replace("${methodName}", methodName)
+                                         .replace("${rootType}", rootNode.qualifiedTypeName())
+                                         .replace("${statements}", getStatements(steps, 1)));
+    }
+
+    private static String getStatements(List<GeneratedArtifactNode> steps, int depth) {
+        var node = steps.get(depth - 1);
+        var parent = "v" + (depth - 1);
+        var variable = "v" + depth;
+        final String inner;
+        if (depth == steps.size()) {
+            var accessor = node.node().artifactType().equals(CodeGenerationNode.ArtifactType.IRI_FIELD) ? "id" : "value";
+            inner = "if (" + variable + "." + accessor + "() != null && test.test(" + variable + "." + accessor + "())) {\n"
+                    + "return true;\n"
+                    + "}\n";
+        }
+        else {
+            inner = getStatements(steps, depth + 1);
+        }
+        if (node.node().isListType()) {
+            var list = "l" + depth;
+            return "var " + list + " = " + parent + "." + node.paramName() + "();\n"
+                    + "if (" + list + " != null) {\n"
+                    + "for (var " + variable + " : " + list + "." + node.listParamName() + "()) {\n"
+                    + "if (" + variable + " != null) {\n"
+                    + inner
+                    + "}\n}\n}\n";
+        }
+        return "var " + variable + " = " + parent + "." + node.paramName() + "();\n"
+                + "if (" + variable + " != null) {\n"
+                + inner
+                + "}\n";
+    }
+}
@@ -0,0 +1,283 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * This class represents a template for generating a structural diff and patch of instances of a template.  Two
+ * instances are compared along the code generation node tree, and the differences are recorded as changes to the
+ * values at paths of JSON property names and list positions.  A patch is applied by rebuilding only the records on
+ * the paths of its changes, so that unchanged subtrees are shared by the original and the patched instance.
+ */
+public class InstanceDiffTemplate {
+
+    private static final String INSTANCE_DIFF_DECL = """
+            /**
+             * Computes the differences between two {@link ${rootType}} instances as a {@link Patch}, and applies
+             * patches to instances.
+             * <p>
+             * A change replaces the value at a path.  The segments of a path are JSON property names, which are
+             * {@link FieldNames} constants, {@code "@id"} or the names of the properties of the root, and list positions,
+             * which are {@link Integer}s.  The value of a change is a field record, an element record, a list record,
+             * a {@link String} or an {@link Instant}, or {@code null}, depending on the path.  Elements with different
+             * attribute values are replaced as a whole.
+             * <p>
+             * Applying a patch rebuilds the records on the paths of its changes and shares all other records with the
+             * original instance, so instances must not be changed after they are patched.  Elements that have not
+             * changed are found by identity before they are compared, so diffing an instance against a patched copy of
+             * it only visits the records that the patch rebuilt.
+             */
+            public static final class InstanceDiff {
+
+                private InstanceDiff() {
+                }
+
+                /**
+                 * A change to the value at a path.
+                 * @param path The path, from the root of an instance, of JSON property names and list positions.
+                 * @param value The new value at the path.
+                 */
+                public record Change(List<Object> path, Object value) {
+
+                    public Change {
+                        path = List.copyOf(path);
+                    }
+                }
+
+                /**
+                 * The changes that turn one instance into another.
+                 */
+                public record Patch(List<Change> changes) {
+
+                    public Patch {
+                        changes = List.copyOf(changes);
+                    }
+
+                    public boolean isEmpty() {
+                        return changes.isEmpty();
+                    }
+                }
+
+                /**
+                 * Computes the changes that turn one instance into another.
+                 */
+                public static Patch diff(@Nonnull ${rootType} from, @Nonnull ${rootType} to) {
+                    var changes = new ArrayList<Change>();
+                    diff${rootMethodSuffix}(Objects.requireNonNull(from), Objects.requireNonNull(to), new ArrayList<>(), changes);
+                    return new Patch(changes);
+                }
+
+                /**
+                 * Applies the changes in the specified patch to the specified instance, in order.
+                 * @return The patched instance, which shares unchanged records with the specified instance.
+                 * @throws IllegalArgumentException if a path is not a path in the instance.
+                 * @throws ClassCastException if the value of a change is not of the type of the values at its path.
+                 */
+                public static ${rootType} apply(@Nonnull ${rootType} instance, @Nonnull Patch patch) {
+                    var patched = Objects.requireNonNull(instance);
+                    for (var change : patch.changes()) {
+                        patched = change.path().isEmpty()
+                                ? (${rootType}) change.value()
+                                : apply${rootMethodSuffix}(patched, change.path(), 0, change.value());
+                    }
+                    return patched;
+                }
+
+                private static void addChange(List<Change> changes, List<Object> path, Object segment, Object value) {
+                    path.add(segment);
+                    changes.add(new Change(path, value));
+                    path.remove(path.size() - 1);
+                }
+
+                private static IllegalArgumentException invalidPath(List<Object> path, int depth) {
+                    return new IllegalArgumentException("No value at path " + path.subList(0, depth + 1) + " of " + path);
+                }
+
+                private static int listPosition(List<Object> path, int depth, List<?> items) {
+                    if (depth >= path.size() || !(path.get(depth) instanceof Integer position) || position < 0 || position >= items.size()) {
+                        throw invalidPath(path, Math.min(depth, path.size() - 1));
+                    }
+                    return position;
+                }
+
+                ${methods}
+            }
+            """;
+
+    private static final String ELEMENT_METHODS_DECL = """
+                private static void diff${methodSuffix}(${typeName} from, ${typeName} to, List<Object> path, List<Change> changes) {
+                    if (from == to) {
+                        return;
+                    }
+                    ${diffStatements}
+                }
+
+                private static ${typeName} apply${methodSuffix}(${typeName} value, List<Object> path, int depth, Object newValue) {
+                    if (value == null) {
+                        throw invalidPath(path, depth - 1);
+                    }
+                    var key = path.get(depth);
+                    var last = depth == path.size() - 1;
+                    var id = value.id();
+                    ${applyStatements}
+                    return new ${typeName}(${argsList});
+                }
+
+            """;
+
+    /**
+     * Fills the template for the diff of the specified root node.
+     *
+     * @param rootNode           The generated root node of the template.
+     * @param rootNodeComponents The JSON property names, types and names of the extra components of the root record,
+     *                           in order.
+     * @param hasAttributeValues A predicate that determines whether the record of an element node has an
+     *                           attribute values component.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull GeneratedArtifactNode rootNode,
+                               @Nonnull Map<String, Map.Entry<String, String>> rootNodeComponents,
+                               @Nonnull Predicate<GeneratedArtifactNode> hasAttributeValues) {
+        Objects.requireNonNull(rootNode);
+        Objects.requireNonNull(rootNodeComponents);
+        Objects.requireNonNull(hasAttributeValues);
+        var methods = new LinkedHashMap<String, String>();
+        collectElementMethods(rootNode, rootNodeComponents, hasAttributeValues, methods);
+        return INSTANCE_DIFF_DECL.replace("${rootType}", rootNode.qualifiedTypeName())
+                                 .replace("${rootMethodSuffix}", rootNode.methodSuffix())
+                                 .replace("${methods}", String.join("", methods.values()));
+    }
+
+    private static void collectElementMethods(GeneratedArtifactNode node,
+                                              Map<String, Map.Entry<String, String>> rootNodeComponents,
+                                              Predicate<GeneratedArtifactNode> hasAttributeValues,
+                                              Map<String, String> methods) {
+        if (methods.containsKey(node.qualifiedTypeName())) {
+            return;
+        }
+        var diffStatements = new StringBuilder();
+        var declarations = new StringBuilder();
+        var applyStatements = new StringBuilder();
+        var argsList = new StringBuilder("id");
+        if (hasAttributeValues.test(node)) {
+            diffStatements.append("if (!Objects.equals(from.attributeValues(), to.attributeValues())) {\n")
+                          .append("changes.add(new Change(path, to));\nreturn;\n}\n");
+        }
+        diffStatements.append("if (!Objects.equals(from.id(), to.id())) {\naddChange(changes, path, \"@id\", to.id());\n}\n");
+        applyStatements.append("if (last && key.equals(\"@id\")) {\nid = (String) newValue;\n}\n");
+        if (node.node().root()) {
+            var i = 0;
+            for (var component : rootNodeComponents.entrySet()) {
+                var jsonName = component.getKey();
+                var type = component.getValue().getKey();
+                var name = component.getValue().getValue();
+                diffStatements.append("if (!Objects.equals(from.").append(name).append("(), to.").append(name).append("())) {\n")
+                              .append("addChange(changes, path, \"").append(jsonName).append("\", to.").append(name).append("());\n}\n");
+                declarations.append("var e").append(i).append(" = value.").append(name).append("();\n");
+                applyStatements.append("else if (last && key.equals(\"").append(jsonName).append("\")) {\n")
+                               .append("e").append(i).append(" = (").append(type).append(") newValue;\n}\n");
+                argsList.append(", e").append(i);
+                i++;
+            }
+        }
+        var childNodes = node.childNodes();
+        for (int i = 0; i < childNodes.size(); i++) {
+            var childNode = childNodes.get(i);
+            var key = "FieldNames." + childNode.constantSymbol();
+            var accessor = childNode.paramName() + "()";
+            var from = "f" + i;
+            var to = "t" + i;
+            var child = "c" + i;
+            var type = getValueType(childNode);
+            diffStatements.append("var ").append(from).append(" = from.").append(accessor).append(";\n")
+                          .append("var ").append(to).append(" = to.").append(accessor).append(";\n");
+            declarations.append("var ").append(child).append(" = value.").append(accessor).append(";\n");
+            applyStatements.append("else if (key.equals(").append(key).append(")) {\n")
+                           .append("if (last) {\n").append(child).append(" = (").append(type).append(") newValue;\n}\n");
+            if (childNode.node().isListType() && !childNode.node().isAttributeValueField()) {
+                var items = childNode.listParamName() + "()";
+                diffStatements.append("if (").append(from).append(" != ").append(to).append(") {\n")
+                              .append("if (").append(from).append(" != null && ").append(to).append(" != null && ")
+                              .append(from).append(".").append(items).append(".size() == ").append(to).append(".").append(items).append(".size()) {\n")
+                              .append("path.add(").append(key).append(");\n")
+                              .append("for (int i = 0; i < ").append(from).append(".").append(items).append(".size(); i++) {\n")
+                              .append("var fromItem = ").append(from).append(".").append(items).append(".get(i);\n")
+                              .append("var toItem = ").append(to).append(".").append(items).append(".get(i);\n");
+                if (childNode.isElement()) {
+                    diffStatements.append("if (fromItem != null && toItem != null) {\n")
+                                  .append("path.add(i);\n")
+                                  .append("diff").append(childNode.methodSuffix()).append("(fromItem, toItem, path, changes);\n")
+                                  .append("path.remove(path.size() - 1);\n}\n")
+                                  .append("else if (fromItem != toItem) {\naddChange(changes, path, i, toItem);\n}\n");
+                }
+                else {
+                    diffStatements.append("if (!Objects.equals(fromItem, toItem)) {\naddChange(changes, path, i, toItem);\n}\n");
+                }
+                diffStatements.append("}\n")
+                              .append("path.remove(path.size() - 1);\n}\n")
+                              .append("else if (!Objects.equals(").append(from).append(", ").append(to).append(")) {\n")
+                              .append("addChange(changes, path, ").append(key).append(", ").append(to).append(");\n}\n}\n");
+                applyStatements.append("else {\n")
+                               .append("if (").append(child).append(" == null) {\nthrow invalidPath(path, depth);\n}\n")
+                               .append("var items = new ArrayList<>(").append(child).append(".").append(items).append(");\n")
+                               .append("var position = listPosition(path, depth + 1, items);\n")
+                               .append("if (depth + 1 == path.size() - 1) {\n")
+                               .append("items.set(position, (").append(childNode.qualifiedTypeName()).append(") newValue);\n}\n");
+                if (childNode.isElement()) {
+                    applyStatements.append("else {\n")
+                                   .append("items.set(position, apply").append(childNode.methodSuffix()).append("(items.get(position), path, depth + 2, newValue));\n}\n");
+                }
+                else {
+                    applyStatements.append("else {\nthrow invalidPath(path, depth + 2);\n}\n");
+                }
+                applyStatements.append(child).append(" = ").append(childNode.qualifiedListTypeName()).append(".of(items);\n}\n");
+            }
+            else if (childNode.isElement()) {
+                diffStatements.append("if (").append(from).append(" != null && ").append(to).append(" != null) {\n")
+                              .append("path.add(").append(key).append(");\n")
+                              .append("diff").append(childNode.methodSuffix()).append("(").append(from).append(", ").append(to).append(", path, changes);\n")
+                              .append("path.remove(path.size() - 1);\n}\n")
+                              .append("else if (").append(from).append(" != ").append(to).append(") {\n")
+                              .append("addChange(changes, path, ").append(key).append(", ").append(to).append(");\n}\n");
+                applyStatements.append("else {\n")
+                               .append(child).append(" = apply").append(childNode.methodSuffix()).append("(").append(child).append(", path, depth + 1, newValue);\n}\n");
+            }
+            else {
+                diffStatements.append("if (!Objects.equals(").append(from).append(", ").append(to).append(")) {\n")
+                              .append("addChange(changes, path, ").append(key).append(", ").append(to).append(");\n}\n");
+                applyStatements.append("else {\nthrow invalidPath(path, depth + 1);\n}\n");
+            }
+            applyStatements.append("}\n");
+            argsList.append(", ").append(child);
+        }
+        applyStatements.append("else {\nthrow invalidPath(path, depth);\n}\n");
+        if (hasAttributeValues.test(node)) {
+            argsList.append(", value.attributeValues()");
+        }
+        methods.put(node.qualifiedTypeName(), ELEMENT_METHODS_DECL.replace("${methodSuffix}", node.methodSuffix())
+                                                                  .replace("${typeName}", node.qualifiedTypeName())
+                                                                  .replace("${diffStatements}", diffStatements)
+                                                                  .replace("${applyStatements}", declarations.append(applyStatements))
+                                                                  .replace("${argsList}", argsList));
+        childNodes.stream()
+                  .filter(GeneratedArtifactNode::isElement)
+                  .forEach(childNode -> collectElementMethods(childNode, rootNodeComponents, hasAttributeValues, methods));
+    }
+
+    /**
+     * Gets the type of the value of a child of an element record.
+     */
+    private static String getValueType(GeneratedArtifactNode node) {
+        if (node.node().isAttributeValueField()) {
+            return "List<String>";
+        }
+        if (node.node().isListType()) {
+            return node.qualifiedListTypeName();
+        }
+        return node.qualifiedTypeName();
+    }
+}
@@ -0,0 +1,723 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * This class represents a template for generating an append only store of instances in memory-mapped files.  Each
+ * instance has a fixed size record in a slab file, with a slot for every leaf field path of the template.  Integer
+ * and floating point values of single valued fields are stored in their slots, and strings and lists are stored in
+ * a heap file that the slots point to.  The binary encoding of the whole instance is stored in the heap file too, so
+ * that instances can be materialized.  Generated flyweight accessors read leaf values from the mapped files without
+ * materializing instances.
+ */
+public class InstanceStoreTemplate {
+
+    private static final String INSTANCE_STORE_DECL = """
+            /**
+             * An append only store of {@link ${rootType}} instances, kept off heap in memory-mapped files in a
+             * directory.  Instances are numbered by ordinal in the order in which they are appended.  The leaf values
+             * of an instance can be read through a {@link View} without materializing the instance, and the instance
+             * itself can be materialized from its {@link BinaryCodec} encoding.
+             * <p>
+             * Appended instances are batched and become durable when the store is flushed or closed.  Opening a store
+             * reads its header only.  A store can only be opened by code that was generated from the same template.
+             * <p>
+             * Stores are thread safe.  Reads do not block each other.
+             */
+            public static final class InstanceStore implements Closeable {
+
+                public static final int MAGIC = 0x43454453;
+
+                public static final int FORMAT_VERSION = 1;
+
+                public static final String SLAB_FILE_NAME = "instances.slab";
+
+                public static final String HEAP_FILE_NAME = "instances.heap";
+
+                private static final int HEADER_SIZE = 64;
+
+                private static final int WINDOW_SIZE = 1 << 30;
+
+                private static final int BATCH_SIZE = 1 << 20;
+
+                private static final int LEAF_COUNT = ${leafCount};
+
+                private static final int BITMAP_OFFSET = 12;
+
+                private static final int SLOTS_OFFSET = BITMAP_OFFSET + (LEAF_COUNT + 7) / 8;
+
+                private static final int RECORD_SIZE = SLOTS_OFFSET + 8 * LEAF_COUNT;
+
+                private static final int RECORDS_PER_WINDOW = WINDOW_SIZE / RECORD_SIZE;
+
+                private static final int RECORDS_PER_BATCH = Math.max(1, BATCH_SIZE / RECORD_SIZE);
+
+                private final FileChannel slabChannel;
+
+                private final FileChannel heapChannel;
+
+                private final Region slab;
+
+                private final Region heap;
+
+                private final ByteBuffer slabBatch = ByteBuffer.allocate(RECORDS_PER_BATCH * RECORD_SIZE);
+
+                private final HeapBatch heapBatch = new HeapBatch();
+
+                private final ArrayList<String> values = new ArrayList<>();
+
+                /**
+                 * The number of records that have been written to the slab file.
+                 */
+                private volatile long writtenCount;
+
+                private volatile long count;
+
+                private long writtenHeapEnd;
+
+                private long heapEnd;
+
+                private boolean closed = false;
+
+                private InstanceStore(FileChannel slabChannel, FileChannel heapChannel) throws IOException {
+                    this.slabChannel = slabChannel;
+                    this.heapChannel = heapChannel;
+                    this.slab = new Region(slabChannel, HEADER_SIZE, RECORDS_PER_WINDOW * RECORD_SIZE);
+                    this.heap = new Region(heapChannel, 0, WINDOW_SIZE);
+                    if (slabChannel.size() == 0) {
+                        writeHeader();
+                        return;
+                    }
+                    var header = ByteBuffer.allocate(HEADER_SIZE);
+                    while (header.hasRemaining() && slabChannel.read(header, header.position()) != -1) {
+                        // Read the whole header
+                    }
+                    header.flip();
+                    if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                        throw new IOException("Not an instance store");
+                    }
+                    var formatVersion = header.getInt();
+                    if (formatVersion != FORMAT_VERSION) {
+                        throw new IOException("Unsupported format version: " + formatVersion);
+                    }
+                    var templateDigest = header.getLong();
+                    if (templateDigest != BinaryCodec.TEMPLATE_DIGEST || header.getInt() != RECORD_SIZE) {
+                        throw new IOException("Instance store was written for a different template (digest " + Long.toHexString(templateDigest) + ")");
+                    }
+                    count = header.getLong();
+                    heapEnd = header.getLong();
+                    if (slabChannel.size() < HEADER_SIZE + count * RECORD_SIZE || heapChannel.size() < heapEnd) {
+                        throw new IOException("Instance store is truncated");
+                    }
+                    writtenCount = count;
+                    writtenHeapEnd = heapEnd;
+                }
+
+                /**
+                 * Opens the store in the specified directory, creating the directory and the store if they do not
+                 * exist.
+                 * @throws IOException if the store cannot be opened, or was written for a different template.
+                 */
+                public static InstanceStore open(@Nonnull Path directory) throws IOException {
+                    Files.createDirectories(directory);
+                    var slabChannel = FileChannel.open(directory.resolve(SLAB_FILE_NAME),
+                                                       StandardOpenOption.CREATE,
+                                                       StandardOpenOption.READ,
+                                                       StandardOpenOption.WRITE);
+                    try {
+                        var heapChannel = FileChannel.open(directory.resolve(HEAP_FILE_NAME),
+                                                           StandardOpenOption.CREATE,
+                                                           StandardOpenOption.READ,
+                                                           StandardOpenOption.WRITE);
+                        try {
+                            return new InstanceStore(slabChannel, heapChannel);
+                        } catch (IOException | RuntimeException e) {
+                            heapChannel.close();
+                            throw e;
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        slabChannel.close();
+                        throw e;
+                    }
+                }
+
+                /**
+                 * Appends the specified instance.
+                 * @return The ordinal of the instance.
+                 */
+                public synchronized long append(@Nonnull ${rootType} instance) throws IOException {
+                    if (closed) {
+                        throw new IllegalStateException("Store is closed");
+                    }
+                    var encoded = BinaryCodec.encode(instance);
+                    var bitmap = new byte[SLOTS_OFFSET - BITMAP_OFFSET];
+                    var slots = new long[LEAF_COUNT];
+                    ${appendStatements}
+                    slabBatch.putLong(putHeap(encoded));
+                    slabBatch.putInt(encoded.length);
+                    slabBatch.put(bitmap);
+                    for (var slot : slots) {
+                        slabBatch.putLong(slot);
+                    }
+                    var ordinal = count;
+                    count = ordinal + 1;
+                    if (!slabBatch.hasRemaining() || heapBatch.size() >= BATCH_SIZE) {
+                        writeBatches();
+                    }
+                    return ordinal;
+                }
+
+                public synchronized void appendAll(@Nonnull Iterable<? extends ${rootType}> instances) throws IOException {
+                    for (var instance : instances) {
+                        append(instance);
+                    }
+                }
+
+                /**
+                 * Gets the number of instances in this store.
+                 */
+                public long size() {
+                    return count;
+                }
+
+                /**
+                 * Gets a view of the instance with the specified ordinal.
+                 * @throws IndexOutOfBoundsException if there is no instance with the ordinal.
+                 */
+                public View get(long ordinal) {
+                    var view = new View();
+                    view.moveTo(ordinal);
+                    return view;
+                }
+
+                /**
+                 * Materializes the instance with the specified ordinal.
+                 */
+                public ${rootType} materialize(long ordinal) {
+                    return get(ordinal).materialize();
+                }
+
+                /**
+                 * Passes a view of each instance, in ordinal order, to the specified action.  The same view object
+                 * is moved from instance to instance, so it must not be kept after the action returns.
+                 */
+                public void forEach(@Nonnull Consumer<? super View> action) {
+                    var view = new View();
+                    var size = size();
+                    for (long ordinal = 0; ordinal < size; ordinal++) {
+                        view.moveTo(ordinal);
+                        action.accept(view);
+                    }
+                }
+
+                /**
+                 * Writes appended instances to the files and records them in the header, so that they are durable.
+                 */
+                public synchronized void flush() throws IOException {
+                    writeBatches();
+                    writeHeader();
+                    slabChannel.force(false);
+                    heapChannel.force(false);
+                }
+
+                @Override
+                public synchronized void close() throws IOException {
+                    if (closed) {
+                        return;
+                    }
+                    try {
+                        flush();
+                    } finally {
+                        closed = true;
+                        try {
+                            slabChannel.close();
+                        } finally {
+                            heapChannel.close();
+                        }
+                    }
+                }
+
+                private void writeHeader() throws IOException {
+                    var header = ByteBuffer.allocate(HEADER_SIZE);
+                    header.putInt(MAGIC)
+                          .putInt(FORMAT_VERSION)
+                          .putLong(BinaryCodec.TEMPLATE_DIGEST)
+                          .putInt(RECORD_SIZE)
+                          .putLong(writtenCount)
+                          .putLong(writtenHeapEnd);
+                    header.clear();
+                    writeFully(slabChannel, header, 0);
+                }
+
+                private synchronized void writeBatches() throws IOException {
+                    heapBatch.writeTo(heapChannel, writtenHeapEnd);
+                    writtenHeapEnd = heapEnd;
+                    slabBatch.flip();
+                    writeFully(slabChannel, slabBatch, HEADER_SIZE + writtenCount * RECORD_SIZE);
+                    slabBatch.clear();
+                    writtenCount = count;
+                }
+
+                private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                }
+
+                /**
+                 * Adds an entry to the heap.  Entries do not span mapping windows, so the entry is moved to the next
+                 * window if it does not fit in the current one.
+                 * @return The position of the entry.
+                 */
+                private long putHeap(byte[] entry) {
+                    if (entry.length > WINDOW_SIZE) {
+                        throw new IllegalArgumentException("Entry is too large for the store: " + entry.length + " bytes");
+                    }
+                    var windowRemaining = WINDOW_SIZE - heapEnd % WINDOW_SIZE;
+                    if (entry.length > windowRemaining) {
+                        heapBatch.pad((int) windowRemaining);
+                        heapEnd += windowRemaining;
+                    }
+                    var position = heapEnd;
+                    heapBatch.write(entry);
+                    heapEnd += entry.length;
+                    return position;
+                }
+
+                private long putString(String value) {
+                    if (value == null) {
+                        return -1;
+                    }
+                    var bytes = value.getBytes(StandardCharsets.UTF_8);
+                    return putHeap(ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes).array());
+                }
+
+                private long putStrings(List<String> values) {
+                    if (values.isEmpty()) {
+                        return -1;
+                    }
+                    var encodedValues = new byte[values.size()][];
+                    var length = 4;
+                    for (int i = 0; i < encodedValues.length; i++) {
+                        encodedValues[i] = values.get(i).getBytes(StandardCharsets.UTF_8);
+                        length += 4 + encodedValues[i].length;
+                    }
+                    var entry = ByteBuffer.allocate(length).putInt(encodedValues.length);
+                    for (var encodedValue : encodedValues) {
+                        entry.putInt(encodedValue.length).put(encodedValue);
+                    }
+                    return putHeap(entry.array());
+                }
+
+                private static void putLong(byte[] bitmap, long[] slots, int leaf, String value) {
+                    if (value == null) {
+                        return;
+                    }
+                    try {
+                        slots[leaf] = Long.parseLong(value.strip());
+                        bitmap[leaf >> 3] |= (byte) (1 << (leaf & 7));
+                    } catch (NumberFormatException e) {
+                        // Values that are not integers can only be read from the materialized instance
+                    }
+                }
+
+                private static void putDouble(byte[] bitmap, long[] slots, int leaf, String value) {
+                    if (value == null) {
+                        return;
+                    }
+                    var stripped = value.strip();
+                    try {
+                        var parsed = stripped.equals("INF") ? Double.POSITIVE_INFINITY
+                                : stripped.equals("-INF") ? Double.NEGATIVE_INFINITY
+                                : Double.parseDouble(stripped);
+                        slots[leaf] = Double.doubleToRawLongBits(parsed);
+                        bitmap[leaf >> 3] |= (byte) (1 << (leaf & 7));
+                    } catch (NumberFormatException e) {
+                        // Values that are not numbers can only be read from the materialized instance
+                    }
+                }
+
+                private String readString(long position) {
+                    if (position < 0) {
+                        return null;
+                    }
+                    var window = heap.window(position, 4);
+                    var index = heap.index(position);
+                    var length = window.getInt(index);
+                    window = heap.window(position, 4 + length);
+                    var bytes = new byte[length];
+                    window.get(index + 4, bytes);
+                    return new String(bytes, StandardCharsets.UTF_8);
+                }
+
+                private List<String> readStrings(long position) {
+                    if (position < 0) {
+                        return List.of();
+                    }
+                    var window = heap.window(position, 4);
+                    var index = heap.index(position);
+                    var size = window.getInt(index);
+                    var strings = new ArrayList<String>(size);
+                    var offset = 4L;
+                    for (int i = 0; i < size; i++) {
+                        var value = readString(position + offset);
+                        strings.add(value);
+                        offset += 4 + heap.window(position + offset, 4).getInt(heap.index(position + offset));
+                    }
+                    return strings;
+                }
+
+                ${leafMethods}
+
+                /**
+                 * A flyweight view of an instance in the store.  Single valued integer and floating point fields are
+                 * read from fixed offsets in the record of the instance, strings and lists are read from the heap, and
+                 * nothing else is decoded.  Values of integer and floating point fields that could not be parsed are
+                 * not present, and can be read from the materialized instance.
+                 */
+                public final class View {
+
+                    private long ordinal = -1;
+
+                    private MappedByteBuffer record;
+
+                    private int index;
+
+                    private View() {
+                    }
+
+                    private void moveTo(long ordinal) {
+                        if (ordinal < 0 || ordinal >= count) {
+                            throw new IndexOutOfBoundsException("No instance with ordinal " + ordinal);
+                        }
+                        if (ordinal >= writtenCount) {
+                            try {
+                                writeBatches();
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        }
+                        var position = HEADER_SIZE + ordinal * RECORD_SIZE;
+                        this.record = slab.window(position, RECORD_SIZE);
+                        this.index = slab.index(position);
+                        this.ordinal = ordinal;
+                    }
+
+                    public long ordinal() {
+                        return ordinal;
+                    }
+
+                    /**
+                     * Decodes the instance.
+                     */
+                    public ${rootType} materialize() {
+                        var position = record.getLong(index);
+                        var length = record.getInt(index + 8);
+                        var bytes = new byte[length];
+                        heap.window(position, length).get(heap.index(position), bytes);
+                        return BinaryCodec.decode(bytes);
+                    }
+
+                    private boolean isPresent(int leaf) {
+                        return (record.get(index + BITMAP_OFFSET + (leaf >> 3)) & (1 << (leaf & 7))) != 0;
+                    }
+
+                    private long slot(int leaf) {
+                        return record.getLong(index + SLOTS_OFFSET + 8 * leaf);
+                    }
+
+                    ${accessors}
+                }
+
+                /**
+                 * A region of a file that is mapped in windows of a fixed size.  Windows are mapped when they are
+                 * first read, and are mapped again when they are read beyond the end of the file at the time that
+                 * they were mapped.
+                 */
+                private static final class Region {
+
+                    private final FileChannel channel;
+
+                    private final long base;
+
+                    private final int windowSize;
+
+                    private volatile MappedByteBuffer[] windows = new MappedByteBuffer[0];
+
+                    private Region(FileChannel channel, long base, int windowSize) {
+                        this.channel = channel;
+                        this.base = base;
+                        this.windowSize = windowSize;
+                    }
+
+                    /**
+                     * Gets the window that contains the specified number of bytes at the specified position.
+                     */
+                    MappedByteBuffer window(long position, int length) {
+                        var windowIndex = (int) ((position - base) / windowSize);
+                        var end = index(position) + length;
+                        var windows = this.windows;
+                        if (windowIndex < windows.length && windows[windowIndex] != null && windows[windowIndex].limit() >= end) {
+                            return windows[windowIndex];
+                        }
+                        return map(windowIndex, end);
+                    }
+
+                    /**
+                     * Gets the index of the specified position in its window.
+                     */
+                    int index(long position) {
+                        return (int) ((position - base) % windowSize);
+                    }
+
+                    private synchronized MappedByteBuffer map(int windowIndex, int end) {
+                        var windows = this.windows;
+                        if (windowIndex < windows.length && windows[windowIndex] != null && windows[windowIndex].limit() >= end) {
+                            return windows[windowIndex];
+                        }
+                        try {
+                            var start = base + (long) windowIndex * windowSize;
+                            var size = (int) Math.min(windowSize, channel.size() - start);
+                            if (size < end) {
+                                throw new IndexOutOfBoundsException("Read beyond the end of the store");
+                            }
+                            var window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+                            var mapped = Arrays.copyOf(windows, Math.max(windows.length, windowIndex + 1));
+                            mapped[windowIndex] = window;
+                            this.windows = mapped;
+                            return window;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                }
+
+                /**
+                 * Bytes that have been added to the heap but not yet written to the heap file.
+                 */
+                private static final class HeapBatch {
+
+                    private byte[] buffer = new byte[BATCH_SIZE];
+
+                    private int size = 0;
+
+                    int size() {
+                        return size;
+                    }
+
+                    void write(byte[] bytes) {
+                        ensureCapacity(bytes.length);
+                        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+                        size += bytes.length;
+                    }
+
+                    void pad(int length) {
+                        ensureCapacity(length);
+                        Arrays.fill(buffer, size, size + length, (byte) 0);
+                        size += length;
+                    }
+
+                    void writeTo(FileChannel channel, long position) throws IOException {
+                        writeFully(channel, ByteBuffer.wrap(buffer, 0, size), position);
+                        size = 0;
+                        if (buffer.length > BATCH_SIZE) {
+                            buffer = new byte[BATCH_SIZE];
+                        }
+                    }
+
+                    private void ensureCapacity(int length) {
+                        if (size + length > buffer.length) {
+                            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+                        }
+                    }
+                }
+            }
+            """;
+
+    private static final String SINGLE_LEAF_METHOD_DECL = """
+                private static String ${methodName}(${rootType} v0) {
+                    ${statements}
+                    return null;
+                }
+
+            """;
+
+    private static final String LIST_LEAF_METHOD_DECL = """
+                private static void ${methodName}(${rootType} v0, List<String> values) {
+                    ${statements}
+                }
+
+            """;
+
+    private static final Set<String> LONG_DATATYPES = Set.of("xsd:long", "xsd:int", "xsd:short", "xsd:byte");
+
+    private static final Set<String> DOUBLE_DATATYPES = Set.of("xsd:double", "xsd:float");
+
+    /**
+     * Names that are not used for accessors, because they are used by the generated view class.
+     */
+    private static final Set<String> RESERVED_ACCESSOR_NAMES = Set.of("ordinal", "materialize", "isPresent", "slot", "moveTo");
+
+    /**
+     * Fills the template for the instance store of the specified root node.
+     *
+     * @param rootNode The generated root node of the template.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull GeneratedArtifactNode rootNode) {
+        Objects.requireNonNull(rootNode);
+        var leaves = new ArrayList<Leaf>();
+        rootNode.childNodes().forEach(childNode -> collectLeaves(childNode, List.of(), leaves));
+        var appendStatements = new StringBuilder();
+        var leafMethods = new StringBuilder();
+        var accessors = new StringBuilder();
+        var usedNames = new HashSet<>(RESERVED_ACCESSOR_NAMES);
+        for (int leaf = 0; leaf < leaves.size(); leaf++) {
+            var l = leaves.get(leaf);
+            var methodName = "leaf" + leaf;
+            var accessorName = l.accessorName();
+            for (int suffix = 2; !usedNames.add(accessorName); suffix++) {
+                accessorName = l.accessorName() + suffix;
+            }
+            var leafDescription = "/**\n * Gets the " + (l.label() ? "label of the " : "") + "value" + (l.list() ? "s" : "")
+                    + " of the {@code " + l.path() + "} field.\n */\n";
+            if (l.list()) {
+                appendStatements.append("values.clear();\n")
+                                .append(methodName).append("(instance, values);\n")
+                                .append("slots[").append(leaf).append("] = putStrings(values);\n");
+                leafMethods.append(LIST_LEAF_METHOD_DECL.replace("${methodName}", methodName)
+                                                        .replace("${rootType}", rootNode.qualifiedTypeName())
+                                                        .replace("${statements}", getStatements(l.steps(), 1, l.label(), true)));
+                accessors.append(leafDescription)
+                         .append("public List<String> ").append(accessorName).append("() {\n")
+                         .append("return readStrings(slot(").append(leaf).append("));\n}\n\n");
+                continue;
+            }
+            leafMethods.append(SINGLE_LEAF_METHOD_DECL.replace("${methodName}", methodName)
+                                                      .replace("${rootType}", rootNode.qualifiedTypeName())
+                                                      .replace("${statements}", getStatements(l.steps(), 1, l.label(), false)));
+            if (l.kind().equals("String")) {
+                appendStatements.append("slots[").append(leaf).append("] = putString(").append(methodName).append("(instance));\n");
+                accessors.append(leafDescription)
+                         .append("public String ").append(accessorName).append("() {\n")
+                         .append("return readString(slot(").append(leaf).append("));\n}\n\n");
+                continue;
+            }
+            var capitalizedKind = l.kind().equals("long") ? "Long" : "Double";
+            var hasName = "has" + Character.toUpperCase(accessorName.charAt(0)) + accessorName.substring(1);
+            for (int suffix = 2; !usedNames.add(hasName); suffix++) {
+                hasName = "has" + Character.toUpperCase(accessorName.charAt(0)) + accessorName.substring(1) + suffix;
+            }
+            appendStatements.append("put").append(capitalizedKind).append("(bitmap, slots, ").append(leaf).append(", ")
+                            .append(methodName).append("(instance));\n");
+            accessors.append("/**\n * Determines whether the {@code ").append(l.path()).append("} field has a ")
+                     .append(l.kind()).append(" value.\n */\n")
+                     .append("public boolean ").append(hasName).append("() {\n")
+                     .append("return isPresent(").append(leaf).append(");\n}\n\n")
+                     .append("/**\n * Gets the value of the {@code ").append(l.path()).append("} field, or zero if it does not have a ")
+                     .append(l.kind()).append(" value.\n */\n")
+                     .append("public ").append(l.kind()).append(" ").append(accessorName).append("() {\n")
+                     .append(l.kind().equals("long") ? "return slot(" + leaf + ");\n" : "return Double.longBitsToDouble(slot(" + leaf + "));\n")
+                     .append("}\n\n");
+        }
+        return INSTANCE_STORE_DECL.replace("${rootType}", rootNode.qualifiedTypeName())
+                                  .replace("${leafCount}", Integer.toString(leaves.size()))
+                                  .replace("${appendStatements}", appendStatements)
+                                  .replace("${leafMethods}", leafMethods)
+                                  .replace("${accessors}", accessors);
+    }
+
+    /**
+     * A leaf value of an instance.
+     *
+     * @param steps        The nodes on the path to the field, from a child of the root node.
+     * @param label        Whether the value is the label of an IRI field, rather than its id or value.
+     * @param list         Whether there can be more than one value, because there is a list on the path.
+     * @param kind         The Java type of the slot of the value: {@code long}, {@code double} or {@code String}.
+     * @param accessorName The name of the accessor of the value, before it is made unique.
+     * @param path         The field names on the path, for documentation.
+     */
+    private record Leaf(List<GeneratedArtifactNode> steps, boolean label, boolean list, String kind, String accessorName,
+                        String path) {
+
+    }
+
+    private static void collectLeaves(GeneratedArtifactNode node,
+                                      List<GeneratedArtifactNode> parentSteps,
+                                      List<Leaf> leaves) {
+        if (node.node().isAttributeValueField()) {
+            return;
+        }
+        var steps = new ArrayList<>(parentSteps);
+        steps.add(node);
+        if (node.isElement()) {
+            node.childNodes().forEach(childNode -> collectLeaves(childNode, steps, leaves));
+            return;
+        }
+        var list = steps.stream().anyMatch(step -> step.node().isListType());
+        var datatype = node.node().getXsdDatatype().orElse("");
+        final String kind;
+        if (!list && LONG_DATATYPES.contains(datatype)) {
+            kind = "long";
+        }
+        else if (!list && DOUBLE_DATATYPES.contains(datatype)) {
+            kind = "double";
+        }
+        else {
+            kind = "String";
+        }
+        var accessorName = new StringBuilder();
+        for (var step : steps) {
+            var name = step.paramName();
+            accessorName.append(accessorName.length() == 0 ? name : Character.toUpperCase(name.charAt(0)) + name.substring(1));
+        }
+        var path = String.join("/", steps.stream().map(step -> step.node().name()).toList());
+        leaves.add(new Leaf(steps, false, list, kind, accessorName.toString(), path));
+        if (node.isIriFieldWithLabel()) {
+            leaves.add(new Leaf(steps, true, list, "String", accessorName + "Label", path));
+        }
+    }
+
+    private static String getStatements(List<GeneratedArtifactNode> steps, int depth, boolean label, boolean list) {
+        var node = steps.get(depth - 1);
+        var parent = "v" + (depth - 1);
+        var variable = "v" + depth;
+        final String inner;
+        if (depth == steps.size()) {
+            final String accessor;
+            if (label) {
+                accessor = "label";
+            }
+            else if (node.isIriField()) {
+                accessor = "id";
+            }
+            else {
+                accessor = "value";
+            }
+            inner = list
+                    ? "if (" + variable + "." + accessor + "() != null) {\nvalues.add(" + variable + "." + accessor + "());\n}\n"
+                    : "return " + variable + "." + accessor + "();\n";
+        }
+        else {
+            inner = getStatements(steps, depth + 1, label, list);
+        }
+        if (node.node().isListType()) {
+            var items = "l" + depth;
+            return "var " + items + " = " + parent + "." + node.paramName() + "();\n"
+                    + "if (" + items + " != null) {\n"
+                    + "for (var " + variable + " : " + items + "." + node.listParamName() + "()) {\n"
+                    + "if (" + variable + " != null) {\n"
+                    + inner
+                    + "}\n}\n}\n";
+        }
+        return "var " + variable + " = " + parent + "." + node.paramName() + "();\n"
+                + "if (" + variable + " != null) {\n"
+                + inner
+                + "}\n";
+    }
+}
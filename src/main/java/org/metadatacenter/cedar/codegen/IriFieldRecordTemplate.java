@@ -16,11 +16,14 @@ public class IriFieldRecordTemplate {
                 public static record ${typeName}(String id,
                                                  String label) implements IriField {
                     
+                    private static final ${typeName} EMPTY = new ${typeName}(null, null);
+                    
                     /**
-                     *  Creates an empty ${typeName} instance, with null values for the id and label.
+                     *  Gets the empty ${typeName} instance, with null values for the id and label.  This is a shared
+                     *  instance that is created when the record class is initialized.
                      */
                     public static ${typeName} of() {
-                        return new ${typeName}(null, null);
+                        return EMPTY;
                     }
                     
                     /**
@@ -28,10 +31,11 @@ public class IriFieldRecordTemplate {
                      * @param id The id.  This is an IRI.
                      * @param label The rdfs:label for the specified id.
                      */
-                    @JsonCreator
+                    ${jsonCreator}
                     public static ${typeName} of(@JsonProperty("@id") String id, @JsonProperty("rdfs:label") String label) {
-                        return new ${typeName}(id, label);
+                        return id == null && label == null ? EMPTY : new ${typeName}(id, label);
                     }
+                    ${internedFactory}
                 }
             """;
 
@@ -43,21 +47,25 @@ public class IriFieldRecordTemplate {
                 @JsonInclude(JsonInclude.Include.NON_EMPTY)
                 public static record ${typeName}(String id) implements IriField {
                     
+                    private static final ${typeName} EMPTY = new ${typeName}(null);
+                    
                     /**
-                     *  Creates an empty ${typeName} instance, with null values for the id and label.
+                     *  Gets the empty ${typeName} instance, with null values for the id and label.  This is a shared
+                     *  instance that is created when the record class is initialized.
                      */
                     public static ${typeName} of() {
-                        return new ${typeName}(null);
+                        return EMPTY;
                     }
                     
                     /**
                      * Create an instance of ${typeName} with the specified id and label.
                      * @param id The id.  This is an IRI.
                      */
-                    @JsonCreator
+                    ${jsonCreator}
                     public static ${typeName} of(@JsonProperty("@id") String id) {
-                        return new ${typeName}(id);
+                        return id == null ? EMPTY : new ${typeName}(id);
                     }
+                    ${internedFactory}
                     
                     @Override
                     public String label() {
@@ -67,13 +75,65 @@ public class IriFieldRecordTemplate {
             """;
 
 
+    private static final String INTERNED_FACTORY_DECL = """
+                    
+                    private static final TermDictionary<${typeName}> DICTIONARY = new TermDictionary<>();
+                    
+                    /**
+                     * Creates an instance of ${typeName} from JSON.  Instances with the same values are canonicalized
+                     * to one shared instance through the term dictionary of this record.
+                     */
+                    @JsonCreator
+                    public static ${typeName} fromJson(${params}) {
+                        return ${emptyCondition} ? EMPTY : DICTIONARY.intern(new ${typeName}(${args}));
+                    }
+                    
+                    /**
+                     * Gets the term dictionary that instances of ${typeName} that are read from JSON are
+                     * canonicalized through.
+                     */
+                    public static TermDictionary<${typeName}> dictionary() {
+                        return DICTIONARY;
+                    }
+            """;
+
     public String fillTemplate(String typeName, String javaDoc) {
-        return IRI_FIELD_TYPE_DECL.replace("${typeName}", typeName)
+        return fillTemplate(typeName, javaDoc, false);
+    }
+
+    /**
+     * Fills the template for an IRI field record.
+     * @param typeName The name of the record.
+     * @param javaDoc The Javadoc comment for the record.
+     * @param interned Whether instances that are read from JSON are canonicalized through a term dictionary.
+     */
+    public String fillTemplate(String typeName, String javaDoc, boolean interned) {
+        var internedFactory = INTERNED_FACTORY_DECL.replace("${params}", "@JsonProperty(\"@id\") String id, @JsonProperty(\"rdfs:label\") String label")
+                                                   .replace("${emptyCondition}", "id == null && label == null")
+                                                   .replace("${args}", "id, label");
+        return IRI_FIELD_TYPE_DECL.replace("${jsonCreator}", interned ? "" : "@JsonCreator")
+                .replace("${internedFactory}", interned ? internedFactory : "")
+                .replace("${typeName}", typeName)
                 .replace("${javaDoc}", javaDoc);
     }
 
     public String fillTemplateWithoutLabel(String typeName, String javaDoc) {
-        return IRI_FIELD_WITHOUT_LABEL_DECL.replace("${typeName}", typeName)
+        return fillTemplateWithoutLabel(typeName, javaDoc, false);
+    }
+
+    /**
+     * Fills the template for an IRI field record that does not have a label.
+     * @param typeName The name of the record.
+     * @param javaDoc The Javadoc comment for the record.
+     * @param interned Whether instances that are read from JSON are canonicalized through a term dictionary.
+     */
+    public String fillTemplateWithoutLabel(String typeName, String javaDoc, boolean interned) {
+        var internedFactory = INTERNED_FACTORY_DECL.replace("${params}", "@JsonProperty(\"@id\") String id")
+                                                   .replace("${emptyCondition}", "id == null")
+                                                   .replace("${args}", "id");
+        return IRI_FIELD_WITHOUT_LABEL_DECL.replace("${jsonCreator}", interned ? "" : "@JsonCreator")
+                                  .replace("${internedFactory}", interned ? internedFactory : "")
+                                  .replace("${typeName}", typeName)
                                   .replace("${javaDoc}", javaDoc);
     }
 }
@@ -2,6 +2,7 @@ package org.metadatacenter.cedar.codegen;
 
 import com.fasterxml.jackson.annotation.*;
 import org.jboss.forge.roaster.Roaster;
+import org.jboss.forge.roaster.model.source.Importer;
 import org.jboss.forge.roaster.model.source.JavaClassSource;
 import org.jboss.forge.roaster.model.source.JavaInterfaceSource;
 import org.jboss.forge.roaster.model.source.JavaRecordSource;
@@ -10,15 +11,56 @@ import org.metadatacenter.artifacts.model.core.FieldInputType;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.Reader;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.DateTimeException;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static org.metadatacenter.cedar.codegen.CamelCase.toCamelCase;
 import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
@@ -35,6 +77,7 @@ public class JavaGenerator {
 
     protected static final String LITERAL_FIELD_IMPL = """
 
+            @JsonFormat(shape = JsonFormat.Shape.OBJECT)
             public static record LiteralFieldImpl(@JsonProperty("@value") String value) implements LiteralField, Map<String, String> {
 
                     @Override
@@ -115,27 +158,77 @@ public class JavaGenerator {
 
             """;
 
+    /**
+     * The terms of the JSON-LD context of the root record, other than the terms for its child nodes, with Java
+     * expressions for their definitions.
+     */
+    static final Map<String, String> ROOT_CONTEXT_ENTRIES = new LinkedHashMap<>();
+
+    static {
+        ROOT_CONTEXT_ENTRIES.put("schema", "\"http://schema.org/\"");
+        ROOT_CONTEXT_ENTRIES.put("xsd", "\"http://www.w3.org/2001/XMLSchema#\"");
+        ROOT_CONTEXT_ENTRIES.put("skos", "\"http://www.w3.org/2004/02/skos/core#\"");
+        ROOT_CONTEXT_ENTRIES.put("rdfs", "\"http://www.w3.org/2000/01/rdf-schema#\"");
+        ROOT_CONTEXT_ENTRIES.put("pav", "\"http://purl.org/pav/\"");
+        ROOT_CONTEXT_ENTRIES.put("oslc", "\"http://open-services.net/ns/core#\"");
+        ROOT_CONTEXT_ENTRIES.put("pav:createdOn", "Map.of(\"@type\", \"xsd:dateTime\")");
+        ROOT_CONTEXT_ENTRIES.put("pav:createdBy", "Map.of(\"@type\", \"@id\")");
+        ROOT_CONTEXT_ENTRIES.put("rdfs:label", "Map.of(\"@type\", \"xsd:string\")");
+        ROOT_CONTEXT_ENTRIES.put("oslc:modifiedBy", "Map.of(\"@type\", \"@id\")");
+        ROOT_CONTEXT_ENTRIES.put("pav:derivedFrom", "Map.of(\"@type\", \"@id\")");
+        ROOT_CONTEXT_ENTRIES.put("skos:notation", "Map.of(\"@type\", \"xsd:string\")");
+        ROOT_CONTEXT_ENTRIES.put("schema:isBasedOn", "Map.of(\"@type\", \"@id\")");
+        ROOT_CONTEXT_ENTRIES.put("schema:description", "Map.of(\"@type\", \"xsd:string\")");
+        ROOT_CONTEXT_ENTRIES.put("pav:lastUpdatedOn", "Map.of(\"@type\", \"xsd:dateTime\")");
+        ROOT_CONTEXT_ENTRIES.put("schema:name", "Map.of(\"@type\", \"xsd:string\")");
+    }
+
     private final String packageName;
 
     private final JavaTypeNamesOracle javaTypeNamesOracle;
 
     private final String rootClassName;
 
+    private final Set<JavaGeneratorFeature> features;
+
 
     public JavaGenerator(String packageName, String rootClassName, JavaTypeNamesOracle javaTypeNamesOracle) {
+        this(packageName, rootClassName, javaTypeNamesOracle, Set.of());
+    }
+
+    public JavaGenerator(String packageName,
+                         String rootClassName,
+                         JavaTypeNamesOracle javaTypeNamesOracle,
+                         Set<JavaGeneratorFeature> features) {
         this.packageName = packageName;
         this.rootClassName = rootClassName;
         this.javaTypeNamesOracle = javaTypeNamesOracle;
+        this.features = Set.copyOf(features);
     }
 
     public static JavaGenerator get(String packageName,
                                     String rootClassName,
                                     boolean suffixJavaTypeNames) {
+        return get(packageName, rootClassName, suffixJavaTypeNames, Set.of());
+    }
+
+    public static JavaGenerator get(String packageName,
+                                    String rootClassName,
+                                    boolean suffixJavaTypeNames,
+                                    Set<JavaGeneratorFeature> features) {
         var typeNameFormat = suffixJavaTypeNames ? JavaTypeNameFormat.SUFFIX_WITH_ARTIFACT_TYPE : JavaTypeNameFormat.DO_NOT_SUFFIX_WITH_ARTIFACT_TYPE;
         System.err.println("Type name format: " + typeNameFormat);
-        return new JavaGenerator(packageName, rootClassName, new JavaTypeNamesOracle(typeNameFormat));
+        return new JavaGenerator(packageName, rootClassName, new JavaTypeNamesOracle(typeNameFormat), features);
     }
 
+    /**
+     * Generates the Java code for the template with the specified root node.  The declarations of the artifact
+     * records are built by fork-join tasks.  When this method is called from a fork-join task, the tasks run in the
+     * pool of that task; otherwise the calling thread builds declarations too, and the tasks that it forks run in the
+     * {@link ForkJoinPool#commonPool() common pool}.  Callers that block the common pool, or that depend on it being
+     * idle, should call this method from a task in a pool of their own.  The generated code does not depend on the
+     * pool or its parallelism.
+     */
     public String generateJava(CodeGenerationNode node) {
         var rootCls = Roaster.create(JavaClassSource.class);
         rootCls.setPackage(packageName);
@@ -145,7 +238,10 @@ public class JavaGenerator {
         generateBaseInterfaces(rootCls);
         generateViewClassDeclarations(rootCls);
         generateUtils(rootCls);
-        generateArtifactRecords(node, rootCls, new HashSet<>());
+        generateAttributeValuesSupport(node, rootCls);
+        generatePartitionedElementsSupport(node, rootCls);
+        generateArtifactRecords(node, rootCls);
+        generateFeatureSupport(toGeneratedArtifactNode(node, null, new HashSet<>()), rootCls);
         return tidyAndPrintCode(rootCls);
     }
 
@@ -196,6 +292,48 @@ public class JavaGenerator {
         parentCls.addNestedType(LITERAL_FIELD_IMPL);
     }
 
+    private static void generateAttributeValuesSupport(CodeGenerationNode node, JavaClassSource parentCls) {
+        if (!hasAttributeValueFields(node)) {
+            return;
+        }
+        parentCls.addImport("com.fasterxml.jackson.core.JsonGenerator");
+        parentCls.addImport("com.fasterxml.jackson.databind.JsonSerializer");
+        parentCls.addImport("com.fasterxml.jackson.databind.SerializerProvider");
+        parentCls.addImport("com.fasterxml.jackson.databind.annotation.JsonSerialize");
+        parentCls.addImport(IOException.class);
+        parentCls.addImport(BiConsumer.class);
+        var template = new AttributeValuesTemplate();
+        parentCls.addNestedType(template.getDeclaration());
+        parentCls.addNestedType(template.getSerializerDeclaration());
+    }
+
+    /**
+     * Adds the imports that are used by partitioned element records.  Features that construct element records from
+     * all of their components are not supported for templates with partitioned elements.
+     *
+     * @throws IllegalArgumentException if the template has partitioned elements and a feature that does not support
+     *                                  them is enabled.
+     */
+    private void generatePartitionedElementsSupport(CodeGenerationNode node, JavaClassSource parentCls) {
+        if (!hasPartitionedElements(node)) {
+            return;
+        }
+        var unsupportedFeatures = features.stream()
+                                          .filter(feature -> !feature.supportsPartitionedElements())
+                                          .toList();
+        if (!unsupportedFeatures.isEmpty()) {
+            throw new IllegalArgumentException("The features " + unsupportedFeatures + " are not supported for templates with elements that have more than "
+                                                       + PartitionedElementRecordTemplate.MAX_RECORD_COMPONENTS + " components");
+        }
+        parentCls.addImport("com.fasterxml.jackson.databind.annotation.JsonDeserialize");
+        parentCls.addImport("com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder");
+        parentCls.addImport(Function.class);
+    }
+
+    private static boolean hasAttributeValueFields(CodeGenerationNode node) {
+        return node.isAttributeValueField() || node.childNodes().stream().anyMatch(JavaGenerator::hasAttributeValueFields);
+    }
+
     private static void generateUtils(JavaClassSource parentCls) {
         parentCls.addField()
                  .setPublic()
@@ -413,18 +551,353 @@ public class JavaGenerator {
                 .forEach(childNode -> collectElements(childNode, elements));
     }
 
-    private void generateArtifactRecords(CodeGenerationNode node, TypeHolderSource<?> parentCls, Set<CodeGenerationNode> context) {
-//        if(generateNames.add(node.name())) {
-            if (node.artifactType().isField()) {
-                generateFieldDeclaration(node, parentCls, context);
+    /**
+     * The maximum number of consecutive children of an element whose declarations are built by one task.
+     */
+    private static final int CHILD_BATCH_SIZE = 32;
+
+    /**
+     * Generates the artifact records of the tree with the specified root.  The declarations of the nodes are built
+     * by fork-join tasks over the tree.  The children of an element are split into batches, and each task builds the
+     * declarations of its batch in a holder class of its own, so that the declarations of different batches can be
+     * built at the same time.  The declarations of the batches are then nested in the element record in template
+     * order, so the generated code is the same as if the declarations were built one by one.
+     */
+    private void generateArtifactRecords(CodeGenerationNode rootNode, JavaClassSource rootCls) {
+        nameArtifactTypes(rootNode, new HashSet<>());
+        var holder = new ElementDeclarationsTask(rootNode, Set.of()).invoke();
+        moveDeclarations(holder, rootCls, rootCls);
+    }
+
+    /**
+     * Names the Java types of the artifacts in the order in which they are first referred to when the records are
+     * generated one by one.  The first name of a node is the one that is used for it, so naming the types before
+     * the records are built in parallel keeps the names the same from run to run.
+     */
+    private void nameArtifactTypes(CodeGenerationNode node, Set<CodeGenerationNode> context) {
+        if (node.artifactType().isField()) {
+            return;
+        }
+        context.add(node);
+        node.childNodes().forEach(childNode -> javaTypeNamesOracle.getJavaTypeName(childNode, context));
+        node.childNodes().forEach(childNode -> nameArtifactTypes(childNode, context));
+        context.remove(node);
+    }
+
+    /**
+     * Builds the declarations of an element in a holder class.  These are the element record, with the
+     * declarations of its children nested in it, and the list record of the element.
+     */
+    @SuppressWarnings("serial")
+    private final class ElementDeclarationsTask extends RecursiveTask<JavaClassSource> {
+
+        private final CodeGenerationNode node;
+
+        private final Set<CodeGenerationNode> context;
+
+        private ElementDeclarationsTask(CodeGenerationNode node, Set<CodeGenerationNode> context) {
+            this.node = node;
+            this.context = context;
+        }
+
+        @Override
+        protected JavaClassSource compute() {
+            // Ancestors are compared by identity, because the hash code of a node is computed from its subtree
+            var elementContext = Collections.<CodeGenerationNode>newSetFromMap(new IdentityHashMap<>());
+            elementContext.addAll(context);
+            elementContext.add(node);
+            var childDeclarationsTask = new ChildDeclarationsTask(node, elementContext, 0, node.childNodes().size());
+            childDeclarationsTask.fork();
+            var holder = createDeclarationHolder();
+            var elementCls = generateElementDeclaration(node, holder, elementContext);
+            childDeclarationsTask.join().forEach(childHolder -> moveDeclarations(childHolder, elementCls, holder));
+            if (node.cardinality().isMultiple()) {
+                generateArtifactListDeclaration(node, holder, elementContext);
             }
-            else {
-                context.add(node);
-                var elementJavaCls = generateElementDeclaration(node, parentCls, context);
-                node.childNodes().forEach(cn -> generateArtifactRecords(cn, elementJavaCls, context));
-                context.remove(node);
+            return holder;
+        }
+    }
+
+    /**
+     * Builds the declarations of a range of the children of an element in holder classes, in template order.
+     */
+    @SuppressWarnings("serial")
+    private final class ChildDeclarationsTask extends RecursiveTask<List<JavaClassSource>> {
+
+        private final CodeGenerationNode node;
+
+        private final Set<CodeGenerationNode> context;
+
+        private final int from;
+
+        private final int to;
+
+        private ChildDeclarationsTask(CodeGenerationNode node, Set<CodeGenerationNode> context, int from, int to) {
+            this.node = node;
+            this.context = context;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<JavaClassSource> compute() {
+            if (to - from > CHILD_BATCH_SIZE) {
+                var middle = (from + to) >>> 1;
+                var head = new ChildDeclarationsTask(node, context, from, middle);
+                head.fork();
+                var tail = new ChildDeclarationsTask(node, context, middle, to).compute();
+                var holders = new ArrayList<>(head.join());
+                holders.addAll(tail);
+                return holders;
+            }
+            var holder = createDeclarationHolder();
+            for (var childNode : node.childNodes().subList(from, to)) {
+                if (childNode.artifactType().isField()) {
+                    generateFieldDeclaration(childNode, holder, context);
+                }
+                else {
+                    moveDeclarations(new ElementDeclarationsTask(childNode, context).compute(), holder, holder);
+                }
             }
-//        }
+            return List.of(holder);
+        }
+    }
+
+    private static JavaClassSource createDeclarationHolder() {
+        return Roaster.create(JavaClassSource.class).setName("DeclarationHolder");
+    }
+
+    /**
+     * Nests the declarations of a holder class in the specified type, in order, and adds the imports of the holder
+     * to the specified importer.
+     */
+    private static void moveDeclarations(JavaClassSource holder, TypeHolderSource<?> parentCls, Importer<?> importer) {
+        holder.getImports().forEach(importer::addImport);
+        holder.getNestedTypes().forEach(parentCls::addNestedType);
+    }
+
+    /**
+     * Pairs a node with the names of the Java artifacts that were generated for it.  This must be called after the
+     * artifact records have been generated so that the type names are the ones that were used for the records.
+     */
+    private GeneratedArtifactNode toGeneratedArtifactNode(CodeGenerationNode node,
+                                                          @Nullable String parentQualifiedTypeName,
+                                                          Set<CodeGenerationNode> context) {
+        var typeName = javaTypeNamesOracle.getJavaTypeName(node, context);
+        var qualifiedTypeName = parentQualifiedTypeName == null ? typeName : parentQualifiedTypeName + "." + typeName;
+        var childNodes = new ArrayList<GeneratedArtifactNode>();
+        if (!node.artifactType().isField()) {
+            context.add(node);
+            node.childNodes()
+                .forEach(childNode -> childNodes.add(toGeneratedArtifactNode(childNode, qualifiedTypeName, context)));
+            context.remove(node);
+        }
+        return new GeneratedArtifactNode(node,
+                                         typeName,
+                                         qualifiedTypeName,
+                                         getParameterName(node),
+                                         toConstantSymbol(node),
+                                         childNodes);
+    }
+
+    private void generateFeatureSupport(GeneratedArtifactNode rootNode, JavaClassSource parentCls) {
+        if (features.contains(JavaGeneratorFeature.ENUM_LITERALS)) {
+            parentCls.addImport(Arrays.class);
+            parentCls.addImport(HashMap.class);
+            parentCls.addImport(Map.class);
+        }
+        if (features.contains(JavaGeneratorFeature.INTERNED_IRIS)) {
+            parentCls.addImport(ConcurrentHashMap.class);
+            parentCls.addImport(LongAdder.class);
+            parentCls.addNestedType(new TermDictionaryTemplate().getDeclaration());
+        }
+        if (features.contains(JavaGeneratorFeature.TYPED_LITERALS)) {
+            parentCls.addImport(BigDecimal.class);
+            parentCls.addImport(BigInteger.class);
+            parentCls.addImport(LocalDate.class);
+            parentCls.addImport(LocalDateTime.class);
+            parentCls.addImport(LocalTime.class);
+            parentCls.addImport(ZoneOffset.class);
+            parentCls.addImport(DateTimeException.class);
+            parentCls.addImport(DateTimeFormatter.class);
+            parentCls.addImport(TemporalAccessor.class);
+            parentCls.addImport(ChronoField.class);
+            parentCls.addNestedType(new TypedLiteralFieldRecordTemplate().getSupportDeclaration());
+        }
+        if (features.contains(JavaGeneratorFeature.LAZY_ELEMENTS)) {
+            parentCls.addImport("com.fasterxml.jackson.core.JsonParseException");
+            parentCls.addImport("com.fasterxml.jackson.core.JsonToken");
+            parentCls.addImport("com.fasterxml.jackson.databind.ObjectMapper");
+            parentCls.addImport("com.fasterxml.jackson.databind.util.RawValue");
+            parentCls.addImport(IOException.class);
+            parentCls.addImport(UncheckedIOException.class);
+            parentCls.addImport(StandardCharsets.class);
+            parentCls.addNestedType(new LazyElementTemplate().getSupportDeclaration());
+        }
+        if (features.contains(JavaGeneratorFeature.PROJECTION_READER)) {
+            parentCls.addImport("com.fasterxml.jackson.core.JsonFactory");
+            parentCls.addImport("com.fasterxml.jackson.core.JsonParseException");
+            parentCls.addImport("com.fasterxml.jackson.core.JsonParser");
+            parentCls.addImport("com.fasterxml.jackson.core.JsonToken");
+            parentCls.addImport(IOException.class);
+            parentCls.addImport(InputStream.class);
+            parentCls.addImport(Consumer.class);
+            generateProjectionDeclaration(rootNode.node(), parentCls);
+        }
+        if (features.contains(JavaGeneratorFeature.BINARY_CODEC) || features.contains(JavaGeneratorFeature.INSTANCE_STORE)) {
+            parentCls.addImport(IOException.class);
+            parentCls.addImport(InputStream.class);
+            parentCls.addImport(OutputStream.class);
+            parentCls.addImport(StandardCharsets.class);
+            parentCls.addImport(Function.class);
+            parentCls.addImport(ArrayDeque.class);
+            parentCls.addImport(HashMap.class);
+            var decl = new BinaryCodecTemplate().fillTemplate(rootNode,
+                                                              getRootNodeExtraComponents(rootNode.node()),
+                                                              n -> containsAttributeValueField(n.node()));
+            parentCls.addNestedType(decl);
+        }
+        if (features.contains(JavaGeneratorFeature.INSTANCE_COLLECTION)) {
+            parentCls.addImport(BigDecimal.class);
+            parentCls.addImport(BiPredicate.class);
+            parentCls.addImport(Predicate.class);
+            parentCls.addNestedType(new InstanceCollectionTemplate().fillTemplate(rootNode));
+        }
+        if (features.contains(JavaGeneratorFeature.COLUMNAR_EXPORT)) {
+            parentCls.addImport(IOException.class);
+            parentCls.addImport(UncheckedIOException.class);
+            parentCls.addImport(Writer.class);
+            parentCls.addImport(Consumer.class);
+            parentCls.addImport(Function.class);
+            parentCls.addImport(ArrayDeque.class);
+            parentCls.addImport(HashMap.class);
+            parentCls.addNestedType(new ColumnarExportTemplate().fillTemplate(rootNode));
+        }
+        if (features.contains(JavaGeneratorFeature.BULK_MAPPER)) {
+            parentCls.addImport(IOException.class);
+            parentCls.addImport(Reader.class);
+            parentCls.addImport(CompletableFuture.class);
+            parentCls.addImport(Executor.class);
+            parentCls.addImport(ForkJoinPool.class);
+            parentCls.addImport(BiFunction.class);
+            parentCls.addImport(Consumer.class);
+            parentCls.addImport(Function.class);
+            parentCls.addImport(ArrayDeque.class);
+            parentCls.addImport(HashMap.class);
+            parentCls.addImport(Predicate.class);
+            var decl = new BulkMapperTemplate().fillTemplate(rootNode,
+                                                             getRootNodeExtraComponents(rootNode.node()),
+                                                             n -> containsAttributeValueField(n.node()));
+            parentCls.addNestedType(decl);
+        }
+        if (features.contains(JavaGeneratorFeature.RDF_WRITER)) {
+            parentCls.addImport(IOException.class);
+            parentCls.addImport(Writer.class);
+            parentCls.addNestedType(new RdfWriterTemplate().fillTemplate(rootNode,
+                                                                         getRootNodeExtraComponents(rootNode.node())));
+        }
+        if (features.contains(JavaGeneratorFeature.JSON_LD_WRITER)) {
+            parentCls.addImport("com.fasterxml.jackson.core.JsonGenerator");
+            parentCls.addImport("com.fasterxml.jackson.databind.BeanDescription");
+            parentCls.addImport("com.fasterxml.jackson.databind.ObjectMapper");
+            parentCls.addImport("com.fasterxml.jackson.databind.ObjectWriter");
+            parentCls.addImport("com.fasterxml.jackson.databind.SerializationConfig");
+            parentCls.addImport("com.fasterxml.jackson.databind.SerializationFeature");
+            parentCls.addImport("com.fasterxml.jackson.databind.SerializerProvider");
+            parentCls.addImport("com.fasterxml.jackson.databind.module.SimpleModule");
+            parentCls.addImport("com.fasterxml.jackson.databind.ser.BeanPropertyWriter");
+            parentCls.addImport("com.fasterxml.jackson.databind.ser.BeanSerializerModifier");
+            parentCls.addImport(Closeable.class);
+            parentCls.addImport(IOException.class);
+            parentCls.addImport(Writer.class);
+            parentCls.addNestedType(new JsonLdWriterTemplate().fillTemplate(rootNode, ROOT_CONTEXT_ENTRIES));
+        }
+        if (features.contains(JavaGeneratorFeature.INSTANCE_STORE)) {
+            parentCls.addImport(Closeable.class);
+            parentCls.addImport(IOException.class);
+            parentCls.addImport(UncheckedIOException.class);
+            parentCls.addImport(ByteBuffer.class);
+            parentCls.addImport(MappedByteBuffer.class);
+            parentCls.addImport(FileChannel.class);
+            parentCls.addImport(StandardCharsets.class);
+            parentCls.addImport(Files.class);
+            parentCls.addImport(Path.class);
+            parentCls.addImport(StandardOpenOption.class);
+            parentCls.addImport(Consumer.class);
+            parentCls.addNestedType(new InstanceStoreTemplate().fillTemplate(rootNode));
+        }
+        if (features.contains(JavaGeneratorFeature.INSTANCE_DIFF)) {
+            var decl = new InstanceDiffTemplate().fillTemplate(rootNode,
+                                                               getRootNodeExtraProperties(rootNode.node()),
+                                                               n -> containsAttributeValueField(n.node()));
+            parentCls.addNestedType(decl);
+        }
+        if (features.contains(JavaGeneratorFeature.CONTENT_DIGEST)) {
+            parentCls.addImport(MessageDigest.class);
+            parentCls.addImport(NoSuchAlgorithmException.class);
+            var decl = new ContentDigestTemplate().fillTemplate(rootNode,
+                                                                getRootNodeExtraComponents(rootNode.node()),
+                                                                n -> containsAttributeValueField(n.node()));
+            parentCls.addNestedType(decl);
+        }
+        if (features.contains(JavaGeneratorFeature.ARTIFACT_SPLITERATOR)) {
+            parentCls.addImport(Spliterator.class);
+            parentCls.addImport(StreamSupport.class);
+            parentCls.addImport(ToLongFunction.class);
+            parentCls.addImport(Consumer.class);
+            parentCls.addImport(Function.class);
+            parentCls.addImport(ArrayDeque.class);
+            parentCls.addImport(HashMap.class);
+            var decl = new ArtifactSpliteratorTemplate().fillTemplate(rootNode, n -> containsAttributeValueField(n.node()));
+            parentCls.addNestedType(decl);
+        }
+        if (features.contains(JavaGeneratorFeature.CACHED_HASH_CODES)) {
+            parentCls.addImport(ToIntFunction.class);
+            parentCls.addNestedType(new CachedHashCodeTemplate().getHashCodeCacheDeclaration());
+        }
+        if (features.contains(JavaGeneratorFeature.VALIDATOR) || features.contains(JavaGeneratorFeature.BULK_MAPPER)) {
+            parentCls.addImport(Pattern.class);
+            parentCls.addImport(DateTimeFormatter.class);
+            parentCls.addImport(DateTimeParseException.class);
+            parentCls.addNestedType(new ValidatorTemplate().getLexicalSupportDeclaration());
+        }
+        if (features.contains(JavaGeneratorFeature.VALIDATOR)) {
+            parentCls.addImport(ForkJoinPool.class);
+            parentCls.addImport(RecursiveAction.class);
+            parentCls.addNestedType(new ValidatorTemplate().fillTemplate(rootNode));
+        }
+    }
+
+    private static void generateProjectionDeclaration(CodeGenerationNode rootNode, JavaClassSource parentCls) {
+        var template = new ProjectionReaderTemplate();
+        var entries = new ArrayList<String>();
+        rootNode.childNodes()
+                .forEach(childNode -> collectKnownPathEntries(childNode, List.of(), template, entries));
+        parentCls.addNestedType(template.fillTemplate(entries));
+    }
+
+    private static void collectKnownPathEntries(CodeGenerationNode node,
+                                                List<String> parentPath,
+                                                ProjectionReaderTemplate template,
+                                                List<String> entries) {
+        if (node.isAttributeValueField()) {
+            return;
+        }
+        var path = new ArrayList<>(parentPath);
+        path.add("FieldNames." + toConstantSymbol(node));
+        final String terminals;
+        if (node.artifactType().equals(ArtifactType.LITERAL_FIELD)) {
+            terminals = "\"@value\", \"@type\"";
+        }
+        else if (node.artifactType().equals(ArtifactType.IRI_FIELD)) {
+            terminals = "\"@id\", \"rdfs:label\"";
+        }
+        else {
+            terminals = "\"@id\"";
+        }
+        entries.add(template.fillKnownPathEntry(String.join(", ", path), terminals));
+        node.childNodes()
+            .forEach(childNode -> collectKnownPathEntries(childNode, path, template, entries));
     }
 
     private static void generateImports(JavaClassSource parentClass) {
@@ -439,6 +912,7 @@ public class JavaGenerator {
         parentClass.addImport(JsonIgnore.class);
         parentClass.addImport(JsonIgnoreProperties.class);
         parentClass.addImport(JsonPropertyOrder.class);
+        parentClass.addImport(JsonFormat.class);
         parentClass.addImport(Instant.class);
         parentClass.addImport(Nonnull.class);
         parentClass.addImport(Nullable.class);
@@ -464,33 +938,75 @@ public class JavaGenerator {
         }
         else {
             generateIriFieldDeclaration(parentCls, recordName, node.getDescription().orElse(""),
-                                        !FieldInputType.LINK.equals(node.fieldInputType()));
+                                        !FieldInputType.LINK.equals(node.fieldInputType()),
+                                        features.contains(JavaGeneratorFeature.INTERNED_IRIS));
         }
         if(node.cardinality().isMultiple()) {
-            generateArtifactListDeclaration(node, parentCls, context);
+            if (isPrimitiveLiteralList(node)) {
+                var decl = new TypedLiteralFieldRecordTemplate().fillListTemplate(recordName,
+                                                                                  node.getXsdDatatype().orElseThrow(),
+                                                                                  getParameterName(node),
+                                                                                  node.cardinality(),
+                                                                                  node.required().equals(Required.REQUIRED));
+                parentCls.addNestedType(decl);
+            }
+            else {
+                generateArtifactListDeclaration(node, parentCls, context);
+            }
         }
     }
 
+    private boolean isTypedLiteral(CodeGenerationNode node) {
+        return features.contains(JavaGeneratorFeature.TYPED_LITERALS)
+                && node.getXsdDatatype().map(datatype -> new TypedLiteralFieldRecordTemplate().isTyped(datatype)).orElse(false);
+    }
+
+    /**
+     * Determines whether a literal field is generated as a record that stores an enum constant for the values that
+     * the template lists for the field.
+     */
+    private boolean isEnumLiteral(CodeGenerationNode node) {
+        return features.contains(JavaGeneratorFeature.ENUM_LITERALS)
+                && node.artifactType().equals(ArtifactType.LITERAL_FIELD)
+                && !node.isAttributeValueField()
+                && node.getXsdDatatype().isEmpty()
+                && !node.literalOptions().isEmpty();
+    }
+
+    private boolean isPrimitiveLiteralList(CodeGenerationNode node) {
+        return isTypedLiteral(node)
+                && new TypedLiteralFieldRecordTemplate().isPrimitiveList(node.getXsdDatatype().orElseThrow());
+    }
+
     private static void generateIriFieldDeclaration(TypeHolderSource<?> parentCls,
                                                     String recordName,
                                                     String description,
-                                                    boolean withLabel) {
+                                                    boolean withLabel,
+                                                    boolean interned) {
         var template = new IriFieldRecordTemplate();
         final String decl;
         if(withLabel) {
-            decl = template.fillTemplate(recordName, description);
+            decl = template.fillTemplate(recordName, description, interned);
         }
         else {
-            decl = template.fillTemplateWithoutLabel(recordName, description);
+            decl = template.fillTemplateWithoutLabel(recordName, description, interned);
         }
         parentCls.addNestedType(decl);
     }
 
-    private static void generateLiteralFieldDeclaration(CodeGenerationNode node,
-                                                        TypeHolderSource<?> parentCls,
-                                                        String recordName) {
+    private void generateLiteralFieldDeclaration(CodeGenerationNode node,
+                                                 TypeHolderSource<?> parentCls,
+                                                 String recordName) {
         var datatype = node.getXsdDatatype();
-        if (datatype.isPresent()) {
+        if (isEnumLiteral(node)) {
+            var decl = new EnumLiteralFieldRecordTemplate().fillTemplate(recordName, node.getDescription().orElse(""), node.literalOptions());
+            parentCls.addNestedType(decl);
+        }
+        else if (isTypedLiteral(node)) {
+            var decl = new TypedLiteralFieldRecordTemplate().fillTemplate(recordName, datatype.orElseThrow(), node.getDescription().orElse(""));
+            parentCls.addNestedType(decl);
+        }
+        else if (datatype.isPresent()) {
             var literalFieldTemplate = new LiteralFieldWithDatatypeRecordTemplate();
             var decl = literalFieldTemplate.fillTemplate(recordName, node.getXsdDatatype().orElse(""), node.getDescription().orElse(""));
             parentCls.addNestedType(decl);
@@ -514,6 +1030,19 @@ public class JavaGenerator {
                 }
             """;
 
+    private static final String ATTRIBUTE_VALUES_DECLARATION =
+            "@JsonAnyGetter @JsonSerialize(using = AttributeValuesSerializer.class) Map<String, LiteralField> attributeValues";
+
+    private static final String EMPTY_LIST_HOLDER_DECL = """
+                /**
+                 * Holds the shared empty ${listJavaTypeName}.  The instance is created on first use.
+                 */
+                private static final class EmptyHolder {
+                
+                    private static final ${listJavaTypeName} INSTANCE = new ${listJavaTypeName}(${emptyList});
+                }
+            """;
+
     private void generateArtifactListDeclaration(CodeGenerationNode node, TypeHolderSource<?> parentCls, Set<CodeGenerationNode> context) {
 
         var javaTypeName = javaTypeNamesOracle.getJavaTypeName(node, context);
@@ -534,12 +1063,16 @@ public class JavaGenerator {
                .setStatic(true)
                .setReturnType(listJavaTypeName)
                .setName("of");
-        if (node.required().equals(Required.REQUIRED)) {
+        if (node.required().equals(Required.REQUIRED) && !node.artifactType().isField()) {
+            // Each empty element has its own generated id, so the list cannot be shared
             ofMethod
                    .setBody("return of(" + javaTypeName + ".of());");
         }
         else {
-            ofMethod.setBody("return new ${listJavaTypeName}(List.of());".replace("${listJavaTypeName}", listJavaTypeName));
+            var emptyList = node.required().equals(Required.REQUIRED) ? "List.of(" + javaTypeName + ".of())" : "List.of()";
+            ofMethod.setBody("return EmptyHolder.INSTANCE;");
+            listCls.addNestedType(EMPTY_LIST_HOLDER_DECL.replace("${listJavaTypeName}", listJavaTypeName)
+                                                        .replace("${emptyList}", emptyList));
         }
 
         listCls.addMethod()
@@ -593,6 +1126,9 @@ public class JavaGenerator {
                .setName("getArtifacts")
                .setBody("return new ArrayList<>(" + listParamName + ");")
                .addAnnotation(Override.class);
+        if (features.contains(JavaGeneratorFeature.ARTIFACT_SPLITERATOR)) {
+            listCls.addMethod(new ArtifactSpliteratorTemplate().getSpliteratorMethodDeclaration());
+        }
         parentCls.addNestedType(listCls);
     }
 
@@ -602,15 +1138,23 @@ public class JavaGenerator {
 
         var childParamDecls = getChildArtifactsParameterList(node, context);
 
+        var componentChildParamDecls = getChildArtifactsComponentList(node, context);
+
         if(containsAttributeValueField(node)) {
-            childParamDecls += ",\n@JsonAnyGetter Map<String, LiteralField> attributeValues";
+            childParamDecls += ",\n" + ATTRIBUTE_VALUES_DECLARATION;
+            componentChildParamDecls += ",\n" + ATTRIBUTE_VALUES_DECLARATION;
         }
 
         var rootNodeExtras = getRootNodeExtras(node);
 
-        var paramDeclarationsList = idParam + rootNodeExtras.stream()
-                                                            .map(s -> s + ",\n")
-                                                            .collect(Collectors.joining()) + childParamDecls;
+        var rootNodeExtrasDecls = rootNodeExtras.stream()
+                                                .map(s -> s + ",\n")
+                                                .collect(Collectors.joining());
+
+        // The declarations of the field records, which are also the record components unless fields are flattened
+        var paramDeclarationsList = idParam + rootNodeExtrasDecls + childParamDecls;
+
+        var componentDeclarationsList = idParam + rootNodeExtrasDecls + componentChildParamDecls;
 
         var emptyArgumentsList = "generateId(),\n" + rootNodeExtras.stream()
                                                            .map(s -> "null,\n")
@@ -621,18 +1165,21 @@ public class JavaGenerator {
                                                                                                         ",\n"));
 
         if(containsAttributeValueField(node)) {
-            emptyArgumentsList += ",\nnew LinkedHashMap<>()";
+            emptyArgumentsList += ",\nnew AttributeValues()";
         }
 
 
-        var childNodeArgsList = getChildArtifactsArgsList(node);
+        var childNodeArgsList = node.childNodes()
+                                    .stream()
+                                    .map(n -> isFlattened(n, node) ? getParameterName(n) + "()" : getParameterName(n))
+                                    .collect(Collectors.joining(",\n"));
         var argsList = "id,\n" + rootNodeExtras.stream()
                                                                    .map(s -> "null,\n")
                                                                    .collect(Collectors.joining())
-                + childNodeArgsList;
+                + getChildArtifactsArgsList(node);
 
         if(containsAttributeValueField(node)) {
-            argsList += ",\nnew LinkedHashMap<>()";
+            argsList += ",\nnew AttributeValues()";
         }
 
         var typeName = javaTypeNamesOracle.getJavaTypeName(node, context);
@@ -641,65 +1188,20 @@ public class JavaGenerator {
 
         if (!node.artifactType().isField()) {
             contextBlock.append("var contextMap = new LinkedHashMap<String, Object>();\n");
-            node.childNodes().forEach(childNode -> {
-                childNode.getPropertyIri().ifPresent(propertyIri -> {
-                    contextBlock.append("contextMap.put(FieldNames.");
-                    contextBlock.append(toConstantSymbol(childNode));
-                    contextBlock.append(", \"");
-                    contextBlock.append(propertyIri);
-                    contextBlock.append("\");\n");
-                });
-            });
+            node.childNodes().forEach(childNode -> contextBlock.append(getContextStatement(childNode)));
         }
         else {
             contextBlock.append("var contextMap = Map.of();");
         }
 
 
-        if (node.root()) {
-            contextBlock.append(String.format("contextMap.put(\"%s\", \"%s\");\n", "schema", "http://schema.org/"));
-            contextBlock.append(String.format("contextMap.put(\"%s\", \"%s\");\n",
-                                              "xsd",
-                                              "http://www.w3.org/2001/XMLSchema#"));
-            contextBlock.append(String.format("contextMap.put(\"%s\", \"%s\");\n",
-                                              "skos",
-                                              "http://www.w3.org/2004/02/skos/core#"));
-            contextBlock.append(String.format("contextMap.put(\"%s\", \"%s\");\n",
-                                              "rdfs",
-                                              "http://www.w3.org/2000/01/rdf-schema#"));
-            contextBlock.append(String.format("contextMap.put(\"%s\", %s);\n",
-                                              "pav:createdOn",
-                                              "Map.of(\"@type\", \"xsd:dateTime\")"));
-            contextBlock.append(String.format("contextMap.put(\"%s\", %s);\n",
-                                              "pav:createdBy",
-                                              "Map.of(\"@type\", \"@id\")"));
-            contextBlock.append(String.format("contextMap.put(\"%s\", %s);\n",
-                                              "rdfs:label",
-                                              "Map.of(\"@type\", \"xsd:string\")"));
-            contextBlock.append(String.format("contextMap.put(\"%s\", %s);\n",
-                                              "oslc:modifiedBy",
-                                              "Map.of(\"@type\", \"@id\")"));
-            contextBlock.append(String.format("contextMap.put(\"%s\", %s);\n",
-                                              "pav:derivedFrom",
-                                              "Map.of(\"@type\", \"@id\")"));
-            contextBlock.append(String.format("contextMap.put(\"%s\", %s);\n",
-                                              "skos:notation",
-                                              "Map.of(\"@type\", \"xsd:string\")"));
-            contextBlock.append(String.format("contextMap.put(\"%s\", %s);\n",
-                                              "schema:isBasedOn",
-                                              "Map.of(\"@type\", \"@id\")"));
-            contextBlock.append(String.format("contextMap.put(\"%s\", %s);\n",
-                                              "schema:description",
-                                              "Map.of(\"@type\", \"xsd:string\")"));
-            contextBlock.append(String.format("contextMap.put(\"%s\", %s);\n",
-                                              "pav:lastUpdatedOn",
-                                              "Map.of(\"@type\", \"xsd:dateTime\")"));
-            contextBlock.append(String.format("contextMap.put(\"%s\", %s);\n",
-                                              "schema:name",
-                                              "Map.of(\"@type\", \"xsd:string\")"));
-        }
+        contextBlock.append(getRootContextStatements(node));
         contextBlock.append("return contextMap;");
 
+        if (isPartitioned(node)) {
+            return generatePartitionedElementDeclaration(node, parentClass, context, typeName, rootNodeExtras);
+        }
+
         String attributeValueElementExtension;
         if (containsAttributeValueField(node)) {
             // Slight hack here.  We remove the map for attribute values because this is set through the @AnySetter annotated method.
@@ -714,22 +1216,217 @@ public class JavaGenerator {
             attributeValueElementExtension = "";
         }
 
+        if (node.childNodes().stream().anyMatch(childNode -> isFlattened(childNode, node))) {
+            attributeValueElementExtension += getFlattenedFieldsExtension(node, typeName, paramDeclarationsList, context);
+        }
+
+
+        var componentDeclarationsListWithoutCache = componentDeclarationsList;
+        if (features.contains(JavaGeneratorFeature.CACHED_HASH_CODES)) {
+            componentDeclarationsList += ",\n" + CachedHashCodeTemplate.COMPONENT_DECLARATION;
+        }
 
         var elementTemplate = new ElementRecordTemplate();
         var elementRecordDecl = elementTemplate.fillTemplate(typeName,
                                      attributeValueElementExtension,
-                                     paramDeclarationsList,
+                                     componentDeclarationsList,
                                      emptyArgumentsList,
                                      childNodeArgsList,
                                      contextBlock.toString());
         var javaCls = parentClass.addNestedType(elementRecordDecl);
 
-        if(node.cardinality().isMultiple()) {
-            generateArtifactListDeclaration(node, parentClass, context);
+        // Record components that are not JSON properties must be ignored explicitly, otherwise Jackson expects to
+        // find them as creator properties.  Attribute values are set through the any setter, which would otherwise
+        // also receive the written @context, so @context is ignored on read but still written.
+        var ignoredComponents = new ArrayList<String>();
+        node.childNodes()
+            .stream()
+            .filter(childNode -> isFlattened(childNode, node))
+            .forEach(childNode -> ignoredComponents.addAll(getFlattenedComponentNames(childNode)));
+        if (containsAttributeValueField(node)) {
+            ignoredComponents.add("attributeValues");
+            ignoredComponents.add("@context");
+        }
+        if (features.contains(JavaGeneratorFeature.CACHED_HASH_CODES)) {
+            ignoredComponents.add(CachedHashCodeTemplate.COMPONENT_NAME);
+        }
+        if (!ignoredComponents.isEmpty()) {
+            var ignoreAnnotation = ((JavaRecordSource) javaCls).addAnnotation(JsonIgnoreProperties.class)
+                                                               .setStringArrayValue(ignoredComponents.toArray(String[]::new));
+            if (containsAttributeValueField(node)) {
+                ignoreAnnotation.setLiteralValue("allowGetters", "true");
+            }
+        }
+
+        // The properties of flattened fields are written by accessor methods, which Jackson orders after the record
+        // components when the record is not its own creator, so the order of the template is given explicitly
+        if (node.childNodes().stream().anyMatch(childNode -> isFlattened(childNode, node))) {
+            var propertyOrder = new ArrayList<String>();
+            propertyOrder.add("\"@id\"");
+            getRootNodeExtraProperties(node).keySet().forEach(propertyName -> propertyOrder.add("\"" + propertyName + "\""));
+            node.childNodes().forEach(childNode -> propertyOrder.add("FieldNames." + toConstantSymbol(childNode)));
+            ((JavaRecordSource) javaCls).addAnnotation(JsonPropertyOrder.class)
+                                        .setLiteralValue("{" + String.join(", ", propertyOrder) + "}");
+        }
+
+        if (features.contains(JavaGeneratorFeature.CACHED_HASH_CODES)) {
+            var recordCls = (JavaRecordSource) javaCls;
+            var componentNames = recordCls.getRecordComponents()
+                                          .stream()
+                                          .map(component -> component.getName())
+                                          .filter(componentName -> !componentName.equals(CachedHashCodeTemplate.COMPONENT_NAME))
+                                          .toList();
+            // Elements with attribute values or flattened fields are created from JSON by their own creators
+            var creator = !containsAttributeValueField(node)
+                    && node.childNodes().stream().noneMatch(childNode -> isFlattened(childNode, node));
+            var template = new CachedHashCodeTemplate();
+            // The any getter and ignore annotations are not applicable to parameters
+            var constructorParamDeclarationsList = componentDeclarationsListWithoutCache.replace("@JsonAnyGetter ", "")
+                                                                                        .replace("@JsonIgnore ", "");
+            recordCls.addMethod(template.fillConstructorTemplate(typeName.strip(),
+                                                                 constructorParamDeclarationsList,
+                                                                 componentNames,
+                                                                 creator))
+                     .setConstructor(true);
+            recordCls.addMethod(template.fillCanonicalConstructorTemplate(typeName.strip(),
+                                                                          constructorParamDeclarationsList,
+                                                                          componentNames))
+                     .setConstructor(true);
+            template.fillMethodTemplates(typeName.strip(), componentNames).forEach(recordCls::addMethod);
+        }
+
+        generateElementFeatureMethods((JavaRecordSource) javaCls);
+
+        if (features.contains(JavaGeneratorFeature.LAZY_ELEMENTS)) {
+            generateLazyElementDeclaration(node, (TypeHolderSource<?>) javaCls, typeName, context);
         }
         return (TypeHolderSource<?>) javaCls;
     }
 
+    /**
+     * Generates the record of an element whose children are split into part records, because an ordinary record
+     * would have more components than the JVM allows.
+     */
+    private TypeHolderSource<?> generatePartitionedElementDeclaration(CodeGenerationNode node,
+                                                                      TypeHolderSource<?> parentClass,
+                                                                      Set<CodeGenerationNode> context,
+                                                                      String typeName,
+                                                                      List<String> rootNodeExtras) {
+        var headDeclarations = new ArrayList<String>();
+        headDeclarations.add("@JsonProperty(\"@id\") String id");
+        headDeclarations.addAll(rootNodeExtras);
+        var headEmptyArguments = new ArrayList<String>();
+        headEmptyArguments.add("generateId()");
+        rootNodeExtras.forEach(extra -> headEmptyArguments.add("null"));
+        var children = node.childNodes()
+                           .stream()
+                           .map(childNode -> new PartitionedElementRecordTemplate.Child(getParameterDeclaration(childNode, context),
+                                                                                         getEmptyInstance(childNode, context),
+                                                                                         getContextStatement(childNode)))
+                           .toList();
+        var decl = new PartitionedElementRecordTemplate().fillTemplate(typeName.strip(),
+                                                                       headDeclarations,
+                                                                       headEmptyArguments,
+                                                                       children,
+                                                                       containsAttributeValueField(node) ? ATTRIBUTE_VALUES_DECLARATION : null,
+                                                                       getRootContextStatements(node));
+        var javaCls = parentClass.addNestedType(decl);
+        generateElementFeatureMethods((JavaRecordSource) javaCls);
+        return (TypeHolderSource<?>) javaCls;
+    }
+
+    /**
+     * Adds the methods of the enabled features that are declared by each element record.
+     */
+    private void generateElementFeatureMethods(JavaRecordSource recordCls) {
+        if (features.contains(JavaGeneratorFeature.CONTENT_DIGEST)) {
+            new ContentDigestTemplate().getDigestMethodDeclarations().forEach(recordCls::addMethod);
+        }
+        if (features.contains(JavaGeneratorFeature.ARTIFACT_SPLITERATOR)) {
+            recordCls.addMethod(new ArtifactSpliteratorTemplate().getSpliteratorMethodDeclaration());
+        }
+    }
+
+    /**
+     * Determines whether the record of an element has too many components for one record, in which case its
+     * children are split into part records.  The components are counted the way that the record declares them, with
+     * the components of flattened fields and the hash code cache.
+     */
+    private boolean isPartitioned(CodeGenerationNode node) {
+        if (node.artifactType().isField()) {
+            return false;
+        }
+        var reservedNames = getReservedComponentNames(node);
+        var componentCount = 1 + getRootNodeExtras(node).size() + (containsAttributeValueField(node) ? 1 : 0);
+        for (var childNode : node.childNodes()) {
+            componentCount += isFlattenable(childNode, reservedNames) ? getFlattenedComponentNames(childNode).size() : 1;
+        }
+        if (features.contains(JavaGeneratorFeature.CACHED_HASH_CODES)) {
+            componentCount++;
+        }
+        return PartitionedElementRecordTemplate.isPartitioned(componentCount);
+    }
+
+    private boolean hasPartitionedElements(CodeGenerationNode node) {
+        return isPartitioned(node) || node.childNodes().stream().anyMatch(this::hasPartitionedElements);
+    }
+
+    /**
+     * Gets the statement that puts the property IRI of a child into the JSON-LD context of its parent, or an empty
+     * string if the child does not have a property IRI.
+     */
+    private static String getContextStatement(CodeGenerationNode childNode) {
+        return childNode.getPropertyIri()
+                        .map(propertyIri -> "contextMap.put(FieldNames." + toConstantSymbol(childNode) + ", \"" + propertyIri + "\");\n")
+                        .orElse("");
+    }
+
+    private static String getRootContextStatements(CodeGenerationNode node) {
+        var statements = new StringBuilder();
+        if (node.root()) {
+            ROOT_CONTEXT_ENTRIES.forEach((term, value) -> statements.append(String.format("contextMap.put(\"%s\", %s);\n",
+                                                                                          term,
+                                                                                          value)));
+        }
+        return statements.toString();
+    }
+
+    /**
+     * Generates the lazy variant of an element record.  The lazy variant is nested inside the element record so
+     * that the types of the child artifacts are in scope.
+     */
+    private void generateLazyElementDeclaration(CodeGenerationNode node,
+                                                TypeHolderSource<?> elementCls,
+                                                String typeName,
+                                                Set<CodeGenerationNode> context) {
+        var template = new LazyElementTemplate();
+        var lazyChildNodes = node.childNodes()
+                                 .stream()
+                                 .filter(childNode -> !childNode.isAttributeValueField())
+                                 .toList();
+        var keysList = new StringBuilder("\"@id\"");
+        var fieldDeclarations = new StringBuilder();
+        var accessors = new StringBuilder();
+        for (int i = 0; i < lazyChildNodes.size(); i++) {
+            var childNode = lazyChildNodes.get(i);
+            var paramType = getParameterType(childNode, javaTypeNamesOracle.getJavaTypeName(childNode, context));
+            var paramName = getParameterName(childNode);
+            keysList.append(", FieldNames.").append(toConstantSymbol(childNode));
+            fieldDeclarations.append(template.fillFieldTemplate(paramType, paramName));
+            accessors.append(template.fillAccessorTemplate(paramType, paramName, i + 1));
+        }
+        var childNodeAccessorsList = lazyChildNodes.stream()
+                                                   .map(childNode -> getParameterName(childNode) + "()")
+                                                   .collect(Collectors.joining(", "));
+        var decl = template.fillTemplate(typeName,
+                                         "Lazy" + typeName,
+                                         keysList.toString(),
+                                         fieldDeclarations.toString(),
+                                         accessors.toString(),
+                                         childNodeAccessorsList);
+        elementCls.addNestedType(decl);
+    }
+
     /**
      * Get root node extra parameters
      * @param node The root node
@@ -750,6 +1447,130 @@ public class JavaGenerator {
         return rootNodeExtras;
     }
 
+    /**
+     * Gets the types and names of the extra components of the root record, in order.
+     */
+    private static List<Map.Entry<String, String>> getRootNodeExtraComponents(CodeGenerationNode node) {
+        return getRootNodeExtras(node).stream()
+                                      .map(decl -> decl.split("\\s+"))
+                                      .map(tokens -> Map.entry(tokens[tokens.length - 2], tokens[tokens.length - 1]))
+                                      .toList();
+    }
+
+    /**
+     * Gets the types and names of the extra components of the root record, in order, by their JSON property names.
+     */
+    private static Map<String, Map.Entry<String, String>> getRootNodeExtraProperties(CodeGenerationNode node) {
+        var properties = new LinkedHashMap<String, Map.Entry<String, String>>();
+        var components = getRootNodeExtraComponents(node);
+        var extras = getRootNodeExtras(node);
+        for (int i = 0; i < extras.size(); i++) {
+            var extra = extras.get(i);
+            var start = extra.indexOf("@JsonProperty(\"") + "@JsonProperty(\"".length();
+            properties.put(extra.substring(start, extra.indexOf('"', start)), components.get(i));
+        }
+        return properties;
+    }
+
+    /**
+     * Determines whether a child field is stored inline in the record of its parent element.  Only single valued
+     * literal and IRI fields are flattened, and only if the names of the inline components do not clash with the
+     * names of other components of the parent record.  The fields of partitioned elements are not flattened.
+     */
+    private boolean isFlattened(CodeGenerationNode node, CodeGenerationNode parentNode) {
+        return isFlattenable(node, getReservedComponentNames(parentNode)) && !isPartitioned(parentNode);
+    }
+
+    private boolean isFlattenable(CodeGenerationNode node, Set<String> reservedNames) {
+        if (!features.contains(JavaGeneratorFeature.FLAT_FIELDS)
+                || !node.artifactType().isField()
+                || node.isAttributeValueField()
+                || node.isListType()
+                || isTypedLiteral(node)
+                || isEnumLiteral(node)) {
+            return false;
+        }
+        return getFlattenedComponentNames(node).stream().noneMatch(reservedNames::contains);
+    }
+
+    /**
+     * Gets the names of the components of the record of an element that are not flattened field components.
+     */
+    private static Set<String> getReservedComponentNames(CodeGenerationNode parentNode) {
+        var reservedNames = new HashSet<String>();
+        reservedNames.add("id");
+        getRootNodeExtraComponents(parentNode).forEach(component -> reservedNames.add(component.getValue()));
+        parentNode.childNodes().forEach(childNode -> reservedNames.add(getParameterName(childNode)));
+        return reservedNames;
+    }
+
+    private static List<String> getFlattenedComponentNames(CodeGenerationNode node) {
+        var iri = node.artifactType().equals(ArtifactType.IRI_FIELD);
+        return FlattenedFieldTemplate.getComponentNames(getParameterName(node), iri, isIriFieldWithLabel(node));
+    }
+
+    static boolean isIriFieldWithLabel(CodeGenerationNode node) {
+        return node.artifactType().equals(ArtifactType.IRI_FIELD) && !FieldInputType.LINK.equals(node.fieldInputType());
+    }
+
+    /**
+     * Gets the constructor that takes field records and the accessors of the flattened fields of an element record.
+     */
+    private String getFlattenedFieldsExtension(CodeGenerationNode node,
+                                               String typeName,
+                                               String paramDeclarationsList,
+                                               Set<CodeGenerationNode> context) {
+        var template = new FlattenedFieldTemplate();
+        var extension = new StringBuilder();
+        var constructorParamDeclarationsList = paramDeclarationsList;
+        var attributeValues = containsAttributeValueField(node);
+        if (attributeValues) {
+            // The any getter annotation is not applicable to parameters
+            constructorParamDeclarationsList = paramDeclarationsList.replace("@JsonAnyGetter ", "");
+        }
+        var argsList = new StringBuilder("id");
+        getRootNodeExtraComponents(node).forEach(component -> argsList.append(",\n").append(component.getValue()));
+        for (var childNode : node.childNodes()) {
+            var paramName = getParameterName(childNode);
+            argsList.append(",\n");
+            if (isFlattened(childNode, node)) {
+                var iri = childNode.artifactType().equals(ArtifactType.IRI_FIELD);
+                argsList.append(FlattenedFieldTemplate.getComponentValues(paramName, iri, isIriFieldWithLabel(childNode)));
+                var declaration = getParameterDeclaration(childNode, context);
+                var annotations = declaration.substring(0, declaration.lastIndexOf(" " + javaTypeNamesOracle.getJavaTypeName(childNode, context) + " "));
+                extension.append(template.fillAccessorTemplate(javaTypeNamesOracle.getJavaTypeName(childNode, context),
+                                                               paramName,
+                                                               annotations,
+                                                               getFlattenedComponentNames(childNode)));
+            }
+            else {
+                argsList.append(paramName);
+            }
+        }
+        if (attributeValues) {
+            argsList.append(",\nattributeValues");
+        }
+        // Elements with attribute values are created from JSON by their own factory method
+        extension.insert(0, template.fillConstructorTemplate(typeName,
+                                                             constructorParamDeclarationsList,
+                                                             argsList.toString(),
+                                                             !attributeValues));
+        return extension.toString();
+    }
+
+    private String getChildArtifactsComponentList(CodeGenerationNode node, Set<CodeGenerationNode> context) {
+        return node.childNodes()
+                   .stream()
+                   .map(n -> isFlattened(n, node) ? getFlattenedComponentDeclarations(n) : getParameterDeclaration(n, context))
+                   .collect(Collectors.joining(",\n"));
+    }
+
+    private static String getFlattenedComponentDeclarations(CodeGenerationNode node) {
+        return getFlattenedComponentNames(node).stream()
+                                               .map(name -> "@JsonIgnore String " + name)
+                                               .collect(Collectors.joining(",\n"));
+    }
+
     private static String getChildArtifactsArgsList(CodeGenerationNode node) {
         return node.childNodes()
                    .stream()
@@ -0,0 +1,149 @@
+package org.metadatacenter.cedar.codegen;
+
+/**
+ * Optional features of the generated code.  A feature that is not enabled does not contribute anything to the
+ * generated code.  Elements with more children than fit in one record are split into part records, and only the
+ * features that read elements through their accessors support such elements; the generator throws an
+ * {@link IllegalArgumentException} for the other features.
+ */
+public enum JavaGeneratorFeature {
+
+    /**
+     * Generate a lazy, parse-on-access variant of each element record.  The lazy variant retains the raw JSON
+     * of the element and only deserializes child artifacts when their accessors are called.
+     */
+    LAZY_ELEMENTS,
+
+    /**
+     * Generate a projection reader that streams the values at selected field paths out of serialized instances
+     * without deserializing them.
+     */
+    PROJECTION_READER,
+
+    /**
+     * Generate a compact, schema specific, binary encoder and decoder for instances.
+     */
+    BINARY_CODEC,
+
+    /**
+     * Generate a reflection free validator for instances that checks required values, list cardinalities and the
+     * lexical forms of numeric and temporal values, with a parallel batch API.
+     */
+    VALIDATOR,
+
+    /**
+     * Store the values of literal fields that have numeric or temporal datatypes in typed form, using {@code long},
+     * {@code double}, {@code BigInteger}, {@code BigDecimal} and {@code java.time} components, and store lists of
+     * {@code long} and {@code double} values in primitive arrays.  Lexical forms are only retained where they are
+     * needed for values to round trip.
+     */
+    TYPED_LITERALS,
+
+    /**
+     * Store single valued literal and IRI fields inline, as string components of the records of their parent
+     * elements, rather than as field records.  Field records are created on access, and the JSON format of instances
+     * does not change.  A field that is missing from JSON is read as an empty field.  Code that passes a bare
+     * {@code null} for a field to an element constructor needs a cast, because elements have a constructor that takes
+     * field records as well as the canonical constructor.  The fields of elements that are split into part records are
+     * not flattened.
+     */
+    FLAT_FIELDS,
+
+    /**
+     * Canonicalize IRI field records that are read from JSON through a bounded, concurrent, term dictionary per IRI
+     * field record, so that repeated (id, label) pairs share one immutable record.  The dictionaries expose hit rate
+     * statistics.
+     */
+    INTERNED_IRIS,
+
+    /**
+     * Generate an enum for each literal field whose template lists the values that the field may take, and store the
+     * enum constant in the field record.  Records for listed values are shared instances.  Values that are not
+     * listed are kept as strings, and the JSON format of instances does not change.
+     */
+    ENUM_LITERALS,
+
+    /**
+     * Generate an in-memory collection of instances with hash and sorted secondary indexes on field values, chosen
+     * by paths of {@code FieldNames} constants, and a query API whose conditions are answered from indexes where
+     * possible and otherwise evaluated with direct accessor calls.
+     */
+    INSTANCE_COLLECTION,
+
+    /**
+     * Generate a columnar exporter that flattens instances into rows with a column per leaf field path, with
+     * configurable rules for flattening lists, into typed column buffers that are handed over in fixed size batches,
+     * and that writes CSV and TSV.
+     */
+    COLUMNAR_EXPORT,
+
+    /**
+     * Generate a bulk mapper that reads CSV and TSV tables into instances, mapping header columns to leaf fields by
+     * the column names of the columnar exporter.  Values are checked against their XML Schema datatypes, rows are
+     * built in parallel chunks by direct record constructor calls, and invalid rows are reported as row errors.
+     */
+    BULK_MAPPER,
+
+    /**
+     * Generate a writer that streams instances as RDF N-Triples or N-Quads, with the property IRIs and datatypes of
+     * the template as constants, producing the triples of the JSON-LD form of the instances without JSON-LD
+     * processing.
+     */
+    RDF_WRITER,
+
+    /**
+     * Generate a writer that streams instances as one JSON-LD document with a {@code @graph} array, or as NDJSON,
+     * with one shared context that is written once or referenced by URL, instead of a context in every element.
+     * Terms that cannot be shared without changing their meaning stay in local contexts.
+     */
+    JSON_LD_WRITER,
+
+    /**
+     * Generate an append only store of instances in memory-mapped files, with fixed size records for the leaf values
+     * of instances, flyweight views that read leaf values without materializing instances, and random access by
+     * ordinal.  A store can be reopened without parsing its instances.  This implies {@link #BINARY_CODEC}, which
+     * encodes the stored instances.
+     */
+    INSTANCE_STORE,
+
+    /**
+     * Generate {@code hashCode} and {@code equals} methods for element records that compute the hash code of an
+     * element once and cache it in an extra record component, and that compare cached hash codes before comparing
+     * components.  Elements must not be changed after they are hashed.
+     */
+    CACHED_HASH_CODES,
+
+    /**
+     * Generate a content digest of instances, which writes the values of an instance in a canonical binary form
+     * straight into a {@link java.security.MessageDigest}, without serializing the instance to JSON.  Element records
+     * get {@code digest} methods, which can leave the generated ids of elements out of the digest.
+     */
+    CONTENT_DIGEST,
+
+    /**
+     * Generate a structural diff of two instances as a patch of changes to the values at paths of JSON property names
+     * and list positions, and the application of patches, which rebuilds only the records on the changed paths and
+     * shares unchanged subtrees.
+     */
+    INSTANCE_DIFF,
+
+    /**
+     * Generate a sized spliterator over the artifacts of an instance and all of their descendants, which splits at
+     * element and list item boundaries into parts with about the same number of artifacts, so that parallel streams
+     * over the artifacts of large instances are balanced.  Element and list records get an
+     * {@code artifactSpliterator} method.
+     */
+    ARTIFACT_SPLITERATOR;
+
+    /**
+     * Determines whether this feature supports elements whose children are split into part records.  These are the
+     * features that only read elements through their accessors, rather than constructing them from their components,
+     * and {@link #FLAT_FIELDS}, which does not apply to such elements.
+     */
+    public boolean supportsPartitionedElements() {
+        return switch (this) {
+            case FLAT_FIELDS, VALIDATOR, RDF_WRITER, JSON_LD_WRITER, CONTENT_DIGEST, ARTIFACT_SPLITERATOR -> true;
+            default -> false;
+        };
+    }
+}
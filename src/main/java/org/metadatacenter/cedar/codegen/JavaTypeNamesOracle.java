@@ -1,9 +1,9 @@
 package org.metadatacenter.cedar.codegen;
 
 import javax.annotation.Nonnull;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.metadatacenter.cedar.codegen.CamelCase.toCamelCase;
 
@@ -23,7 +23,10 @@ public class JavaTypeNamesOracle {
 
     protected static final String DEFAULT_TEMPLATE_JAVA_NAME = "MetadataInstance";
 
-    private final Map<CodeGenerationNode, String> cedarNames2JavaTypeNames = new HashMap<>();
+    /**
+     * Names are looked up concurrently when artifact records are built in parallel.
+     */
+    private final Map<CodeGenerationNode, String> cedarNames2JavaTypeNames = new ConcurrentHashMap<>();
 
     private final JavaTypeNameFormat suffixTypes;
 
@@ -0,0 +1,316 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * This class represents a template for generating a writer that streams many instances as JSON-LD with one shared
+ * context, instead of a context in every element.  The terms of the contexts of all of the records of a template are
+ * merged into the shared context when this does not change their meaning.  A term whose meaning depends on where it
+ * is used stays in the local contexts of the records that define it.
+ */
+public class JsonLdWriterTemplate {
+
+    private static final String JSON_LD_WRITER_DECL = """
+            /**
+             * Writes {@link ${rootType}} instances as JSON-LD with one shared context.  In the {@link Format#GRAPH}
+             * format instances are written to the {@code @graph} array of a single document whose context is the
+             * shared context.  In the {@link Format#NDJSON} format each instance is written on its own line, with
+             * the shared context or a reference to it as its context.  Either way elements do not repeat their
+             * contexts, and the expanded form of each instance is the same as that of its ordinary JSON form.
+             * <p>
+             * Instances are written through one generator, which passes output to the underlying {@link Writer} when
+             * its buffer is full.  Writers are not thread safe.
+             */
+            public static final class JsonLdWriter implements Closeable {
+
+                private static final Map<String, Object> SHARED_CONTEXT = Collections.unmodifiableMap(getSharedContext());
+
+                private static final Map<Class<?>, Map<String, Object>> LOCAL_CONTEXTS = getLocalContexts();
+
+                private final ObjectWriter writer;
+
+                private final JsonGenerator generator;
+
+                private final Format format;
+
+                private long count = 0;
+
+                private boolean closed = false;
+
+                private JsonLdWriter(ObjectMapper mapper, Writer out, Format format, String contextUrl) throws IOException {
+                    Object reference = contextUrl != null ? contextUrl : SHARED_CONTEXT;
+                    var rootLocalContext = LOCAL_CONTEXTS.get(${rootType}.class);
+                    final Object rootContext;
+                    if (format == Format.GRAPH) {
+                        rootContext = rootLocalContext;
+                    }
+                    else if (rootLocalContext != null) {
+                        rootContext = List.of(reference, rootLocalContext);
+                    }
+                    else {
+                        rootContext = reference;
+                    }
+                    var module = new SimpleModule().setSerializerModifier(new ContextModifier(rootContext));
+                    this.writer = mapper.copy()
+                                        .registerModule(module)
+                                        .writer()
+                                        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                    this.format = Objects.requireNonNull(format);
+                    this.generator = writer.createGenerator(Objects.requireNonNull(out));
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.setRootValueSeparator(null);
+                    if (format == Format.GRAPH) {
+                        generator.writeStartObject();
+                        generator.writeFieldName("@context");
+                        writer.writeValue(generator, reference);
+                        generator.writeFieldName("@graph");
+                        generator.writeStartArray();
+                    }
+                }
+
+                /**
+                 * Gets a writer that writes the shared context itself.
+                 * @param mapper The mapper that configures serialization.  The mapper is not changed.
+                 * @param out The writer to write to.  This is not closed when the JSON-LD writer is closed.
+                 * @param format The format to write.
+                 */
+                public static JsonLdWriter of(@Nonnull ObjectMapper mapper,
+                                              @Nonnull Writer out,
+                                              @Nonnull Format format) throws IOException {
+                    return new JsonLdWriter(mapper, out, format, null);
+                }
+
+                /**
+                 * Gets a writer that refers to the shared context by a URL.  The document at the URL must be a
+                 * JSON-LD context document with the shared context, as given by {@link #sharedContext()}.
+                 */
+                public static JsonLdWriter of(@Nonnull ObjectMapper mapper,
+                                              @Nonnull Writer out,
+                                              @Nonnull Format format,
+                                              @Nonnull String contextUrl) throws IOException {
+                    return new JsonLdWriter(mapper, out, format, Objects.requireNonNull(contextUrl));
+                }
+
+                /**
+                 * Gets the shared context.
+                 */
+                public static Map<String, Object> sharedContext() {
+                    return SHARED_CONTEXT;
+                }
+
+                public void write(@Nonnull ${rootType} instance) throws IOException {
+                    if (closed) {
+                        throw new IllegalStateException("Writer is closed");
+                    }
+                    writer.writeValue(generator, instance);
+                    if (format == Format.NDJSON) {
+                        generator.writeRaw('\\n');
+                    }
+                    count++;
+                }
+
+                public void writeAll(@Nonnull Iterator<? extends ${rootType}> instances) throws IOException {
+                    while (instances.hasNext()) {
+                        write(instances.next());
+                    }
+                }
+
+                public void writeAll(@Nonnull Iterable<? extends ${rootType}> instances) throws IOException {
+                    writeAll(instances.iterator());
+                }
+
+                /**
+                 * Gets the number of instances that this writer has written.
+                 */
+                public long count() {
+                    return count;
+                }
+
+                /**
+                 * Passes buffered output to the underlying writer and flushes it.
+                 */
+                public void flush() throws IOException {
+                    generator.flush();
+                }
+
+                /**
+                 * Ends the document and flushes the underlying writer.  The underlying writer is not closed.
+                 */
+                @Override
+                public void close() throws IOException {
+                    if (closed) {
+                        return;
+                    }
+                    closed = true;
+                    if (format == Format.GRAPH) {
+                        generator.writeEndArray();
+                        generator.writeEndObject();
+                    }
+                    generator.close();
+                }
+
+                private static Map<String, Object> getSharedContext() {
+                    var context = new LinkedHashMap<String, Object>();
+                    ${sharedContextStatements}
+                    return context;
+                }
+
+                private static Map<Class<?>, Map<String, Object>> getLocalContexts() {
+                    var contexts = new HashMap<Class<?>, Map<String, Object>>();
+                    ${localContextStatements}
+                    return contexts;
+                }
+
+                public enum Format {
+                    GRAPH, NDJSON
+                }
+
+                /**
+                 * Replaces the contexts of records with their local contexts, and removes the contexts of records
+                 * that do not have local contexts.
+                 */
+                private static final class ContextModifier extends BeanSerializerModifier {
+
+                    private final Object rootContext;
+
+                    private ContextModifier(Object rootContext) {
+                        this.rootContext = rootContext;
+                    }
+
+                    @Override
+                    public List<BeanPropertyWriter> changeProperties(SerializationConfig config,
+                                                                     BeanDescription beanDescription,
+                                                                     List<BeanPropertyWriter> properties) {
+                        var type = beanDescription.getBeanClass();
+                        if (!Element.class.isAssignableFrom(type)) {
+                            return properties;
+                        }
+                        var context = type == ${rootType}.class ? rootContext : LOCAL_CONTEXTS.get(type);
+                        var changedProperties = new ArrayList<BeanPropertyWriter>(properties.size());
+                        for (var property : properties) {
+                            if (!property.getName().equals("@context")) {
+                                changedProperties.add(property);
+                            }
+                            else if (context != null) {
+                                changedProperties.add(new ContextPropertyWriter(property, context));
+                            }
+                        }
+                        return changedProperties;
+                    }
+                }
+
+                private static final class ContextPropertyWriter extends BeanPropertyWriter {
+
+                    private final Object context;
+
+                    private ContextPropertyWriter(BeanPropertyWriter base, Object context) {
+                        super(base);
+                        this.context = context;
+                    }
+
+                    @Override
+                    public void serializeAsField(Object bean, JsonGenerator generator, SerializerProvider provider) throws Exception {
+                        generator.writeFieldName(getName());
+                        provider.defaultSerializeValue(context, generator);
+                    }
+                }
+            }
+            """;
+
+    /**
+     * Fills the template for the JSON-LD writer of the specified root node.
+     *
+     * @param rootNode           The generated root node of the template.
+     * @param rootContextEntries The terms of the context of the root record, other than those of its child nodes,
+     *                           with Java expressions for their definitions.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull GeneratedArtifactNode rootNode,
+                               @Nonnull Map<String, String> rootContextEntries) {
+        Objects.requireNonNull(rootNode);
+        Objects.requireNonNull(rootContextEntries);
+        var contexts = new LinkedHashMap<GeneratedArtifactNode, Map<String, String>>();
+        var definitions = new HashMap<String, Set<String>>();
+        var conflictingTerms = new HashSet<String>();
+        collectContexts(rootNode, rootContextEntries, Map.of(), contexts, definitions);
+        definitions.forEach((term, values) -> {
+            if (values.size() > 1) {
+                conflictingTerms.add(term);
+            }
+        });
+        var sharedContext = new LinkedHashMap<String, String>();
+        var localContextStatements = new StringBuilder();
+        contexts.forEach((node, context) -> {
+            var localEntries = new ArrayList<String>();
+            context.forEach((term, value) -> {
+                if (conflictingTerms.contains(term)) {
+                    localEntries.add("Map.entry(\"" + escapeJava(term) + "\", " + value + ")");
+                }
+                else {
+                    sharedContext.putIfAbsent(term, value);
+                }
+            });
+            if (!localEntries.isEmpty()) {
+                localContextStatements.append("contexts.put(").append(node.qualifiedTypeName()).append(".class, Map.ofEntries(")
+                                      .append(String.join(", ", localEntries)).append("));\n");
+            }
+        });
+        var sharedContextStatements = new StringBuilder();
+        sharedContext.forEach((term, value) -> sharedContextStatements.append("context.put(\"").append(escapeJava(term))
+                                                                       .append("\", ").append(value).append(");\n"));
+        return JSON_LD_WRITER_DECL.replace("${rootType}", rootNode.qualifiedTypeName())
+                                  .replace("${sharedContextStatements}", sharedContextStatements)
+                                  .replace("${localContextStatements}", localContextStatements);
+    }
+
+    /**
+     * Collects the contexts of an element and of its descendant elements, and the definitions of the terms that they
+     * use.
+     *
+     * @param node           The element node.
+     * @param extraEntries   Terms of the context of the element other than those of its child nodes.
+     * @param inheritedTerms The terms that are defined by the contexts of the enclosing records.
+     * @param contexts       The contexts, by element node.
+     * @param definitions    The definitions of each term in all of the contexts and where it is used.  A term that
+     *                       has more than one definition must stay in local contexts.
+     */
+    private static void collectContexts(GeneratedArtifactNode node,
+                                        Map<String, String> extraEntries,
+                                        Map<String, String> inheritedTerms,
+                                        Map<GeneratedArtifactNode, Map<String, String>> contexts,
+                                        Map<String, Set<String>> definitions) {
+        var context = new LinkedHashMap<String, String>();
+        node.childNodes()
+            .forEach(childNode -> childNode.node()
+                                           .getPropertyIri()
+                                           .ifPresent(propertyIri -> context.put(childNode.node().name(),
+                                                                                 "\"" + escapeJava(propertyIri) + "\"")));
+        context.putAll(extraEntries);
+        contexts.put(node, context);
+        context.forEach((term, value) -> definitions.computeIfAbsent(term, t -> new HashSet<>()).add(value));
+        var terms = new HashMap<>(inheritedTerms);
+        terms.putAll(context);
+        node.childNodes().forEach(childNode -> {
+            var term = childNode.node().name();
+            var value = terms.get(term);
+            var termDefinitions = definitions.computeIfAbsent(term, t -> new HashSet<>());
+            // A term that is used where it is not defined must not be defined by the shared context
+            termDefinitions.add(value == null ? "" : value);
+            if (childNode.isElement()) {
+                collectContexts(childNode, Map.of(), terms, contexts, definitions);
+            }
+        });
+    }
+
+    private static String escapeJava(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
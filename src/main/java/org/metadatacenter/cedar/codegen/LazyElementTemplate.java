@@ -0,0 +1,253 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * This class represents a template for generating lazy, parse-on-access variants of element records.  A lazy
+ * element keeps the raw JSON of the element along with an index of the byte ranges of its properties.  Child
+ * artifacts are only deserialized when their accessors are first called.
+ */
+public class LazyElementTemplate {
+
+    private static final String LAZY_JSON_SUPPORT_DECL = """
+            /**
+             * Support for lazy elements.  Indexes the byte ranges of the top level properties of a JSON object
+             * and deserializes individual property values from those ranges.
+             */
+            public static final class LazyJson {
+
+                private LazyJson() {
+                }
+
+                /**
+                 * Creates a lookup table from property name to index slot.
+                 */
+                public static Map<String, Integer> slots(String ... keys) {
+                    var slots = new HashMap<String, Integer>();
+                    for (int i = 0; i < keys.length; i++) {
+                        slots.put(keys[i], i);
+                    }
+                    return Map.copyOf(slots);
+                }
+
+                /**
+                 * Scans the top level properties of the JSON object in the specified range without building any
+                 * objects.  Nested values are skipped at the token level.
+                 * @return An array containing a start/end pair of absolute byte offsets for each slot.  Both offsets
+                 * are -1 for properties that are not present.
+                 */
+                public static int[] index(ObjectMapper mapper, byte[] json, int offset, int length, Map<String, Integer> slots) throws IOException {
+                    var index = new int[slots.size() * 2];
+                    Arrays.fill(index, -1);
+                    try (var parser = mapper.getFactory().createParser(json, offset, length)) {
+                        if (parser.nextToken() != JsonToken.START_OBJECT) {
+                            throw new JsonParseException(parser, "Expected a JSON object");
+                        }
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            var slot = slots.get(parser.getCurrentName());
+                            parser.nextToken();
+                            var start = offset + (int) parser.getTokenLocation().getByteOffset();
+                            parser.skipChildren();
+                            parser.finishToken();
+                            if (slot != null) {
+                                index[2 * slot] = start;
+                                index[2 * slot + 1] = offset + (int) parser.getCurrentLocation().getByteOffset();
+                            }
+                        }
+                    }
+                    return index;
+                }
+
+                /**
+                 * Deserializes the value in the specified slot.
+                 * @return The value, or {@code null} if the property is not present.
+                 */
+                public static <T> T read(ObjectMapper mapper, byte[] json, int[] index, int slot, Class<T> type) {
+                    var start = index[2 * slot];
+                    if (start == -1) {
+                        return null;
+                    }
+                    try {
+                        return mapper.readValue(json, start, index[2 * slot + 1] - start, type);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+            """;
+
+    private static final String LAZY_ELEMENT_TYPE_DECL = """
+            /**
+             * A lazy, parse-on-access view of a {@link ${typeName}}.  The raw JSON is retained and child artifacts
+             * are deserialized when their accessors are first called.  Instances are safe to share between threads;
+             * a child may be deserialized more than once under contention, but all threads see equal values.
+             */
+            public static final class ${lazyTypeName} implements Element {
+
+                private static final Map<String, Integer> SLOTS = LazyJson.slots(${keysList});
+
+                private final ObjectMapper mapper;
+
+                private final byte[] json;
+
+                private final int offset;
+
+                private final int length;
+
+                private final int[] index;
+
+                private String id;
+
+                ${fieldDeclarations}
+
+                private ${lazyTypeName}(ObjectMapper mapper, byte[] json, int offset, int length) throws IOException {
+                    this.mapper = Objects.requireNonNull(mapper);
+                    this.json = Objects.requireNonNull(json);
+                    this.offset = offset;
+                    this.length = length;
+                    this.index = LazyJson.index(mapper, json, offset, length, SLOTS);
+                }
+
+                /**
+                 * Creates a lazy ${typeName} over the specified JSON.  The array is retained and must not be
+                 * modified afterwards.
+                 * @param mapper The mapper that is used to deserialize child artifacts on access.
+                 * @param json The UTF-8 encoded JSON object.
+                 */
+                public static ${lazyTypeName} of(@Nonnull ObjectMapper mapper, @Nonnull byte[] json) throws IOException {
+                    return new ${lazyTypeName}(mapper, json, 0, json.length);
+                }
+
+                /**
+                 * Creates a lazy ${typeName} over the JSON object in the specified range of bytes.  The array is
+                 * retained and must not be modified afterwards.
+                 * @param mapper The mapper that is used to deserialize child artifacts on access.
+                 * @param json The UTF-8 encoded JSON.
+                 * @param offset The offset of the JSON object in the array.
+                 * @param length The length of the JSON object in bytes.
+                 */
+                public static ${lazyTypeName} of(@Nonnull ObjectMapper mapper, @Nonnull byte[] json, int offset, int length) throws IOException {
+                    return new ${lazyTypeName}(mapper, json, offset, length);
+                }
+
+                @Override
+                public String id() {
+                    var value = id;
+                    if (value == null) {
+                        value = id = LazyJson.read(mapper, json, index, 0, String.class);
+                    }
+                    return value;
+                }
+
+                ${accessors}
+
+                /**
+                 * Returns the child artifacts as a flat stream.  This deserializes all child artifacts.
+                 */
+                @Override
+                public Stream<Artifact> getArtifacts() {
+                    return streamArtifacts(${childNodeAccessorsList});
+                }
+
+                /**
+                 * Fully deserializes this element into a {@link ${typeName}}.
+                 */
+                public ${typeName} toRecord() {
+                    try {
+                        return mapper.readValue(json, offset, length, ${typeName}.class);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                /**
+                 * Serializes this element by writing out the retained JSON verbatim.
+                 */
+                @JsonValue
+                public RawValue toJson() {
+                    return new RawValue(new String(json, offset, length, StandardCharsets.UTF_8));
+                }
+            }
+            """;
+
+    private static final String LAZY_FIELD_DECL = """
+                private ${paramType} ${paramName};
+            """;
+
+    private static final String LAZY_ACCESSOR_DECL = """
+                /**
+                 * Gets the {@code ${paramName}} child.  This is deserialized on first access.
+                 */
+                public ${paramType} ${paramName}() {
+                    var value = ${paramName};
+                    if (value == null) {
+                        value = ${paramName} = LazyJson.read(mapper, json, index, ${slot}, ${paramType}.class);
+                    }
+                    return value;
+                }
+            """;
+
+    /**
+     * Gets the declaration of the support class that is shared by all lazy elements.  This should be added to the
+     * generated code once.
+     */
+    public String getSupportDeclaration() {
+        return LAZY_JSON_SUPPORT_DECL;
+    }
+
+    /**
+     * Fills the declaration of the field that caches a lazily deserialized child.
+     *
+     * @param paramType The Java type of the child.
+     * @param paramName The name of the accessor for the child.
+     * @return The filled template as a string.
+     */
+    public String fillFieldTemplate(@Nonnull String paramType, @Nonnull String paramName) {
+        Objects.requireNonNull(paramType);
+        Objects.requireNonNull(paramName);
+        return LAZY_FIELD_DECL.replace("${paramType}", paramType)
+                              .replace("${paramName}", paramName);
+    }
+
+    /**
+     * Fills the declaration of the accessor for a lazily deserialized child.
+     *
+     * @param paramType The Java type of the child.
+     * @param paramName The name of the accessor for the child.
+     * @param slot      The index slot of the child property.  Slot 0 is reserved for {@code @id}.
+     * @return The filled template as a string.
+     */
+    public String fillAccessorTemplate(@Nonnull String paramType, @Nonnull String paramName, int slot) {
+        Objects.requireNonNull(paramType);
+        Objects.requireNonNull(paramName);
+        return LAZY_ACCESSOR_DECL.replace("${paramType}", paramType)
+                                 .replace("${paramName}", paramName)
+                                 .replace("${slot}", Integer.toString(slot));
+    }
+
+    /**
+     * Fills the template for the lazy element class.
+     *
+     * @param typeName               The name of the eager element record.
+     * @param lazyTypeName           The name of the lazy element class.
+     * @param keysList               The comma separated property keys, starting with {@code "@id"}.
+     * @param fieldDeclarations      The declarations of the fields that cache deserialized children.
+     * @param accessors              The declarations of the accessors for the children.
+     * @param childNodeAccessorsList The comma separated accessor calls for the children.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull String typeName,
+                               @Nonnull String lazyTypeName,
+                               @Nonnull String keysList,
+                               @Nonnull String fieldDeclarations,
+                               @Nonnull String accessors,
+                               @Nonnull String childNodeAccessorsList) {
+        return LAZY_ELEMENT_TYPE_DECL.replace("${typeName}", Objects.requireNonNull(typeName))
+                                     .replace("${lazyTypeName}", Objects.requireNonNull(lazyTypeName))
+                                     .replace("${keysList}", Objects.requireNonNull(keysList))
+                                     .replace("${fieldDeclarations}", Objects.requireNonNull(fieldDeclarations))
+                                     .replace("${accessors}", Objects.requireNonNull(accessors))
+                                     .replace("${childNodeAccessorsList}", Objects.requireNonNull(childNodeAccessorsList));
+    }
+}
@@ -18,12 +18,15 @@ public class LiteralFieldRecordTemplate {
                  */
                 public static record ${typeName}(String value) implements LiteralField {
                     
+                    private static final ${typeName} EMPTY = new ${typeName}(null);
+                    
                     /**
-                     * Creates an instance of the {@code ${typeName}} record with a {@code null} value.
+                     * Gets the instance of the {@code ${typeName}} record with a {@code null} value.  This is a shared
+                     * instance that is created when the record class is initialized.
                      * @return An instance of the {@code ${typeName}} record.
                      */
                     public static ${typeName} of() {
-                        return new ${typeName}(null);
+                        return EMPTY;
                     }
                     
                     /**
@@ -33,7 +36,7 @@ public class LiteralFieldRecordTemplate {
                      */
                     @JsonCreator
                     public static ${typeName} of(@JsonProperty("@value") String value) {
-                        return new ${typeName}(value);
+                        return value == null ? EMPTY : new ${typeName}(value);
                     }
                 }
             """;
@@ -20,12 +20,15 @@ public class LiteralFieldWithDatatypeRecordTemplate {
                  @JsonPropertyOrder({"@type", "@value"})
                 public static record ${typeName}(String value) implements LiteralField {
                     
+                    private static final ${typeName} EMPTY = new ${typeName}(null);
+                    
                     /**
-                     * Creates an instance of the {@code ${typeName}} record with a {@code null} value.
+                     * Gets the instance of the {@code ${typeName}} record with a {@code null} value.  This is a shared
+                     * instance that is created when the record class is initialized.
                      * @return An instance of the {@code ${typeName}} record.
                      */
                     public static ${typeName} of() {
-                        return new ${typeName}(null);
+                        return EMPTY;
                     }
                     
                     /**
@@ -35,7 +38,7 @@ public class LiteralFieldWithDatatypeRecordTemplate {
                      */
                     @JsonCreator
                     public static ${typeName} of(@JsonProperty("@value") String value) {
-                        return new ${typeName}(value);
+                        return value == null ? EMPTY : new ${typeName}(value);
                     }
                     
                     /**
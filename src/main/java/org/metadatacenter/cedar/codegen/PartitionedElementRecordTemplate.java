@@ -0,0 +1,311 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * This class represents a template for the record of an element that has too many children for one record.  The JVM
+ * limits methods, and therefore canonical record constructors, to 255 parameter slots, and method bodies to 64KB of
+ * bytecode.  The children of a partitioned element are split into part records that are nested in the element
+ * record and unwrapped into the JSON object of the element, so the JSON shape is the same as that of an ordinary
+ * element record.  The element record has an accessor for each child that delegates to its part, and its
+ * {@code of()}, {@code context()} and {@code getArtifacts()} methods are split into one helper per part.  Because
+ * Jackson cannot unwrap creator parameters, partitioned elements are deserialized through a generated builder.
+ */
+public class PartitionedElementRecordTemplate {
+
+    /**
+     * The maximum number of components of a generated record.  This leaves room below the JVM limit of 255
+     * parameter slots for the canonical constructor.
+     */
+    public static final int MAX_RECORD_COMPONENTS = 250;
+
+    private static final Pattern JSON_PROPERTY_PATTERN = Pattern.compile("@JsonProperty\\([^)]*\\)");
+
+    private static final String PARTITIONED_ELEMENT_DECL = """
+            @JsonDeserialize(builder = ${typeName}.Builder.class)
+            public static record ${typeName}(${componentDeclarations}) implements Element {
+
+                /**
+                 * Gets an empty ${typeName}.
+                 */
+                public static ${typeName} of() {
+                    return new ${typeName}(${emptyArguments});
+                }
+
+                /**
+                 * Returns the child artifacts as a flat stream.  Lists of children are flattened out.
+                 */
+                @JsonIgnore
+                public Stream<Artifact> getArtifacts() {
+                    return Stream.of(${partArtifacts}).flatMap(Function.identity());
+                }
+
+                /**
+                 * Gets the JSON-LD context for this element.  This is a fixed value and does not depend upon the
+                 * content of child elements/fields.
+                 */
+                @JsonProperty(value = "@context", access = JsonProperty.Access.READ_ONLY)
+                public Map<String, Object> context() {
+                    var contextMap = new LinkedHashMap<String, Object>();
+                    ${partContexts}
+                    ${rootContext}
+                    return contextMap;
+                }
+
+                ${accessors}
+
+                ${parts}
+
+                /**
+                 * Builds ${typeName} records.  This is used by Jackson to read ${typeName} records from JSON, because
+                 * the children of the record are unwrapped from its parts.
+                 */
+                @JsonPOJOBuilder(withPrefix = "")
+                @JsonIgnoreProperties({"@context"})
+                public static final class Builder {
+
+                    ${builderFields}
+
+                    ${builderSetters}
+
+                    public ${typeName} build() {
+                        return new ${typeName}(${buildArguments});
+                    }
+
+                    ${buildPartMethods}
+                }
+            }
+            """;
+
+    private static final String PART_DECL = """
+                /**
+                 * Children ${from} to ${to} of ${typeName}.
+                 */
+                public static record ${partTypeName}(${componentDeclarations}) {
+
+                    public static ${partTypeName} of() {
+                        return new ${partTypeName}(${emptyArguments});
+                    }
+
+                    @JsonIgnore
+                    public Stream<Artifact> getArtifacts() {
+                        return streamArtifacts(${componentNames});
+                    }
+
+                    private static void putContext(Map<String, Object> contextMap) {
+                        ${context}
+                    }
+                }
+
+            """;
+
+    private static final String ACCESSOR_DECL = """
+                public ${type} ${name}() {
+                    return ${partName}.${name}();
+                }
+
+            """;
+
+    private static final String BUILDER_SETTER_DECL = """
+                    ${jsonProperty}
+                    public Builder ${name}(${type} ${name}) {
+                        this.${name} = ${name};
+                        return this;
+                    }
+
+            """;
+
+    private static final String BUILDER_ATTRIBUTE_VALUE_SETTER_DECL = """
+                    @JsonAnySetter
+                    public Builder attributeValue(String key, LiteralFieldImpl value) {
+                        attributeValues.put(key, value);
+                        return this;
+                    }
+
+            """;
+
+    private static final String BUILD_PART_DECL = """
+                    private ${partTypeName} build${partTypeName}() {
+                        return new ${partTypeName}(${componentNames});
+                    }
+
+            """;
+
+    /**
+     * A child of a partitioned element.
+     *
+     * @param declaration      The declaration of the record component of the child, with its annotations.
+     * @param emptyArgument    The expression for the child of an empty element.
+     * @param contextStatement The statement that puts the property IRI of the child into the {@code contextMap}, or
+     *                         an empty string if the child does not have a property IRI.
+     */
+    public record Child(@Nonnull String declaration,
+                        @Nonnull String emptyArgument,
+                        @Nonnull String contextStatement) {
+
+    }
+
+    /**
+     * Determines whether an element record with the specified number of components must be partitioned.
+     */
+    public static boolean isPartitioned(int componentCount) {
+        return componentCount > MAX_RECORD_COMPONENTS;
+    }
+
+    /**
+     * Splits the statements about the children of an element into methods, one per part, the way that the children
+     * of a partitioned element record are split into parts.  Features that generate a method per element use this so
+     * that the methods for partitioned elements stay within the JVM limit on method size.  The statements are not
+     * split if the element has no more children than {@link #MAX_RECORD_COMPONENTS}.
+     *
+     * @param childStatements The statements about each child, in template order.
+     * @param methodSuffix    The suffix of the name of the method of the element.  The methods of the parts have
+     *                        this suffix followed by {@code Part} and the index of the part.
+     * @param partCall        Gets the statement that calls the method of a part from the suffix of its name.
+     * @param partMethod      Gets the declaration of the method of a part from the suffix of its name and its
+     *                        statements.
+     * @param partMethods     The declarations of the methods of the parts are appended to this.
+     * @return The statements of the method of the element, which are either the statements about the children or
+     * calls of the methods of the parts.
+     */
+    public static String splitIntoPartMethods(@Nonnull List<String> childStatements,
+                                              @Nonnull String methodSuffix,
+                                              @Nonnull Function<String, String> partCall,
+                                              @Nonnull BiFunction<String, String, String> partMethod,
+                                              @Nonnull StringBuilder partMethods) {
+        if (childStatements.size() <= MAX_RECORD_COMPONENTS) {
+            return String.join("", childStatements);
+        }
+        var statements = new StringBuilder();
+        for (int from = 0, partIndex = 0; from < childStatements.size(); from += MAX_RECORD_COMPONENTS, partIndex++) {
+            var partStatements = childStatements.subList(from, Math.min(from + MAX_RECORD_COMPONENTS, childStatements.size()));
+            var partMethodSuffix = methodSuffix + "Part" + partIndex;
+            statements.append(partCall.apply(partMethodSuffix));
+            partMethods.append(partMethod.apply(partMethodSuffix, String.join("", partStatements)));
+        }
+        return statements.toString();
+    }
+
+    /**
+     * Fills the template for a partitioned element record.
+     *
+     * @param typeName                   The name of the element record.
+     * @param headDeclarations           The declarations of the components that come before the children, which
+     *                                   are the id and the extra components of the root record.
+     * @param headEmptyArguments         The expressions for the head components of an empty element.
+     * @param children                   The children of the element, in template order.
+     * @param attributeValuesDeclaration The declaration of the attribute values component, or {@code null} if the
+     *                                   element does not have attribute values.
+     * @param rootContextStatements      The statements that put the root entries into the {@code contextMap}.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull String typeName,
+                               @Nonnull List<String> headDeclarations,
+                               @Nonnull List<String> headEmptyArguments,
+                               @Nonnull List<Child> children,
+                               @Nullable String attributeValuesDeclaration,
+                               @Nonnull String rootContextStatements) {
+        Objects.requireNonNull(typeName);
+        Objects.requireNonNull(headDeclarations);
+        Objects.requireNonNull(headEmptyArguments);
+        Objects.requireNonNull(children);
+        Objects.requireNonNull(rootContextStatements);
+        var componentDeclarations = new ArrayList<>(headDeclarations);
+        var emptyArguments = new ArrayList<>(headEmptyArguments);
+        var buildArguments = new ArrayList<String>();
+        var builderFields = new StringBuilder();
+        var builderSetters = new StringBuilder();
+        for (var declaration : headDeclarations) {
+            var component = toTypeAndName(declaration);
+            buildArguments.add(component[1]);
+            appendBuilderMember(declaration, component, builderFields, builderSetters);
+        }
+        var partArtifacts = new ArrayList<String>();
+        var partContexts = new StringBuilder();
+        var accessors = new StringBuilder();
+        var parts = new StringBuilder();
+        var buildPartMethods = new StringBuilder();
+        for (int from = 0, partIndex = 0; from < children.size(); from += MAX_RECORD_COMPONENTS, partIndex++) {
+            var partChildren = children.subList(from, Math.min(from + MAX_RECORD_COMPONENTS, children.size()));
+            var partTypeName = typeName + "Part" + partIndex;
+            var partName = "part" + partIndex;
+            var partComponentNames = new ArrayList<String>();
+            var partContext = new StringBuilder();
+            for (var child : partChildren) {
+                var component = toTypeAndName(child.declaration());
+                partComponentNames.add(component[1]);
+                partContext.append(child.contextStatement());
+                accessors.append(ACCESSOR_DECL.replace("${type}", component[0])
+                                              .replace("${name}", component[1])
+                                              .replace("${partName}", partName));
+                appendBuilderMember(child.declaration(), component, builderFields, builderSetters);
+            }
+            var componentNames = String.join(", ", partComponentNames);
+            parts.append(PART_DECL.replace("${from}", String.valueOf(from))
+                                  .replace("${to}", String.valueOf(from + partChildren.size() - 1))
+                                  .replace("${typeName}", typeName)
+                                  .replace("${partTypeName}", partTypeName)
+                                  .replace("${componentDeclarations}", partChildren.stream()
+                                                                                   .map(Child::declaration)
+                                                                                   .collect(Collectors.joining(",\n")))
+                                  .replace("${emptyArguments}", partChildren.stream()
+                                                                            .map(Child::emptyArgument)
+                                                                            .collect(Collectors.joining(",\n")))
+                                  .replace("${componentNames}", componentNames)
+                                  .replace("${context}", partContext));
+            buildPartMethods.append(BUILD_PART_DECL.replace("${partTypeName}", partTypeName)
+                                                   .replace("${componentNames}", componentNames));
+            componentDeclarations.add("@JsonUnwrapped " + partTypeName + " " + partName);
+            emptyArguments.add(partTypeName + ".of()");
+            buildArguments.add("build" + partTypeName + "()");
+            partArtifacts.add(partName + ".getArtifacts()");
+            partContexts.append(partTypeName).append(".putContext(contextMap);\n");
+        }
+        if (attributeValuesDeclaration != null) {
+            componentDeclarations.add(attributeValuesDeclaration);
+            emptyArguments.add("new AttributeValues()");
+            buildArguments.add("attributeValues");
+            builderFields.append("private final AttributeValues attributeValues = new AttributeValues();\n");
+            builderSetters.append(BUILDER_ATTRIBUTE_VALUE_SETTER_DECL);
+        }
+        return PARTITIONED_ELEMENT_DECL.replace("${typeName}", typeName)
+                                       .replace("${componentDeclarations}", String.join(",\n", componentDeclarations))
+                                       .replace("${emptyArguments}", String.join(",\n", emptyArguments))
+                                       .replace("${partArtifacts}", String.join(", ", partArtifacts))
+                                       .replace("${partContexts}", partContexts)
+                                       .replace("${rootContext}", rootContextStatements)
+                                       .replace("${accessors}", accessors)
+                                       .replace("${parts}", parts)
+                                       .replace("${builderFields}", builderFields)
+                                       .replace("${builderSetters}", builderSetters)
+                                       .replace("${buildArguments}", String.join(",\n", buildArguments))
+                                       .replace("${buildPartMethods}", buildPartMethods);
+    }
+
+    private static void appendBuilderMember(String declaration,
+                                            String[] component,
+                                            StringBuilder builderFields,
+                                            StringBuilder builderSetters) {
+        var jsonProperty = JSON_PROPERTY_PATTERN.matcher(declaration);
+        builderFields.append("private ").append(component[0]).append(" ").append(component[1]).append(";\n");
+        builderSetters.append(BUILDER_SETTER_DECL.replace("${jsonProperty}", jsonProperty.find() ? jsonProperty.group() : "")
+                                                 .replace("${type}", component[0])
+                                                 .replace("${name}", component[1]));
+    }
+
+    /**
+     * Gets the type and the name of a component from its declaration.
+     */
+    private static String[] toTypeAndName(String declaration) {
+        var tokens = declaration.strip().split("\\s+");
+        return new String[]{tokens[tokens.length - 2], tokens[tokens.length - 1]};
+    }
+}
@@ -0,0 +1,268 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class represents a template for generating a projection reader.  A projection reader extracts the values
+ * at a handful of field paths from serialized instances.  It walks the JSON token stream against a trie of the
+ * selected paths and skips every other subtree without building any objects.
+ */
+public class ProjectionReaderTemplate {
+
+    /**
+     * The maximum number of known path entries that are added by one method of the generated code.
+     */
+    public static final int KNOWN_PATHS_CHUNK_SIZE = 256;
+
+    private static final String PROJECTION_DECL = """
+            /**
+             * Extracts the values at selected field paths from serialized instances without deserializing them.
+             * Paths are built from {@link FieldNames} constants and may end with a JSON-LD key such as
+             * {@code "@value"}, {@code "@id"} or {@code "rdfs:label"}.  If the key is omitted then {@code "@value"}
+             * is used for literal fields and {@code "@id"} is used for IRI fields and elements.
+             * <p>
+             * Projections are immutable and may be shared between threads.
+             */
+            public static final class Projection {
+
+                /**
+                 * The paths of all artifacts in the template, mapped to the JSON-LD keys that may terminate a path to
+                 * that artifact.  The first key is the default.
+                 */
+                private static final Map<List<String>, List<String>> KNOWN_PATHS = knownPaths();
+
+                private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+                private final List<List<String>> paths;
+
+                private final PathNode root;
+
+                private Projection(List<List<String>> paths) {
+                    this.paths = paths;
+                    this.root = new PathNode();
+                    for (int column = 0; column < paths.size(); column++) {
+                        var node = root;
+                        for (var key : paths.get(column)) {
+                            node = node.children.computeIfAbsent(key, k -> new PathNode());
+                        }
+                        node.columns = Arrays.copyOf(node.columns, node.columns.length + 1);
+                        node.columns[node.columns.length - 1] = column;
+                    }
+                }
+
+                /**
+                 * Builds the known paths table.  The entries are added in chunks by separate methods so that no
+                 * method exceeds the size limit of the class file format, whatever the size of the template.
+                 */
+                @SuppressWarnings("unchecked")
+                private static Map<List<String>, List<String>> knownPaths() {
+                    var entries = new ArrayList<Map.Entry<List<String>, List<String>>>();
+                    ${knownPathChunkCalls}
+                    return Map.ofEntries(entries.toArray(Map.Entry[]::new));
+                }
+                ${knownPathChunks}
+
+                /**
+                 * Creates a path from the specified keys.
+                 * @param keys The keys.  These should be {@link FieldNames} constants, optionally followed by a
+                 *             JSON-LD key.
+                 */
+                public static List<String> path(String ... keys) {
+                    return List.of(keys);
+                }
+
+                /**
+                 * Creates a projection of the specified paths.  The value at the i-th path is stored in column i of
+                 * the tuples that are produced by this projection.
+                 * @throws IllegalArgumentException if any of the paths does not exist in the template.
+                 */
+                @SafeVarargs
+                public static Projection of(List<String> ... paths) {
+                    return of(Arrays.asList(paths));
+                }
+
+                /**
+                 * Creates a projection of the specified paths.  The value at the i-th path is stored in column i of
+                 * the tuples that are produced by this projection.
+                 * @throws IllegalArgumentException if any of the paths does not exist in the template.
+                 */
+                public static Projection of(List<List<String>> paths) {
+                    return new Projection(paths.stream().map(Projection::resolve).toList());
+                }
+
+                private static List<String> resolve(List<String> path) {
+                    var terminals = KNOWN_PATHS.get(path);
+                    if (terminals != null) {
+                        var resolved = new ArrayList<>(path);
+                        resolved.add(terminals.get(0));
+                        return List.copyOf(resolved);
+                    }
+                    if (!path.isEmpty()) {
+                        var parentTerminals = KNOWN_PATHS.get(path.subList(0, path.size() - 1));
+                        if (parentTerminals != null && parentTerminals.contains(path.get(path.size() - 1))) {
+                            return List.copyOf(path);
+                        }
+                    }
+                    throw new IllegalArgumentException("Unknown path: " + path);
+                }
+
+                /**
+                 * Gets the resolved paths of this projection, in column order.
+                 */
+                public List<List<String>> paths() {
+                    return paths;
+                }
+
+                /**
+                 * Reads the next instance from the parser, which must be positioned before or at the start of the
+                 * instance object, and reports every value that is found at a projected path.  Values at list
+                 * valued paths are reported once per list item.
+                 */
+                public void read(JsonParser parser, ValueHandler handler) throws IOException {
+                    var token = parser.currentToken();
+                    if (token == null || token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                        token = parser.nextToken();
+                    }
+                    if (token != JsonToken.START_OBJECT) {
+                        throw new JsonParseException(parser, "Expected an instance object");
+                    }
+                    readObject(parser, root, handler);
+                }
+
+                /**
+                 * Reads the next instance from the parser into a tuple.  The tuple contains the first value found
+                 * at each projected path, or {@code null} if there is no value at the path.
+                 */
+                public String[] readTuple(JsonParser parser) throws IOException {
+                    var tuple = new String[paths.size()];
+                    read(parser, (column, value) -> {
+                        if (tuple[column] == null) {
+                            tuple[column] = value;
+                        }
+                    });
+                    return tuple;
+                }
+
+                /**
+                 * Reads all of the instances in the specified input and passes a tuple for each instance to the
+                 * consumer.  The input may be a JSON array of instances or a sequence of instances, such as
+                 * newline delimited JSON.
+                 */
+                public void readTuples(InputStream in, Consumer<String[]> consumer) throws IOException {
+                    try (var parser = JSON_FACTORY.createParser(in)) {
+                        var token = parser.nextToken();
+                        var inArray = token == JsonToken.START_ARRAY;
+                        if (inArray) {
+                            token = parser.nextToken();
+                        }
+                        while (token == JsonToken.START_OBJECT) {
+                            consumer.accept(readTuple(parser));
+                            token = parser.nextToken();
+                        }
+                        if (token != null && !(inArray && token == JsonToken.END_ARRAY)) {
+                            throw new JsonParseException(parser, "Expected an instance object");
+                        }
+                    }
+                }
+
+                private static void readObject(JsonParser parser, PathNode node, ValueHandler handler) throws IOException {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        var child = node.children.get(parser.getCurrentName());
+                        parser.nextToken();
+                        if (child == null) {
+                            parser.skipChildren();
+                        }
+                        else {
+                            readValue(parser, child, handler);
+                        }
+                    }
+                }
+
+                private static void readValue(JsonParser parser, PathNode node, ValueHandler handler) throws IOException {
+                    var token = parser.currentToken();
+                    if (token == JsonToken.START_OBJECT) {
+                        readObject(parser, node, handler);
+                    }
+                    else if (token == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            readValue(parser, node, handler);
+                        }
+                    }
+                    else if (token != JsonToken.VALUE_NULL) {
+                        for (var column : node.columns) {
+                            handler.value(column, parser.getValueAsString());
+                        }
+                    }
+                }
+
+                /**
+                 * Receives the values that are found at projected paths.
+                 */
+                @FunctionalInterface
+                public interface ValueHandler {
+
+                    /**
+                     * Called for each value that is found at a projected path.
+                     * @param column The column of the path in the projection.
+                     * @param value The lexical value.
+                     */
+                    void value(int column, String value);
+                }
+
+                private static final class PathNode {
+
+                    private final Map<String, PathNode> children = new HashMap<>();
+
+                    /**
+                     * The columns of the paths that end at this node.  A path may be projected more than once.
+                     */
+                    private int[] columns = new int[0];
+                }
+            }
+            """;
+
+    private static final String KNOWN_PATHS_CHUNK_DECL = """
+            private static void addKnownPaths${chunkIndex}(List<Map.Entry<List<String>, List<String>>> entries) {
+                ${entryStatements}
+            }
+            """;
+
+    private static final String KNOWN_PATH_ENTRY = "entries.add(Map.entry(List.of(${path}), List.of(${terminals})));";
+
+    /**
+     * Fills an entry of the known paths table.
+     *
+     * @param path      The comma separated {@code FieldNames} constants that make up the path.
+     * @param terminals The comma separated, quoted, JSON-LD keys that may terminate the path.  The first key is the
+     *                  default.
+     * @return The filled entry as a string.
+     */
+    public String fillKnownPathEntry(@Nonnull String path, @Nonnull String terminals) {
+        Objects.requireNonNull(path);
+        Objects.requireNonNull(terminals);
+        return KNOWN_PATH_ENTRY.replace("${path}", path)
+                               .replace("${terminals}", terminals);
+    }
+
+    /**
+     * Fills the template for the projection class.
+     *
+     * @param knownPathEntries The filled entries of the known paths table.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull List<String> knownPathEntries) {
+        Objects.requireNonNull(knownPathEntries);
+        var chunkCalls = new StringBuilder();
+        var chunks = new StringBuilder();
+        for (int from = 0, chunkIndex = 0; from < knownPathEntries.size(); from += KNOWN_PATHS_CHUNK_SIZE, chunkIndex++) {
+            var chunkEntries = knownPathEntries.subList(from, Math.min(from + KNOWN_PATHS_CHUNK_SIZE, knownPathEntries.size()));
+            chunkCalls.append("addKnownPaths").append(chunkIndex).append("(entries);\n");
+            chunks.append(KNOWN_PATHS_CHUNK_DECL.replace("${chunkIndex}", String.valueOf(chunkIndex))
+                                                .replace("${entryStatements}", String.join("\n", chunkEntries)));
+        }
+        return PROJECTION_DECL.replace("${knownPathChunkCalls}", chunkCalls)
+                              .replace("${knownPathChunks}", chunks);
+    }
+}
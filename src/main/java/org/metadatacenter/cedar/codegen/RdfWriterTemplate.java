@@ -0,0 +1,352 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+/**
+ * This class represents a template for generating a writer that streams instances as RDF N-Triples or N-Quads.  The
+ * writer produces the triples that JSON-LD expansion of the JSON form of an instance produces, by walking the
+ * instance with generated methods in which the property IRIs and datatypes of the template are constants.
+ */
+public class RdfWriterTemplate {
+
+    private static final String RDF_WRITER_DECL = """
+            /**
+             * Writes {@link ${rootType}} instances as RDF, in N-Triples or, if a graph is specified, N-Quads.  The
+             * triples are those of the JSON-LD form of the instances.  Elements and the values of IRI fields are
+             * named by their ids, and are blank nodes if they do not have ids.  Fields are written with the property IRIs of the
+             * template as predicates, with literal values typed by their datatypes, and with IRI values as IRIs.
+             * Attribute value fields and fields without property IRIs are not written.  Blank node labels are unique
+             * for a writer.
+             * <p>
+             * Output is buffered by the writer and is passed to the underlying {@link Writer} in blocks.  Use
+             * {@link java.nio.channels.Channels#newWriter} to write to a channel.  Writers are not thread safe.
+             */
+            public static final class RdfWriter {
+
+                private static final int BUFFER_SIZE = 8192;
+
+                private static final String XSD = "http://www.w3.org/2001/XMLSchema#";
+
+                private static final String RDFS_LABEL = "<http://www.w3.org/2000/01/rdf-schema#label>";
+
+                private static final String XSD_DATE_TIME = "<" + XSD + "dateTime>";
+
+                private final Writer out;
+
+                private final String graph;
+
+                private final StringBuilder buffer = new StringBuilder(2 * BUFFER_SIZE);
+
+                private long blankNodeCount = 0;
+
+                private long tripleCount = 0;
+
+                private RdfWriter(Writer out, String graph) {
+                    this.out = Objects.requireNonNull(out);
+                    this.graph = graph;
+                }
+
+                /**
+                 * Gets a writer that writes N-Triples to the specified writer.
+                 */
+                public static RdfWriter of(@Nonnull Writer out) {
+                    return new RdfWriter(out, null);
+                }
+
+                /**
+                 * Gets a writer that writes N-Quads to the specified writer, with all triples in the specified graph.
+                 */
+                public static RdfWriter of(@Nonnull Writer out, @Nonnull String graphIri) {
+                    return new RdfWriter(out, iri(graphIri));
+                }
+
+                /**
+                 * Writes the triples of the specified instance.
+                 */
+                public void write(@Nonnull ${rootType} instance) throws IOException {
+                    var subject = subject(instance.id());
+                    ${rootStatements}
+                    write${rootMethodSuffix}(instance, subject);
+                    if (buffer.length() >= BUFFER_SIZE) {
+                        out.write(buffer.toString());
+                        buffer.setLength(0);
+                    }
+                }
+
+                public void writeAll(@Nonnull Iterator<? extends ${rootType}> instances) throws IOException {
+                    while (instances.hasNext()) {
+                        write(instances.next());
+                    }
+                }
+
+                public void writeAll(@Nonnull Iterable<? extends ${rootType}> instances) throws IOException {
+                    writeAll(instances.iterator());
+                }
+
+                /**
+                 * Passes buffered output to the underlying writer and flushes it.  The underlying writer is not
+                 * closed.
+                 */
+                public void flush() throws IOException {
+                    out.write(buffer.toString());
+                    buffer.setLength(0);
+                    out.flush();
+                }
+
+                /**
+                 * Gets the number of triples that this writer has written.
+                 */
+                public long tripleCount() {
+                    return tripleCount;
+                }
+
+                ${methods}
+
+                private String subject(String id) {
+                    return id != null ? iri(id) : "_:b" + blankNodeCount++;
+                }
+
+                private void iriValue(String subject, String predicate, String id, String label) {
+                    var object = subject(id);
+                    triple(subject, predicate, object);
+                    if (label != null) {
+                        literal(object, RDFS_LABEL, label, null);
+                    }
+                }
+
+                private void literal(String subject, String predicate, String value, String datatype) {
+                    buffer.append(subject).append(' ').append(predicate).append(" \\"");
+                    for (int i = 0; i < value.length(); i++) {
+                        var c = value.charAt(i);
+                        if (c == '"') {
+                            buffer.append("\\\\\\"");
+                        }
+                        else if (c == '\\\\') {
+                            buffer.append("\\\\\\\\");
+                        }
+                        else if (c == '\\n') {
+                            buffer.append("\\\\n");
+                        }
+                        else if (c == '\\r') {
+                            buffer.append("\\\\r");
+                        }
+                        else {
+                            buffer.append(c);
+                        }
+                    }
+                    buffer.append('"');
+                    if (datatype != null) {
+                        buffer.append("^^").append(datatype);
+                    }
+                    endTriple();
+                }
+
+                private void triple(String subject, String predicate, String object) {
+                    buffer.append(subject).append(' ').append(predicate).append(' ').append(object);
+                    endTriple();
+                }
+
+                private void endTriple() {
+                    if (graph != null) {
+                        buffer.append(' ').append(graph);
+                    }
+                    buffer.append(" .\\n");
+                    tripleCount++;
+                }
+
+                /**
+                 * Writes an IRI in angle brackets.  Characters that may not appear in IRIs in N-Triples are written
+                 * as numeric escapes.
+                 */
+                private static String iri(String value) {
+                    var sb = new StringBuilder(value.length() + 2).append('<');
+                    for (int i = 0; i < value.length(); i++) {
+                        var c = value.charAt(i);
+                        if (c <= ' ' || c == '<' || c == '>' || c == '"' || c == '{' || c == '}' || c == '|'
+                                || c == '^' || c == '`' || c == '\\\\') {
+                            sb.append(String.format("\\\\u%04X", (int) c));
+                        }
+                        else {
+                            sb.append(c);
+                        }
+                    }
+                    return sb.append('>').toString();
+                }
+            }
+            """;
+
+    private static final String WRITE_ELEMENT_METHOD_DECL = """
+                private void write${methodSuffix}(${typeName} v, String s) {
+                    ${statements}
+                }
+
+            """;
+
+    private static final String XSD_PREFIX = "xsd:";
+
+    private static final String XSD_NAMESPACE = "http://www.w3.org/2001/XMLSchema#";
+
+    /**
+     * The terms of the context of the root record, other than those of its child nodes.
+     */
+    private static final Map<String, String> ROOT_TERMS = Map.of("schema", "http://schema.org/",
+                                                                 "xsd", XSD_NAMESPACE,
+                                                                 "skos", "http://www.w3.org/2004/02/skos/core#",
+                                                                 "rdfs", "http://www.w3.org/2000/01/rdf-schema#",
+                                                                 "pav", "http://purl.org/pav/",
+                                                                 "oslc", "http://open-services.net/ns/core#");
+
+    /**
+     * The predicates of the extra components of the root record, by component name.  The values of components whose
+     * predicates are in {@link #IRI_ROOT_COMPONENTS} are IRIs.
+     */
+    private static final Map<String, String> ROOT_COMPONENT_PREDICATES = Map.of("schemaName", "http://schema.org/name",
+                                                                                "schemaDescription", "http://schema.org/description",
+                                                                                "isBasedOn", "http://schema.org/isBasedOn",
+                                                                                "pavCreatedOn", "http://purl.org/pav/createdOn",
+                                                                                "pavCreatedBy", "http://purl.org/pav/createdBy",
+                                                                                "pavLastUpdatedOn", "http://purl.org/pav/lastUpdatedOn",
+                                                                                "oslcModifiedBy", "http://open-services.net/ns/core#modifiedBy",
+                                                                                "pavDerivedFrom", "http://purl.org/pav/derivedFrom");
+
+    private static final List<String> IRI_ROOT_COMPONENTS = List.of("isBasedOn", "pavCreatedBy", "oslcModifiedBy", "pavDerivedFrom");
+
+    /**
+     * Fills the template for the RDF writer of the specified root node.
+     *
+     * @param rootNode           The generated root node of the template.
+     * @param rootNodeComponents The types and names of the extra components of the root record, in order.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull GeneratedArtifactNode rootNode,
+                               @Nonnull List<Map.Entry<String, String>> rootNodeComponents) {
+        Objects.requireNonNull(rootNode);
+        Objects.requireNonNull(rootNodeComponents);
+        var rootStatements = new StringBuilder();
+        rootNodeComponents.forEach(component -> {
+            var predicate = ROOT_COMPONENT_PREDICATES.get(component.getValue());
+            if (predicate == null) {
+                return;
+            }
+            var accessor = "instance." + component.getValue() + "()";
+            rootStatements.append("if (").append(accessor).append(" != null) {\n");
+            if (IRI_ROOT_COMPONENTS.contains(component.getValue())) {
+                rootStatements.append("triple(subject, \"").append(escapeJava(toIri(predicate))).append("\", iri(").append(accessor).append("));\n");
+            }
+            else {
+                var datatype = component.getKey().equals("Instant") ? "XSD_DATE_TIME" : "null";
+                rootStatements.append("literal(subject, \"").append(escapeJava(toIri(predicate))).append("\", ")
+                              .append(accessor).append(".toString(), ").append(datatype).append(");\n");
+            }
+            rootStatements.append("}\n");
+        });
+        var methods = new LinkedHashMap<String, String>();
+        collectElementMethods(rootNode, new HashMap<>(ROOT_TERMS), methods);
+        return RDF_WRITER_DECL.replace("${rootType}", rootNode.qualifiedTypeName())
+                              .replace("${rootMethodSuffix}", rootNode.methodSuffix())
+                              .replace("${rootStatements}", rootStatements)
+                              .replace("${methods}", String.join("", methods.values()));
+    }
+
+    /**
+     * Collects the write methods of an element and of its descendant elements.
+     *
+     * @param node           The element node.
+     * @param inheritedTerms The terms that are defined by the contexts of the enclosing records.  The context of an
+     *                       element adds the property IRIs of its child nodes to these.
+     * @param methods        The methods, by element record type.
+     */
+    private static void collectElementMethods(GeneratedArtifactNode node,
+                                              Map<String, String> inheritedTerms,
+                                              Map<String, String> methods) {
+        var terms = new HashMap<>(inheritedTerms);
+        node.childNodes().forEach(childNode -> childNode.node()
+                                                        .getPropertyIri()
+                                                        .ifPresent(propertyIri -> terms.put(childNode.node().name(), propertyIri)));
+        var statements = new ArrayList<String>();
+        var childNodes = node.childNodes();
+        for (int i = 0; i < childNodes.size(); i++) {
+            var childNode = childNodes.get(i);
+            var propertyIri = terms.get(childNode.node().name());
+            if (childNode.node().isAttributeValueField() || propertyIri == null) {
+                continue;
+            }
+            var predicate = "\"" + escapeJava(toIri(propertyIri)) + "\"";
+            var item = "c" + i;
+            final String itemStatement;
+            if (childNode.isElement()) {
+                collectElementMethods(childNode, terms, methods);
+                itemStatement = "var o" + i + " = subject(" + item + ".id());\n"
+                        + "triple(s, " + predicate + ", o" + i + ");\n"
+                        + "write" + childNode.methodSuffix() + "(" + item + ", o" + i + ");\n";
+            }
+            else if (childNode.isIriField()) {
+                var label = childNode.isIriFieldWithLabel() ? item + ".label()" : "null";
+                itemStatement = "iriValue(s, " + predicate + ", " + item + ".id(), " + label + ");\n";
+            }
+            else {
+                var datatype = childNode.node()
+                                        .getXsdDatatype()
+                                        .filter(d -> !d.equals("xsd:string"))
+                                        .map(d -> "\"" + escapeJava(toIri(d.startsWith(XSD_PREFIX) ? XSD_NAMESPACE + d.substring(XSD_PREFIX.length()) : d)) + "\"")
+                                        .orElse("null");
+                itemStatement = "if (" + item + ".value() != null) {\n"
+                        + "literal(s, " + predicate + ", " + item + ".value(), " + datatype + ");\n"
+                        + "}\n";
+            }
+            if (childNode.node().isListType()) {
+                statements.add("var l" + i + " = v." + childNode.paramName() + "();\n"
+                                       + "if (l" + i + " != null) {\n"
+                                       + "for (var " + item + " : l" + i + "." + childNode.listParamName() + "()) {\n"
+                                       + "if (" + item + " != null) {\n"
+                                       + itemStatement
+                                       + "}\n}\n}\n");
+            }
+            else {
+                statements.add("var " + item + " = v." + childNode.paramName() + "();\n"
+                                       + "if (" + item + " != null) {\n"
+                                       + itemStatement
+                                       + "}\n");
+            }
+        }
+        BiFunction<String, String, String> method = (suffix, body) ->
+                WRITE_ELEMENT_METHOD_DECL.replace("${methodSuffix}", suffix)
+                                         .replace("${typeName}", node.qualifiedTypeName())
+                                         .replace("${statements}", body);
+        var partMethods = new StringBuilder();
+        var body = PartitionedElementRecordTemplate.splitIntoPartMethods(statements,
+                                                                         node.methodSuffix(),
+                                                                         suffix -> "write" + suffix + "(v, s);\n",
+                                                                         method,
+                                                                         partMethods);
+        methods.put(node.qualifiedTypeName(), method.apply(node.methodSuffix(), body) + partMethods);
+    }
+
+    /**
+     * Gets the N-Triples form of an IRI, in angle brackets.
+     */
+    static String toIri(String value) {
+        var sb = new StringBuilder(value.length() + 2).append('<');
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c <= ' ' || "<>\"{}|^`\\".indexOf(c) != -1) {
+                sb.append(String.format("\\u%04X", (int) c));
+            }
+            else {
+                sb.append(c);
+            }
+        }
+        return sb.append('>').toString();
+    }
+
+    private static String escapeJava(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,376 @@
+package org.metadatacenter.cedar.codegen;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+
+/**
+ * Reads CEDAR template JSON with a streaming parser and builds the {@link CodeGenerationNode} tree of the template
+ * in one pass, without building a {@code TemplateSchemaArtifact}.  Only the parts of the JSON schemas of the template,
+ * its elements and its fields that the {@link TemplateTranslator} uses are kept: ids, names, descriptions, input
+ * types, value constraints, cardinalities, child order and property IRIs.  Everything else is skipped by the parser.
+ * The nodes are the same as the nodes that the {@link TemplateTranslator} builds from the schema artifact of the
+ * template.
+ */
+public class StreamingTemplateReader {
+
+    private static final String TEMPLATE_ELEMENT_TYPE = "https://schema.metadatacenter.org/core/TemplateElement";
+
+    private static final String TEMPLATE_FIELD_TYPE = "https://schema.metadatacenter.org/core/TemplateField";
+
+    private static final String STATIC_TEMPLATE_FIELD_TYPE = "https://schema.metadatacenter.org/core/StaticTemplateField";
+
+    private final JsonFactory jsonFactory;
+
+    private final String templateClassName;
+
+    public StreamingTemplateReader(@Nonnull JsonFactory jsonFactory, @Nonnull String templateClassName) {
+        this.jsonFactory = Objects.requireNonNull(jsonFactory);
+        this.templateClassName = Objects.requireNonNull(templateClassName);
+    }
+
+    /**
+     * Reads the template JSON from the specified stream and translates it to a tree of code generation nodes.  The
+     * stream is not closed.
+     */
+    @Nonnull
+    public CodeGenerationNode readTemplate(@Nonnull InputStream inputStream) throws IOException {
+        try (var parser = jsonFactory.createParser(inputStream)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return readTemplate(parser);
+        }
+    }
+
+    /**
+     * Reads the template JSON object at the current token of the specified parser and translates it to a tree of
+     * code generation nodes.
+     */
+    @Nonnull
+    public CodeGenerationNode readTemplate(@Nonnull JsonParser parser) throws IOException {
+        if (parser.currentToken() == null) {
+            parser.nextToken();
+        }
+        var schema = readSchema(parser);
+        return CodeGenerationNode.get(schema.id,
+                                      true,
+                                      templateClassName,
+                                      toChildNodes(schema, parser),
+                                      ArtifactType.TEMPLATE,
+                                      schema.description,
+                                      null,
+                                      Required.OPTIONAL,
+                                      null,
+                                      null,
+                                      null);
+    }
+
+    private List<CodeGenerationNode> toChildNodes(Schema schema, JsonParser parser) throws IOException {
+        var childNodes = new ArrayList<CodeGenerationNode>();
+        for (var key : schema.order) {
+            var childSchema = schema.properties.get(key);
+            if (childSchema != null) {
+                childNodes.add(toChildNode(childSchema, schema.propertyIris.get(key), parser));
+            }
+        }
+        return childNodes;
+    }
+
+    private CodeGenerationNode toChildNode(Schema schema, @Nullable String propertyIri, JsonParser parser) throws IOException {
+        var multiple = "array".equals(schema.type) && schema.items != null;
+        var artifactSchema = multiple ? schema.items : schema;
+        var cardinality = multiple ? new Cardinality(schema.minItems, schema.maxItems) : Cardinality.getZeroOrOne();
+        if (TEMPLATE_ELEMENT_TYPE.equals(artifactSchema.atType)) {
+            return CodeGenerationNode.get(artifactSchema.id,
+                                          false,
+                                          artifactSchema.name,
+                                          toChildNodes(artifactSchema, parser),
+                                          ArtifactType.ELEMENT,
+                                          artifactSchema.description,
+                                          null,
+                                          Required.OPTIONAL,
+                                          cardinality,
+                                          propertyIri,
+                                          null);
+        }
+        if (TEMPLATE_FIELD_TYPE.equals(artifactSchema.atType) || STATIC_TEMPLATE_FIELD_TYPE.equals(artifactSchema.atType)) {
+            var inputType = toFieldInputType(artifactSchema.inputType, parser);
+            return CodeGenerationNode.get(artifactSchema.id,
+                                          false,
+                                          artifactSchema.name,
+                                          List.of(),
+                                          artifactSchema.controlledTerms || inputType == FieldInputType.LINK ? ArtifactType.IRI_FIELD : ArtifactType.LITERAL_FIELD,
+                                          artifactSchema.description,
+                                          artifactSchema.numberType != null ? artifactSchema.numberType : artifactSchema.temporalType,
+                                          artifactSchema.requiredValue ? Required.REQUIRED : Required.OPTIONAL,
+                                          cardinality,
+                                          propertyIri,
+                                          inputType,
+                                          isTextValueConstraint(artifactSchema, inputType) ? List.copyOf(artifactSchema.literals) : List.of());
+        }
+        throw new JsonParseException(parser, "Unknown artifact type of child " + artifactSchema.name + ": " + artifactSchema.atType);
+    }
+
+    /**
+     * Determines whether the value constraints of the specified field schema are read as text value constraints, which
+     * are the only value constraints whose literals the {@link TemplateTranslator} keeps.  Static fields have no value
+     * constraints, numeric and temporal fields have their own, and fields with ontologies, value sets, classes or
+     * branches have controlled term value constraints.
+     */
+    private static boolean isTextValueConstraint(Schema schema, @Nullable FieldInputType inputType) {
+        return TEMPLATE_FIELD_TYPE.equals(schema.atType)
+                && inputType != FieldInputType.NUMERIC
+                && inputType != FieldInputType.TEMPORAL
+                && !schema.controlledTerms;
+    }
+
+    @Nullable
+    private static FieldInputType toFieldInputType(@Nullable String inputType, JsonParser parser) throws IOException {
+        if (inputType == null) {
+            return null;
+        }
+        try {
+            return FieldInputType.valueOf(inputType.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(parser, "Unknown input type: " + inputType);
+        }
+    }
+
+    /**
+     * Reads the JSON schema at the current token, which must be the start of an object, and leaves the parser at the
+     * end of the object.
+     */
+    private Schema readSchema(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT);
+        var schema = new Schema();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var fieldName = parser.currentName();
+            var token = parser.nextToken();
+            switch (fieldName) {
+                case "@id" -> schema.id = readString(parser);
+                case "@type" -> schema.atType = readString(parser);
+                case "type" -> schema.type = readString(parser);
+                case "schema:name" -> schema.name = readString(parser);
+                case "schema:description" -> schema.description = readString(parser);
+                case "minItems" -> schema.minItems = token.isNumeric() ? parser.getIntValue() : 0;
+                case "maxItems" -> schema.maxItems = token.isNumeric() ? parser.getIntValue() : Integer.MAX_VALUE;
+                case "items" -> {
+                    if (token == JsonToken.START_OBJECT) {
+                        schema.items = readSchema(parser);
+                    }
+                    else {
+                        parser.skipChildren();
+                    }
+                }
+                case "properties" -> readProperties(parser, schema);
+                case "_ui" -> readUi(parser, schema);
+                case "_valueConstraints" -> readValueConstraints(parser, schema);
+                default -> parser.skipChildren();
+            }
+        }
+        return schema;
+    }
+
+    private void readProperties(JsonParser parser, Schema schema) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var key = parser.currentName();
+            var token = parser.nextToken();
+            if (key.equals("@context") && token == JsonToken.START_OBJECT) {
+                readContextPropertyIris(parser, schema.propertyIris);
+            }
+            else if (token == JsonToken.START_OBJECT && !key.startsWith("@")) {
+                schema.properties.put(key, readSchema(parser));
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Reads the property IRIs of the children from the JSON schema of the {@code @context} property, which maps the
+     * name of each child to an enumeration of its property IRI.
+     */
+    private static void readContextPropertyIris(JsonParser parser, Map<String, String> propertyIris) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var fieldName = parser.currentName();
+            var token = parser.nextToken();
+            if (!fieldName.equals("properties") || token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var key = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    var propertyFieldName = parser.currentName();
+                    if (parser.nextToken() == JsonToken.START_ARRAY && propertyFieldName.equals("enum")) {
+                        if (parser.nextToken() == JsonToken.VALUE_STRING) {
+                            propertyIris.put(key, parser.getText());
+                        }
+                        while (parser.currentToken() != JsonToken.END_ARRAY) {
+                            parser.skipChildren();
+                            parser.nextToken();
+                        }
+                    }
+                    else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+    }
+
+    private static void readUi(JsonParser parser, Schema schema) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var fieldName = parser.currentName();
+            var token = parser.nextToken();
+            if (fieldName.equals("inputType")) {
+                schema.inputType = readString(parser);
+            }
+            else if (fieldName.equals("order") && token == JsonToken.START_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken() == JsonToken.VALUE_STRING) {
+                        schema.order.add(parser.getText());
+                    }
+                    else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+            else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readValueConstraints(JsonParser parser, Schema schema) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var fieldName = parser.currentName();
+            var token = parser.nextToken();
+            switch (fieldName) {
+                case "requiredValue" -> schema.requiredValue = token == JsonToken.VALUE_TRUE;
+                case "numberType" -> schema.numberType = readString(parser);
+                case "temporalType" -> schema.temporalType = readString(parser);
+                case "literals" -> readLiteralLabels(parser, schema.literals);
+                case "ontologies", "valueSets", "classes", "branches" -> {
+                    if (token == JsonToken.START_ARRAY && parser.nextToken() != JsonToken.END_ARRAY) {
+                        schema.controlledTerms = true;
+                        while (parser.currentToken() != JsonToken.END_ARRAY) {
+                            parser.skipChildren();
+                            parser.nextToken();
+                        }
+                    }
+                    else {
+                        parser.skipChildren();
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readLiteralLabels(JsonParser parser, LinkedHashSet<String> labels) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var fieldName = parser.currentName();
+                parser.nextToken();
+                if (fieldName.equals("label") && parser.currentToken() == JsonToken.VALUE_STRING) {
+                    labels.add(parser.getText());
+                }
+                else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static String readString(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static void expect(JsonParser parser, JsonToken expectedToken) throws IOException {
+        if (parser.currentToken() != expectedToken) {
+            throw new JsonParseException(parser, "Expected " + expectedToken + " but found " + parser.currentToken());
+        }
+    }
+
+    /**
+     * The parts of a JSON schema of a template, element or field that are used to build code generation nodes.
+     */
+    private static final class Schema {
+
+        private String id = "";
+
+        private String atType;
+
+        private String type;
+
+        private String name = "";
+
+        private String description = "";
+
+        private int minItems = 0;
+
+        private int maxItems = Integer.MAX_VALUE;
+
+        private Schema items;
+
+        private final Map<String, Schema> properties = new HashMap<>();
+
+        private final Map<String, String> propertyIris = new HashMap<>();
+
+        private final List<String> order = new ArrayList<>();
+
+        private String inputType;
+
+        private boolean requiredValue;
+
+        private String numberType;
+
+        private String temporalType;
+
+        private boolean controlledTerms;
+
+        private final LinkedHashSet<String> literals = new LinkedHashSet<>();
+    }
+}
@@ -1,11 +1,15 @@
 package org.metadatacenter.cedar.codegen;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import org.metadatacenter.artifacts.model.core.*;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
@@ -17,10 +21,23 @@ import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
  */
 public class TemplateTranslator {
 
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     private final String templateClassName;
 
+    private final ElementTranslationCache elementCache;
+
     public TemplateTranslator(String templateClassName) {
+        this(templateClassName, new ElementTranslationCache(ElementTranslationCache.DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Creates a translator that shares the translated nodes of elements through the specified cache.  A cache can
+     * be shared by the translators of several templates.
+     */
+    public TemplateTranslator(String templateClassName, @Nonnull ElementTranslationCache elementCache) {
         this.templateClassName = templateClassName;
+        this.elementCache = Objects.requireNonNull(elementCache);
     }
 
     @Nonnull
@@ -28,16 +45,49 @@ public class TemplateTranslator {
         return toCodeGenerationNode(template);
     }
 
+    /**
+     * Translates template JSON straight to code generation nodes, without building the schema artifact of the
+     * template.  The nodes are the same as the nodes that are translated from the schema artifact.
+     * @param inputStream The template JSON.  The stream is not closed.
+     */
+    @Nonnull
+    public CodeGenerationNode translateTemplate(@Nonnull InputStream inputStream) throws IOException {
+        return new StreamingTemplateReader(JSON_FACTORY, templateClassName).readTemplate(inputStream);
+    }
+
+    /**
+     * Gets the statistics of the cache of translated elements.
+     */
+    @Nonnull
+    public ElementTranslationCache.Statistics getElementCacheStatistics() {
+        return elementCache.getStatistics();
+    }
+
     @Nonnull
     protected CodeGenerationNode toCodeGenerationNode(SchemaArtifact artifact) {
         if (artifact instanceof TemplateSchemaArtifact template) {
             return toTemplateNode(template);
         }
-        else if (artifact instanceof ElementSchemaArtifact element) {
-            return toElementNode(element);
+        else {
+            return translate(artifact).node();
+        }
+    }
+
+    /**
+     * Translates an element or a field.  The children of an element are translated first, so that the element is
+     * looked up in the cache by the fingerprints of its children rather than by walking its descendants again.
+     */
+    @Nonnull
+    private ElementTranslationCache.Translation translate(SchemaArtifact artifact) {
+        if (artifact instanceof ElementSchemaArtifact element) {
+            var childTranslations = element.getChildSchemas()
+                                           .stream()
+                                           .map(childSchemaArtifact -> translate((SchemaArtifact) childSchemaArtifact))
+                                           .toList();
+            return elementCache.get(element, childTranslations, this::toElementNode);
         }
         else if (artifact instanceof FieldSchemaArtifact field) {
-            return toFieldNode(field);
+            return ElementTranslationCache.getFieldTranslation(toFieldNode(field));
         }
         else {
             throw new RuntimeException("Unknown artifact type: " + artifact);
@@ -60,15 +110,12 @@ public class TemplateTranslator {
                                            .orElse(Required.OPTIONAL),
                                       toCardinality(field),
                                       getPropertyIri(field).orElse(null),
-                                      field.fieldUi().inputType());
+                                      field.fieldUi().inputType(),
+                                      getLiteralOptions(field));
     }
 
     @Nonnull
-    private CodeGenerationNode toElementNode(ElementSchemaArtifact element) {
-        var childNodes = element.getChildSchemas()
-                                .stream()
-                                .map(childSchemaArtifact -> toCodeGenerationNode((SchemaArtifact) childSchemaArtifact))
-                                .toList();
+    private CodeGenerationNode toElementNode(ElementSchemaArtifact element, List<CodeGenerationNode> childNodes) {
         return CodeGenerationNode.get(element.jsonLdId().map(URI::toString).orElse(""),
                                       false,
                                       element.name(),
@@ -118,6 +165,19 @@ public class TemplateTranslator {
         }
     }
 
+    @Nonnull
+    private static List<String> getLiteralOptions(@Nonnull FieldSchemaArtifact field) {
+        return field.valueConstraints()
+                    .filter(ValueConstraints::isTextValueConstraint)
+                    .map(vc -> vc.asTextValueConstraints().literals()
+                                 .stream()
+                                 .map(LiteralValueConstraint::label)
+                                 .filter(Objects::nonNull)
+                                 .distinct()
+                                 .toList())
+                    .orElse(List.of());
+    }
+
     private Cardinality toCardinality(ChildSchemaArtifact artifact) {
         if (artifact.isMultiple()) {
             return new Cardinality(artifact.minItems().orElse(0), artifact.maxItems().orElse(Integer.MAX_VALUE));
@@ -0,0 +1,108 @@
+package org.metadatacenter.cedar.codegen;
+
+/**
+ * This class represents a template for the term dictionary that IRI field records are canonicalized through when
+ * they are read from JSON.  Each IRI field record has its own dictionary, so that the dictionaries of frequently
+ * used fields do not crowd out the terms of other fields.
+ */
+public class TermDictionaryTemplate {
+
+    private static final String TERM_DICTIONARY_DECL = """
+            /**
+             * A bounded, concurrent, dictionary that canonicalizes equal terms to one shared instance.  Once the
+             * dictionary is full, terms that it does not contain are returned as they are and are not added.
+             * @param <T> The type of the terms.  Terms must be immutable.
+             */
+            public static final class TermDictionary<T> {
+
+                /**
+                 * The maximum number of terms that a dictionary holds, unless it is changed with
+                 * {@link #setCapacity(int)}.
+                 */
+                public static final int DEFAULT_CAPACITY = 65536;
+
+                private final ConcurrentHashMap<T, T> terms = new ConcurrentHashMap<>();
+
+                private final LongAdder hits = new LongAdder();
+
+                private final LongAdder misses = new LongAdder();
+
+                private volatile int capacity = DEFAULT_CAPACITY;
+
+                /**
+                 * Gets the canonical instance of the specified term.
+                 * @param term The term.
+                 * @return A shared instance that is equal to the term, or the term itself if the dictionary does not
+                 * contain an equal term.
+                 */
+                public T intern(@Nonnull T term) {
+                    var existing = terms.get(term);
+                    if (existing != null) {
+                        hits.increment();
+                        return existing;
+                    }
+                    misses.increment();
+                    if (terms.size() >= capacity) {
+                        return term;
+                    }
+                    existing = terms.putIfAbsent(term, term);
+                    return existing != null ? existing : term;
+                }
+
+                /**
+                 * Sets the maximum number of terms that this dictionary holds.  Terms that are already in the
+                 * dictionary are kept.
+                 */
+                public void setCapacity(int capacity) {
+                    if (capacity < 0) {
+                        throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+                    }
+                    this.capacity = capacity;
+                }
+
+                public int capacity() {
+                    return capacity;
+                }
+
+                /**
+                 * Removes all terms from this dictionary and resets its statistics.
+                 */
+                public void clear() {
+                    terms.clear();
+                    hits.reset();
+                    misses.reset();
+                }
+
+                /**
+                 * Gets a snapshot of the statistics of this dictionary.
+                 */
+                public Statistics statistics() {
+                    return new Statistics(hits.sum(), misses.sum(), terms.size());
+                }
+
+                /**
+                 * Statistics of a term dictionary.
+                 * @param hits The number of lookups that found an equal term.
+                 * @param misses The number of lookups that did not find an equal term.
+                 * @param size The number of terms in the dictionary.
+                 */
+                public record Statistics(long hits, long misses, int size) {
+
+                    /**
+                     * Gets the proportion of lookups that found an equal term, or zero if there were no lookups.
+                     */
+                    public double hitRate() {
+                        var lookups = hits + misses;
+                        return lookups == 0 ? 0 : (double) hits / lookups;
+                    }
+                }
+            }
+            """;
+
+    /**
+     * Gets the declaration of the term dictionary class.  This should be added to the generated code once.
+     */
+    public String getDeclaration() {
+        return TERM_DICTIONARY_DECL;
+    }
+}
@@ -0,0 +1,377 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * This class represents a template for generating Java record classes that implement the LiteralField interface and
+ * store the value of a numeric or temporal datatype in a typed form, rather than as a string.  The lexical form of a
+ * value is only kept if the value cannot be parsed or if the canonical form of the parsed value differs from the
+ * lexical form, so that values always round trip.  Lists of {@code long} and {@code double} values are stored in
+ * primitive arrays.
+ */
+public class TypedLiteralFieldRecordTemplate {
+
+    private static final String TYPED_LITERALS_SUPPORT_DECL = """
+            /**
+             * Parsing and formatting support for literal fields that store typed values.
+             */
+            public static final class TypedLiterals {
+
+                private TypedLiterals() {
+                }
+
+                public static ZoneOffset parseOffset(TemporalAccessor parsed) {
+                    return parsed.isSupported(ChronoField.OFFSET_SECONDS) ? ZoneOffset.from(parsed) : null;
+                }
+
+                public static String format(TemporalAccessor value, ZoneOffset offset, DateTimeFormatter formatter) {
+                    if (value == null) {
+                        return null;
+                    }
+                    var formatted = formatter.format(value);
+                    return offset == null ? formatted : formatted + offset.getId();
+                }
+            }
+            """;
+
+    private static final String TYPED_LITERAL_FIELD_TYPE_DECL = """
+                /**
+                 *  ${javadoc}
+                 */
+                @JsonPropertyOrder({"@type", "@value"})
+                public static record ${typeName}(${components},
+                                                 @JsonIgnore String lexicalForm) implements LiteralField {
+
+                    private static final ${typeName} EMPTY = new ${typeName}(${emptyArgs}, null);
+
+                    /**
+                     * Gets the instance of the {@code ${typeName}} record with a {@code null} value.  This is a shared
+                     * instance that is created when the record class is initialized.
+                     * @return An instance of the {@code ${typeName}} record.
+                     */
+                    public static ${typeName} of() {
+                        return EMPTY;
+                    }
+
+                    /**
+                     * Creates an instance of the {@code ${typeName}} record from the specified lexical value.  The
+                     * lexical value is only retained if it is not the canonical form of the parsed value.
+                     * @param value The lexical value.
+                     * @return An instance of the {@code ${typeName}} record.
+                     */
+                    @JsonCreator
+                    public static ${typeName} of(@JsonProperty("@value") String value) {
+                        if (value == null) {
+                            return EMPTY;
+                        }
+                        try {
+                            ${parseStatements}
+                            var typed = new ${typeName}(${parsedArgs}, null);
+                            return typed.value().equals(value) ? typed : new ${typeName}(${parsedArgs}, value);
+                        } catch (${parseException} e) {
+                            return new ${typeName}(${emptyArgs}, value);
+                        }
+                    }
+
+                    /**
+                     * Creates an instance of the {@code ${typeName}} record with the specified typed value.
+                     * @return An instance of the {@code ${typeName}} record.
+                     */
+                    public static ${typeName} of(${typedParams}) {
+                        return ${typedFactoryBody};
+                    }
+
+                    /**
+                     * Gets the lexical value.  This is the retained lexical form, if any, or the canonical form of the
+                     * typed value.
+                     */
+                    @Override
+                    public String value() {
+                        return lexicalForm != null ? lexicalForm : ${formatExpression};
+                    }
+
+                    /**
+                     * Gets the datatype associated with the record.
+                     * @return The datatype string.
+                     */
+                    @JsonView(CoreView.class)
+                    @JsonProperty("@type")
+                    public String getDatatype() {
+                        return "${datatype}";
+                    }
+                }
+            """;
+
+    private static final String PRIMITIVE_LIST_TYPE_DECL = """
+                /**
+                 * A list of {@code ${typeName}} values that stores the typed values in a primitive array.  Lexical
+                 * forms are only stored if at least one item needs its lexical form to round trip.
+                 */
+                public static record ${listTypeName}(@JsonIgnore ${primitive}[] values,
+                                                     @JsonIgnore String[] lexicalForms) implements ArtifactList {
+
+                    private static final ${listTypeName} EMPTY = new ${listTypeName}(new ${primitive}[0], null);
+
+                    public static ${listTypeName} of() {
+                        return ${emptyListExpression};
+                    }
+
+                    /**
+                     * Creates a list with the specified typed values.
+                     */
+                    public static ${listTypeName} ofValues(${primitive} ... values) {
+                        return new ${listTypeName}(values.clone(), null);
+                    }
+
+                    @JsonCreator
+                    public static ${listTypeName} of(List<${typeName}> ${listParamName}) {
+                        var values = new ${primitive}[${listParamName}.size()];
+                        String[] lexicalForms = null;
+                        for (int i = 0; i < values.length; i++) {
+                            var item = ${listParamName}.get(i);
+                            if (item.present()) {
+                                values[i] = item.${typedComponent}();
+                            }
+                            if (lexicalForms == null && (!item.present() || item.lexicalForm() != null)) {
+                                lexicalForms = new String[values.length];
+                                for (int j = 0; j < i; j++) {
+                                    lexicalForms[j] = ${listParamName}.get(j).value();
+                                }
+                            }
+                            if (lexicalForms != null) {
+                                lexicalForms[i] = item.value();
+                            }
+                        }
+                        return new ${listTypeName}(values, lexicalForms);
+                    }
+
+                    public static ${listTypeName} of(${typeName} ${paramName}) {
+                        return of(List.of(${paramName}));
+                    }
+
+                    /**
+                     * Gets the items of this list as records.  The records are created on each call.
+                     */
+                    public List<${typeName}> ${listParamName}() {
+                        var items = new ArrayList<${typeName}>(values.length);
+                        for (int i = 0; i < values.length; i++) {
+                            items.add(lexicalForms == null ? ${typeName}.of(values[i]) : ${typeName}.of(lexicalForms[i]));
+                        }
+                        return items;
+                    }
+
+                    public int size() {
+                        return values.length;
+                    }
+
+                    public int minItems() {
+                        return ${minItems};
+                    }
+
+                    public int maxItems() {
+                        return ${maxItems};
+                    }
+
+                    public boolean isCardinalitySatisfied() {
+                        return values.length >= minItems() && values.length <= maxItems();
+                    }
+
+                    @Override
+                    public List<Artifact> getArtifacts() {
+                        return new ArrayList<>(${listParamName}());
+                    }
+
+                    @Override
+                    public boolean equals(Object o) {
+                        return o instanceof ${listTypeName} other
+                                && Arrays.equals(values, other.values)
+                                && Arrays.equals(lexicalForms, other.lexicalForms);
+                    }
+
+                    @Override
+                    public int hashCode() {
+                        return 31 * Arrays.hashCode(values) + Arrays.hashCode(lexicalForms);
+                    }
+
+                    @Override
+                    public String toString() {
+                        return "${listTypeName}" + ${listParamName}();
+                    }
+                }
+            """;
+
+    /**
+     * The storage of a typed value.
+     */
+    private record Representation(String components,
+                                  String emptyArgs,
+                                  String parseStatements,
+                                  String parsedArgs,
+                                  String parseException,
+                                  String typedParams,
+                                  String typedFactoryBody,
+                                  String formatExpression,
+                                  String primitive,
+                                  String typedComponent) {
+
+        private static Representation ofLong() {
+            return new Representation("@JsonIgnore boolean present, @JsonIgnore long longValue",
+                                      "false, 0L",
+                                      "var parsed = Long.parseLong(value);",
+                                      "true, parsed",
+                                      "NumberFormatException",
+                                      "long value",
+                                      "new ${typeName}(true, value, null)",
+                                      "present ? Long.toString(longValue) : null",
+                                      "long",
+                                      "longValue");
+        }
+
+        private static Representation ofDouble() {
+            return new Representation("@JsonIgnore boolean present, @JsonIgnore double doubleValue",
+                                      "false, 0.0",
+                                      "var parsed = Double.parseDouble(value);",
+                                      "true, parsed",
+                                      "NumberFormatException",
+                                      "double value",
+                                      "new ${typeName}(true, value, null)",
+                                      "present ? Double.toString(doubleValue) : null",
+                                      "double",
+                                      "doubleValue");
+        }
+
+        private static Representation ofObject(String type, String component, String parseExpression) {
+            return new Representation("@JsonIgnore " + type + " " + component,
+                                      "null",
+                                      "var parsed = " + parseExpression + ";",
+                                      "parsed",
+                                      "NumberFormatException",
+                                      type + " value",
+                                      "value == null ? EMPTY : new ${typeName}(value, null)",
+                                      component + " != null ? " + component + ".toString() : null",
+                                      null,
+                                      null);
+        }
+
+        private static Representation ofTemporal(String type, String component, String formatter) {
+            return new Representation("@JsonIgnore " + type + " " + component + ", @JsonIgnore ZoneOffset offset",
+                                      "null, null",
+                                      "var parsed = " + formatter + ".parse(value);",
+                                      type + ".from(parsed), TypedLiterals.parseOffset(parsed)",
+                                      "DateTimeException",
+                                      type + " value, ZoneOffset offset",
+                                      "value == null ? EMPTY : new ${typeName}(value, offset, null)",
+                                      "TypedLiterals.format(" + component + ", offset, " + formatter.replace("ISO_", "ISO_LOCAL_") + ")",
+                                      null,
+                                      null);
+        }
+    }
+
+    private static final Map<String, Representation> REPRESENTATIONS = Map.ofEntries(
+            Map.entry("xsd:long", Representation.ofLong()),
+            Map.entry("xsd:int", Representation.ofLong()),
+            Map.entry("xsd:short", Representation.ofLong()),
+            Map.entry("xsd:byte", Representation.ofLong()),
+            Map.entry("xsd:double", Representation.ofDouble()),
+            Map.entry("xsd:float", Representation.ofDouble()),
+            Map.entry("xsd:integer", Representation.ofObject("BigInteger", "integerValue", "new BigInteger(value)")),
+            Map.entry("xsd:decimal", Representation.ofObject("BigDecimal", "decimalValue", "new BigDecimal(value)")),
+            Map.entry("xsd:dateTime", Representation.ofTemporal("LocalDateTime", "dateTimeValue", "DateTimeFormatter.ISO_DATE_TIME")),
+            Map.entry("xsd:date", Representation.ofTemporal("LocalDate", "dateValue", "DateTimeFormatter.ISO_DATE")),
+            Map.entry("xsd:time", Representation.ofTemporal("LocalTime", "timeValue", "DateTimeFormatter.ISO_TIME")));
+
+    /**
+     * Gets the declaration of the support class that is shared by typed literal fields.  This should be added to the
+     * generated code once.
+     */
+    public String getSupportDeclaration() {
+        return TYPED_LITERALS_SUPPORT_DECL;
+    }
+
+    /**
+     * Determines whether values of the specified datatype can be stored in a typed form.
+     */
+    public boolean isTyped(@Nonnull String datatype) {
+        return REPRESENTATIONS.containsKey(datatype);
+    }
+
+    /**
+     * Determines whether lists of values of the specified datatype are stored in primitive arrays.
+     */
+    public boolean isPrimitiveList(@Nonnull String datatype) {
+        return getRepresentation(datatype).map(representation -> representation.primitive() != null).orElse(false);
+    }
+
+    private static Optional<Representation> getRepresentation(String datatype) {
+        return Optional.ofNullable(REPRESENTATIONS.get(datatype));
+    }
+
+    /**
+     * Fills the template for the typed Literal Field record with the specified values returning Java code as a
+     * string.
+     *
+     * @param javaRecordName The name of the Java record.
+     * @param datatype       The datatype associated with the record.  This must be a datatype for which
+     *                       {@link #isTyped(String)} returns true.
+     * @param javaDoc        The Javadoc comment for the generated class.
+     * @return The filled template as a string.
+     * @throws NullPointerException     if any of the parameters is null.
+     * @throws IllegalArgumentException if the datatype cannot be stored in a typed form.
+     */
+    public String fillTemplate(@Nonnull String javaRecordName, @Nonnull String datatype, @Nonnull String javaDoc) {
+        Objects.requireNonNull(javaRecordName);
+        Objects.requireNonNull(javaDoc);
+        var representation = getRepresentation(Objects.requireNonNull(datatype))
+                .orElseThrow(() -> new IllegalArgumentException("Not a typed datatype: " + datatype));
+        return TYPED_LITERAL_FIELD_TYPE_DECL.replace("${components}", representation.components())
+                                            .replace("${emptyArgs}", representation.emptyArgs())
+                                            .replace("${parseStatements}", representation.parseStatements())
+                                            .replace("${parsedArgs}", representation.parsedArgs())
+                                            .replace("${parseException}", representation.parseException())
+                                            .replace("${typedParams}", representation.typedParams())
+                                            .replace("${typedFactoryBody}", representation.typedFactoryBody())
+                                            .replace("${formatExpression}", representation.formatExpression())
+                                            .replace("${typeName}", javaRecordName)
+                                            .replace("${datatype}", datatype)
+                                            .replace("${javadoc}", javaDoc);
+    }
+
+    /**
+     * Fills the template for a list of typed Literal Field records that is backed by a primitive array.
+     *
+     * @param javaRecordName The name of the Java record of the list items.
+     * @param datatype       The datatype associated with the items.  This must be a datatype for which
+     *                       {@link #isPrimitiveList(String)} returns true.
+     * @param paramName      The name of a single item parameter.
+     * @param cardinality    The cardinality of the list.
+     * @param required       Whether the list is required, in which case the empty list contains one empty item.
+     * @return The filled template as a string.
+     */
+    public String fillListTemplate(@Nonnull String javaRecordName,
+                                   @Nonnull String datatype,
+                                   @Nonnull String paramName,
+                                   @Nonnull CodeGenerationNode.Cardinality cardinality,
+                                   boolean required) {
+        Objects.requireNonNull(javaRecordName);
+        Objects.requireNonNull(paramName);
+        Objects.requireNonNull(cardinality);
+        var representation = getRepresentation(Objects.requireNonNull(datatype))
+                .filter(r -> r.primitive() != null)
+                .orElseThrow(() -> new IllegalArgumentException("Not a primitive datatype: " + datatype));
+        var listTypeName = javaRecordName + "List";
+        var maxItems = cardinality.hasUpperCardinality() ? Integer.toString(cardinality.maxCardinality()) : "Integer.MAX_VALUE";
+        var emptyListExpression = required ? "of(" + javaRecordName + ".of())" : "EMPTY";
+        return PRIMITIVE_LIST_TYPE_DECL.replace("${emptyListExpression}", emptyListExpression)
+                                       .replace("${listTypeName}", listTypeName)
+                                       .replace("${typeName}", javaRecordName)
+                                       .replace("${primitive}", representation.primitive())
+                                       .replace("${typedComponent}", representation.typedComponent())
+                                       .replace("${listParamName}", paramName + "List")
+                                       .replace("${paramName}", paramName)
+                                       .replace("${minItems}", Integer.toString(cardinality.minCardinality()))
+                                       .replace("${maxItems}", maxItems);
+    }
+}
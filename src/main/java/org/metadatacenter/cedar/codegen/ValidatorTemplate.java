@@ -0,0 +1,329 @@
+package org.metadatacenter.cedar.codegen;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiFunction;
+
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.Required;
+
+/**
+ * This class represents a template for generating a validator for instances of a template.  The validator is
+ * generated from the code generation node tree, so it calls record accessors directly and does not use reflection.
+ * It checks required values, list cardinalities and the lexical forms of numeric and temporal datatypes.
+ */
+public class ValidatorTemplate {
+
+    private static final String VALIDATOR_DECL = """
+            /**
+             * Validates {@link ${rootType}} instances against the constraints of the template that this code was
+             * generated from.  Required values, list cardinalities and the lexical forms of numeric and temporal
+             * values are checked.
+             */
+            public static final class Validator {
+
+                /**
+                 * The number of instances below which a batch is validated sequentially.
+                 */
+                private static final int BATCH_THRESHOLD = 256;
+
+                private Validator() {
+                }
+
+                /**
+                 * Validates the specified instance.
+                 * @return The violations, in document order.  The list is empty if the instance is valid.
+                 */
+                public static List<Violation> validate(@Nonnull ${rootType} instance) {
+                    var violations = new ArrayList<Violation>();
+                    validate${rootMethodSuffix}(Objects.requireNonNull(instance), Path.ROOT, violations);
+                    return violations;
+                }
+
+                /**
+                 * Validates the specified instances in parallel using the common fork-join pool.
+                 * @return The violations for each instance, in the order of the instances.
+                 */
+                public static List<List<Violation>> validateAll(@Nonnull List<? extends ${rootType}> instances) {
+                    return validateAll(instances, ForkJoinPool.commonPool());
+                }
+
+                /**
+                 * Validates the specified instances in parallel using the specified fork-join pool.
+                 * @return The violations for each instance, in the order of the instances.
+                 */
+                @SuppressWarnings("unchecked")
+                public static List<List<Violation>> validateAll(@Nonnull List<? extends ${rootType}> instances,
+                                                                @Nonnull ForkJoinPool pool) {
+                    var results = (List<Violation>[]) new List[instances.size()];
+                    pool.invoke(new BatchTask(instances, results, 0, instances.size()));
+                    return Arrays.asList(results);
+                }
+
+                @SuppressWarnings("serial")
+                private static final class BatchTask extends RecursiveAction {
+
+                    private final List<? extends ${rootType}> instances;
+
+                    private final List<Violation>[] results;
+
+                    private final int from;
+
+                    private final int to;
+
+                    private BatchTask(List<? extends ${rootType}> instances, List<Violation>[] results, int from, int to) {
+                        this.instances = instances;
+                        this.results = results;
+                        this.from = from;
+                        this.to = to;
+                    }
+
+                    @Override
+                    protected void compute() {
+                        if (to - from <= BATCH_THRESHOLD) {
+                            for (int i = from; i < to; i++) {
+                                results[i] = validate(instances.get(i));
+                            }
+                        }
+                        else {
+                            var middle = (from + to) >>> 1;
+                            invokeAll(new BatchTask(instances, results, from, middle),
+                                      new BatchTask(instances, results, middle, to));
+                        }
+                    }
+                }
+
+                ${methods}
+
+                /**
+                 * A constraint violation.
+                 * @param path The path of the artifact that violates the constraint.  Path segments are field names
+                 *             separated by slashes, with list item indexes in square brackets.
+                 * @param message A description of the violation.
+                 */
+                public record Violation(String path, String message) {
+                }
+
+                /**
+                 * A lazily rendered path, so that path strings are only built for artifacts that have violations.
+                 */
+                private record Path(Path parent, String key, int index) {
+
+                    private static final Path ROOT = new Path(null, null, -1);
+
+                    Path child(String key) {
+                        return new Path(this, key, -1);
+                    }
+
+                    Path child(String key, int index) {
+                        return new Path(this, key, index);
+                    }
+
+                    @Override
+                    public String toString() {
+                        if (parent == null) {
+                            return "";
+                        }
+                        var prefix = parent.toString();
+                        var segment = index == -1 ? key : key + "[" + index + "]";
+                        return prefix.isEmpty() ? segment : prefix + "/" + segment;
+                    }
+                }
+            }
+            """;
+
+    private static final String LEXICAL_SUPPORT_DECL = """
+            /**
+             * Checks of the lexical forms of XML Schema datatypes.
+             */
+            public static final class Lexical {
+
+                private static final Pattern INTEGER = Pattern.compile("[+-]?[0-9]+");
+
+                private static final Pattern DECIMAL = Pattern.compile("[+-]?([0-9]+(\\\\.[0-9]*)?|\\\\.[0-9]+)");
+
+                private static final Pattern FLOATING_POINT = Pattern.compile("[+-]?([0-9]+(\\\\.[0-9]*)?|\\\\.[0-9]+)([eE][+-]?[0-9]+)?|[+-]?INF|NaN");
+
+                private Lexical() {
+                }
+
+                public static boolean isInteger(String value) {
+                    return INTEGER.matcher(value).matches();
+                }
+
+                public static boolean isInteger(String value, long min, long max) {
+                    if (!isInteger(value)) {
+                        return false;
+                    }
+                    try {
+                        var parsed = Long.parseLong(value);
+                        return parsed >= min && parsed <= max;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+
+                public static boolean isDecimal(String value) {
+                    return DECIMAL.matcher(value).matches();
+                }
+
+                public static boolean isFloatingPoint(String value) {
+                    return FLOATING_POINT.matcher(value).matches();
+                }
+
+                public static boolean isTemporal(String value, DateTimeFormatter formatter) {
+                    try {
+                        formatter.parse(value);
+                        return true;
+                    } catch (DateTimeParseException e) {
+                        return false;
+                    }
+                }
+            }
+            """;
+
+    private static final String VALIDATE_ELEMENT_METHOD_DECL = """
+                private static void validate${methodSuffix}(${typeName} value, Path path, List<Violation> violations) {
+                    ${statements}
+                }
+
+            """;
+
+    private static final Map<String, String> LEXICAL_CHECKS = new LinkedHashMap<>();
+
+    static {
+        LEXICAL_CHECKS.put("xsd:integer", "Lexical.isInteger(${value})");
+        LEXICAL_CHECKS.put("xsd:long", "Lexical.isInteger(${value}, Long.MIN_VALUE, Long.MAX_VALUE)");
+        LEXICAL_CHECKS.put("xsd:int", "Lexical.isInteger(${value}, Integer.MIN_VALUE, Integer.MAX_VALUE)");
+        LEXICAL_CHECKS.put("xsd:short", "Lexical.isInteger(${value}, Short.MIN_VALUE, Short.MAX_VALUE)");
+        LEXICAL_CHECKS.put("xsd:byte", "Lexical.isInteger(${value}, Byte.MIN_VALUE, Byte.MAX_VALUE)");
+        LEXICAL_CHECKS.put("xsd:decimal", "Lexical.isDecimal(${value})");
+        LEXICAL_CHECKS.put("xsd:double", "Lexical.isFloatingPoint(${value})");
+        LEXICAL_CHECKS.put("xsd:float", "Lexical.isFloatingPoint(${value})");
+        LEXICAL_CHECKS.put("xsd:dateTime", "Lexical.isTemporal(${value}, DateTimeFormatter.ISO_DATE_TIME)");
+        LEXICAL_CHECKS.put("xsd:date", "Lexical.isTemporal(${value}, DateTimeFormatter.ISO_DATE)");
+        LEXICAL_CHECKS.put("xsd:time", "Lexical.isTemporal(${value}, DateTimeFormatter.ISO_TIME)");
+    }
+
+    /**
+     * Gets the declaration of the lexical checks support class.  This should be added to the generated code once.
+     */
+    public String getLexicalSupportDeclaration() {
+        return LEXICAL_SUPPORT_DECL;
+    }
+
+    /**
+     * Gets a boolean expression that checks the lexical form of a value of the specified datatype.  The expression
+     * calls methods of the class declared by {@link #getLexicalSupportDeclaration()}.
+     *
+     * @param datatype        The datatype, for example {@code xsd:int}.
+     * @param valueExpression A Java expression for the non-null lexical value.
+     * @return The check expression, or empty if the datatype is not checked.
+     */
+    public static Optional<String> getLexicalCheck(@Nonnull String datatype, @Nonnull String valueExpression) {
+        return Optional.ofNullable(LEXICAL_CHECKS.get(datatype))
+                       .map(check -> check.replace("${value}", valueExpression));
+    }
+
+    /**
+     * Fills the template for the validator of the specified root node.
+     *
+     * @param rootNode The generated root node of the template.
+     * @return The filled template as a string.
+     */
+    public String fillTemplate(@Nonnull GeneratedArtifactNode rootNode) {
+        Objects.requireNonNull(rootNode);
+        var methods = new LinkedHashMap<String, String>();
+        collectElementMethods(rootNode, methods);
+        return VALIDATOR_DECL.replace("${rootType}", rootNode.qualifiedTypeName())
+                             .replace("${rootMethodSuffix}", rootNode.methodSuffix())
+                             .replace("${methods}", String.join("", methods.values()));
+    }
+
+    private static void collectElementMethods(GeneratedArtifactNode node, Map<String, String> methods) {
+        if (methods.containsKey(node.qualifiedTypeName())) {
+            return;
+        }
+        var childStatements = new ArrayList<String>();
+        node.childNodes()
+            .stream()
+            .filter(childNode -> !childNode.node().isAttributeValueField())
+            .forEach(childNode -> {
+                var statements = new StringBuilder();
+                appendChildStatements(childNode, statements);
+                childStatements.add(statements.toString());
+            });
+        BiFunction<String, String, String> method = (methodSuffix, statements) ->
+                VALIDATE_ELEMENT_METHOD_DECL.replace("${methodSuffix}", methodSuffix)
+                                            .replace("${typeName}", node.qualifiedTypeName())
+                                            .replace("${statements}", statements);
+        var partMethods = new StringBuilder();
+        var statements = PartitionedElementRecordTemplate.splitIntoPartMethods(childStatements,
+                                                                               node.methodSuffix(),
+                                                                               partMethodSuffix -> "validate" + partMethodSuffix + "(value, path, violations);\n",
+                                                                               method,
+                                                                               partMethods);
+        methods.put(node.qualifiedTypeName(), method.apply(node.methodSuffix(), statements) + partMethods);
+        node.childNodes()
+            .stream()
+            .filter(GeneratedArtifactNode::isElement)
+            .forEach(childNode -> collectElementMethods(childNode, methods));
+    }
+
+    private static void appendChildStatements(GeneratedArtifactNode node, StringBuilder statements) {
+        var accessor = "value." + node.paramName() + "()";
+        var key = "FieldNames." + node.constantSymbol();
+        if (node.node().required().equals(Required.REQUIRED)) {
+            statements.append("if (").append(accessor).append(" == null || ").append(accessor).append(".isEmpty()) {\n")
+                      .append("violations.add(new Violation(path.child(").append(key).append(").toString(), \"Missing required value\"));\n")
+                      .append("}\n");
+        }
+        if (node.node().isListType()) {
+            var list = accessor + "." + node.listParamName() + "()";
+            statements.append("if (").append(accessor).append(" != null) {\n");
+            statements.append("if (!").append(accessor).append(".isCardinalitySatisfied()) {\n")
+                      .append("violations.add(new Violation(path.child(").append(key).append(").toString(), \"Expected between \" + ")
+                      .append(accessor).append(".minItems() + \" and \" + ").append(accessor).append(".maxItems() + \" items but found \" + ")
+                      .append(list).append(".size()));\n")
+                      .append("}\n");
+            var itemStatements = getItemStatements(node, "item", "path.child(" + key + ", i)");
+            if (!itemStatements.isEmpty()) {
+                statements.append("for (int i = 0; i < ").append(list).append(".size(); i++) {\n")
+                          .append("var item = ").append(list).append(".get(i);\n")
+                          .append("if (item != null) {\n")
+                          .append(itemStatements)
+                          .append("}\n}\n");
+            }
+            statements.append("}\n");
+        }
+        else {
+            var itemStatements = getItemStatements(node, accessor, "path.child(" + key + ")");
+            if (!itemStatements.isEmpty()) {
+                statements.append("if (").append(accessor).append(" != null) {\n")
+                          .append(itemStatements)
+                          .append("}\n");
+            }
+        }
+    }
+
+    private static String getItemStatements(GeneratedArtifactNode node, String item, String path) {
+        if (node.isElement()) {
+            return "validate" + node.methodSuffix() + "(" + item + ", " + path + ", violations);\n";
+        }
+        if (node.isLiteralField()) {
+            var datatype = node.node().getXsdDatatype();
+            if (datatype.isPresent()) {
+                var check = getLexicalCheck(datatype.get(), item + ".value()");
+                if (check.isPresent()) {
+                    return "if (" + item + ".value() != null && !" + check.get() + ") {\n"
+                            + "violations.add(new Violation(" + path + ".toString(), \"Invalid " + datatype.get() + " value: \" + " + item + ".value()));\n"
+                            + "}\n";
+                }
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,62 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+import static org.metadatacenter.cedar.codegen.GeneratedArtifactNodes.*;
+
+class ArtifactSpliteratorTemplateTest {
+
+    private final ArtifactSpliteratorTemplate template = new ArtifactSpliteratorTemplate();
+
+    @Test
+    void shouldAddChildrenInTemplateOrder() {
+        var filledTemplate = template.fillTemplate(root(literalField("Name", null, Cardinality.getZeroOrOne()),
+                                                        literalField("Tag", null, Cardinality.getZeroOrMore())),
+                                                   n -> false);
+        assertThat(filledTemplate).contains("var c0 = value.name();\nif (c0 != null) {\nchildren.add(c0);");
+        assertThat(filledTemplate).contains("for (var item : c1.tagList()) {\nif (item != null) {\nchildren.add(item);");
+        assertThat(filledTemplate.indexOf("c0 = value.name()")).isLessThan(filledTemplate.indexOf("c1 = value.tag()"));
+    }
+
+    @Test
+    void shouldCountDescendantsOfElements() {
+        var filledTemplate = template.fillTemplate(root(element("Study", Cardinality.getZeroOrOne(), literalField("Title", null, Cardinality.getZeroOrOne())),
+                                                        element("Sample", Cardinality.getZeroOrMore(), literalField("Tag", null, Cardinality.getZeroOrOne()))),
+                                                   n -> false);
+        assertThat(filledTemplate).contains("count += countRoot_StudyElement(c0);");
+        assertThat(filledTemplate).contains("count += countRoot_SampleElement(item);");
+        assertThat(filledTemplate).contains("functions.put(Root.SampleElement.class, value -> childrenRoot_SampleElement((Root.SampleElement) value));");
+    }
+
+    @Test
+    void shouldAddAttributeValues() {
+        var filledTemplate = template.fillTemplate(root(), n -> true);
+        assertThat(filledTemplate).contains("for (var attributeValue : value.attributeValues().values()) {");
+    }
+
+    @Test
+    void shouldSplitArtifactsOfInstancesInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.ARTIFACT_SPLITERATOR));
+        List<Object> result = code.run("""
+                var instance = new ObjectMapper().readValue((String) args[0], MetadataInstance.class);
+                var first = instance.artifactSpliterator();
+                var size = first.getExactSizeIfKnown();
+                var second = first.trySplit();
+                var artifacts = new ArrayList<Object>();
+                second.forEachRemaining(artifacts::add);
+                first.forEachRemaining(artifacts::add);
+                return List.of(size,
+                               artifacts.size(),
+                               artifacts.get(0) == instance,
+                               artifacts.contains(instance.investigator().name()),
+                               artifacts.contains(instance.sample().sampleList().get(1).score()),
+                               StreamSupport.stream(instance.artifactSpliterator(), true).count());
+                """, GeneratedCode.STUDY_JSON);
+        assertThat(result).containsExactly(16L, 16, true, true, true, 16L);
+    }
+}
@@ -0,0 +1,46 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+import static org.metadatacenter.cedar.codegen.GeneratedCode.*;
+
+class AttributeValuesTemplateTest {
+
+    private static final String JSON = """
+            {"@id":"https://example.org/studies/1",\
+            "Title":{"@value":"Sleep and memory"},\
+            "Investigator":{"@id":"https://example.org/investigators/1","Name":{"@value":"Ada"},\
+            "Extra":["Orcid"],"Orcid":{"@value":"0000-0001"}},\
+            "Misc":["Funder","Grant"],"Funder":{"@value":"NIH"},"Grant":{"@value":"R01"}}""";
+
+    private static CodeGenerationNode templateWithAttributeValues() {
+        return template(field("Title", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrOne(), FieldInputType.TEXTFIELD),
+                        element("Investigator", Cardinality.getZeroOrOne(),
+                                field("Name", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrOne(), FieldInputType.TEXTFIELD),
+                                field("Extra", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrMore(), FieldInputType.ATTRIBUTE_VALUE)),
+                        field("Misc", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrMore(), FieldInputType.ATTRIBUTE_VALUE));
+    }
+
+    @Test
+    void shouldReadWrittenInstancesWithAttributeValues() throws Exception {
+        var code = GeneratedCode.compile(templateWithAttributeValues(), Set.of());
+        List<Object> result = code.run("""
+                var mapper = new ObjectMapper();
+                var instance = mapper.readValue((String) args[0], MetadataInstance.class);
+                var json = mapper.writeValueAsString(instance);
+                var read = mapper.readValue(json, MetadataInstance.class);
+                return List.of(json.contains("\\"@context\\""),
+                               read.equals(instance),
+                               read.attributeValues().get("Funder").value(),
+                               read.investigator().attributeValues().get("Orcid").value(),
+                               read.attributeValues().containsKey("@context"));
+                """, JSON);
+        assertThat(result).containsExactly(true, true, "NIH", "0000-0001", false);
+    }
+}
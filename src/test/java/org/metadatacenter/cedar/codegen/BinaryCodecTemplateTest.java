@@ -0,0 +1,57 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+
+class BinaryCodecTemplateTest {
+
+    private static CodeGenerationNode template(CodeGenerationNode... childNodes) {
+        return CodeGenerationNode.get("", true, "Template", List.of(childNodes), ArtifactType.TEMPLATE, "",
+                                      null, Required.OPTIONAL, null, null, null);
+    }
+
+    private static CodeGenerationNode field(String name, Cardinality cardinality) {
+        return CodeGenerationNode.get("", false, name, List.of(), ArtifactType.LITERAL_FIELD, "",
+                                      null, Required.OPTIONAL, cardinality, null, null);
+    }
+
+    @Test
+    void shouldComputeSameDigestForSameStructure() {
+        var first = template(field("A", Cardinality.getZeroOrOne()), field("B", Cardinality.getZeroOrOne()));
+        var second = template(field("A", Cardinality.getZeroOrOne()), field("B", Cardinality.getZeroOrOne()));
+        assertThat(BinaryCodecTemplate.getTemplateDigest(first)).isEqualTo(BinaryCodecTemplate.getTemplateDigest(second));
+    }
+
+    @Test
+    void shouldComputeDifferentDigestForReorderedChildren() {
+        var first = template(field("A", Cardinality.getZeroOrOne()), field("B", Cardinality.getZeroOrOne()));
+        var second = template(field("B", Cardinality.getZeroOrOne()), field("A", Cardinality.getZeroOrOne()));
+        assertThat(BinaryCodecTemplate.getTemplateDigest(first)).isNotEqualTo(BinaryCodecTemplate.getTemplateDigest(second));
+    }
+
+    @Test
+    void shouldComputeDifferentDigestForChangedCardinality() {
+        var first = template(field("A", Cardinality.getZeroOrOne()));
+        var second = template(field("A", Cardinality.getZeroOrMore()));
+        assertThat(BinaryCodecTemplate.getTemplateDigest(first)).isNotEqualTo(BinaryCodecTemplate.getTemplateDigest(second));
+    }
+
+    @Test
+    void shouldRoundTripInstancesInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.BINARY_CODEC));
+        List<Object> result = code.run("""
+                var instance = new ObjectMapper().readValue((String) args[0], MetadataInstance.class);
+                var bytes = BinaryCodec.encode(instance);
+                var empty = MetadataInstance.of();
+                return List.of(BinaryCodec.decode(bytes).equals(instance),
+                               BinaryCodec.decode(BinaryCodec.encode(empty)).equals(empty),
+                               bytes.length < ((String) args[0]).length());
+                """, GeneratedCode.STUDY_JSON);
+        assertThat(result).containsExactly(true, true, true);
+    }
+}
@@ -0,0 +1,75 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+import static org.metadatacenter.cedar.codegen.GeneratedArtifactNodes.*;
+
+class BulkMapperTemplateTest {
+
+    private final BulkMapperTemplate template = new BulkMapperTemplate();
+
+    @Test
+    void shouldCheckValuesOfFieldsWithDatatypes() {
+        var filledTemplate = template.fillTemplate(root(field("Age", ArtifactType.LITERAL_FIELD, "xsd:int", Cardinality.getZeroOrOne(), null, FieldInputType.NUMERIC),
+                                                        field("Name", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrOne(), null, FieldInputType.TEXTFIELD)),
+                                                   List.of(),
+                                                   n -> false);
+        assertThat(filledTemplate).contains("new Leaf(\"Age\", \"Age\", false, \"xsd:int\", value -> Lexical.isInteger(value, Integer.MIN_VALUE, Integer.MAX_VALUE))");
+        assertThat(filledTemplate).contains("new Leaf(\"Name\", \"Name\", false, null, null)");
+        assertThat(filledTemplate).contains("var c0 = Root.AgeField.of(value(values, 0, item));");
+        assertThat(filledTemplate).contains("var c1 = Root.NameField.of(value(values, 1, item));");
+    }
+
+    @Test
+    void shouldMapLabelsOfIriFieldsWithLabelsToTheirOwnColumns() {
+        var filledTemplate = template.fillTemplate(root(field("Disease", ArtifactType.IRI_FIELD, null, Cardinality.getZeroOrOne(), null, FieldInputType.TEXTFIELD),
+                                                        field("Page", ArtifactType.IRI_FIELD, null, Cardinality.getZeroOrOne(), null, FieldInputType.LINK)),
+                                                   List.of(),
+                                                   n -> false);
+        assertThat(filledTemplate).contains("new Leaf(\"Disease/rdfs:label\", \"Disease/rdfs:label\", false, null, null)");
+        assertThat(filledTemplate).contains("var c0 = Root.DiseaseField.of(value(values, 0, item), value(values, 1, item));");
+        assertThat(filledTemplate).contains("var c1 = Root.PageField.of(value(values, 2, item));");
+    }
+
+    @Test
+    void shouldPassNullForExtraRootComponents() {
+        var filledTemplate = template.fillTemplate(root(field("Name", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrOne(), null, FieldInputType.TEXTFIELD)),
+                                                   List.of(Map.entry("String", "name"), Map.entry("String", "description")),
+                                                   n -> true);
+        assertThat(filledTemplate).contains("return new Root(generateId(), null, null, c0, new AttributeValues());");
+    }
+
+    @Test
+    void shouldMapTablesWrittenByTheColumnarExportInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(),
+                                         Set.of(JavaGeneratorFeature.BULK_MAPPER, JavaGeneratorFeature.COLUMNAR_EXPORT));
+        var json = GeneratedCode.STUDY_JSON.replace("{\"@type\":\"xsd:decimal\",\"@value\":\"1.5\"}", "null")
+                                           .replace("\"S2\"", "\"S|2\\\\\"");
+        List<Object> result = code.run("""
+                var instance = new ObjectMapper().readValue((String) args[0], MetadataInstance.class);
+                var out = new StringWriter();
+                ColumnarExport.of().write(List.of(instance), out, ColumnarExport.Format.CSV);
+                var table = out.toString().replace("\\r\\nSleep", ",Extra\\r\\nSleep") + "Diet,seven,,,,,,,,,x\\r\\n";
+                var result = BulkMapper.of(BulkMapper.Format.CSV).mapAll(new StringReader(table));
+                var read = result.instances().get(0);
+                var samples = read.sample().sampleList();
+                return List.of(result.instances().size(),
+                               result.errors().get(0).row(),
+                               result.errors().get(0).column(),
+                               result.unmappedColumns(),
+                               read.title().value(),
+                               read.tag().tagList().size(),
+                               samples.get(1).sampleId().value(),
+                               samples.get(0).score() == null || samples.get(0).score().value() == null,
+                               samples.get(1).score().value());
+                """, json);
+        assertThat(result).containsExactly(1, 2L, "Age", List.of("Extra"), "Sleep and memory", 2, "S|2\\", true, "2.25");
+    }
+}
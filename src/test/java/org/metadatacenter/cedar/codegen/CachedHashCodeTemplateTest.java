@@ -0,0 +1,111 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedHashCodeTemplateTest {
+
+    private final CachedHashCodeTemplate template = new CachedHashCodeTemplate();
+
+    @Test
+    void shouldCreateEmptyCacheInConstructor() {
+        var constructor = template.fillConstructorTemplate("StudyElement",
+                                                           "String id, TitleField title",
+                                                           List.of("id", "title"),
+                                                           true);
+        assertThat(constructor).contains("@JsonCreator\n");
+        assertThat(constructor).contains("public StudyElement(String id, TitleField title) {");
+        assertThat(constructor).contains("this(id, title, null);");
+    }
+
+    @Test
+    void shouldReplaceCacheInCanonicalConstructor() {
+        var constructor = template.fillCanonicalConstructorTemplate("StudyElement", "String id, TitleField title", List.of("id", "title"));
+        assertThat(constructor).contains("public StudyElement(String id, TitleField title, HashCodeCache hashCodeCache) {");
+        assertThat(constructor).contains("this.id = id;\nthis.title = title;\n");
+        assertThat(constructor).contains("this.hashCodeCache = new HashCodeCache();");
+    }
+
+    @Test
+    void shouldDisableConstructorAsCreator() {
+        var constructor = template.fillConstructorTemplate("StudyElement", "String id", List.of("id"), false);
+        assertThat(constructor).contains("@JsonCreator(mode = JsonCreator.Mode.DISABLED)");
+    }
+
+    @Test
+    void shouldHashAndCompareComponents() {
+        var methods = String.join("\n", template.fillMethodTemplates("StudyElement", List.of("id", "title")));
+        assertThat(methods).contains("return hashCodeCache.get(this, StudyElement::hashComponents);");
+        assertThat(methods).contains("return Objects.hash(element.id, element.title);");
+        assertThat(methods).contains("hashCodeCache.differsFrom(other.hashCodeCache)");
+        assertThat(methods).contains("return Objects.equals(id, other.id)\n&& Objects.equals(title, other.title);");
+    }
+
+    @Test
+    void shouldKeepPropertyOrderWithFlatFieldsInGeneratedCode() throws Exception {
+        var snippet = """
+                var mapper = new ObjectMapper();
+                var instance = mapper.readValue((String) args[0], MetadataInstance.class);
+                return List.of(mapper.writeValueAsString(instance),
+                               instance.hashCode() == mapper.readValue((String) args[0], MetadataInstance.class).hashCode());
+                """;
+        List<Object> plain = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of())
+                                          .run(snippet, GeneratedCode.STUDY_JSON);
+        List<Object> cached = GeneratedCode.compile(GeneratedCode.studyTemplate(),
+                                                    Set.of(JavaGeneratorFeature.CACHED_HASH_CODES, JavaGeneratorFeature.FLAT_FIELDS))
+                                           .run(snippet, GeneratedCode.STUDY_JSON);
+        assertThat(cached).isEqualTo(plain);
+        assertThat(cached.get(1)).isEqualTo(true);
+    }
+
+    @Test
+    void shouldCacheHashCodesAndReturnEarlyFromEqualsInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.CACHED_HASH_CODES));
+        // The cached hash code is read and overwritten through reflection, which shows whether it is recomputed
+        List<Object> result = code.run("""
+                var mapper = new ObjectMapper();
+                var first = mapper.readValue((String) args[0], MetadataInstance.class);
+                var second = mapper.readValue((String) args[0], MetadataInstance.class);
+                var cachedHashCode = HashCodeCache.class.getDeclaredField("hashCode");
+                cachedHashCode.setAccessible(true);
+                var uncached = cachedHashCode.getInt(first.hashCodeCache());
+                var hashCode = first.hashCode();
+                var cached = cachedHashCode.getInt(first.hashCodeCache()) == hashCode;
+                cachedHashCode.setInt(first.hashCodeCache(), hashCode + 1);
+                var notRecomputed = first.hashCode() == hashCode + 1;
+                var identical = first.equals(first);
+                var comparedWithUncached = first.equals(second);
+                second.hashCode();
+                var comparedWithDifferentCached = first.equals(second);
+                return List.of(uncached, cached, notRecomputed, identical, comparedWithUncached, comparedWithDifferentCached);
+                """, GeneratedCode.STUDY_JSON);
+        assertThat(result).containsExactly(0, true, true, true, true, false);
+    }
+
+    @Test
+    void shouldNotShareHashCodeCachesInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.CACHED_HASH_CODES));
+        List<Object> result = code.run("""
+                var first = new ObjectMapper().readValue((String) args[0], MetadataInstance.class);
+                var investigator = first.investigator();
+                var copy = new MetadataInstance.InvestigatorElement(investigator.id(),
+                                                                    investigator.name(),
+                                                                    investigator.email(),
+                                                                    investigator.hashCodeCache());
+                var changed = new MetadataInstance.InvestigatorElement(investigator.id(),
+                                                                       investigator.name(),
+                                                                       null,
+                                                                       investigator.hashCodeCache());
+                return List.of(HashCodeCache.class.getConstructors().length,
+                               copy.hashCodeCache() != investigator.hashCodeCache(),
+                               investigator.hashCode() == copy.hashCode(),
+                               changed.hashCode() == investigator.hashCode(),
+                               changed.equals(investigator));
+                """, GeneratedCode.STUDY_JSON);
+        assertThat(result).containsExactly(0, true, true, false, false);
+    }
+}
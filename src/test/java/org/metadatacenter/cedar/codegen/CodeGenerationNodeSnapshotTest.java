@@ -0,0 +1,94 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+
+class CodeGenerationNodeSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private static CodeGenerationNode tree() {
+        var title = CodeGenerationNode.get("https://repo/fields/title", false, "Title", List.of(), ArtifactType.LITERAL_FIELD,
+                                           "The title", null, Required.REQUIRED, Cardinality.getZeroOrOne(),
+                                           "http://purl.org/dc/terms/title", FieldInputType.TEXTFIELD);
+        var status = CodeGenerationNode.get("https://repo/fields/status", false, "Status", List.of(), ArtifactType.LITERAL_FIELD,
+                                            "", null, Required.OPTIONAL, Cardinality.getZeroOrOne(), null,
+                                            FieldInputType.RADIO, List.of("Open", "Closed", "\u00dcnknown"));
+        var age = CodeGenerationNode.get("https://repo/fields/age", false, "Age", List.of(), ArtifactType.LITERAL_FIELD,
+                                         "", "xsd:int", Required.OPTIONAL, new Cardinality(1, 3), null,
+                                         FieldInputType.NUMERIC);
+        var link = CodeGenerationNode.get("https://repo/fields/link", false, "Link", List.of(), ArtifactType.IRI_FIELD,
+                                          "", null, Required.OPTIONAL, Cardinality.getZeroOrMore(), null,
+                                          FieldInputType.LINK);
+        var person = CodeGenerationNode.get("https://repo/elements/person", false, "Person", List.of(age, link),
+                                            ArtifactType.ELEMENT, "A person", null, Required.OPTIONAL,
+                                            Cardinality.getZeroOrMore(), null, null);
+        return CodeGenerationNode.get(null, true, "Study", List.of(title, status, person, person),
+                                      ArtifactType.TEMPLATE, "", null, Required.OPTIONAL, null, null, null);
+    }
+
+    private static byte[] toBytes(CodeGenerationNode root) throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        CodeGenerationNodeSnapshot.write(root, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    void shouldRoundTripTree() throws IOException {
+        var root = tree();
+        var read = CodeGenerationNodeSnapshot.read(new ByteArrayInputStream(toBytes(root)));
+        assertThat(read).isEqualTo(root);
+        assertThat(read.childNodes().get(1).literalOptions()).containsExactly("Open", "Closed", "\u00dcnknown");
+        assertThat(read.childNodes().get(2)).isSameAs(read.childNodes().get(3));
+    }
+
+    @Test
+    void shouldRoundTripTreeThroughMappedFile() throws IOException {
+        var root = tree();
+        var file = directory.resolve("study.snapshot");
+        CodeGenerationNodeSnapshot.write(root, file);
+        assertThat(CodeGenerationNodeSnapshot.map(file)).isEqualTo(root);
+        assertThat(CodeGenerationNodeSnapshot.read(file)).isEqualTo(root);
+    }
+
+    @Test
+    void shouldWriteSharedNodesOnce() throws IOException {
+        var root = tree();
+        var person = root.childNodes().get(2);
+        var unshared = CodeGenerationNode.get(null, true, "Study", List.of(person), ArtifactType.TEMPLATE, "", null,
+                                              Required.OPTIONAL, null, null, null);
+        var shared = CodeGenerationNode.get(null, true, "Study", List.of(person, person), ArtifactType.TEMPLATE, "",
+                                            null, Required.OPTIONAL, null, null, null);
+        assertThat(toBytes(shared).length).isEqualTo(toBytes(unshared).length + 4);
+    }
+
+    @Test
+    void shouldRejectOtherVersions() throws IOException {
+        var bytes = toBytes(tree());
+        bytes[7] = (byte) (CodeGenerationNodeSnapshot.FORMAT_VERSION + 1);
+        assertThatThrownBy(() -> CodeGenerationNodeSnapshot.read(new ByteArrayInputStream(bytes)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    void shouldRejectTruncatedSnapshots() throws IOException {
+        var bytes = toBytes(tree());
+        var truncated = Arrays.copyOf(bytes, bytes.length - 4);
+        assertThatThrownBy(() -> CodeGenerationNodeSnapshot.read(new ByteArrayInputStream(truncated)))
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,48 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+import static org.metadatacenter.cedar.codegen.GeneratedArtifactNodes.*;
+
+class ColumnarExportTemplateTest {
+
+    private final ColumnarExportTemplate template = new ColumnarExportTemplate();
+
+    @Test
+    void shouldUseTypedColumnsForIntegerAndFloatingPointDatatypes() {
+        var filledTemplate = template.fillTemplate(root(field("Age", ArtifactType.LITERAL_FIELD, "xsd:int", Cardinality.getZeroOrOne(), null, FieldInputType.NUMERIC),
+                                                        field("Weight", ArtifactType.LITERAL_FIELD, "xsd:double", Cardinality.getZeroOrOne(), null, FieldInputType.NUMERIC),
+                                                        field("Count", ArtifactType.LITERAL_FIELD, "xsd:integer", Cardinality.getZeroOrOne(), null, FieldInputType.NUMERIC)));
+        assertThat(filledTemplate).contains("new Step(path(FieldNames.Age), StepKind.LITERAL, false, ColumnType.LONG, parent -> ((Root) parent).age(), List.of())");
+        assertThat(filledTemplate).contains("new Step(path(FieldNames.Weight), StepKind.LITERAL, false, ColumnType.DOUBLE,");
+        assertThat(filledTemplate).contains("new Step(path(FieldNames.Count), StepKind.LITERAL, false, ColumnType.STRING,");
+    }
+
+    @Test
+    void shouldExportLabelsOfIriFieldsWithLabels() {
+        var filledTemplate = template.fillTemplate(root(field("Disease", ArtifactType.IRI_FIELD, null, Cardinality.getZeroOrOne(), null, FieldInputType.TEXTFIELD),
+                                                        field("Page", ArtifactType.IRI_FIELD, null, Cardinality.getZeroOrOne(), null, FieldInputType.LINK)));
+        assertThat(filledTemplate).contains("new Step(path(FieldNames.Disease), StepKind.IRI_WITH_LABEL,");
+        assertThat(filledTemplate).contains("new Step(path(FieldNames.Page), StepKind.IRI,");
+    }
+
+    @Test
+    void shouldKeepSlotsOfMissingValuesAndEscapeSeparatorsInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.COLUMNAR_EXPORT));
+        var json = GeneratedCode.STUDY_JSON.replace("{\"@type\":\"xsd:decimal\",\"@value\":\"2.25\"}", "null")
+                                           .replace("\"S2\"", "\"S|2\\\\\"");
+        String table = code.run("""
+                var instance = new ObjectMapper().readValue((String) args[0], MetadataInstance.class);
+                var out = new StringWriter();
+                ColumnarExport.of().write(List.of(instance), out, ColumnarExport.Format.CSV);
+                return out.toString();
+                """, json);
+        assertThat(table.lines().toList().get(1)).endsWith(",S1|S\\|2\\\\,1.5|");
+    }
+}
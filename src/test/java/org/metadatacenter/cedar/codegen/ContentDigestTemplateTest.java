@@ -0,0 +1,67 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+import static org.metadatacenter.cedar.codegen.GeneratedArtifactNodes.*;
+
+class ContentDigestTemplateTest {
+
+    private final ContentDigestTemplate template = new ContentDigestTemplate();
+
+    @Test
+    void shouldWriteChildrenInTemplateOrder() {
+        var filledTemplate = template.fillTemplate(root(field("Name", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrOne(), null, FieldInputType.TEXTFIELD),
+                                                        field("Disease", ArtifactType.IRI_FIELD, null, Cardinality.getZeroOrOne(), null, FieldInputType.TEXTFIELD)),
+                                                   List.of(),
+                                                   n -> false);
+        assertThat(filledTemplate).contains("var c0 = value.name();");
+        assertThat(filledTemplate).contains("writeString(c0.value());");
+        assertThat(filledTemplate).contains("writeString(c1.id());\nwriteString(c1.label());");
+        assertThat(filledTemplate.indexOf("c0 = value.name()")).isLessThan(filledTemplate.indexOf("c1 = value.disease()"));
+    }
+
+    @Test
+    void shouldWriteListSizes() {
+        var filledTemplate = template.fillTemplate(root(field("Tag", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrMore(), null, FieldInputType.TEXTFIELD)),
+                                                   List.of(),
+                                                   n -> false);
+        assertThat(filledTemplate).contains("writeVarInt(c0.tagList().size());");
+    }
+
+    @Test
+    void shouldWriteRootComponentsAndAttributeValues() {
+        var filledTemplate = template.fillTemplate(root(),
+                                                   List.of(Map.entry("String", "schemaName"), Map.entry("Instant", "pavCreatedOn")),
+                                                   n -> true);
+        assertThat(filledTemplate).contains("writeString(value.schemaName());");
+        assertThat(filledTemplate).contains("writeInstant(value.pavCreatedOn());");
+        assertThat(filledTemplate).contains("writeAttributeValues(value.attributeValues());");
+        assertThat(filledTemplate).contains("public static void update(@Nonnull MessageDigest digest, @Nonnull Root value, boolean ignoreIds) {");
+    }
+
+    @Test
+    void shouldDigestContentRegardlessOfJsonFormInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.CONTENT_DIGEST));
+        var otherIds = GeneratedCode.STUDY_JSON.replace("investigators/1", "investigators/9");
+        var otherTitle = GeneratedCode.STUDY_JSON.replace("Sleep and memory", "Sleep and Memory");
+        List<Boolean> result = code.run("""
+                var mapper = new ObjectMapper();
+                var instance = mapper.readValue((String) args[0], MetadataInstance.class);
+                var written = mapper.readValue(mapper.writeValueAsString(instance), MetadataInstance.class);
+                var otherIds = mapper.readValue((String) args[1], MetadataInstance.class);
+                var otherTitle = mapper.readValue((String) args[2], MetadataInstance.class);
+                return List.of(Arrays.equals(ContentDigest.sha256(instance, false), ContentDigest.sha256(written, false)),
+                               Arrays.equals(ContentDigest.sha256(instance, true), ContentDigest.sha256(otherIds, true)),
+                               Arrays.equals(ContentDigest.sha256(instance, false), ContentDigest.sha256(otherIds, false)),
+                               Arrays.equals(ContentDigest.sha256(instance, true), ContentDigest.sha256(otherTitle, true)));
+                """, GeneratedCode.STUDY_JSON, otherIds, otherTitle);
+        assertThat(result).containsExactly(true, true, false, false);
+    }
+}
@@ -0,0 +1,162 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.artifacts.model.core.ChildSchemaArtifact;
+import org.metadatacenter.artifacts.model.core.ElementSchemaArtifact;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ElementTranslationCacheTest {
+
+    private final AtomicInteger translations = new AtomicInteger();
+
+    private final BiFunction<ElementSchemaArtifact, List<CodeGenerationNode>, CodeGenerationNode> translation = (element, childNodes) -> {
+        translations.incrementAndGet();
+        return CodeGenerationNode.get("", false, element.name(), childNodes, CodeGenerationNode.ArtifactType.ELEMENT, element.description(),
+                                      null, CodeGenerationNode.Required.OPTIONAL, CodeGenerationNode.Cardinality.getZeroOrOne(), null, null);
+    };
+
+    private static ElementSchemaArtifact element(String id, List<ChildSchemaArtifact> childSchemas) {
+        return element(id, "", childSchemas);
+    }
+
+    private static ElementSchemaArtifact element(String id, String description, List<ChildSchemaArtifact> childSchemas) {
+        var element = mock(ElementSchemaArtifact.class);
+        when(element.jsonLdId()).thenReturn(Optional.ofNullable(id).map(URI::create));
+        when(element.name()).thenReturn("Element");
+        when(element.description()).thenReturn(description);
+        when(element.getChildSchemas()).thenReturn(childSchemas);
+        return element;
+    }
+
+    private CodeGenerationNode get(ElementTranslationCache cache, ElementSchemaArtifact element) {
+        return cache.get(element, List.of(), translation).node();
+    }
+
+    @Test
+    void shouldReturnCachedNodeOfSameElement() {
+        var cache = new ElementTranslationCache(8);
+        var element = element("https://repo/elements/1", List.of());
+        var node = get(cache, element);
+        assertThat(get(cache, element)).isSameAs(node);
+        assertThat(translations).hasValue(1);
+        assertThat(cache.getStatistics()).isEqualTo(new ElementTranslationCache.Statistics(1, 1, 0, 1));
+        assertThat(cache.getStatistics().hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void shouldReturnCachedNodeOfEqualElement() {
+        var cache = new ElementTranslationCache(8);
+        var node = get(cache, element("https://repo/elements/1", "A study element", List.of()));
+        assertThat(get(cache, element("https://repo/elements/1", "A study element", List.of()))).isSameAs(node);
+        assertThat(translations).hasValue(1);
+    }
+
+    @Test
+    void shouldTranslateChangedElementsWithSameIdAgain() {
+        var cache = new ElementTranslationCache(8);
+        get(cache, element("https://repo/elements/1", "A study element", List.of()));
+        get(cache, element("https://repo/elements/1", "A changed study element", List.of()));
+        assertThat(translations).hasValue(2);
+        assertThat(cache.getStatistics().hits()).isZero();
+        assertThat(cache.getStatistics().size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldTranslateElementsWithChangedChildrenAgain() {
+        var cache = new ElementTranslationCache(8);
+        var element = element("https://repo/elements/1", List.of());
+        var first = cache.get(element("https://repo/elements/child", "A child", List.of()), List.of(), translation);
+        var second = cache.get(element("https://repo/elements/child", "A changed child", List.of()), List.of(), translation);
+        assertThat(cache.get(element, List.of(first), translation).fingerprint())
+                .isNotEqualTo(cache.get(element, List.of(second), translation).fingerprint());
+        assertThat(translations).hasValue(4);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedElement() {
+        var cache = new ElementTranslationCache(2);
+        var first = element("https://repo/elements/1", List.of());
+        var second = element("https://repo/elements/2", List.of());
+        var third = element("https://repo/elements/3", List.of());
+        get(cache, first);
+        get(cache, second);
+        get(cache, first);
+        get(cache, third);
+        get(cache, first);
+        get(cache, second);
+        assertThat(translations).hasValue(4);
+        assertThat(cache.getStatistics()).isEqualTo(new ElementTranslationCache.Statistics(2, 4, 2, 2));
+    }
+
+    @Test
+    void shouldNotCacheElementsWithoutIds() {
+        var cache = new ElementTranslationCache(8);
+        var element = element(null, List.of());
+        get(cache, element);
+        get(cache, element);
+        assertThat(translations).hasValue(2);
+        assertThat(cache.getStatistics()).isEqualTo(new ElementTranslationCache.Statistics(0, 0, 0, 0));
+    }
+
+    @Test
+    void shouldShareNodesOfNestedElementsAcrossTemplates() {
+        var cache = new ElementTranslationCache(8);
+        var nested = element("https://repo/elements/nested", List.of());
+        var parent = element("https://repo/elements/parent", List.of(nested));
+        var firstNode = new TemplateTranslator("First", cache).toCodeGenerationNode(parent);
+        var secondNode = new TemplateTranslator("Second", cache).toCodeGenerationNode(nested);
+        assertThat(secondNode).isSameAs(firstNode.childNodes().get(0));
+        assertThat(cache.getStatistics().hits()).isEqualTo(1);
+    }
+
+    /**
+     * Nests elements to the specified depth, with the innermost element first.
+     */
+    private static List<ElementSchemaArtifact> chain(int depth, String innermostDescription) {
+        var chain = new ArrayList<ElementSchemaArtifact>();
+        chain.add(element("https://repo/elements/0", innermostDescription, List.of()));
+        for (int i = 1; i < depth; i++) {
+            chain.add(element("https://repo/elements/" + i, List.of(chain.get(i - 1))));
+        }
+        return chain;
+    }
+
+    @Test
+    void shouldTranslateDeeplyNestedRepeatedElementOnce() {
+        var cache = new ElementTranslationCache(64);
+        var chain = chain(12, "");
+        var outermost = chain.get(chain.size() - 1);
+        var pair = element("https://repo/elements/pair", List.of(outermost, outermost));
+        var node = new TemplateTranslator("Study", cache).toCodeGenerationNode(pair);
+        assertThat(node.childNodes().get(1)).isSameAs(node.childNodes().get(0));
+        // The first occurrence translates the chain and the pair, and the second finds every level of the chain
+        assertThat(cache.getStatistics()).isEqualTo(new ElementTranslationCache.Statistics(12, 13, 0, 13));
+        // Each element is visited once per occurrence, not once per ancestor
+        for (var element : chain) {
+            verify(element, times(2)).getChildSchemas();
+        }
+    }
+
+    @Test
+    void shouldTranslateAncestorsOfChangedNestedElementAgain() {
+        var cache = new ElementTranslationCache(64);
+        var translator = new TemplateTranslator("Study", cache);
+        var first = translator.toCodeGenerationNode(chain(12, "An element").get(11));
+        var second = translator.toCodeGenerationNode(chain(12, "A changed element").get(11));
+        assertThat(second).isNotSameAs(first);
+        assertThat(cache.getStatistics()).isEqualTo(new ElementTranslationCache.Statistics(0, 24, 0, 24));
+        assertThat(translator.toCodeGenerationNode(chain(12, "An element").get(11))).isSameAs(first);
+    }
+}
@@ -0,0 +1,71 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+
+class EnumLiteralFieldRecordTemplateTest {
+
+    protected static final String JAVA_RECORD_NAME = "MyEnumField";
+
+    protected static final String JAVA_DOC = "This is a test Javadoc.";
+
+    private final EnumLiteralFieldRecordTemplate template = new EnumLiteralFieldRecordTemplate();
+
+    @Test
+    void shouldDeriveUniqueConstantNames() {
+        var names = EnumLiteralFieldRecordTemplate.getConstantNames(List.of("red", "Red", "dark  blue!", "1st", "BY VALUE", "***"));
+        assertThat(names).containsExactly("RED", "RED_2", "DARK_BLUE", "_1ST", "BY_VALUE_2", "OPTION");
+    }
+
+    @Test
+    void shouldDeclareEnumConstantsWithEscapedValues() {
+        var filledTemplate = template.fillTemplate(JAVA_RECORD_NAME, JAVA_DOC, List.of("Active", "say \"hi\""));
+        assertThat(filledTemplate).containsPattern("public enum Option \\{\\s+ACTIVE\\(\"Active\"\\),\\s+SAY_HI\\(\"say \\\\\"hi\\\\\"\"\\);");
+        assertThat(filledTemplate).contains("public static record MyEnumField(@JsonIgnore Option option,");
+    }
+
+    @Test
+    void shouldKeepValuesThatAreNotListed() {
+        var filledTemplate = template.fillTemplate(JAVA_RECORD_NAME, JAVA_DOC, List.of("Active"));
+        assertThat(filledTemplate).contains("return option != null ? INSTANCES[option.ordinal()] : new MyEnumField(null, value);");
+        assertThat(filledTemplate).contains("return option != null ? option.value() : otherValue;");
+    }
+
+    @Test
+    void shouldNotNameEnumAfterRecord() {
+        var filledTemplate = template.fillTemplate("Option", JAVA_DOC, List.of("Active"));
+        assertThat(filledTemplate).contains("public enum OptionValue {");
+    }
+
+    @Test
+    void shouldRejectEmptyValues() {
+        assertThatThrownBy(() -> template.fillTemplate(JAVA_RECORD_NAME, JAVA_DOC, List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldShareRecordsForListedValuesInGeneratedCode() throws Exception {
+        var status = GeneratedCode.field("Status", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrOne(),
+                                         FieldInputType.RADIO, "Open", "Closed");
+        var code = GeneratedCode.compile(GeneratedCode.template(status), Set.of(JavaGeneratorFeature.ENUM_LITERALS));
+        List<Object> result = code.run("""
+                var mapper = new ObjectMapper();
+                var open = mapper.readValue("{\\"Status\\":{\\"@value\\":\\"Open\\"}}", MetadataInstance.class);
+                var other = mapper.readValue("{\\"Status\\":{\\"@value\\":\\"Pending\\"}}", MetadataInstance.class);
+                var read = mapper.readValue(mapper.writeValueAsString(other), MetadataInstance.class);
+                return List.of(open.status() == MetadataInstance.StatusField.of(MetadataInstance.StatusField.Option.OPEN),
+                               open.status().option().name(),
+                               other.status().isListedValue(),
+                               read.status().value(),
+                               read.equals(other));
+                """);
+        assertThat(result).containsExactly(true, "OPEN", false, "Pending", true);
+    }
+}
@@ -0,0 +1,64 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlattenedFieldTemplateTest {
+
+    @Test
+    void shouldGetComponentNamesOfLiteralField() {
+        assertThat(FlattenedFieldTemplate.getComponentNames("name", false, false)).containsExactly("nameValue");
+    }
+
+    @Test
+    void shouldGetComponentNamesOfIriField() {
+        assertThat(FlattenedFieldTemplate.getComponentNames("disease", true, true)).containsExactly("diseaseId", "diseaseLabel");
+        assertThat(FlattenedFieldTemplate.getComponentNames("homePage", true, false)).containsExactly("homePageId");
+    }
+
+    @Test
+    void shouldCopyNullSafeComponentValues() {
+        assertThat(FlattenedFieldTemplate.getComponentValues("name", false, false))
+                .isEqualTo("name != null ? name.value() : null");
+        assertThat(FlattenedFieldTemplate.getComponentValues("disease", true, true))
+                .isEqualTo("disease != null ? disease.id() : null,\ndisease != null ? disease.label() : null");
+    }
+
+    @Test
+    void shouldFillAccessorTemplate() {
+        var filledTemplate = new FlattenedFieldTemplate().fillAccessorTemplate("DiseaseField", "disease",
+                                                                               "@JsonProperty(FieldNames.Disease)",
+                                                                               List.of("diseaseId", "diseaseLabel"));
+        assertThat(filledTemplate).contains("@JsonProperty(FieldNames.Disease)\n    public DiseaseField disease() {");
+        assertThat(filledTemplate).contains("return DiseaseField.of(diseaseId, diseaseLabel);");
+    }
+
+    @Test
+    void shouldOnlyAnnotateCreatorConstructor() {
+        var template = new FlattenedFieldTemplate();
+        assertThat(template.fillConstructorTemplate("E", "String id", "id", true)).contains("@JsonCreator\n");
+        assertThat(template.fillConstructorTemplate("E", "String id", "id", false)).contains("@JsonCreator(mode = JsonCreator.Mode.DISABLED)");
+    }
+
+    @Test
+    void shouldStoreFieldsInlineWithoutChangingJsonInGeneratedCode() throws Exception {
+        var snippet = """
+                var mapper = new ObjectMapper();
+                var instance = mapper.readValue((String) args[0], MetadataInstance.class);
+                return List.of(instance.title().value(),
+                               instance.disease().label(),
+                               instance.investigator().name().value(),
+                               mapper.readValue(mapper.writeValueAsString(instance), MetadataInstance.class).equals(instance),
+                               mapper.writeValueAsString(instance));
+                """;
+        List<Object> flat = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.FLAT_FIELDS))
+                                         .run(snippet, GeneratedCode.STUDY_JSON);
+        List<Object> nested = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of())
+                                           .run(snippet, GeneratedCode.STUDY_JSON);
+        assertThat(flat).containsExactly("Sleep and memory", "sleep disorder", "Ada", true, nested.get(4));
+    }
+}
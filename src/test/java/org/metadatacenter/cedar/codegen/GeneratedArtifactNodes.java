@@ -0,0 +1,56 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+
+/**
+ * Builds small trees of generated artifact nodes for template tests.  Nodes are given the type names that the
+ * generator gives them when the root class is called {@code Root}, for example {@code Root.NameField} for a field
+ * called {@code Name}.
+ */
+final class GeneratedArtifactNodes {
+
+    private GeneratedArtifactNodes() {
+    }
+
+    /**
+     * Creates an optional, single valued, text field without a datatype or property IRI.
+     */
+    static GeneratedArtifactNode literalField(String name) {
+        return literalField(name, null, Cardinality.getZeroOrOne());
+    }
+
+    /**
+     * Creates an optional text field with the specified datatype and cardinality.
+     */
+    static GeneratedArtifactNode literalField(String name, @Nullable String datatype, Cardinality cardinality) {
+        return field(name, ArtifactType.LITERAL_FIELD, datatype, cardinality, null, FieldInputType.TEXTFIELD);
+    }
+
+    static GeneratedArtifactNode field(String name,
+                                       ArtifactType artifactType,
+                                       @Nullable String datatype,
+                                       Cardinality cardinality,
+                                       @Nullable String propertyIri,
+                                       @Nullable FieldInputType inputType) {
+        var node = CodeGenerationNode.get("", false, name, List.of(), artifactType, "",
+                                          datatype, Required.OPTIONAL, cardinality, propertyIri, inputType);
+        return new GeneratedArtifactNode(node, name + "Field", "Root." + name + "Field", name.toLowerCase(), name, List.of());
+    }
+
+    static GeneratedArtifactNode element(String name, Cardinality cardinality, GeneratedArtifactNode... childNodes) {
+        var node = CodeGenerationNode.get("", false, name, List.of(), ArtifactType.ELEMENT, "",
+                                          null, Required.OPTIONAL, cardinality, null, null);
+        return new GeneratedArtifactNode(node, name + "Element", "Root." + name + "Element", name.toLowerCase(), name, List.of(childNodes));
+    }
+
+    static GeneratedArtifactNode root(GeneratedArtifactNode... childNodes) {
+        var node = CodeGenerationNode.get("", true, "Root", List.of(), ArtifactType.TEMPLATE, "",
+                                          null, Required.OPTIONAL, null, null, null);
+        return new GeneratedArtifactNode(node, "Root", "Root", "root", "Root", List.of(childNodes));
+    }
+}
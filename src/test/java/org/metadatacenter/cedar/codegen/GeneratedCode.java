@@ -0,0 +1,326 @@
+package org.metadatacenter.cedar.codegen;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+
+/**
+ * Generates the code for a template, compiles it in memory, and runs snippets of code against the compiled classes,
+ * so that tests can check the behaviour of the generated code rather than its text.
+ * <p>
+ * A snippet is the body of a method that returns an object.  It can use the nested types of the root class without
+ * qualification, the types of {@code java.io}, {@code java.nio.file}, {@code java.util} and
+ * {@code java.util.stream}, and the types of {@code com.fasterxml.jackson.databind}.  The arguments that are passed
+ * to {@link #run(String, Object...)} are available as {@code args}.
+ */
+final class GeneratedCode {
+
+    static final String PACKAGE_NAME = "org.example.generated";
+
+    static final String ROOT_CLASS_NAME = "Study";
+
+    /**
+     * An instance of the {@link #studyTemplate() study template}, in the form that the generated records write it.
+     */
+    static final String STUDY_JSON = """
+            {"@id":"https://example.org/studies/1",\
+            "Title":{"@value":"Sleep and memory"},\
+            "Age":{"@type":"xsd:int","@value":"42"},\
+            "Weight":{"@type":"xsd:double","@value":"71.5"},\
+            "Tag":[{"@value":"sleep"},{"@value":"memory"}],\
+            "Disease":{"@id":"http://purl.obolibrary.org/obo/DOID_535","rdfs:label":"sleep disorder"},\
+            "Investigator":{"@id":"https://example.org/investigators/1","Name":{"@value":"Ada"},\
+            "Email":{"@value":"ada@example.org"}},\
+            "Sample":[{"@id":"https://example.org/samples/1","SampleId":{"@value":"S1"},\
+            "Score":{"@type":"xsd:decimal","@value":"1.5"}},\
+            {"@id":"https://example.org/samples/2","SampleId":{"@value":"S2"},\
+            "Score":{"@type":"xsd:decimal","@value":"2.25"}}]}""";
+
+    private static final String SNIPPET_TEMPLATE = """
+            package ${packageName};
+
+            import java.io.*;
+            import java.nio.file.*;
+            import java.util.*;
+            import java.util.stream.*;
+            import com.fasterxml.jackson.databind.*;
+            import ${packageName}.${rootClassName}.*;
+
+            public class ${className} implements java.util.concurrent.Callable<Object> {
+
+                private final Object[] args;
+
+                public ${className}(Object[] args) {
+                    this.args = args;
+                }
+
+                @Override
+                public Object call() throws Exception {
+            ${statements}
+                }
+            }
+            """;
+
+    private final Map<String, byte[]> classFiles = new ConcurrentHashMap<>();
+
+    private final ClassLoader classLoader = new ClassLoader(GeneratedCode.class.getClassLoader()) {
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            var bytes = classFiles.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    };
+
+    private final String sourceCode;
+
+    private int snippetCount = 0;
+
+    private GeneratedCode(String sourceCode) {
+        this.sourceCode = sourceCode;
+    }
+
+    /**
+     * Generates the code for the specified template with the specified features and compiles it.
+     */
+    static GeneratedCode compile(@Nonnull CodeGenerationNode template, @Nonnull Set<JavaGeneratorFeature> features) {
+        var generator = new JavaGenerator(PACKAGE_NAME, ROOT_CLASS_NAME,
+                                          new JavaTypeNamesOracle(JavaTypeNameFormat.SUFFIX_WITH_ARTIFACT_TYPE),
+                                          features);
+        var generatedCode = new GeneratedCode(generator.generateJava(template));
+        generatedCode.compile(PACKAGE_NAME + "." + ROOT_CLASS_NAME, generatedCode.sourceCode);
+        return generatedCode;
+    }
+
+    String sourceCode() {
+        return sourceCode;
+    }
+
+    /**
+     * Compiles the specified snippet against the generated code and runs it with the specified arguments.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T run(@Nonnull String statements, Object... args) throws Exception {
+        var className = "Snippet" + (snippetCount++);
+        var source = SNIPPET_TEMPLATE.replace("${packageName}", PACKAGE_NAME)
+                                     .replace("${rootClassName}", ROOT_CLASS_NAME)
+                                     .replace("${className}", className)
+                                     .replace("${statements}", statements.indent(8));
+        compile(PACKAGE_NAME + "." + className, source);
+        var snippet = (Callable<Object>) classLoader.loadClass(PACKAGE_NAME + "." + className)
+                                                    .getConstructor(Object[].class)
+                                                    .newInstance((Object) args);
+        return (T) snippet.call();
+    }
+
+    private void compile(String className, String source) {
+        var compiler = ToolProvider.getSystemJavaCompiler();
+        var diagnostics = new DiagnosticCollector<JavaFileObject>();
+        var standardFileManager = compiler.getStandardFileManager(diagnostics, null, null);
+        var fileManager = new MemoryFileManager(standardFileManager, classFiles);
+        var options = List.of("-classpath", classPath(), "-proc:none", "-nowarn");
+        var sourceFile = new SourceFile(className, source);
+        var success = compiler.getTask(null, fileManager, diagnostics, options, null, List.of(sourceFile)).call();
+        if (!success) {
+            var errors = diagnostics.getDiagnostics()
+                                    .stream()
+                                    .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                                    .map(d -> "line " + d.getLineNumber() + ": " + d.getMessage(null))
+                                    .collect(Collectors.joining("\n"));
+            throw new AssertionError("Could not compile " + className + "\n" + errors);
+        }
+    }
+
+    /**
+     * Gets the class path of the test, together with the locations of the libraries that the generated code uses, in
+     * case the test runs from a jar whose manifest holds the class path.
+     */
+    private static String classPath() {
+        var entries = new LinkedHashSet<String>();
+        entries.add(System.getProperty("java.class.path"));
+        for (var type : List.of(JsonProperty.class, JsonParser.class, ObjectMapper.class, Nonnull.class)) {
+            try {
+                entries.add(Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    /**
+     * A small template with literal, numeric, IRI and list valued fields, a single element, and a list of elements.
+     * Every artifact has a property IRI under {@code https://example.org/}.
+     */
+    static CodeGenerationNode studyTemplate() {
+        var investigator = element("Investigator", Cardinality.getZeroOrOne(),
+                                   field("Name", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrOne(), FieldInputType.TEXTFIELD),
+                                   field("Email", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrOne(), FieldInputType.EMAIL));
+        var sample = element("Sample", Cardinality.getZeroOrMore(),
+                             field("SampleId", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrOne(), FieldInputType.TEXTFIELD),
+                             field("Score", ArtifactType.LITERAL_FIELD, "xsd:decimal", Cardinality.getZeroOrOne(), FieldInputType.NUMERIC));
+        return template(field("Title", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrOne(), FieldInputType.TEXTFIELD),
+                        field("Age", ArtifactType.LITERAL_FIELD, "xsd:int", Cardinality.getZeroOrOne(), FieldInputType.NUMERIC),
+                        field("Weight", ArtifactType.LITERAL_FIELD, "xsd:double", Cardinality.getZeroOrOne(), FieldInputType.NUMERIC),
+                        field("Tag", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrMore(), FieldInputType.TEXTFIELD),
+                        field("Disease", ArtifactType.IRI_FIELD, null, Cardinality.getZeroOrOne(), FieldInputType.TEXTFIELD),
+                        investigator,
+                        sample);
+    }
+
+    static CodeGenerationNode template(CodeGenerationNode... childNodes) {
+        return CodeGenerationNode.get("https://repo.example.org/templates/study", true, "Study", List.of(childNodes),
+                                      ArtifactType.TEMPLATE, "A study", null, Required.OPTIONAL, null, null, null);
+    }
+
+    static CodeGenerationNode field(String name,
+                                    ArtifactType artifactType,
+                                    @Nullable String datatype,
+                                    Cardinality cardinality,
+                                    FieldInputType inputType,
+                                    String... literalOptions) {
+        return CodeGenerationNode.get("https://repo.example.org/fields/" + name, false, name, List.of(), artifactType,
+                                      "", datatype, Required.OPTIONAL, cardinality,
+                                      "https://example.org/" + name, inputType, List.of(literalOptions));
+    }
+
+    static CodeGenerationNode element(String name, Cardinality cardinality, CodeGenerationNode... childNodes) {
+        return CodeGenerationNode.get("https://repo.example.org/elements/" + name, false, name, List.of(childNodes),
+                                      ArtifactType.ELEMENT, "", null, Required.OPTIONAL, cardinality,
+                                      "https://example.org/" + name, null);
+    }
+
+    private static final class SourceFile extends SimpleJavaFileObject {
+
+        private final String source;
+
+        private SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    private static final class ClassFile extends SimpleJavaFileObject {
+
+        private final String className;
+
+        private final Map<String, byte[]> classFiles;
+
+        private ClassFile(String className, Map<String, byte[]> classFiles) {
+            super(URI.create("memory:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+            this.className = className;
+            this.classFiles = classFiles;
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return new ByteArrayInputStream(classFiles.get(className));
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    classFiles.put(className, toByteArray());
+                }
+            };
+        }
+    }
+
+    /**
+     * A file manager that writes class files to memory and lists the classes that were compiled earlier, so that
+     * snippets can be compiled against the generated code.
+     */
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, byte[]> classFiles;
+
+        private MemoryFileManager(StandardJavaFileManager fileManager, Map<String, byte[]> classFiles) {
+            super(fileManager);
+            this.classFiles = classFiles;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location,
+                                                   String className,
+                                                   JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            return new ClassFile(className, classFiles);
+        }
+
+        @Override
+        public Iterable<JavaFileObject> list(Location location,
+                                             String packageName,
+                                             Set<JavaFileObject.Kind> kinds,
+                                             boolean recurse) throws IOException {
+            var files = new ArrayList<JavaFileObject>();
+            super.list(location, packageName, kinds, recurse).forEach(files::add);
+            if (location == StandardLocation.CLASS_PATH && kinds.contains(JavaFileObject.Kind.CLASS)) {
+                for (var className : classFiles.keySet()) {
+                    var lastDot = className.lastIndexOf('.');
+                    var classPackageName = lastDot == -1 ? "" : className.substring(0, lastDot);
+                    if (classPackageName.equals(packageName) || recurse && classPackageName.startsWith(packageName + ".")) {
+                        files.add(new ClassFile(className, classFiles));
+                    }
+                }
+            }
+            return files;
+        }
+
+        @Override
+        public String inferBinaryName(Location location, JavaFileObject file) {
+            if (file instanceof ClassFile classFile) {
+                return classFile.className;
+            }
+            return super.inferBinaryName(location, file);
+        }
+
+        @Override
+        public boolean isSameFile(FileObject a, FileObject b) {
+            if (a instanceof ClassFile || b instanceof ClassFile) {
+                return a.equals(b);
+            }
+            return super.isSameFile(a, b);
+        }
+    }
+}
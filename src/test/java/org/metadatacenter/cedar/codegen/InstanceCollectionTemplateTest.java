@@ -0,0 +1,64 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+import static org.metadatacenter.cedar.codegen.GeneratedArtifactNodes.*;
+
+class InstanceCollectionTemplateTest {
+
+    private final InstanceCollectionTemplate template = new InstanceCollectionTemplate();
+
+    @Test
+    void shouldReadIriFieldValuesById() {
+        var filledTemplate = template.fillTemplate(root(field("Disease", ArtifactType.IRI_FIELD, null, Cardinality.getZeroOrOne(), null, null)));
+        assertThat(filledTemplate).contains("Map.entry(path(FieldNames.Disease), new Key(path(FieldNames.Disease), false, InstanceCollection::valuesAt0))");
+        assertThat(filledTemplate).contains("if (v1.id() != null && test.test(v1.id())) {");
+    }
+
+    @Test
+    void shouldCompareNumericValuesNumerically() {
+        var filledTemplate = template.fillTemplate(root(field("Age", ArtifactType.LITERAL_FIELD, "xsd:int", Cardinality.getZeroOrOne(), null, null)));
+        assertThat(filledTemplate).contains("new Key(path(FieldNames.Age), true, InstanceCollection::valuesAt0)");
+    }
+
+    @Test
+    void shouldReadEveryItemOfListValuedFields() {
+        var filledTemplate = template.fillTemplate(root(field("Tag", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrMore(), null, null)));
+        assertThat(filledTemplate).contains("var l1 = v0.tag();");
+        assertThat(filledTemplate).contains("for (var v1 : l1.tagList()) {");
+    }
+
+    @Test
+    void shouldSelectInstancesFromIndexesInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.INSTANCE_COLLECTION));
+        var young = GeneratedCode.STUDY_JSON.replace("\"42\"", "\"7\"").replace("\"memory\"", "\"diet\"");
+        var middle = GeneratedCode.STUDY_JSON.replace("\"42\"", "\"30\"");
+        List<Object> result = code.run("""
+                var mapper = new ObjectMapper();
+                var instances = new ArrayList<MetadataInstance>();
+                for (var json : args) {
+                    instances.add(mapper.readValue((String) json, MetadataInstance.class));
+                }
+                var collection = new InstanceCollection(instances);
+                var age = InstanceCollection.path(FieldNames.Age);
+                var tag = InstanceCollection.path(FieldNames.Tag);
+                var unindexed = List.of(collection.count(InstanceCollection.between(age, "10", "50")),
+                                        collection.count(InstanceCollection.between(age, "50", "10")));
+                collection.createSortedIndex(age);
+                collection.createHashIndex(tag);
+                return List.of(unindexed,
+                               collection.count(InstanceCollection.between(age, "10", "50")),
+                               collection.count(InstanceCollection.between(age, "50", "10")),
+                               collection.count(InstanceCollection.between(age, "8", null)),
+                               collection.select(InstanceCollection.equalTo(tag, "memory"),
+                                                 InstanceCollection.between(age, null, "35")).get(0).equals(instances.get(2)),
+                               collection.count(InstanceCollection.equalTo(tag, "memory")));
+                """, GeneratedCode.STUDY_JSON, young, middle);
+        assertThat(result).containsExactly(List.of(2, 0), 2, 0, 2, true, 2);
+    }
+}
@@ -0,0 +1,65 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+import static org.metadatacenter.cedar.codegen.GeneratedArtifactNodes.*;
+
+class InstanceDiffTemplateTest {
+
+    private final InstanceDiffTemplate template = new InstanceDiffTemplate();
+
+    @Test
+    void shouldReplaceChangedFields() {
+        var filledTemplate = template.fillTemplate(root(literalField("Name")), Map.of(), n -> false);
+        assertThat(filledTemplate).contains("if (!Objects.equals(f0, t0)) {\naddChange(changes, path, FieldNames.Name, t0);");
+        assertThat(filledTemplate).contains("c0 = (Root.NameField) newValue;");
+    }
+
+    @Test
+    void shouldRecurseIntoElementsAndListItems() {
+        var filledTemplate = template.fillTemplate(root(element("Study", Cardinality.getZeroOrOne(), literalField("Title")),
+                                                        element("Sample", Cardinality.getZeroOrMore(), literalField("Tag"))),
+                                                   Map.of(),
+                                                   n -> false);
+        assertThat(filledTemplate).contains("diffRoot_StudyElement(f0, t0, path, changes);");
+        assertThat(filledTemplate).contains("c0 = applyRoot_StudyElement(c0, path, depth + 1, newValue);");
+        assertThat(filledTemplate).contains("diffRoot_SampleElement(fromItem, toItem, path, changes);");
+        assertThat(filledTemplate).contains("c1 = Root.SampleElementList.of(items);");
+    }
+
+    @Test
+    void shouldDiffRootPropertiesByJsonName() {
+        var rootProperties = new LinkedHashMap<String, Map.Entry<String, String>>();
+        rootProperties.put("schema:name", Map.entry("String", "schemaName"));
+        rootProperties.put("pav:createdOn", Map.entry("Instant", "pavCreatedOn"));
+        var filledTemplate = template.fillTemplate(root(), rootProperties, n -> false);
+        assertThat(filledTemplate).contains("addChange(changes, path, \"schema:name\", to.schemaName());");
+        assertThat(filledTemplate).contains("e1 = (Instant) newValue;");
+        assertThat(filledTemplate).contains("return new Root(id, e0, e1);");
+    }
+
+    @Test
+    void shouldApplyComputedPatchesInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.INSTANCE_DIFF));
+        var changed = GeneratedCode.STUDY_JSON.replace("Sleep and memory", "Diet").replace("\"2.25\"", "\"3.5\"");
+        List<Object> result = code.run("""
+                var mapper = new ObjectMapper();
+                var from = mapper.readValue((String) args[0], MetadataInstance.class);
+                var to = mapper.readValue((String) args[1], MetadataInstance.class);
+                var patch = InstanceDiff.diff(from, to);
+                var patched = InstanceDiff.apply(from, patch);
+                return List.of(patch.changes().stream().map(InstanceDiff.Change::path).toList(),
+                               patched.equals(to),
+                               patched.investigator() == from.investigator(),
+                               InstanceDiff.diff(patched, to).changes().isEmpty());
+                """, GeneratedCode.STUDY_JSON, changed);
+        assertThat(result).containsExactly(List.of(List.of("Title"), List.of("Sample", 1, "Score")), true, true, true);
+    }
+}
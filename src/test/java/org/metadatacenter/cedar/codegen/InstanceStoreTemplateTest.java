@@ -0,0 +1,73 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+import static org.metadatacenter.cedar.codegen.GeneratedArtifactNodes.*;
+
+class InstanceStoreTemplateTest {
+
+    private final InstanceStoreTemplate template = new InstanceStoreTemplate();
+
+    @Test
+    void shouldStoreNumbersInFixedSlots() {
+        var filledTemplate = template.fillTemplate(root(literalField("Age", "xsd:int", Cardinality.getZeroOrOne()),
+                                                        literalField("Weight", "xsd:double", Cardinality.getZeroOrOne()),
+                                                        literalField("Name", null, Cardinality.getZeroOrOne())));
+        assertThat(filledTemplate).contains("private static final int LEAF_COUNT = 3;");
+        assertThat(filledTemplate).contains("putLong(bitmap, slots, 0, leaf0(instance));");
+        assertThat(filledTemplate).contains("putDouble(bitmap, slots, 1, leaf1(instance));");
+        assertThat(filledTemplate).contains("slots[2] = putString(leaf2(instance));");
+        assertThat(filledTemplate).contains("public boolean hasAge() {");
+        assertThat(filledTemplate).contains("public double weight() {");
+        assertThat(filledTemplate).contains("public String name() {");
+    }
+
+    @Test
+    void shouldStoreFieldsOfElementListsAsLists() {
+        var filledTemplate = template.fillTemplate(root(element("Sample", Cardinality.getZeroOrMore(), literalField("Age", "xsd:int", Cardinality.getZeroOrOne()))));
+        assertThat(filledTemplate).contains("for (var v1 : l1.sampleList()) {");
+        assertThat(filledTemplate).contains("slots[0] = putStrings(values);");
+        assertThat(filledTemplate).contains("public List<String> sampleAge() {");
+    }
+
+    @Test
+    void shouldNotUseReservedNamesForAccessors() {
+        var filledTemplate = template.fillTemplate(root(literalField("Ordinal", null, Cardinality.getZeroOrOne())));
+        assertThat(filledTemplate).contains("public String ordinal2() {");
+    }
+
+    @Test
+    void shouldReadAppendedInstancesAfterReopeningInGeneratedCode(@TempDir Path directory) throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.INSTANCE_STORE));
+        var second = GeneratedCode.STUDY_JSON.replace("Sleep and memory", "Diet").replace("""
+                "Weight":{"@type":"xsd:double","@value":"71.5"},""", "");
+        List<Object> result = code.run("""
+                var mapper = new ObjectMapper();
+                var instances = List.of(mapper.readValue((String) args[1], MetadataInstance.class),
+                                        mapper.readValue((String) args[2], MetadataInstance.class));
+                try (var store = InstanceStore.open((Path) args[0])) {
+                    store.appendAll(instances);
+                }
+                try (var store = InstanceStore.open((Path) args[0])) {
+                    var first = store.get(0);
+                    var last = store.get(1);
+                    return List.of(store.size(),
+                                   first.title(),
+                                   first.age(),
+                                   first.weight(),
+                                   first.tag(),
+                                   last.title(),
+                                   last.hasWeight(),
+                                   last.materialize().equals(instances.get(1)));
+                }
+                """, directory, GeneratedCode.STUDY_JSON, second);
+        assertThat(result).containsExactly(2L, "Sleep and memory", 42L, 71.5, List.of("sleep", "memory"), "Diet", false, true);
+    }
+}
@@ -0,0 +1,61 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IriFieldRecordTemplateTest {
+
+    protected static final String JAVA_RECORD_NAME = "MyIriField";
+
+    protected static final String JAVA_DOC = "This is a test Javadoc.";
+
+    private final IriFieldRecordTemplate template = new IriFieldRecordTemplate();
+
+    @Test
+    void shouldUseFactoryAsJsonCreatorByDefault() {
+        var filledTemplate = template.fillTemplate(JAVA_RECORD_NAME, JAVA_DOC);
+        assertThat(filledTemplate).containsPattern("@JsonCreator\\s+public static MyIriField of\\(@JsonProperty\\(\"@id\"\\) String id");
+        assertThat(filledTemplate).doesNotContain("TermDictionary");
+    }
+
+    @Test
+    void shouldInternInstancesReadFromJson() {
+        var filledTemplate = template.fillTemplate(JAVA_RECORD_NAME, JAVA_DOC, true);
+        assertThat(filledTemplate).contains("private static final TermDictionary<MyIriField> DICTIONARY = new TermDictionary<>();");
+        assertThat(filledTemplate).contains("return id == null && label == null ? EMPTY : DICTIONARY.intern(new MyIriField(id, label));");
+        assertThat(filledTemplate.indexOf("@JsonCreator")).isEqualTo(filledTemplate.lastIndexOf("@JsonCreator"));
+    }
+
+    @Test
+    void shouldInternInstancesWithoutLabelReadFromJson() {
+        var filledTemplate = template.fillTemplateWithoutLabel(JAVA_RECORD_NAME, JAVA_DOC, true);
+        assertThat(filledTemplate).contains("public static MyIriField fromJson(@JsonProperty(\"@id\") String id)");
+        assertThat(filledTemplate).contains("return id == null ? EMPTY : DICTIONARY.intern(new MyIriField(id));");
+    }
+
+    @Test
+    void shouldShareEmptyInstanceInGeneratedCode() throws Exception {
+        var snippet = """
+                var mapper = new ObjectMapper();
+                var instance = mapper.readValue((String) args[0], MetadataInstance.class);
+                var withoutLabel = mapper.readValue((String) args[1], MetadataInstance.class);
+                return List.of(MetadataInstance.DiseaseField.of() == MetadataInstance.DiseaseField.of(),
+                               MetadataInstance.DiseaseField.of(null, null) == MetadataInstance.DiseaseField.of(),
+                               instance.disease() == MetadataInstance.DiseaseField.of(),
+                               withoutLabel.disease() == MetadataInstance.DiseaseField.of(),
+                               MetadataInstance.DiseaseField.of("http://purl.obolibrary.org/obo/DOID_535", null) == MetadataInstance.DiseaseField.of());
+                """;
+        var json = "{\"Disease\":{\"@id\":null,\"rdfs:label\":null}}";
+        var jsonWithoutLabel = "{\"Disease\":{\"@id\":null}}";
+        List<Object> result = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of())
+                                           .run(snippet, json, jsonWithoutLabel);
+        assertThat(result).containsExactly(true, true, true, true, false);
+        List<Object> interned = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.INTERNED_IRIS))
+                                             .run(snippet, json, jsonWithoutLabel);
+        assertThat(interned).isEqualTo(result);
+    }
+}
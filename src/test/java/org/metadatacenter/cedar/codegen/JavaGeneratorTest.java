@@ -0,0 +1,100 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+
+class JavaGeneratorTest {
+
+    private static CodeGenerationNode[] fields(String prefix, int count) {
+        var fields = new ArrayList<CodeGenerationNode>();
+        for (int i = 0; i < count; i++) {
+            fields.add(GeneratedCode.field(prefix + i, ArtifactType.LITERAL_FIELD, i % 3 == 0 ? "xsd:int" : null,
+                                           i % 5 == 0 ? Cardinality.getZeroOrMore() : Cardinality.getZeroOrOne(), FieldInputType.TEXTFIELD));
+        }
+        return fields.toArray(CodeGenerationNode[]::new);
+    }
+
+    private static CodeGenerationNode element(String name, Cardinality cardinality, CodeGenerationNode[] fields, CodeGenerationNode... elements) {
+        var childNodes = new ArrayList<>(List.of(fields));
+        childNodes.addAll(List.of(elements));
+        return GeneratedCode.element(name, cardinality, childNodes.toArray(CodeGenerationNode[]::new));
+    }
+
+    /**
+     * A template with more children than fit in one batch of child declarations, and with elements of the same name at
+     * different depths, whose type names depend on the order in which they are named.
+     */
+    private static CodeGenerationNode wideNestedTemplate() {
+        var sample = element("Sample", Cardinality.getZeroOrMore(), fields("SampleField", 34));
+        var assay = element("Assay", Cardinality.getZeroOrOne(), fields("AssayField", 34),
+                            element("Sample", Cardinality.getZeroOrOne(), fields("AssaySample", 10)));
+        var site = element("Site", Cardinality.getZeroOrMore(), fields("SiteField", 34), sample, assay);
+        var childNodes = new ArrayList<>(List.of(fields("Field", 70)));
+        childNodes.add(site);
+        childNodes.add(sample);
+        childNodes.add(assay);
+        return GeneratedCode.template(childNodes.toArray(CodeGenerationNode[]::new));
+    }
+
+    private static String generate(CodeGenerationNode template) {
+        var generator = new JavaGenerator(GeneratedCode.PACKAGE_NAME,
+                                          GeneratedCode.ROOT_CLASS_NAME,
+                                          new JavaTypeNamesOracle(JavaTypeNameFormat.SUFFIX_WITH_ARTIFACT_TYPE),
+                                          Set.of(JavaGeneratorFeature.VALIDATOR, JavaGeneratorFeature.CONTENT_DIGEST));
+        return generator.generateJava(template);
+    }
+
+    private static String generateInPool(CodeGenerationNode template, int parallelism) throws Exception {
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> generate(template)).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void shouldGenerateTheSameCodeWhateverTheParallelism() throws Exception {
+        var template = wideNestedTemplate();
+        var sequential = generateInPool(template, 1);
+        assertThat(sequential).contains("record SiteElement(").contains("record SampleElement(");
+        assertThat(generateInPool(template, 1)).isEqualTo(sequential);
+        assertThat(generateInPool(template, 8)).isEqualTo(sequential);
+        assertThat(generateInPool(template, 8)).isEqualTo(sequential);
+        assertThat(generate(template)).isEqualTo(sequential);
+    }
+
+    @Test
+    void shouldShareEmptyListsExceptRequiredElementListsInGeneratedCode() throws Exception {
+        var site = CodeGenerationNode.get("https://repo.example.org/elements/Site", false, "Site",
+                                          List.of(GeneratedCode.field("Code", ArtifactType.LITERAL_FIELD, null,
+                                                                      Cardinality.getZeroOrOne(), FieldInputType.TEXTFIELD)),
+                                          ArtifactType.ELEMENT, "", null, Required.REQUIRED, Cardinality.getZeroOrMore(),
+                                          "https://example.org/Site", null);
+        var studyTemplate = GeneratedCode.studyTemplate();
+        var childNodes = new ArrayList<>(studyTemplate.childNodes());
+        childNodes.add(site);
+        var code = GeneratedCode.compile(GeneratedCode.template(childNodes.toArray(CodeGenerationNode[]::new)), Set.of());
+        List<Object> result = code.run("""
+                var first = MetadataInstance.SiteElementList.of();
+                var second = MetadataInstance.SiteElementList.of();
+                return List.of(MetadataInstance.TagFieldList.of() == MetadataInstance.TagFieldList.of(),
+                               MetadataInstance.TagFieldList.of().tagList().isEmpty(),
+                               MetadataInstance.SampleElementList.of() == MetadataInstance.SampleElementList.of(),
+                               MetadataInstance.of().sample() == MetadataInstance.SampleElementList.of(),
+                               first != second,
+                               first.siteList().size(),
+                               !first.siteList().get(0).id().equals(second.siteList().get(0).id()),
+                               MetadataInstance.of().site() != MetadataInstance.of().site());
+                """);
+        assertThat(result).containsExactly(true, true, true, true, true, 1, true, true);
+    }
+}
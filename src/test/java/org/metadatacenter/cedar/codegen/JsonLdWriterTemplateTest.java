@@ -0,0 +1,113 @@
+package org.metadatacenter.cedar.codegen;
+
+import com.apicatalog.jsonld.JsonLd;
+import com.apicatalog.jsonld.document.JsonDocument;
+import com.apicatalog.rdf.io.nquad.NQuadsWriter;
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+
+class JsonLdWriterTemplateTest {
+
+    private final JsonLdWriterTemplate template = new JsonLdWriterTemplate();
+
+    private static GeneratedArtifactNode field(String parent, String name, String propertyIri) {
+        var node = CodeGenerationNode.get("", false, name, List.of(), ArtifactType.LITERAL_FIELD, "",
+                                          null, Required.OPTIONAL, Cardinality.getZeroOrOne(), propertyIri, FieldInputType.TEXTFIELD);
+        return new GeneratedArtifactNode(node, name + "Field", parent + "." + name + "Field", name.toLowerCase(), name, List.of());
+    }
+
+    private static GeneratedArtifactNode element(String name, String propertyIri, GeneratedArtifactNode... childNodes) {
+        var node = CodeGenerationNode.get("", false, name, List.of(), ArtifactType.ELEMENT, "",
+                                          null, Required.OPTIONAL, Cardinality.getZeroOrOne(), propertyIri, null);
+        return new GeneratedArtifactNode(node, name + "Element", "Root." + name + "Element", name.toLowerCase(), name, List.of(childNodes));
+    }
+
+    private static GeneratedArtifactNode root(GeneratedArtifactNode... childNodes) {
+        var node = CodeGenerationNode.get("", true, "Root", List.of(), ArtifactType.TEMPLATE, "",
+                                          null, Required.OPTIONAL, null, null, null);
+        return new GeneratedArtifactNode(node, "Root", "Root", "root", "Root", List.of(childNodes));
+    }
+
+    @Test
+    void shouldShareTermsWithOneDefinition() {
+        var filledTemplate = template.fillTemplate(root(field("Root", "Title", "https://example.org/title"),
+                                                        element("Study", "https://example.org/study",
+                                                                field("Root.StudyElement", "Name", "https://example.org/name"))),
+                                                   Map.of("xsd", "\"http://www.w3.org/2001/XMLSchema#\""));
+        assertThat(filledTemplate).contains("context.put(\"Title\", \"https://example.org/title\");");
+        assertThat(filledTemplate).contains("context.put(\"Name\", \"https://example.org/name\");");
+        assertThat(filledTemplate).contains("context.put(\"xsd\", \"http://www.w3.org/2001/XMLSchema#\");");
+        assertThat(filledTemplate).doesNotContain("contexts.put(");
+    }
+
+    @Test
+    void shouldKeepTermsWithDifferentDefinitionsInLocalContexts() {
+        var filledTemplate = template.fillTemplate(root(field("Root", "Title", "https://example.org/title"),
+                                                        element("Study", "https://example.org/study",
+                                                                field("Root.StudyElement", "Title", "https://example.org/study-title"))),
+                                                   Map.of());
+        assertThat(filledTemplate).doesNotContain("context.put(\"Title\"");
+        assertThat(filledTemplate).contains("contexts.put(Root.class, Map.ofEntries(Map.entry(\"Title\", \"https://example.org/title\")));");
+        assertThat(filledTemplate).contains("contexts.put(Root.StudyElement.class, Map.ofEntries(Map.entry(\"Title\", \"https://example.org/study-title\")));");
+    }
+
+    @Test
+    void shouldKeepTermsThatAreUsedWhereTheyAreNotDefinedInLocalContexts() {
+        var filledTemplate = template.fillTemplate(root(field("Root", "Title", null),
+                                                        element("Study", "https://example.org/study",
+                                                                field("Root.StudyElement", "Title", "https://example.org/study-title"))),
+                                                   Map.of());
+        assertThat(filledTemplate).doesNotContain("context.put(\"Title\"");
+        assertThat(filledTemplate).contains("contexts.put(Root.StudyElement.class, Map.ofEntries(Map.entry(\"Title\", \"https://example.org/study-title\")));");
+    }
+
+    @Test
+    void shouldWriteInstancesWithTheSameExpandedFormInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.JSON_LD_WRITER));
+        var second = GeneratedCode.STUDY_JSON.replace("studies/1", "studies/2").replace("Sleep and memory", "Diet");
+        List<String> result = code.run("""
+                var mapper = new ObjectMapper();
+                var instances = List.of(mapper.readValue((String) args[0], MetadataInstance.class),
+                                        mapper.readValue((String) args[1], MetadataInstance.class));
+                var graph = new StringWriter();
+                try (var writer = JsonLdWriter.of(mapper, graph, JsonLdWriter.Format.GRAPH)) {
+                    writer.writeAll(instances);
+                }
+                var lines = new StringWriter();
+                try (var writer = JsonLdWriter.of(mapper, lines, JsonLdWriter.Format.NDJSON)) {
+                    writer.writeAll(instances);
+                }
+                var result = new ArrayList<String>();
+                result.add(graph.toString());
+                result.addAll(lines.toString().lines().toList());
+                for (var instance : instances) {
+                    result.add(mapper.writeValueAsString(instance));
+                }
+                return result;
+                """, GeneratedCode.STUDY_JSON, second);
+        var expected = new HashSet<String>();
+        expected.addAll(statements(result.get(3)));
+        expected.addAll(statements(result.get(4)));
+        assertThat(result.get(0)).containsOnlyOnce("\"@context\"");
+        assertThat(statements(result.get(0))).isEqualTo(expected);
+        assertThat(statements(result.get(1))).isEqualTo(statements(result.get(3)));
+        assertThat(statements(result.get(2))).isEqualTo(statements(result.get(4)));
+    }
+
+    private static Set<String> statements(String json) throws Exception {
+        var out = new StringWriter();
+        new NQuadsWriter(out).write(JsonLd.toRdf(JsonDocument.of(new StringReader(json))).get());
+        return out.toString().lines().collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,86 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LazyElementTemplateTest {
+
+    protected static final String TYPE_NAME = "StudyElement";
+
+    protected static final String LAZY_TYPE_NAME = "LazyStudyElement";
+
+    private final LazyElementTemplate template = new LazyElementTemplate();
+
+    @Test
+    void testFillAccessorTemplate() {
+        var accessor = template.fillAccessorTemplate("TitleField", "title", 3);
+        assertThat(accessor).contains("public TitleField title() {");
+        assertThat(accessor).contains("value = title = LazyJson.read(mapper, json, index, 3, TitleField.class);");
+    }
+
+    @Test
+    void testFillTemplate() {
+        var decl = template.fillTemplate(TYPE_NAME,
+                                         LAZY_TYPE_NAME,
+                                         "\"@id\", FieldNames.Title",
+                                         "",
+                                         "",
+                                         "title()");
+        assertThat(decl).contains("public static final class LazyStudyElement implements Element {");
+        assertThat(decl).contains("LazyJson.slots(\"@id\", FieldNames.Title)");
+        assertThat(decl).contains("return streamArtifacts(title());");
+        assertThat(decl).contains("mapper.readValue(json, offset, length, StudyElement.class)");
+        assertThat(decl).doesNotContain("${");
+    }
+
+    @Test
+    void testFillTemplateWithNullTypeName() {
+        assertThrows(NullPointerException.class, () -> template.fillTemplate(null, LAZY_TYPE_NAME, "", "", "", ""));
+    }
+
+    @Test
+    void shouldDeserializeChildrenOnAccessInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.LAZY_ELEMENTS));
+        List<Object> result = code.run("""
+                var mapper = new ObjectMapper();
+                var json = ((String) args[0]).getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                var lazy = MetadataInstance.LazyMetadataInstance.of(mapper, json);
+                return List.of(lazy.title().value(),
+                               lazy.sample().sampleList().get(1).sampleId().value(),
+                               lazy.toRecord().equals(mapper.readValue(json, MetadataInstance.class)),
+                               mapper.writeValueAsString(lazy));
+                """, GeneratedCode.STUDY_JSON);
+        assertThat(result).containsExactly("Sleep and memory", "S2", true, GeneratedCode.STUDY_JSON);
+    }
+
+    @Test
+    void shouldReadSliceOfLargerBufferInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.LAZY_ELEMENTS));
+        // The instance before the slice has multi-byte characters, so byte and character offsets differ
+        List<Object> result = code.run("""
+                var mapper = new ObjectMapper();
+                var prefix = "[{\\"Title\\":{\\"@value\\":\\"Schlaf und Ged\u00e4chtnis \u2013 Teil 1\\"}},"
+                        .getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                var slice = ((String) args[0]).getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                var buffer = new ByteArrayOutputStream();
+                buffer.write(prefix);
+                buffer.write(slice);
+                buffer.write("]".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                var json = buffer.toByteArray();
+                var lazy = MetadataInstance.LazyMetadataInstance.of(mapper, json, prefix.length, slice.length);
+                return List.of(lazy.id(),
+                               lazy.title().value(),
+                               lazy.sample().sampleList().get(1).sampleId().value(),
+                               lazy.toRecord().equals(mapper.readValue(slice, MetadataInstance.class)),
+                               Arrays.equals(lazy.toJson().rawValue().toString().getBytes(java.nio.charset.StandardCharsets.UTF_8), slice),
+                               mapper.writeValueAsString(lazy));
+                """, GeneratedCode.STUDY_JSON);
+        assertThat(result).containsExactly("https://example.org/studies/1", "Sleep and memory", "S2", true, true,
+                                           GeneratedCode.STUDY_JSON);
+    }
+}
@@ -1,6 +1,10 @@
 package org.metadatacenter.cedar.codegen;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -22,12 +26,15 @@ class LiteralFieldRecordTemplateTest {
                  */
                 public static record MyLiteralField(String value) implements LiteralField {
                     
+                    private static final MyLiteralField EMPTY = new MyLiteralField(null);
+                    
                     /**
-                     * Creates an instance of the {@code MyLiteralField} record with a {@code null} value.
+                     * Gets the instance of the {@code MyLiteralField} record with a {@code null} value.  This is a shared
+                     * instance that is created when the record class is initialized.
                      * @return An instance of the {@code MyLiteralField} record.
                      */
                     public static MyLiteralField of() {
-                        return new MyLiteralField(null);
+                        return EMPTY;
                     }
                     
                     /**
@@ -37,7 +44,7 @@ class LiteralFieldRecordTemplateTest {
                      */
                     @JsonCreator
                     public static MyLiteralField of(@JsonProperty("@value") String value) {
-                        return new MyLiteralField(value);
+                        return value == null ? EMPTY : new MyLiteralField(value);
                     }
                 }
             """;
@@ -56,4 +63,17 @@ class LiteralFieldRecordTemplateTest {
         var template = new LiteralFieldRecordTemplate();
         assertThrows(NullPointerException.class, () -> template.fillTemplate(JAVA_RECORD_NAME, null));
     }
+
+    @Test
+    void shouldShareEmptyInstanceInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of());
+        List<Object> result = code.run("""
+                var instance = new ObjectMapper().readValue((String) args[0], MetadataInstance.class);
+                return List.of(MetadataInstance.TitleField.of() == MetadataInstance.TitleField.of(),
+                               MetadataInstance.TitleField.of(null) == MetadataInstance.TitleField.of(),
+                               instance.title() == MetadataInstance.TitleField.of(),
+                               MetadataInstance.TitleField.of("Sleep") == MetadataInstance.TitleField.of("Sleep"));
+                """, "{\"Title\":{\"@value\":null}}");
+        assertThat(result).containsExactly(true, true, true, false);
+    }
 }
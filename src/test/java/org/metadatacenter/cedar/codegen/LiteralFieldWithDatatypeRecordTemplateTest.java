@@ -4,6 +4,10 @@ import junit.framework.TestCase;
 
 import org.junit.jupiter.api.Test;
 import org.metadatacenter.cedar.codegen.LiteralFieldWithDatatypeRecordTemplate;
+
+import java.util.List;
+import java.util.Set;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -46,4 +50,17 @@ public class LiteralFieldWithDatatypeRecordTemplateTest {
             template.fillTemplate(JAVA_RECORD_NAME, DATATYPE, null);
         });
     }
+
+    @Test
+    public void generatedCode_NullValue_ReturnsSharedEmptyInstance() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of());
+        List<Object> result = code.run("""
+                var instance = new ObjectMapper().readValue((String) args[0], MetadataInstance.class);
+                return List.of(MetadataInstance.AgeField.of() == MetadataInstance.AgeField.of(),
+                               MetadataInstance.AgeField.of(null) == MetadataInstance.AgeField.of(),
+                               instance.age() == MetadataInstance.AgeField.of(),
+                               MetadataInstance.AgeField.of("42") == MetadataInstance.AgeField.of("42"));
+                """, "{\"Age\":{\"@type\":\"xsd:int\",\"@value\":null}}");
+        assertThat(result).containsExactly(true, true, true, false);
+    }
 }
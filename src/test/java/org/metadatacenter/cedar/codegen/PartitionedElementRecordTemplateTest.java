@@ -0,0 +1,181 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+
+class PartitionedElementRecordTemplateTest {
+
+    private final PartitionedElementRecordTemplate template = new PartitionedElementRecordTemplate();
+
+    private static List<PartitionedElementRecordTemplate.Child> children(int count) {
+        var children = new ArrayList<PartitionedElementRecordTemplate.Child>();
+        for (int i = 0; i < count; i++) {
+            children.add(new PartitionedElementRecordTemplate.Child("@Nullable @JsonView(CoreView.class) @JsonProperty(FieldNames.F" + i + ") F" + i + "Field f" + i,
+                                                                    "F" + i + "Field.of()",
+                                                                    "contextMap.put(FieldNames.F" + i + ", \"https://schema/F" + i + "\");\n"));
+        }
+        return children;
+    }
+
+    private String fill(int childCount) {
+        return template.fillTemplate("WideElement",
+                                     List.of("@JsonProperty(\"@id\") String id"),
+                                     List.of("generateId()"),
+                                     children(childCount),
+                                     null,
+                                     "");
+    }
+
+    @Test
+    void shouldPartitionOnlyRecordsWithTooManyComponents() {
+        assertThat(PartitionedElementRecordTemplate.isPartitioned(PartitionedElementRecordTemplate.MAX_RECORD_COMPONENTS)).isFalse();
+        assertThat(PartitionedElementRecordTemplate.isPartitioned(PartitionedElementRecordTemplate.MAX_RECORD_COMPONENTS + 1)).isTrue();
+    }
+
+    @Test
+    void shouldSplitChildrenIntoUnwrappedParts() {
+        var filledTemplate = fill(PartitionedElementRecordTemplate.MAX_RECORD_COMPONENTS + 10);
+        assertThat(filledTemplate).contains("public static record WideElement(@JsonProperty(\"@id\") String id,\n@JsonUnwrapped WideElementPart0 part0,\n@JsonUnwrapped WideElementPart1 part1)");
+        assertThat(filledTemplate).contains("Children 0 to 249 of WideElement.");
+        assertThat(filledTemplate).contains("Children 250 to 259 of WideElement.");
+        assertThat(filledTemplate).contains("return new WideElement(generateId(),\nWideElementPart0.of(),\nWideElementPart1.of());");
+        assertThat(filledTemplate).contains("public F255Field f255() {\n        return part1.f255();");
+        assertThat(filledTemplate).contains("WideElementPart1.putContext(contextMap);");
+    }
+
+    @Test
+    void shouldDeserializeThroughBuilder() {
+        var filledTemplate = template.fillTemplate("WideElement",
+                                                   List.of("@JsonProperty(\"@id\") String id"),
+                                                   List.of("generateId()"),
+                                                   children(3),
+                                                   "@JsonAnyGetter Map<String, LiteralField> attributeValues",
+                                                   "");
+        assertThat(filledTemplate).contains("@JsonDeserialize(builder = WideElement.Builder.class)");
+        assertThat(filledTemplate).contains("@JsonProperty(FieldNames.F1)\n        public Builder f1(F1Field f1) {");
+        assertThat(filledTemplate).contains("@JsonProperty(\"@id\")\n        public Builder id(String id) {");
+        assertThat(filledTemplate).contains("return new WideElement(id,\nbuildWideElementPart0(),\nattributeValues);");
+        assertThat(filledTemplate).contains("@JsonAnySetter\n        public Builder attributeValue(String key, LiteralFieldImpl value) {");
+    }
+
+    @Test
+    void shouldSplitStatementsIntoPartMethods() {
+        var statements = new ArrayList<String>();
+        for (int i = 0; i < PartitionedElementRecordTemplate.MAX_RECORD_COMPONENTS + 1; i++) {
+            statements.add("check(" + i + ");\n");
+        }
+        var partMethods = new StringBuilder();
+        var calls = PartitionedElementRecordTemplate.splitIntoPartMethods(statements,
+                                                                          "Wide",
+                                                                          suffix -> "check" + suffix + "();\n",
+                                                                          (suffix, body) -> "void check" + suffix + "() {\n" + body + "}\n",
+                                                                          partMethods);
+        assertThat(calls).isEqualTo("checkWidePart0();\ncheckWidePart1();\n");
+        assertThat(partMethods.toString()).startsWith("void checkWidePart0() {\ncheck(0);\n")
+                                          .endsWith("void checkWidePart1() {\ncheck(250);\n}\n");
+        assertThat(PartitionedElementRecordTemplate.splitIntoPartMethods(statements.subList(0, 2), "Wide", suffix -> "", (suffix, body) -> "", partMethods))
+                .isEqualTo("check(0);\ncheck(1);\n");
+    }
+
+    private static CodeGenerationNode wideTemplate() {
+        var childNodes = new ArrayList<CodeGenerationNode>();
+        for (int i = 0; i < PartitionedElementRecordTemplate.MAX_RECORD_COMPONENTS + 10; i++) {
+            childNodes.add(GeneratedCode.field("F" + i, ArtifactType.LITERAL_FIELD, i % 2 == 0 ? "xsd:int" : null, Cardinality.getZeroOrOne(), FieldInputType.TEXTFIELD));
+        }
+        childNodes.add(GeneratedCode.element("Investigator", Cardinality.getZeroOrMore(),
+                                             GeneratedCode.field("Name", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrOne(), FieldInputType.TEXTFIELD)));
+        return GeneratedCode.template(childNodes.toArray(CodeGenerationNode[]::new));
+    }
+
+    private static String wideJson(String f258Value) {
+        var json = new StringBuilder("{\"@id\":\"https://example.org/studies/1\"");
+        for (int i = 0; i < PartitionedElementRecordTemplate.MAX_RECORD_COMPONENTS + 10; i++) {
+            var value = i == 258 ? f258Value : String.valueOf(i);
+            json.append(",\"F").append(i).append("\":{").append(i % 2 == 0 ? "\"@type\":\"xsd:int\"," : "")
+                .append("\"@value\":\"").append(value).append("\"}");
+        }
+        return json.append(",\"Investigator\":[{\"@id\":\"https://example.org/investigators/1\",\"Name\":{\"@value\":\"Ada\"}}]}")
+                   .toString();
+    }
+
+    @Test
+    void shouldSupportAccessorFeaturesForPartitionedElementsInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(wideTemplate(), Set.of(JavaGeneratorFeature.VALIDATOR,
+                                                                JavaGeneratorFeature.RDF_WRITER,
+                                                                JavaGeneratorFeature.JSON_LD_WRITER,
+                                                                JavaGeneratorFeature.CONTENT_DIGEST,
+                                                                JavaGeneratorFeature.ARTIFACT_SPLITERATOR));
+        var invalid = wideJson("x");
+        List<Object> result = code.run("""
+                var mapper = new ObjectMapper();
+                var instance = mapper.readValue((String) args[0], MetadataInstance.class);
+                var written = mapper.readValue(mapper.writeValueAsString(instance), MetadataInstance.class);
+                var invalid = mapper.readValue((String) args[1], MetadataInstance.class);
+                var rdf = new StringWriter();
+                var rdfWriter = RdfWriter.of(rdf);
+                rdfWriter.write(instance);
+                rdfWriter.flush();
+                var lines = new StringWriter();
+                try (var writer = JsonLdWriter.of(mapper, lines, JsonLdWriter.Format.NDJSON)) {
+                    writer.write(instance);
+                }
+                return List.of(Validator.validate(instance).size(),
+                               Validator.validate(invalid).stream().map(Validator.Violation::path).toList(),
+                               rdf.toString().lines().count(),
+                               rdf.toString().contains("<https://example.org/F259> \\"259\\""),
+                               lines.toString().contains("\\"F259\\""),
+                               Arrays.equals(ContentDigest.sha256(instance, false), ContentDigest.sha256(written, false)),
+                               Arrays.equals(ContentDigest.sha256(instance, false), ContentDigest.sha256(invalid, false)),
+                               instance.artifactSpliterator().getExactSizeIfKnown(),
+                               StreamSupport.stream(instance.artifactSpliterator(), true).count());
+                """, wideJson("258"), invalid);
+        assertThat(result).containsExactly(0, List.of("F258"), 262L, true, true, true, false, 263L, 263L);
+    }
+
+    @Test
+    void shouldRejectFeaturesThatConstructPartitionedElements() {
+        assertThatThrownBy(() -> GeneratedCode.compile(wideTemplate(), Set.of(JavaGeneratorFeature.VALIDATOR, JavaGeneratorFeature.BINARY_CODEC)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("[BINARY_CODEC]");
+    }
+
+    @Test
+    void shouldNotFlattenFieldsOfElementsThatFlatteningWouldPartitionInGeneratedCode() throws Exception {
+        // Each IRI field with a label is flattened into two components, so these fields need more components than
+        // one record can have only when they are flattened
+        var childNodes = new ArrayList<CodeGenerationNode>();
+        var json = new StringBuilder("{\"@id\":\"https://example.org/studies/1\"");
+        for (int i = 0; i < 130; i++) {
+            childNodes.add(GeneratedCode.field("D" + i, ArtifactType.IRI_FIELD, null, Cardinality.getZeroOrOne(), FieldInputType.TEXTFIELD));
+            json.append(",\"D").append(i).append("\":{\"@id\":\"https://example.org/terms/").append(i)
+                .append("\",\"rdfs:label\":\"Term ").append(i).append("\"}");
+        }
+        childNodes.add(GeneratedCode.element("Investigator", Cardinality.getZeroOrOne(),
+                                             GeneratedCode.field("Name", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrOne(), FieldInputType.TEXTFIELD)));
+        json.append(",\"Investigator\":{\"@id\":\"https://example.org/investigators/1\",\"Name\":{\"@value\":\"Ada\"}}}");
+        var code = GeneratedCode.compile(GeneratedCode.template(childNodes.toArray(CodeGenerationNode[]::new)),
+                                         Set.of(JavaGeneratorFeature.FLAT_FIELDS, JavaGeneratorFeature.VALIDATOR));
+        List<Object> result = code.run("""
+                var mapper = new ObjectMapper();
+                var instance = mapper.readValue((String) args[0], MetadataInstance.class);
+                var components = Arrays.stream(MetadataInstance.class.getRecordComponents()).map(c -> c.getName()).toList();
+                return List.of(instance.d129().id(),
+                               instance.d129().label(),
+                               mapper.readValue(mapper.writeValueAsString(instance), MetadataInstance.class).equals(instance),
+                               components.contains("part0"),
+                               components.contains("d0Id"),
+                               Arrays.stream(MetadataInstance.InvestigatorElement.class.getRecordComponents()).map(c -> c.getName()).toList(),
+                               instance.investigator().name().value());
+                """, json.toString());
+        assertThat(result).containsExactly("https://example.org/terms/129", "Term 129", true, true, false,
+                                           List.of("id", "nameValue"), "Ada");
+    }
+}
@@ -0,0 +1,133 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectionReaderTemplateTest {
+
+    private static GeneratedCode code;
+
+    private final ProjectionReaderTemplate template = new ProjectionReaderTemplate();
+
+    @BeforeAll
+    static void compileGeneratedCode() {
+        code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.PROJECTION_READER));
+    }
+
+    @Test
+    void shouldAddKnownPathsInChunks() {
+        var entries = IntStream.range(0, ProjectionReaderTemplate.KNOWN_PATHS_CHUNK_SIZE + 1)
+                               .mapToObj(i -> template.fillKnownPathEntry("FieldNames.F" + i, "\"@value\""))
+                               .toList();
+        var filledTemplate = template.fillTemplate(entries);
+        assertThat(filledTemplate).contains("addKnownPaths0(entries);");
+        assertThat(filledTemplate).contains("addKnownPaths1(entries);");
+        assertThat(filledTemplate).doesNotContain("addKnownPaths2");
+        assertThat(filledTemplate.substring(filledTemplate.indexOf("void addKnownPaths1")))
+                .contains("entries.add(Map.entry(List.of(FieldNames.F256), List.of(\"@value\")));")
+                .doesNotContain("FieldNames.F255)");
+    }
+
+    @Test
+    void shouldResolveDefaultAndExplicitTerminals() throws Exception {
+        List<List<String>> paths = code.run("""
+                return Projection.of(Projection.path(FieldNames.Title),
+                                     Projection.path(FieldNames.Disease),
+                                     Projection.path(FieldNames.Disease, "rdfs:label"),
+                                     Projection.path(FieldNames.Investigator),
+                                     Projection.path(FieldNames.Investigator, FieldNames.Name)).paths();
+                """);
+        assertThat(paths).containsExactly(List.of("Title", "@value"),
+                                          List.of("Disease", "@id"),
+                                          List.of("Disease", "rdfs:label"),
+                                          List.of("Investigator", "@id"),
+                                          List.of("Investigator", "Name", "@value"));
+    }
+
+    @Test
+    void shouldRejectUnknownPaths() throws Exception {
+        List<String> messages = code.run("""
+                var messages = new ArrayList<String>();
+                for (var path : List.of(Projection.path("Unknown"),
+                                        Projection.path(FieldNames.Title, "@id"),
+                                        Projection.path(FieldNames.Name))) {
+                    try {
+                        Projection.of(path);
+                    } catch (IllegalArgumentException e) {
+                        messages.add(e.getMessage());
+                    }
+                }
+                return messages;
+                """);
+        assertThat(messages).containsExactly("Unknown path: [Unknown]",
+                                             "Unknown path: [Title, @id]",
+                                             "Unknown path: [Name]");
+    }
+
+    @Test
+    void shouldReadTuplesOfProjectedValues() throws Exception {
+        String[] tuple = code.run("""
+                var projection = Projection.of(Projection.path(FieldNames.Title),
+                                               Projection.path(FieldNames.Age),
+                                               Projection.path(FieldNames.Disease, "rdfs:label"),
+                                               Projection.path(FieldNames.Investigator, FieldNames.Email));
+                try (var parser = new ObjectMapper().createParser((String) args[0])) {
+                    return projection.readTuple(parser);
+                }
+                """, GeneratedCode.STUDY_JSON);
+        assertThat(tuple).containsExactly("Sleep and memory", "42", "sleep disorder", "ada@example.org");
+    }
+
+    @Test
+    void shouldKeepFirstListValueInTuplesAndReportAllValuesToHandlers() throws Exception {
+        List<Object> result = code.run("""
+                var projection = Projection.of(Projection.path(FieldNames.Sample, FieldNames.SampleId),
+                                               Projection.path(FieldNames.Tag));
+                var values = new ArrayList<String>();
+                try (var parser = new ObjectMapper().createParser((String) args[0])) {
+                    projection.read(parser, (column, value) -> values.add(column + "=" + value));
+                }
+                try (var parser = new ObjectMapper().createParser((String) args[0])) {
+                    return List.of(List.of(projection.readTuple(parser)), values);
+                }
+                """, GeneratedCode.STUDY_JSON);
+        assertThat(result).containsExactly(List.of("S1", "sleep"),
+                                           List.of("1=sleep", "1=memory", "0=S1", "0=S2"));
+    }
+
+    @Test
+    void shouldFillEveryColumnOfRepeatedPaths() throws Exception {
+        String[] tuple = code.run("""
+                var projection = Projection.of(Projection.path(FieldNames.Title),
+                                               Projection.path(FieldNames.Age),
+                                               Projection.path(FieldNames.Title, "@value"));
+                try (var parser = new ObjectMapper().createParser((String) args[0])) {
+                    return projection.readTuple(parser);
+                }
+                """, GeneratedCode.STUDY_JSON);
+        assertThat(tuple).containsExactly("Sleep and memory", "42", "Sleep and memory");
+    }
+
+    @Test
+    void shouldReadTuplesFromJsonArraysAndNewlineDelimitedJson() throws Exception {
+        var second = GeneratedCode.STUDY_JSON.replace("Sleep and memory", "Diet").replace("\"42\"", "\"7\"");
+        List<List<String>> result = code.run("""
+                var projection = Projection.of(Projection.path(FieldNames.Title), Projection.path(FieldNames.Age));
+                var fromArray = new ArrayList<List<String>>();
+                projection.readTuples(new ByteArrayInputStream(("[" + args[0] + ", " + args[1] + "]").getBytes()),
+                                      tuple -> fromArray.add(Arrays.asList(tuple)));
+                var fromLines = new ArrayList<List<String>>();
+                projection.readTuples(new ByteArrayInputStream((args[0] + "\\n" + args[1] + "\\n").getBytes()),
+                                      tuple -> fromLines.add(Arrays.asList(tuple)));
+                return List.of(fromArray, fromLines);
+                """, GeneratedCode.STUDY_JSON, second);
+        var expected = List.of(List.of("Sleep and memory", "42"), List.of("Diet", "7"));
+        assertThat(result).isEqualTo(List.of(expected, expected));
+    }
+}
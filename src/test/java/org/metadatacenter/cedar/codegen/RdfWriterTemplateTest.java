@@ -0,0 +1,100 @@
+package org.metadatacenter.cedar.codegen;
+
+import com.apicatalog.jsonld.JsonLd;
+import com.apicatalog.jsonld.document.JsonDocument;
+import com.apicatalog.rdf.RdfDataset;
+import com.apicatalog.rdf.io.nquad.NQuadsReader;
+import com.apicatalog.rdf.io.nquad.NQuadsWriter;
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+import static org.metadatacenter.cedar.codegen.GeneratedArtifactNodes.*;
+
+class RdfWriterTemplateTest {
+
+    private final RdfWriterTemplate template = new RdfWriterTemplate();
+
+    @Test
+    void shouldWriteLiteralsWithExpandedDatatypes() {
+        var filledTemplate = template.fillTemplate(root(field("Age", ArtifactType.LITERAL_FIELD, "xsd:int", Cardinality.getZeroOrOne(), "https://example.org/age", FieldInputType.TEXTFIELD),
+                                                        field("Name", ArtifactType.LITERAL_FIELD, "xsd:string", Cardinality.getZeroOrOne(), "https://example.org/name", FieldInputType.TEXTFIELD)),
+                                                   List.of());
+        assertThat(filledTemplate).contains("literal(s, \"<https://example.org/age>\", c0.value(), \"<http://www.w3.org/2001/XMLSchema#int>\");");
+        assertThat(filledTemplate).contains("literal(s, \"<https://example.org/name>\", c1.value(), null);");
+    }
+
+    @Test
+    void shouldNotWriteFieldsWithoutPropertyIris() {
+        var filledTemplate = template.fillTemplate(root(field("Name", ArtifactType.LITERAL_FIELD, null, Cardinality.getZeroOrOne(), null, FieldInputType.TEXTFIELD),
+                                                        field("Disease", ArtifactType.IRI_FIELD, null, Cardinality.getZeroOrOne(), "https://example.org/disease", FieldInputType.TEXTFIELD)),
+                                                   List.of());
+        assertThat(filledTemplate).doesNotContain("v.name()");
+        assertThat(filledTemplate).contains("iriValue(s, \"<https://example.org/disease>\", c1.id(), c1.label());");
+    }
+
+    @Test
+    void shouldWriteIriRootComponentsAsIris() {
+        var filledTemplate = template.fillTemplate(root(),
+                                                   List.of(Map.entry("String", "schemaName"), Map.entry("String", "pavCreatedBy")));
+        assertThat(filledTemplate).contains("literal(subject, \"<http://schema.org/name>\", instance.schemaName().toString(), null);");
+        assertThat(filledTemplate).contains("triple(subject, \"<http://purl.org/pav/createdBy>\", iri(instance.pavCreatedBy()));");
+    }
+
+    @Test
+    void shouldEscapeCharactersThatAreNotAllowedInIris() {
+        assertThat(RdfWriterTemplate.toIri("https://example.org/a b>")).isEqualTo("<https://example.org/a\\u0020b\\u003E>");
+    }
+
+    @Test
+    void shouldWriteTheTriplesOfJsonLdExpansionInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.RDF_WRITER));
+        List<String> result = code.run("""
+                var mapper = new ObjectMapper();
+                var instance = mapper.readValue((String) args[0], MetadataInstance.class);
+                var out = new StringWriter();
+                var writer = RdfWriter.of(out);
+                writer.write(instance);
+                writer.flush();
+                return List.of(mapper.writeValueAsString(instance), out.toString());
+                """, GeneratedCode.STUDY_JSON);
+        var expected = JsonLd.toRdf(JsonDocument.of(new StringReader(result.get(0)))).get();
+        var written = new NQuadsReader(new StringReader(result.get(1))).readDataset();
+        // The instance has ids for all of its nodes, so the graphs are isomorphic if they have the same statements
+        assertThat(statements(written)).isNotEmpty().isEqualTo(statements(expected));
+    }
+
+    @Test
+    void shouldExpandProvenanceTermsWithTheRootContextInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.RDF_WRITER));
+        var json = GeneratedCode.STUDY_JSON.replaceFirst("\\{", """
+                {"pav:createdBy":"https://example.org/users/1","oslc:modifiedBy":"https://example.org/users/2",""");
+        List<String> result = code.run("""
+                var mapper = new ObjectMapper();
+                var instance = mapper.readValue((String) args[0], MetadataInstance.class);
+                var out = new StringWriter();
+                var writer = RdfWriter.of(out);
+                writer.write(instance);
+                writer.flush();
+                return List.of(mapper.writeValueAsString(instance), out.toString());
+                """, json);
+        var expected = statements(JsonLd.toRdf(JsonDocument.of(new StringReader(result.get(0)))).get());
+        assertThat(expected).contains("<https://example.org/studies/1> <http://purl.org/pav/createdBy> <https://example.org/users/1> .",
+                                      "<https://example.org/studies/1> <http://open-services.net/ns/core#modifiedBy> <https://example.org/users/2> .");
+        assertThat(statements(new NQuadsReader(new StringReader(result.get(1))).readDataset())).isEqualTo(expected);
+    }
+
+    private static Set<String> statements(RdfDataset dataset) throws Exception {
+        var out = new StringWriter();
+        new NQuadsWriter(out).write(dataset);
+        return out.toString().lines().collect(Collectors.toSet());
+    }
+}
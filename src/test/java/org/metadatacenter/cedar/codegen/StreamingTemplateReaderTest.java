@@ -0,0 +1,102 @@
+package org.metadatacenter.cedar.codegen;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.metadatacenter.artifacts.model.core.FieldInputType;
+import org.metadatacenter.artifacts.model.reader.JsonSchemaArtifactReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.metadatacenter.cedar.codegen.CodeGenerationNode.*;
+
+class StreamingTemplateReaderTest {
+
+    private static final String TEMPLATE_RESOURCE = "/templates/study-template.json";
+
+    private static final String REPO = "https://repo.metadatacenter.org/";
+
+    private static final String PROPERTIES = "https://schema.metadatacenter.org/properties/";
+
+    private final StreamingTemplateReader reader = new StreamingTemplateReader(new JsonFactory(), "StudyTemplate");
+
+    private static InputStream openTemplate() {
+        return StreamingTemplateReaderTest.class.getResourceAsStream(TEMPLATE_RESOURCE);
+    }
+
+    private static CodeGenerationNode field(String name, String id, ArtifactType artifactType, String xsdDatatype, Required required,
+                                            Cardinality cardinality, String propertyIri, FieldInputType inputType, List<String> literalOptions) {
+        return CodeGenerationNode.get(REPO + "template-fields/" + id, false, name, List.of(), artifactType, "Description of " + name,
+                                      xsdDatatype, required, cardinality, propertyIri, inputType, literalOptions);
+    }
+
+    private static CodeGenerationNode field(String name, String id, String propertyIri, FieldInputType inputType) {
+        return field(name, id, ArtifactType.LITERAL_FIELD, null, Required.OPTIONAL, Cardinality.getZeroOrOne(), propertyIri, inputType, List.of());
+    }
+
+    @Test
+    void shouldReadTemplateTree() throws IOException {
+        var investigator = CodeGenerationNode.get(REPO + "template-elements/investigator", false, "Investigator",
+                                                  List.of(field("Name", "name", ArtifactType.LITERAL_FIELD, null, Required.REQUIRED, Cardinality.getZeroOrOne(), PROPERTIES + "name", FieldInputType.TEXTFIELD, List.of()),
+                                                          field("Age", "age", ArtifactType.LITERAL_FIELD, "xsd:int", Required.OPTIONAL, Cardinality.getZeroOrOne(), PROPERTIES + "age", FieldInputType.NUMERIC, List.of()),
+                                                          field("Home Page", "home-page", ArtifactType.IRI_FIELD, null, Required.OPTIONAL, Cardinality.getZeroOrOne(), PROPERTIES + "homePage", FieldInputType.LINK, List.of()),
+                                                          field("Extra", "extra", ArtifactType.LITERAL_FIELD, null, Required.OPTIONAL, Cardinality.getZeroOrMore(), null, FieldInputType.ATTRIBUTE_VALUE, List.of())),
+                                                  ArtifactType.ELEMENT, "Description of Investigator", null, Required.OPTIONAL,
+                                                  Cardinality.getZeroOrOne(), PROPERTIES + "investigator", null);
+        var sample = CodeGenerationNode.get(REPO + "template-elements/sample", false, "Sample",
+                                            List.of(field("Sample Id", "sample-id", PROPERTIES + "sampleId", FieldInputType.TEXTFIELD),
+                                                    field("Collected", "collected", ArtifactType.LITERAL_FIELD, "xsd:dateTime", Required.OPTIONAL, Cardinality.getZeroOrOne(), PROPERTIES + "collected", FieldInputType.TEMPORAL, List.of()),
+                                                    field("Score", "score", ArtifactType.LITERAL_FIELD, "xsd:double", Required.OPTIONAL, new Cardinality(1, 5), PROPERTIES + "score", FieldInputType.NUMERIC, List.of()),
+                                                    field("Status", "status", ArtifactType.LITERAL_FIELD, null, Required.OPTIONAL, Cardinality.getZeroOrOne(), PROPERTIES + "status", FieldInputType.RADIO, List.of("Active", "On hold"))),
+                                            ArtifactType.ELEMENT, "Description of Sample", null, Required.OPTIONAL,
+                                            Cardinality.getZeroOrMore(), PROPERTIES + "sample", null);
+        var expected = CodeGenerationNode.get(REPO + "templates/study", true, "StudyTemplate",
+                                              List.of(field("Study Title", "study-title", PROPERTIES + "studyTitle", FieldInputType.TEXTAREA),
+                                                      field("Disease", "disease", ArtifactType.IRI_FIELD, null, Required.OPTIONAL, Cardinality.getZeroOrOne(), PROPERTIES + "disease", FieldInputType.TEXTFIELD, List.of()),
+                                                      field("Section", "section", null, FieldInputType.SECTION_BREAK),
+                                                      investigator,
+                                                      sample),
+                                              ArtifactType.TEMPLATE, "Description of Study Template", null, Required.OPTIONAL, null, null, null);
+        try (var inputStream = openTemplate()) {
+            assertThat(reader.readTemplate(inputStream)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shouldReadSameNodesAsSchemaArtifactTranslator() throws IOException {
+        ObjectNode templateJson;
+        try (var inputStream = openTemplate()) {
+            templateJson = (ObjectNode) new ObjectMapper().readTree(inputStream);
+        }
+        var template = new JsonSchemaArtifactReader().readTemplateSchemaArtifact(templateJson);
+        var translator = new TemplateTranslator("StudyTemplate");
+        // The numeric, temporal and controlled term fields have literals that only text value constraints keep
+        try (var inputStream = openTemplate()) {
+            assertThat(translator.translateTemplate(inputStream)).isEqualTo(translator.translateTemplate(template));
+        }
+    }
+
+    @Test
+    void shouldRejectUnknownInputType() {
+        var json = """
+                {
+                  "@type": "https://schema.metadatacenter.org/core/Template",
+                  "_ui": {"order": ["Field"]},
+                  "properties": {
+                    "Field": {"@type": "https://schema.metadatacenter.org/core/TemplateField", "schema:name": "Field", "_ui": {"inputType": "hologram"}}
+                  }
+                }
+                """;
+        assertThatThrownBy(() -> reader.readTemplate(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageContaining("hologram");
+    }
+}
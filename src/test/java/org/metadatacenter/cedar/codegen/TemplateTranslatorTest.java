@@ -78,4 +78,22 @@ public class TemplateTranslatorTest {
         assertThat(node.artifactType()).isEqualTo(CodeGenerationNodeRecord.ArtifactType.LITERAL_FIELD);
         assertThat(node.artifactType()).isEqualTo(CodeGenerationNodeRecord.ArtifactType.IRI_FIELD);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldGenerateNodeWithLiteralOptions() {
+        when(field.fieldUi()).thenReturn(mock(FieldUi.class));
+        when(field.description()).thenReturn("");
+        var vc = mock(ValueConstraints.class);
+        when(vc.isTextValueConstraint()).thenReturn(true);
+        var textValueConstraints = mock(TextValueConstraints.class);
+        when(vc.asTextValueConstraints()).thenReturn(textValueConstraints);
+        var red = mock(LiteralValueConstraint.class);
+        when(red.label()).thenReturn("Red");
+        var blue = mock(LiteralValueConstraint.class);
+        when(blue.label()).thenReturn("Blue");
+        when(textValueConstraints.literals()).thenReturn(List.of(red, blue));
+        when(field.valueConstraints()).thenReturn(Optional.of(vc));
+        var node = translator.toCodeGenerationNode(field);
+        assertThat(node.literalOptions()).containsExactly("Red", "Blue");
+    }
+}
@@ -0,0 +1,28 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TermDictionaryTemplateTest {
+
+    @Test
+    void shouldShareIriFieldRecordsReadFromJsonInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.INTERNED_IRIS));
+        List<Object> result = code.run("""
+                var mapper = new ObjectMapper();
+                var first = mapper.readValue((String) args[0], MetadataInstance.class);
+                var second = mapper.readValue((String) args[0], MetadataInstance.class);
+                var statistics = MetadataInstance.DiseaseField.dictionary().statistics();
+                return List.of(first.disease() == second.disease(),
+                               statistics.hits(),
+                               statistics.misses(),
+                               statistics.size(),
+                               MetadataInstance.DiseaseField.of(first.disease().id(), first.disease().label()) == first.disease());
+                """, GeneratedCode.STUDY_JSON);
+        assertThat(result).containsExactly(true, 1L, 1L, 1, false);
+    }
+}
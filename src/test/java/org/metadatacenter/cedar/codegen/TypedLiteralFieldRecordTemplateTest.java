@@ -0,0 +1,76 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TypedLiteralFieldRecordTemplateTest {
+
+    protected static final String JAVA_RECORD_NAME = "MyTypedField";
+
+    protected static final String JAVA_DOC = "This is a test Javadoc.";
+
+    private final TypedLiteralFieldRecordTemplate template = new TypedLiteralFieldRecordTemplate();
+
+    @Test
+    void shouldStoreIntegersInLongComponent() {
+        var filledTemplate = template.fillTemplate(JAVA_RECORD_NAME, "xsd:int", JAVA_DOC);
+        assertThat(filledTemplate).contains("public static record MyTypedField(@JsonIgnore boolean present, @JsonIgnore long longValue,");
+        assertThat(filledTemplate).contains("var parsed = Long.parseLong(value);");
+        assertThat(filledTemplate).contains("return \"xsd:int\";");
+    }
+
+    @Test
+    void shouldStoreDateTimesInTemporalComponents() {
+        var filledTemplate = template.fillTemplate(JAVA_RECORD_NAME, "xsd:dateTime", JAVA_DOC);
+        assertThat(filledTemplate).contains("@JsonIgnore LocalDateTime dateTimeValue, @JsonIgnore ZoneOffset offset");
+        assertThat(filledTemplate).contains("TypedLiterals.format(dateTimeValue, offset, DateTimeFormatter.ISO_LOCAL_DATE_TIME)");
+    }
+
+    @Test
+    void shouldOnlyUsePrimitiveListsForLongAndDouble() {
+        assertThat(template.isPrimitiveList("xsd:long")).isTrue();
+        assertThat(template.isPrimitiveList("xsd:double")).isTrue();
+        assertThat(template.isPrimitiveList("xsd:decimal")).isFalse();
+        assertThat(template.isPrimitiveList("xsd:string")).isFalse();
+    }
+
+    @Test
+    void shouldFillListTemplateWithPrimitiveArray() {
+        var filledTemplate = template.fillListTemplate(JAVA_RECORD_NAME, "xsd:double", "myTyped",
+                                                       new CodeGenerationNode.Cardinality(0, 5), false);
+        assertThat(filledTemplate).contains("public static record MyTypedFieldList(@JsonIgnore double[] values,");
+        assertThat(filledTemplate).contains("public List<MyTypedField> myTypedList()");
+        assertThat(filledTemplate).contains("return 5;");
+    }
+
+    @Test
+    void shouldThrowForUntypedDatatype() {
+        assertThat(template.isTyped("xsd:string")).isFalse();
+        assertThrows(IllegalArgumentException.class, () -> template.fillTemplate(JAVA_RECORD_NAME, "xsd:string", JAVA_DOC));
+    }
+
+    @Test
+    void shouldStoreTypedValuesAndRoundTripLexicalFormsInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.TYPED_LITERALS));
+        var nonCanonical = GeneratedCode.STUDY_JSON.replace("\"42\"", "\"042\"");
+        List<Object> result = code.run("""
+                var mapper = new ObjectMapper();
+                var instance = mapper.readValue((String) args[0], MetadataInstance.class);
+                var nonCanonical = mapper.readValue((String) args[1], MetadataInstance.class);
+                return List.of(instance.age().longValue(),
+                               instance.weight().doubleValue(),
+                               instance.sample().sampleList().get(1).score().decimalValue(),
+                               instance.age().lexicalForm() == null,
+                               mapper.writeValueAsString(nonCanonical.age()),
+                               mapper.readValue(mapper.writeValueAsString(instance), MetadataInstance.class).equals(instance),
+                               MetadataInstance.AgeField.of(7L).equals(MetadataInstance.AgeField.of("7")));
+                """, GeneratedCode.STUDY_JSON, nonCanonical);
+        assertThat(result).containsExactly(42L, 71.5, new java.math.BigDecimal("2.25"), true,
+                                           "{\"@type\":\"xsd:int\",\"@value\":\"042\"}", true, true);
+    }
+}
@@ -0,0 +1,44 @@
+package org.metadatacenter.cedar.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidatorTemplateTest {
+
+    @Test
+    void shouldGetRangeCheckForInt() {
+        var check = ValidatorTemplate.getLexicalCheck("xsd:int", "v");
+        assertThat(check).contains("Lexical.isInteger(v, Integer.MIN_VALUE, Integer.MAX_VALUE)");
+    }
+
+    @Test
+    void shouldGetTemporalCheckForDateTime() {
+        var check = ValidatorTemplate.getLexicalCheck("xsd:dateTime", "v");
+        assertThat(check).contains("Lexical.isTemporal(v, DateTimeFormatter.ISO_DATE_TIME)");
+    }
+
+    @Test
+    void shouldNotGetCheckForString() {
+        var check = ValidatorTemplate.getLexicalCheck("xsd:string", "v");
+        assertThat(check).isEmpty();
+    }
+
+    @Test
+    void shouldReportInvalidLexicalFormsInGeneratedCode() throws Exception {
+        var code = GeneratedCode.compile(GeneratedCode.studyTemplate(), Set.of(JavaGeneratorFeature.VALIDATOR));
+        var invalid = GeneratedCode.STUDY_JSON.replace("\"42\"", "\"forty\"").replace("\"2.25\"", "\"high\"");
+        List<Object> result = code.run("""
+                var mapper = new ObjectMapper();
+                var valid = mapper.readValue((String) args[0], MetadataInstance.class);
+                var invalid = mapper.readValue((String) args[1], MetadataInstance.class);
+                return List.of(Validator.validate(valid),
+                               Validator.validate(invalid).stream().map(Validator.Violation::path).toList(),
+                               Validator.validateAll(List.of(invalid, valid, invalid)).stream().map(List::size).toList());
+                """, GeneratedCode.STUDY_JSON, invalid);
+        assertThat(result).containsExactly(List.of(), List.of("Age", "Sample[1]/Score"), List.of(2, 0, 2));
+    }
+}